@@ -1,16 +1,22 @@
 package com.example.rml.back_office_rml.controllers;
 
+import com.example.rml.back_office_rml.dto.AgendaRebuildReportDTO;
 import com.example.rml.back_office_rml.dto.AppointmentRequestDTO;
 import com.example.rml.back_office_rml.dto.AppointmentResponseDTO;
+import com.example.rml.back_office_rml.dto.DoctorAgendaEntryDTO;
 import com.example.rml.back_office_rml.enums.AppointmentStatus;
 import com.example.rml.back_office_rml.services.AppointmentService;
+import com.example.rml.back_office_rml.services.DoctorAgendaProjector;
+import com.example.rml.back_office_rml.services.DoctorAgendaService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import lombok.Getter;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -18,9 +24,15 @@ import java.util.List;
 public class AppointmentController {
 
     private final AppointmentService appointmentService;
+    private final DoctorAgendaService doctorAgendaService;
+    private final DoctorAgendaProjector doctorAgendaProjector;
 
-    public AppointmentController(AppointmentService appointmentService) {
+    public AppointmentController(AppointmentService appointmentService,
+                                 DoctorAgendaService doctorAgendaService,
+                                 DoctorAgendaProjector doctorAgendaProjector) {
         this.appointmentService = appointmentService;
+        this.doctorAgendaService = doctorAgendaService;
+        this.doctorAgendaProjector = doctorAgendaProjector;
     }
 
     // ============================================================================
@@ -53,12 +65,16 @@ public class AppointmentController {
             @RequestParam Long slotId,
 
             @Parameter(description = "Consultation reason", required = false)
-            @RequestParam String consultationReason) {
+            @RequestParam String consultationReason,
+
+            @Parameter(description = "Occurrence date of a recurring slot (dd-MM-yyyy), next occurrence by default")
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd-MM-yyyy") LocalDate occurrenceDate) {
         try {
             AppointmentRequestDTO request = new AppointmentRequestDTO();
             request.setPatientId(patientId);
             request.setSlotId(slotId);
             request.setConsultationReason(consultationReason);
+            request.setOccurrenceDate(occurrenceDate);
 
             AppointmentResponseDTO appointment = appointmentService.bookAppointment(request);
             return ResponseEntity.status(HttpStatus.CREATED).body(appointment);
@@ -133,6 +149,52 @@ public class AppointmentController {
         }
     }
 
+    // ============================================================================
+    // 🗓️ AGENDA JOURNALIER D'UN MÉDECIN
+    // ============================================================================
+    @Operation(summary = "Get a doctor's agenda for one day",
+            description = "Slots of the day sorted by start time, each with its appointment, patient and room, "
+                    + "read from the precomputed agenda in a single lookup. Never-booked occurrences of recurring "
+                    + "slots are included with a null slotId")
+    @GetMapping("/doctor/{doctorId}/agenda")
+    public ResponseEntity<?> getDoctorDayAgenda(
+            @PathVariable Long doctorId,
+
+            @Parameter(description = "Agenda date (dd-MM-yyyy), today by default")
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd-MM-yyyy") LocalDate date) {
+        try {
+            List<DoctorAgendaEntryDTO> agenda =
+                    doctorAgendaService.getDayAgenda(doctorId, date != null ? date : LocalDate.now());
+            return ResponseEntity.ok(agenda);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("VALIDATION_ERROR", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("INTERNAL_ERROR", "Erreur: " + e.getMessage()));
+        }
+    }
+
+    // ============================================================================
+    // 🏗️ RECONSTRUIRE L'AGENDA DES MÉDECINS (ADMINISTRATION)
+    // ============================================================================
+    @Operation(summary = "Rebuild the doctors' agenda",
+            description = "Recomputes the precomputed agenda from slots, rooms, appointments and patients, "
+                    + "one transaction per doctor. Only needed after changes made outside the application")
+    @PostMapping("/agenda/rebuild")
+    public ResponseEntity<?> rebuildDoctorAgenda() {
+        try {
+            AgendaRebuildReportDTO report = doctorAgendaProjector.rebuild("MANUAL");
+            return ResponseEntity.ok(report);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ErrorResponse("CONFLICT_ERROR", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("INTERNAL_ERROR", "Erreur: " + e.getMessage()));
+        }
+    }
+
     // ============================================================================
     // ✅ CONFIRMER UN RENDEZ-VOUS
     // ============================================================================
@@ -208,10 +270,13 @@ public class AppointmentController {
     public ResponseEntity<?> updateAppointment(
             @PathVariable Long appointmentId,
             @Parameter(description = "New slot ID (optional)") @RequestParam(required = false) Long slotId,
+            @Parameter(description = "Occurrence date when the new slot is recurring (dd-MM-yyyy, optional)")
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd-MM-yyyy") LocalDate occurrenceDate,
             @Parameter(description = "New consultation reason (optional)") @RequestParam(required = false) String consultationReason) {
         try {
             AppointmentRequestDTO request = new AppointmentRequestDTO();
             request.setSlotId(slotId);
+            request.setOccurrenceDate(occurrenceDate);
             request.setConsultationReason(consultationReason);
 
             AppointmentResponseDTO updated = appointmentService.updateAppointment(appointmentId, request);
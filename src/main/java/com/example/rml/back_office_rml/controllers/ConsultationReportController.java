@@ -3,7 +3,8 @@ package com.example.rml.back_office_rml.controllers;
 import com.example.rml.back_office_rml.dto.ConsultationReportDTO;
 import com.example.rml.back_office_rml.enums.ReportType;
 import com.example.rml.back_office_rml.services.ConsultationReportService;
-import com.example.rml.back_office_rml.util.FileTransferUtil;
+import com.example.rml.back_office_rml.services.FileReferenceService;
+import com.example.rml.back_office_rml.services.FileTransferService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import lombok.Getter;
@@ -22,9 +23,14 @@ import java.util.List;
 public class ConsultationReportController {
 
     private final ConsultationReportService reportService;
+    private final FileTransferService fileTransferService;
+    private final FileReferenceService fileReferenceService;
 
-    public ConsultationReportController(ConsultationReportService reportService) {
+    public ConsultationReportController(ConsultationReportService reportService, FileTransferService fileTransferService,
+                                        FileReferenceService fileReferenceService) {
         this.reportService = reportService;
+        this.fileTransferService = fileTransferService;
+        this.fileReferenceService = fileReferenceService;
     }
 
     @Getter
@@ -122,8 +128,8 @@ public class ConsultationReportController {
                                 "Le fichier doit être un audio"));
             }
 
-            // ✅ UPLOAD du fichier audio
-            String audioUrl = FileTransferUtil.handleFileUpload(audioFile);
+            // ✅ SPOOL du fichier audio (transfert SFTP en arrière-plan)
+            String audioUrl = fileTransferService.spool(audioFile);
 
             ConsultationReportDTO dto = new ConsultationReportDTO();
             dto.setRecordId(recordId);
@@ -136,7 +142,14 @@ public class ConsultationReportController {
             dto.setFilePath(audioUrl);
             dto.setIsModifiable(false);
 
-            ConsultationReportDTO created = reportService.createReport(dto);
+            ConsultationReportDTO created;
+            try {
+                created = reportService.createReport(dto);
+            } catch (RuntimeException e) {
+                // Compte rendu non enregistré : le fichier déposé n'est référencé par rien
+                fileReferenceService.release(List.of(audioUrl));
+                throw e;
+            }
             return ResponseEntity.status(HttpStatus.CREATED).body(created);
 
         } catch (IllegalArgumentException e) {
@@ -177,8 +190,8 @@ public class ConsultationReportController {
                                 "Le fichier doit être une vidéo"));
             }
 
-            // ✅ UPLOAD du fichier vidéo
-            String videoUrl = FileTransferUtil.handleFileUpload(videoFile);
+            // ✅ SPOOL du fichier vidéo (transfert SFTP en arrière-plan)
+            String videoUrl = fileTransferService.spool(videoFile);
 
             ConsultationReportDTO dto = new ConsultationReportDTO();
             dto.setRecordId(recordId);
@@ -191,7 +204,14 @@ public class ConsultationReportController {
             dto.setFilePath(videoUrl);
             dto.setIsModifiable(false);
 
-            ConsultationReportDTO created = reportService.createReport(dto);
+            ConsultationReportDTO created;
+            try {
+                created = reportService.createReport(dto);
+            } catch (RuntimeException e) {
+                // Compte rendu non enregistré : le fichier déposé n'est référencé par rien
+                fileReferenceService.release(List.of(videoUrl));
+                throw e;
+            }
             return ResponseEntity.status(HttpStatus.CREATED).body(created);
 
         } catch (IllegalArgumentException e) {
@@ -1,9 +1,11 @@
 package com.example.rml.back_office_rml.controllers;
 
 import com.example.rml.back_office_rml.dto.ExaminationDTO;
+import com.example.rml.back_office_rml.dto.FileUploadReportDTO;
 import com.example.rml.back_office_rml.enums.ExaminationType;
 import com.example.rml.back_office_rml.services.ExaminationService;
-import com.example.rml.back_office_rml.util.FileTransferUtil;
+import com.example.rml.back_office_rml.services.FileReferenceService;
+import com.example.rml.back_office_rml.services.FileTransferService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import lombok.Getter;
@@ -22,9 +24,14 @@ import java.util.List;
 public class ExaminationController {
 
     private final ExaminationService examinationService;
+    private final FileTransferService fileTransferService;
+    private final FileReferenceService fileReferenceService;
 
-    public ExaminationController(ExaminationService examinationService) {
+    public ExaminationController(ExaminationService examinationService, FileTransferService fileTransferService,
+                                 FileReferenceService fileReferenceService) {
         this.examinationService = examinationService;
+        this.fileTransferService = fileTransferService;
+        this.fileReferenceService = fileReferenceService;
     }
 
     @Getter
@@ -52,14 +59,15 @@ public class ExaminationController {
      *
      * Étapes :
      * 1. Recevoir les données de l'examen et les fichiers
-     * 2. Uploader tous les fichiers via FileTransferUtil.uploadPictures()
-     * 3. Récupérer la liste des URLs
+     * 2. Déposer les fichiers dans le spool via fileTransferService.spoolAll() (transfert SFTP en arrière-plan)
+     * 3. Récupérer la liste des noms de fichiers
      * 4. Créer l'entité Examination avec ces URLs
      * 5. Sauvegarder en base de données
      */
 
     @Operation(summary = "Create examination with multiple result files",
-            description = "Create a medical examination and upload multiple result files (PDF, images)")
+            description = "Create a medical examination and upload multiple result files (PDF, images). "
+                    + "Files are saved in parallel; files that could not be saved are listed in failedUploads")
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<?> createExamination(
             @Parameter(description = "Medical record ID", required = true)
@@ -88,6 +96,7 @@ public class ExaminationController {
 
         try {
             ExaminationDTO dto = new ExaminationDTO();
+            List<FileUploadReportDTO.FailedUpload> failedUploads = List.of();
             dto.setRecordId(recordId);
             dto.setDoctorId(doctorId);
             dto.setExaminationDate(examinationDate);
@@ -105,12 +114,26 @@ public class ExaminationController {
                                 .body(new ErrorResponse("VALIDATION_ERROR", "One of the files is empty"));
                     }
                 }
-                List<String> fileUrls = FileTransferUtil.uploadPictures(files);
-                dto.setResultFiles(fileUrls);
+                // Fichiers traités en parallèle : un échec n'empêche pas l'enregistrement des autres
+                FileUploadReportDTO upload = fileTransferService.spoolAll(files);
+                if (upload.getStoredFiles().isEmpty()) {
+                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                            .body(new ErrorResponse("INTERNAL_ERROR", "No file could be saved: " + upload.getFailures()));
+                }
+                dto.setResultFiles(upload.getStoredFiles());
+                failedUploads = upload.getFailures();
             }
 
 
-            ExaminationDTO created = examinationService.addExamination(dto);
+            ExaminationDTO created;
+            try {
+                created = examinationService.addExamination(dto);
+            } catch (RuntimeException e) {
+                // Examen non enregistré : les fichiers déposés ne sont référencés par rien
+                fileReferenceService.release(dto.getResultFiles());
+                throw e;
+            }
+            created.setFailedUploads(failedUploads);
             return ResponseEntity.status(HttpStatus.CREATED).body(created);
 
         } catch (IllegalArgumentException e) {
@@ -151,6 +174,7 @@ public class ExaminationController {
             @RequestParam(value = "files", required = false) List<MultipartFile> files) {
         try {
             ExaminationDTO dto = new ExaminationDTO();
+            List<FileUploadReportDTO.FailedUpload> failedUploads = List.of();
             dto.setExaminationDate(examinationDate);
             dto.setType(type);
             dto.setTitle(title);
@@ -166,11 +190,23 @@ public class ExaminationController {
                                 .body(new ErrorResponse("VALIDATION_ERROR", "One of the files is empty"));
                     }
                 }
-                List<String> fileUrls = FileTransferUtil.uploadPictures(files);
-                dto.setResultFiles(fileUrls);
+                FileUploadReportDTO upload = fileTransferService.spoolAll(files);
+                if (upload.getStoredFiles().isEmpty()) {
+                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                            .body(new ErrorResponse("INTERNAL_ERROR", "No file could be saved: " + upload.getFailures()));
+                }
+                dto.setResultFiles(upload.getStoredFiles());
+                failedUploads = upload.getFailures();
             }
 
-            ExaminationDTO updated = examinationService.updateExamination(examinationId, dto);
+            ExaminationDTO updated;
+            try {
+                updated = examinationService.updateExamination(examinationId, dto);
+            } catch (RuntimeException e) {
+                fileReferenceService.release(dto.getResultFiles());
+                throw e;
+            }
+            updated.setFailedUploads(failedUploads);
             return ResponseEntity.ok(updated);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -0,0 +1,176 @@
+package com.example.rml.back_office_rml.controllers;
+
+import com.example.rml.back_office_rml.services.FileDownloadService;
+import com.example.rml.back_office_rml.services.FileDownloadService.StoredFile;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Téléchargement des fichiers uploadés (comptes rendus, résultats d'examens, documents).
+ *
+ * - Range : une seule plage par requête (lecture audio/vidéo avec déplacement) ; plusieurs plages
+ *   ou un en-tête invalide → fichier complet, plage hors du fichier → 416.
+ * - ETag / Last-Modified : If-None-Match et If-Modified-Since → 304 sans relire le fichier ;
+ *   If-Range différent de l'ETag → fichier complet.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/files")
+public class FileDownloadController {
+
+    private final FileDownloadService fileDownloadService;
+    private final ObjectMapper objectMapper;
+
+    public FileDownloadController(FileDownloadService fileDownloadService, ObjectMapper objectMapper) {
+        this.fileDownloadService = fileDownloadService;
+        this.objectMapper = objectMapper;
+    }
+
+    // ============================================================================
+    // 📦 CLASSE INTERNE - RÉPONSE D'ERREUR
+    // ============================================================================
+    @Getter
+    public static class ErrorResponse {
+        private final String error;
+        private final String message;
+        private final long timestamp;
+
+        public ErrorResponse(String error, String message) {
+            this.error = error;
+            this.message = message;
+            this.timestamp = System.currentTimeMillis();
+        }
+    }
+
+    // ============================================================================
+    // 📥 TÉLÉCHARGER UN FICHIER
+    // ============================================================================
+    @Operation(summary = "Download a stored file",
+            description = "Streams the file; supports a single Range (206), If-Range, If-None-Match and If-Modified-Since (304)")
+    @GetMapping("/{fileName}")
+    public ResponseEntity<StreamingResponseBody> download(
+            @Parameter(description = "File name returned by the upload", required = true)
+            @PathVariable String fileName,
+            @RequestHeader HttpHeaders requestHeaders) {
+        StoredFile file;
+        try {
+            file = fileDownloadService.locate(fileName);
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.NOT_FOUND, new ErrorResponse("NOT_FOUND", e.getMessage()));
+        } catch (Exception e) {
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, new ErrorResponse("INTERNAL_ERROR", e.getMessage()));
+        }
+
+        String etag = file.etag();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        headers.setLastModified(file.lastModified());
+        headers.setCacheControl(CacheControl.noCache().cachePrivate());
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (isNotModified(requestHeaders, file)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
+
+        headers.setContentType(MediaType.parseMediaType(file.contentType()));
+        HttpRange range = requestedRange(requestHeaders, file);
+        if (range == null) {
+            headers.setContentLength(file.size());
+            return ResponseEntity.ok().headers(headers).body(stream(file, 0, file.size()));
+        }
+
+        long start = range.getRangeStart(file.size());
+        long end = Math.min(range.getRangeEnd(file.size()), file.size() - 1);
+        if (file.size() == 0 || start >= file.size() || start > end) {
+            headers.remove(HttpHeaders.CONTENT_TYPE);
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + file.size());
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).headers(headers).build();
+        }
+
+        long length = end - start + 1;
+        headers.setContentLength(length);
+        headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + file.size());
+        return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT).headers(headers).body(stream(file, start, length));
+    }
+
+    // ============================================================================
+    // 🔧 MÉTHODES UTILITAIRES PRIVÉES
+    // ============================================================================
+
+    // Le type de retour est fixé à StreamingResponseBody (envoi asynchrone) : l'erreur est sérialisée ici
+    private ResponseEntity<StreamingResponseBody> error(HttpStatus status, ErrorResponse body) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writeValue(out, body));
+    }
+
+    private StreamingResponseBody stream(StoredFile file, long start, long length) {
+        return out -> {
+            try {
+                fileDownloadService.copyRange(file, start, length, out);
+            } catch (Exception e) {
+                // Les en-têtes sont déjà partis : le client voit une réponse tronquée
+                log.warn("[FILES] Envoi de {} interrompu : {}", file.fileName(), e.getMessage());
+                throw e;
+            }
+        };
+    }
+
+    // If-None-Match prime sur If-Modified-Since (RFC 9110)
+    private static boolean isNotModified(HttpHeaders requestHeaders, StoredFile file) {
+        List<String> ifNoneMatch = requestHeaders.getIfNoneMatch();
+        if (!ifNoneMatch.isEmpty()) {
+            return ifNoneMatch.stream().anyMatch(tag -> "*".equals(tag) || matchesEtag(tag, file));
+        }
+        long ifModifiedSince = requestHeaders.getIfModifiedSince();
+        return ifModifiedSince >= 0 && file.lastModified().getEpochSecond() <= ifModifiedSince / 1000;
+    }
+
+    // Plage à servir, ou null pour le fichier complet
+    private static HttpRange requestedRange(HttpHeaders requestHeaders, StoredFile file) {
+        List<HttpRange> ranges;
+        try {
+            ranges = requestHeaders.getRange();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (ranges.size() != 1) {
+            return null;
+        }
+        String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(file.etag()) && !matchesDate(ifRange, file)) {
+            return null;
+        }
+        return ranges.get(0);
+    }
+
+    // Comparaison faible : un ETag W/ envoyé par un proxy désigne le même contenu
+    private static boolean matchesEtag(String tag, StoredFile file) {
+        String value = tag.startsWith("W/") ? tag.substring(2) : tag;
+        return value.equals(file.etag());
+    }
+
+    private static boolean matchesDate(String value, StoredFile file) {
+        try {
+            ZonedDateTime date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return date.toEpochSecond() == file.lastModified().getEpochSecond();
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.rml.back_office_rml.controllers;
+
+import com.example.rml.back_office_rml.dto.FileTransferDTO;
+import com.example.rml.back_office_rml.enums.FileTransferStatus;
+import com.example.rml.back_office_rml.services.FileTransferService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/file-transfers")
+public class FileTransferController {
+
+    private final FileTransferService fileTransferService;
+
+    public FileTransferController(FileTransferService fileTransferService) {
+        this.fileTransferService = fileTransferService;
+    }
+
+    // ============================================================================
+    // 📦 CLASSE INTERNE - RÉPONSE D'ERREUR
+    // ============================================================================
+    @Getter
+    public static class ErrorResponse {
+        private final String error;
+        private final String message;
+        private final long timestamp;
+
+        public ErrorResponse(String error, String message) {
+            this.error = error;
+            this.message = message;
+            this.timestamp = System.currentTimeMillis();
+        }
+    }
+
+    // ============================================================================
+    // 🔍 ÉTAT DU TRANSFERT D'UN FICHIER
+    // ============================================================================
+    @Operation(summary = "Get the transfer state of an uploaded file",
+            description = "PENDING: spooled locally, remote transfer pending or retrying; STORED: on the remote store; FAILED: retries exhausted")
+    @GetMapping("/{fileName}")
+    public ResponseEntity<?> getTransfer(
+            @Parameter(description = "File name returned by the upload", required = true)
+            @PathVariable String fileName) {
+        try {
+            return ResponseEntity.ok(fileTransferService.getTransfer(fileName));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorResponse("NOT_FOUND", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("INTERNAL_ERROR", e.getMessage()));
+        }
+    }
+
+    // ============================================================================
+    // 📋 TRANSFERTS PAR STATUT
+    // ============================================================================
+    @Operation(summary = "List file transfers by status")
+    @GetMapping
+    public ResponseEntity<?> getTransfersByStatus(
+            @Parameter(description = "Transfer status (PENDING, STORED, FAILED)")
+            @RequestParam(defaultValue = "FAILED") FileTransferStatus status) {
+        try {
+            List<FileTransferDTO> transfers = fileTransferService.getTransfersByStatus(status);
+            return ResponseEntity.ok(transfers);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("INTERNAL_ERROR", e.getMessage()));
+        }
+    }
+
+    // ============================================================================
+    // 🔁 RELANCER UN TRANSFERT EN ÉCHEC
+    // ============================================================================
+    @Operation(summary = "Retry a failed file transfer",
+            description = "Puts a FAILED transfer back to PENDING with a fresh attempt counter")
+    @PostMapping("/{fileName}/retry")
+    public ResponseEntity<?> retryTransfer(
+            @Parameter(description = "File name returned by the upload", required = true)
+            @PathVariable String fileName) {
+        try {
+            return ResponseEntity.ok(fileTransferService.retryTransfer(fileName));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorResponse("NOT_FOUND", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ErrorResponse("STATE_ERROR", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("INTERNAL_ERROR", e.getMessage()));
+        }
+    }
+}
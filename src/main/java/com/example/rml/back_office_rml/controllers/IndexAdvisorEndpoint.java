@@ -0,0 +1,27 @@
+package com.example.rml.back_office_rml.controllers;
+
+import com.example.rml.back_office_rml.dto.IndexAdvisorReportDTO;
+import com.example.rml.back_office_rml.services.IndexAdvisorService;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Endpoint actuator GET /actuator/indexadvisor
+ * Lance un EXPLAIN sur chaque requête @Query et signale les scans complets de table.
+ */
+@Component
+@Endpoint(id = "indexadvisor")
+public class IndexAdvisorEndpoint {
+
+    private final IndexAdvisorService indexAdvisorService;
+
+    public IndexAdvisorEndpoint(IndexAdvisorService indexAdvisorService) {
+        this.indexAdvisorService = indexAdvisorService;
+    }
+
+    @ReadOperation
+    public IndexAdvisorReportDTO report() {
+        return indexAdvisorService.analyze();
+    }
+}
@@ -1,14 +1,21 @@
 package com.example.rml.back_office_rml.controllers;
 
+import com.example.rml.back_office_rml.dto.MedicalRecordChangesDTO;
 import com.example.rml.back_office_rml.dto.MedicalRecordDTO;
+import com.example.rml.back_office_rml.dto.MedicalRecordSnapshotDTO;
+import com.example.rml.back_office_rml.enums.MedicalRecordSection;
 import com.example.rml.back_office_rml.services.MedicalRecordService;
+import com.example.rml.back_office_rml.util.SyncCursor;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import lombok.Getter;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/medical-records")
@@ -166,4 +173,92 @@ public class MedicalRecordController {
                     .body(new ErrorResponse("INTERNAL_ERROR", "Erreur: " + e.getMessage()));
         }
     }
+
+    // ============================================================================
+    // 📋 DOSSIER COMPLET EN UN APPEL
+    // ============================================================================
+    @Operation(summary = "Get a medical record with its sections in a single call",
+            description = "Replaces the calls to the medical-histories, family-histories, examinations, " +
+                    "consultation-reports and prescriptions endpoints of the record")
+    @GetMapping("/{recordId}/snapshot")
+    public ResponseEntity<?> getMedicalRecordSnapshot(
+            @PathVariable Long recordId,
+
+            @Parameter(description = "Sections to include (e.g. examinations,prescriptions); all sections if omitted")
+            @RequestParam(required = false) List<String> sections)
+    {
+        Set<MedicalRecordSection> selected;
+        try {
+            selected = parseSections(sections);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("VALIDATION_ERROR", e.getMessage()));
+        }
+
+        try {
+            MedicalRecordSnapshotDTO snapshot = medicalRecordService.getMedicalRecordSnapshot(recordId, selected);
+            return ResponseEntity.ok(snapshot);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorResponse("NOT_FOUND", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("INTERNAL_ERROR", "Erreur: " + e.getMessage()));
+        }
+    }
+
+    // ============================================================================
+    // 🔄 SYNCHRONISATION INCRÉMENTALE (CLIENTS MOBILES)
+    // ============================================================================
+    @Operation(summary = "Get what changed in a medical record since a sync cursor",
+            description = "Created or updated entries, deleted entries (tombstones) and the cursor for the next call. " +
+                    "Without cursor, or with a cursor older than the tombstone retention, the whole record is returned (fullSync)")
+    @GetMapping("/{recordId}/changes")
+    public ResponseEntity<?> getMedicalRecordChanges(
+            @PathVariable Long recordId,
+
+            @Parameter(description = "nextCursor returned by the previous call; omit for a full sync")
+            @RequestParam(required = false) String since,
+
+            @Parameter(description = "Sections to include (e.g. examinations,prescriptions); all sections if omitted")
+            @RequestParam(required = false) List<String> sections)
+    {
+        Set<MedicalRecordSection> selected;
+        LocalDateTime sinceDate;
+        try {
+            selected = parseSections(sections);
+            sinceDate = since == null || since.isBlank() ? null : SyncCursor.decode(since);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("VALIDATION_ERROR", e.getMessage()));
+        }
+
+        try {
+            MedicalRecordChangesDTO changes = medicalRecordService.getMedicalRecordChanges(recordId, sinceDate, selected);
+            return ResponseEntity.ok(changes);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorResponse("NOT_FOUND", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("INTERNAL_ERROR", "Erreur: " + e.getMessage()));
+        }
+    }
+
+    // ============================================================================
+    // 🔧 MÉTHODES UTILITAIRES PRIVÉES
+    // ============================================================================
+
+    // Paramètre sections (liste séparée par des virgules) ; vide = toutes les sections
+    private Set<MedicalRecordSection> parseSections(List<String> sections) {
+        Set<MedicalRecordSection> selected = EnumSet.noneOf(MedicalRecordSection.class);
+        if (sections != null) {
+            for (String section : sections) {
+                if (!section.isBlank()) {
+                    selected.add(MedicalRecordSection.fromParam(section));
+                }
+            }
+        }
+        return selected;
+    }
 }
\ No newline at end of file
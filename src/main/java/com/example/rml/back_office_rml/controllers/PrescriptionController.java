@@ -1,10 +1,12 @@
 
 package com.example.rml.back_office_rml.controllers;
 
+import com.example.rml.back_office_rml.dto.ExpiryRunReportDTO;
 import com.example.rml.back_office_rml.dto.PrescriptionDTO;
 import com.example.rml.back_office_rml.dto.PrescriptionItemDTO;
 import com.example.rml.back_office_rml.enums.PrescriptionStatus;
 import com.example.rml.back_office_rml.services.PrescriptionService;
+import com.example.rml.back_office_rml.services.PrescriptionStatusScheduler;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import lombok.Getter;
@@ -22,9 +24,12 @@ import java.util.List;
 public class PrescriptionController {
 
     private final PrescriptionService prescriptionService;
+    private final PrescriptionStatusScheduler prescriptionStatusScheduler;
 
-    public PrescriptionController(PrescriptionService prescriptionService) {
+    public PrescriptionController(PrescriptionService prescriptionService,
+                                  PrescriptionStatusScheduler prescriptionStatusScheduler) {
         this.prescriptionService = prescriptionService;
+        this.prescriptionStatusScheduler = prescriptionStatusScheduler;
     }
 
     // ============================================================================
@@ -174,5 +179,23 @@ public class PrescriptionController {
         }
     }
 
+    // ============================================================================
+    // ⏱️ EXPIRER LES ORDONNANCES DÉPASSÉES (À LA DEMANDE)
+    // ============================================================================
 
-}
\ No newline at end of file
+    @Operation(summary = "Expire outdated prescriptions now",
+            description = "Runs the nightly prescription expiry job on demand and returns how many prescriptions each chunk updated")
+    @PostMapping("/expire")
+    public ResponseEntity<?> expirePrescriptions() {
+        try {
+            ExpiryRunReportDTO report = prescriptionStatusScheduler.expirePrescriptions("MANUAL");
+            return ResponseEntity.ok(report);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ErrorResponse("CONFLICT_ERROR", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("INTERNAL_ERROR", "Erreur : " + e.getMessage()));
+        }
+    }
+}
@@ -17,6 +17,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 @RestController
@@ -29,13 +30,17 @@ public class RequestContainerController {
     private final RegisterHealthCenterService registerHealthCenterService;
     private final DoctorDocumentService doctorDocumentService;
     private final HealthCenterDocumentService healthCenterDocumentService;
+    private final FileTransferUtil fileTransferUtil;
+    private final FileReferenceService fileReferenceService;
 
-    public RequestContainerController (RequestContainerService requestContainerService , RegisterDoctorService registerDoctorService , RegisterHealthCenterService registerHealthCenterService, DoctorDocumentService doctorDocumentService , HealthCenterDocumentService healthCenterDocumentService) {
+    public RequestContainerController (RequestContainerService requestContainerService , RegisterDoctorService registerDoctorService , RegisterHealthCenterService registerHealthCenterService, DoctorDocumentService doctorDocumentService , HealthCenterDocumentService healthCenterDocumentService, FileTransferUtil fileTransferUtil, FileReferenceService fileReferenceService) {
         this.requestContainerService =requestContainerService;
         this.registerDoctorService = registerDoctorService;
         this.registerHealthCenterService= registerHealthCenterService;
         this.doctorDocumentService = doctorDocumentService;
         this.healthCenterDocumentService = healthCenterDocumentService;
+        this.fileTransferUtil = fileTransferUtil;
+        this.fileReferenceService = fileReferenceService;
     }
 
     /**
@@ -338,26 +343,40 @@ public class RequestContainerController {
             DoctorDocumentDTO dto = new DoctorDocumentDTO();
             dto.setDoctorId(doctorId);
 
-            // Upload de la photo si présente
-            if (photo != null && !photo.isEmpty()) {
-                String photoUrl = FileTransferUtil.handleFileUpload(photo);
-                dto.setPhoto(photoUrl);
-            }
-
-            // Upload des documents (plusieurs fichiers possibles)
-            if (documents != null && !documents.isEmpty()) {
+            // Vérifie les documents avant tout upload
+            if (documents != null) {
                 for (MultipartFile file : documents) {
                     if (file.isEmpty()) {
                         return ResponseEntity.badRequest()
                                 .body("One of the files is empty");
                     }
                 }
-                List<String> documentUrls = FileTransferUtil.uploadPictures(documents);
-                dto.setDocumentUrl(String.join(",", documentUrls));
             }
 
-            // Appel du service pour sauvegarder
-            DoctorDocumentDTO saved = doctorDocumentService.addDoctorDocument(dto);
+            // Fichiers enregistrés par cette requête (références retirées si l'enregistrement échoue)
+            List<String> uploaded = new ArrayList<>();
+            DoctorDocumentDTO saved;
+            try {
+                // Upload de la photo si présente
+                if (photo != null && !photo.isEmpty()) {
+                    String photoUrl = fileTransferUtil.handleFileUpload(photo);
+                    uploaded.add(photoUrl);
+                    dto.setPhoto(photoUrl);
+                }
+
+                // Upload des documents (plusieurs fichiers possibles)
+                if (documents != null && !documents.isEmpty()) {
+                    List<String> documentUrls = fileTransferUtil.uploadPictures(documents);
+                    uploaded.addAll(documentUrls);
+                    dto.setDocumentUrl(String.join(",", documentUrls));
+                }
+
+                // Appel du service pour sauvegarder
+                saved = doctorDocumentService.addDoctorDocument(dto);
+            } catch (IOException | RuntimeException e) {
+                fileReferenceService.release(uploaded);
+                throw e;
+            }
             return ResponseEntity.status(HttpStatus.CREATED).body(saved);
 
         } catch (IllegalArgumentException e) {
@@ -398,28 +417,40 @@ public class RequestContainerController {
             HealthCenterDocumentDTO dto = new HealthCenterDocumentDTO();
             dto.setCenterId(centerId);
 
-            // Upload du logo si fourni
-            if (logo != null && !logo.isEmpty()) {
-                String logoUrl = FileTransferUtil.handleFileUpload(logo);
-                dto.setLogoUrl(logoUrl);
-            }
-
-            // Upload des documents justificatifs (plusieurs fichiers possibles)
-            if (documents != null && !documents.isEmpty()) {
-                // Vérifie que chaque fichier n'est pas vide
+            // Vérifie que chaque document n'est pas vide avant tout upload
+            if (documents != null) {
                 for (MultipartFile file : documents) {
                     if (file.isEmpty()) {
                         return ResponseEntity.badRequest()
                                 .body("One of the files is empty");
                     }
                 }
-
-                List<String> documentUrls = FileTransferUtil.uploadPictures(documents);
-                // Convertit la liste en chaîne séparée par des virgules
-                dto.setDocumentUrl(String.join(",", documentUrls));
             }
 
-            HealthCenterDocumentDTO saved = healthCenterDocumentService.addHealthCenterDocument(dto);
+            // Fichiers enregistrés par cette requête (références retirées si l'enregistrement échoue)
+            List<String> uploaded = new ArrayList<>();
+            HealthCenterDocumentDTO saved;
+            try {
+                // Upload du logo si fourni
+                if (logo != null && !logo.isEmpty()) {
+                    String logoUrl = fileTransferUtil.handleFileUpload(logo);
+                    uploaded.add(logoUrl);
+                    dto.setLogoUrl(logoUrl);
+                }
+
+                // Upload des documents justificatifs (plusieurs fichiers possibles)
+                if (documents != null && !documents.isEmpty()) {
+                    List<String> documentUrls = fileTransferUtil.uploadPictures(documents);
+                    uploaded.addAll(documentUrls);
+                    // Convertit la liste en chaîne séparée par des virgules
+                    dto.setDocumentUrl(String.join(",", documentUrls));
+                }
+
+                saved = healthCenterDocumentService.addHealthCenterDocument(dto);
+            } catch (IOException | RuntimeException e) {
+                fileReferenceService.release(uploaded);
+                throw e;
+            }
             return ResponseEntity.status(HttpStatus.CREATED).body(saved);
 
         } catch (IllegalArgumentException e) {
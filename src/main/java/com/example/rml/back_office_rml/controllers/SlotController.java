@@ -1,8 +1,15 @@
 package com.example.rml.back_office_rml.controllers;
 
+import com.example.rml.back_office_rml.dto.ExpiryRunReportDTO;
 import com.example.rml.back_office_rml.dto.SlotDTO;
+import com.example.rml.back_office_rml.dto.SlotGenerationReportDTO;
+import com.example.rml.back_office_rml.dto.SlotSearchCriteriaDTO;
+import com.example.rml.back_office_rml.dto.SlotSearchPageDTO;
+import com.example.rml.back_office_rml.entities.SlotScheduler;
 import com.example.rml.back_office_rml.enums.MedicalSpecialty;
 import com.example.rml.back_office_rml.enums.SlotStatus;
+import com.example.rml.back_office_rml.services.SlotGenerationService;
+import com.example.rml.back_office_rml.services.SlotOccurrenceService;
 import com.example.rml.back_office_rml.services.SlotService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -21,9 +28,17 @@ import java.util.List;
 public class SlotController {
 
     private final SlotService slotService;
+    private final SlotScheduler slotScheduler;
+    private final SlotGenerationService slotGenerationService;
+    private final SlotOccurrenceService slotOccurrenceService;
 
-    public SlotController(SlotService slotService) {
+    public SlotController(SlotService slotService, SlotScheduler slotScheduler,
+                          SlotGenerationService slotGenerationService,
+                          SlotOccurrenceService slotOccurrenceService) {
         this.slotService = slotService;
+        this.slotScheduler = slotScheduler;
+        this.slotGenerationService = slotGenerationService;
+        this.slotOccurrenceService = slotOccurrenceService;
     }
 
     // ============================================================================
@@ -96,6 +111,38 @@ public class SlotController {
         }
     }
 
+    // ============================================================================
+    // 🗓️ ENDPOINT - GÉNÉRER UN CALENDRIER
+    // ============================================================================
+    @Operation(summary = "Generate the slots of a doctor in a room over a date range",
+            description = "Cuts the doctor's active availabilities into consultation-length slots, keeps those inside "
+                    + "the room's opening days and hours that do not overlap existing slots, and inserts them in one transaction")
+    @PostMapping("/generate")
+    public ResponseEntity<?> generateSlots(
+            @Parameter(description = "Doctor ID", required = true)
+            @RequestParam Long doctorId,
+
+            @Parameter(description = "Room ID", required = true)
+            @RequestParam Long roomId,
+
+            @Parameter(description = "First date (dd-MM-yyyy)", required = true)
+            @RequestParam @DateTimeFormat(pattern = "dd-MM-yyyy") LocalDate startDate,
+
+            @Parameter(description = "Last date, inclusive (dd-MM-yyyy)", required = true)
+            @RequestParam @DateTimeFormat(pattern = "dd-MM-yyyy") LocalDate endDate
+    ) {
+        try {
+            SlotGenerationReportDTO report = slotGenerationService.generateSlots(doctorId, roomId, startDate, endDate);
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("VALIDATION_ERROR", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("INTERNAL_ERROR", "Erreur : " + e.getMessage()));
+        }
+    }
+
     // ============================================================================
     // ✏️ ENDPOINT - METTRE À JOUR UN CRÉNEAU
     // ============================================================================
@@ -188,6 +235,117 @@ public class SlotController {
         }
     }
 
+    // ============================================================================
+    // ⏱️ ENDPOINT - EXPIRER LES CRÉNEAUX PASSÉS (À LA DEMANDE)
+    // ============================================================================
+    @Operation(summary = "Expire past slots now",
+            description = "Runs the nightly expiry job on demand and returns how many slots each chunk updated")
+    @PostMapping("/expire")
+    public ResponseEntity<?> expireSlots() {
+        try {
+            ExpiryRunReportDTO report = slotScheduler.expireSlots("MANUAL");
+            return ResponseEntity.ok(report);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ErrorResponse("CONFLICT_ERROR", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("INTERNAL_ERROR", "Erreur : " + e.getMessage()));
+        }
+    }
+
+    // ============================================================================
+    // 🔎 ENDPOINT - RECHERCHE PAGINÉE
+    // ============================================================================
+    @Operation(summary = "Search slots with filters and cursor pagination",
+            description = "Returns future slots by default, ordered by date, start time and ID. "
+                    + "Pass the nextCursor of a page as cursor to get the following page")
+    @GetMapping("/search")
+    public ResponseEntity<?> searchSlots(
+            @Parameter(description = "Medical specialty of the doctor")
+            @RequestParam(required = false) MedicalSpecialty specialty,
+
+            @Parameter(description = "Health center ID")
+            @RequestParam(required = false) Long healthCenterId,
+
+            @Parameter(description = "Doctor ID")
+            @RequestParam(required = false) Long doctorId,
+
+            @Parameter(description = "First date (dd-MM-yyyy), today by default")
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd-MM-yyyy") LocalDate fromDate,
+
+            @Parameter(description = "Last date, inclusive (dd-MM-yyyy)")
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd-MM-yyyy") LocalDate toDate,
+
+            @Parameter(description = "Slot status")
+            @RequestParam(required = false) SlotStatus status,
+
+            @Parameter(description = "Cursor returned by the previous page (nextCursor)")
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Page size (1-200, 50 by default)")
+            @RequestParam(required = false) Integer size
+    ) {
+        try {
+            SlotSearchCriteriaDTO criteria = new SlotSearchCriteriaDTO();
+            criteria.setSpecialty(specialty);
+            criteria.setHealthCenterId(healthCenterId);
+            criteria.setDoctorId(doctorId);
+            criteria.setFromDate(fromDate);
+            criteria.setToDate(toDate);
+            criteria.setStatus(status);
+            criteria.setCursor(cursor);
+            criteria.setSize(size);
+
+            SlotSearchPageDTO page = slotService.searchSlots(criteria);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("VALIDATION_ERROR", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("INTERNAL_ERROR", "Erreur : " + e.getMessage()));
+        }
+    }
+
+    // ============================================================================
+    // 🔁 ENDPOINT - OCCURRENCES DES CRÉNEAUX RÉCURRENTS
+    // ============================================================================
+    @Operation(summary = "Expand recurring slots into dated occurrences",
+            description = "Computes the weekly occurrences of recurring slots over a window (4 weeks from today by default, "
+                    + "92 days max). slotId is null for an occurrence that has never been booked; book it with the "
+                    + "recurringTemplateId and its date")
+    @GetMapping("/occurrences")
+    public ResponseEntity<?> getOccurrences(
+            @Parameter(description = "Doctor ID")
+            @RequestParam(required = false) Long doctorId,
+
+            @Parameter(description = "Room ID")
+            @RequestParam(required = false) Long roomId,
+
+            @Parameter(description = "Health center ID")
+            @RequestParam(required = false) Long healthCenterId,
+
+            @Parameter(description = "First date (dd-MM-yyyy), today by default")
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd-MM-yyyy") LocalDate fromDate,
+
+            @Parameter(description = "Last date, inclusive (dd-MM-yyyy), 4 weeks after the first date by default")
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd-MM-yyyy") LocalDate toDate
+    ) {
+        try {
+            LocalDate from = fromDate != null ? fromDate : LocalDate.now();
+            LocalDate to = toDate != null ? toDate : from.plusWeeks(4).minusDays(1);
+            List<SlotDTO> occurrences = slotOccurrenceService.getOccurrences(doctorId, roomId, healthCenterId, from, to);
+            return ResponseEntity.ok(occurrences);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("VALIDATION_ERROR", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("INTERNAL_ERROR", "Erreur : " + e.getMessage()));
+        }
+    }
+
     // ============================================================================
     // 📋 ENDPOINTS - RÉCUPÉRATION
     // ============================================================================
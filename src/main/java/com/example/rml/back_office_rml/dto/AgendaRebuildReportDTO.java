@@ -0,0 +1,28 @@
+package com.example.rml.back_office_rml.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// Compte rendu d'une reconstruction de l'agenda des médecins (table doctor_agenda)
+@Data
+public class AgendaRebuildReportDTO {
+
+    // Déclenchement : "STARTUP" (démarrage de l'application) ou "MANUAL" (via l'API)
+    private String trigger;
+
+    @JsonFormat(pattern = "dd-MM-yyyy HH:mm:ss")
+    private LocalDateTime startedAt;
+
+    @JsonFormat(pattern = "dd-MM-yyyy HH:mm:ss")
+    private LocalDateTime finishedAt;
+
+    private long durationMs;
+
+    // Nombre de médecins reconstruits (une transaction par médecin)
+    private int doctors;
+
+    // Total des lignes recopiées dans l'agenda
+    private long totalRows;
+}
@@ -1,5 +1,6 @@
 package com.example.rml.back_office_rml.dto;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -7,6 +8,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -18,6 +21,10 @@ public class AppointmentRequestDTO {
     @NotNull(message = "L'identifiant du créneau est obligatoire.")
     private Long slotId;  // ID du slot disponible choisi
 
+    // Créneau récurrent : date de l'occurrence à réserver (prochaine occurrence si absente)
+    @JsonFormat(pattern = "dd-MM-yyyy")
+    private LocalDate occurrenceDate;
+
 
     @Size(max = 255, message = "Le motif de la consultation ne doit pas dépasser 255 caractères.")
     private String consultationReason;  // Motif de la consultation
@@ -15,6 +15,9 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class AppointmentResponseDTO {
 
+    // Identifiant du rendez-vous (confirmation, annulation)
+    private Long appointmentId;
+
     // Informations du slot
     private LocalDate slotDate;
     private LocalTime startTime;
@@ -18,6 +18,9 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class ConsultationReportDTO {
 
+    // ID du compte rendu (auto-généré)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long id;
 
     @NotNull(message = "L'ID du dossier médical est obligatoire")
     private Long recordId;
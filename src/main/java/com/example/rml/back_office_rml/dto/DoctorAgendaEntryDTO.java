@@ -0,0 +1,49 @@
+package com.example.rml.back_office_rml.dto;
+
+import com.example.rml.back_office_rml.enums.AppointmentStatus;
+import com.example.rml.back_office_rml.enums.SlotStatus;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// Ligne de l'agenda journalier d'un médecin (GET /api/appointments/doctor/{doctorId}/agenda)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoctorAgendaEntryDTO {
+
+    // Null pour une occurrence de créneau récurrent jamais réservée (à réserver avec recurringTemplateId et la date)
+    private Long slotId;
+    private Long recurringTemplateId;
+
+    @JsonFormat(pattern = "dd-MM-yyyy")
+    private LocalDate date;
+
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime startTime;
+
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime endTime;
+
+    private SlotStatus slotStatus;
+
+    // Informations du lieu
+    private Long roomId;
+    private String roomName;
+    private String healthCenterName;
+
+    // Rendez-vous du créneau (null si le créneau n'a jamais été réservé)
+    private Long appointmentId;
+    private AppointmentStatus appointmentStatus;
+    private String consultationReason;
+
+    // Informations du patient
+    private Long patientId;
+    private String patientFirstName;
+    private String patientLastName;
+    private String patientPhone;
+}
@@ -3,6 +3,7 @@ package com.example.rml.back_office_rml.dto;
 import com.example.rml.back_office_rml.enums.ExaminationType;
 import com.example.rml.back_office_rml.enums.MedicalSpecialty;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -55,6 +56,11 @@ public class ExaminationDTO {
     // Chemin du fichier (PDF, image) - facultatif
     private List <String> resultFiles;
 
+    // Fichiers envoyés mais non enregistrés lors de cette requête (erreur ou délai dépassé)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<FileUploadReportDTO.FailedUpload> failedUploads;
+
     // Informations du médecin (pour affichage)
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     private String doctorFirstName;
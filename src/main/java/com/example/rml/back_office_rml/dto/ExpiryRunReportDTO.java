@@ -0,0 +1,36 @@
+package com.example.rml.back_office_rml.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Compte rendu d'une exécution d'expiration en masse (créneaux, ordonnances...)
+@Data
+public class ExpiryRunReportDTO {
+
+    // Nom de la tâche (ex: "slots", "prescriptions")
+    private String job;
+
+    // Déclenchement : "CRON" (planifié) ou "MANUAL" (via l'API)
+    private String trigger;
+
+    @JsonFormat(pattern = "dd-MM-yyyy HH:mm:ss")
+    private LocalDateTime startedAt;
+
+    @JsonFormat(pattern = "dd-MM-yyyy HH:mm:ss")
+    private LocalDateTime finishedAt;
+
+    private long durationMs;
+
+    // Taille maximale d'un lot
+    private int chunkSize;
+
+    // Nombre de lignes modifiées par chaque lot, dans l'ordre d'exécution
+    private List<Integer> rowsPerChunk = new ArrayList<>();
+
+    // Total des lignes passées à EXPIRED
+    private long totalExpired;
+}
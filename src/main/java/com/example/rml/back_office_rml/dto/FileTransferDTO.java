@@ -0,0 +1,30 @@
+package com.example.rml.back_office_rml.dto;
+
+import com.example.rml.back_office_rml.enums.FileTransferStatus;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// État du transfert d'un fichier uploadé vers le stockage distant
+@Data
+public class FileTransferDTO {
+
+    private String fileName;
+    private String originalName;
+    private String contentType;
+    private Long sizeBytes;
+
+    private FileTransferStatus status;
+    private Integer attempts;
+    private String lastError;
+
+    @JsonFormat(pattern = "dd-MM-yyyy HH:mm:ss")
+    private LocalDateTime nextAttemptAt;
+
+    @JsonFormat(pattern = "dd-MM-yyyy HH:mm:ss")
+    private LocalDateTime storedAt;
+
+    @JsonFormat(pattern = "dd-MM-yyyy HH:mm:ss")
+    private LocalDateTime createdAt;
+}
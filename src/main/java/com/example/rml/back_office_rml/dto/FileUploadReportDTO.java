@@ -0,0 +1,33 @@
+package com.example.rml.back_office_rml.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Résultat d'un upload de plusieurs fichiers : fichiers enregistrés et échecs, dans l'ordre d'envoi
+@Data
+public class FileUploadReportDTO {
+
+    // Noms uniques des fichiers enregistrés
+    private List<String> storedFiles = new ArrayList<>();
+
+    // Fichiers non enregistrés (erreur ou délai dépassé)
+    private List<FailedUpload> failures = new ArrayList<>();
+
+    private long durationMs;
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FailedUpload {
+        private String originalName;
+        private String error;
+    }
+}
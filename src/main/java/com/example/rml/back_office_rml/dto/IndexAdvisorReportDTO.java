@@ -0,0 +1,26 @@
+package com.example.rml.back_office_rml.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Rapport de l'IndexAdvisorService : un EXPLAIN par requête @Query des repositories
+@Data
+public class IndexAdvisorReportDTO {
+
+    @JsonFormat(pattern = "dd-MM-yyyy HH:mm:ss")
+    private LocalDateTime generatedAt;
+
+    // Base analysée (ex: "MySQL 8.0.36")
+    private String database;
+
+    private int analyzedQueries;
+
+    // Nombre de requêtes signalées en FULL_SCAN
+    private int fullScans;
+
+    private List<QueryPlanDTO> queries = new ArrayList<>();
+}
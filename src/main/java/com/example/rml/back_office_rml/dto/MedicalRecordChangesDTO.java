@@ -0,0 +1,43 @@
+package com.example.rml.back_office_rml.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Modifications d'un dossier médical depuis un curseur (GET /api/medical-records/{recordId}/changes).
+ *
+ * - record : en-tête du dossier, seulement s'il a changé
+ * - sections : entrées créées ou modifiées (à insérer ou remplacer par ID), absentes si non demandées
+ * - deleted : entrées supprimées
+ * - fullSync : true sans curseur ou curseur trop ancien (traces purgées) : la réponse contient tout
+ *   le dossier et remplace la copie locale
+ * - nextCursor : à renvoyer dans since à la prochaine synchronisation
+ *
+ * Une entrée peut revenir deux fois d'une synchronisation à l'autre : le client applique
+ * les changements par ID (remplacement), ce qui rend la répétition sans effet.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MedicalRecordChangesDTO {
+
+    private MedicalRecordDTO record;
+
+    private List<MedicalHistoryDTO> medicalHistories;
+
+    private List<FamilyHistoryDTO> familyHistories;
+
+    private List<ExaminationDTO> examinations;
+
+    private List<ConsultationReportDTO> consultationReports;
+
+    private List<PrescriptionDTO> prescriptions;
+
+    private List<MedicalRecordTombstoneDTO> deleted = new ArrayList<>();
+
+    private boolean fullSync;
+
+    private String nextCursor;
+}
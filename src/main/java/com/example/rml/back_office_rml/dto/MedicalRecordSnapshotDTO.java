@@ -0,0 +1,27 @@
+package com.example.rml.back_office_rml.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Dossier médical complet en une réponse (GET /api/medical-records/{recordId}/snapshot).
+ * Les sections non demandées sont absentes ; une section demandée mais vide est une liste vide.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MedicalRecordSnapshotDTO {
+
+    private MedicalRecordDTO record;
+
+    private List<MedicalHistoryDTO> medicalHistories;
+
+    private List<FamilyHistoryDTO> familyHistories;
+
+    private List<ExaminationDTO> examinations;
+
+    private List<ConsultationReportDTO> consultationReports;
+
+    private List<PrescriptionDTO> prescriptions;
+}
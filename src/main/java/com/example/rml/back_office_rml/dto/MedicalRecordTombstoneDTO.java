@@ -0,0 +1,23 @@
+package com.example.rml.back_office_rml.dto;
+
+import com.example.rml.back_office_rml.enums.MedicalRecordSection;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Entrée supprimée du dossier médical : le client efface l'élément (section, id) de sa copie locale
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MedicalRecordTombstoneDTO {
+
+    private MedicalRecordSection section;
+
+    private Long id;
+
+    @JsonFormat(pattern = "dd-MM-yyyy HH:mm:ss")
+    private LocalDateTime deletedAt;
+}
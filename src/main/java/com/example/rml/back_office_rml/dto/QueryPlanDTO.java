@@ -0,0 +1,30 @@
+package com.example.rml.back_office_rml.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Plan d'exécution (EXPLAIN) d'une requête @Query d'un repository
+@Data
+public class QueryPlanDTO {
+
+    // Statut de l'analyse : OK, FULL_SCAN, SKIPPED, ERROR
+    private String status;
+
+    private String repository;
+    private String method;
+
+    // SQL réellement envoyé à la base (après traduction JPQL → SQL)
+    private String sql;
+
+    // Tables parcourues intégralement (type = ALL) ou par un scan complet d'index (type = index)
+    private List<String> fullScanTables = new ArrayList<>();
+
+    // Lignes brutes de l'EXPLAIN (table, type, key, rows, Extra...)
+    private List<Map<String, Object>> plan = new ArrayList<>();
+
+    // Message d'erreur ou raison du SKIPPED
+    private String message;
+}
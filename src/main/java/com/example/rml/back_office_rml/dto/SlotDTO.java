@@ -68,6 +68,10 @@ public class SlotDTO {
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     private String healthCenterName;
 
+    // Occurrence d'un créneau récurrent : ID du modèle (slotId est null tant que l'occurrence n'est pas réservée)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long recurringTemplateId;
+
     @JsonFormat(pattern = "dd-MM-yyyy HH:mm:ss")
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     private LocalDateTime createdAt;
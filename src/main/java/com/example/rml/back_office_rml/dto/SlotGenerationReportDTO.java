@@ -0,0 +1,37 @@
+package com.example.rml.back_office_rml.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+// Résultat d'une génération de calendrier (DoctorAvailability × ConsultationDuration ∩ horaires de la salle)
+@Data
+public class SlotGenerationReportDTO {
+
+    private Long doctorId;
+    private Long roomId;
+
+    @JsonFormat(pattern = "dd-MM-yyyy")
+    private LocalDate startDate;
+
+    @JsonFormat(pattern = "dd-MM-yyyy")
+    private LocalDate endDate;
+
+    // Créneaux découpés dans les disponibilités du médecin sur les jours d'ouverture de la salle
+    private int candidates;
+
+    // Créneaux insérés
+    private int created;
+
+    // Créneaux écartés car hors des horaires d'ouverture (DefaultTimeSlot) de la salle
+    private int skippedOutsideRoomSchedule;
+
+    // Créneaux écartés car ils chevauchent un créneau existant du médecin ou de la salle
+    private int skippedConflicts;
+
+    // Jours de la période où la salle est fermée (availableDays)
+    private int closedDays;
+
+    private long durationMs;
+}
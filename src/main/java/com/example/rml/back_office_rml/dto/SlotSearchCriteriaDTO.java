@@ -0,0 +1,27 @@
+package com.example.rml.back_office_rml.dto;
+
+import com.example.rml.back_office_rml.enums.MedicalSpecialty;
+import com.example.rml.back_office_rml.enums.SlotStatus;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+// Filtres de GET /api/slots/search (tous optionnels)
+@Data
+public class SlotSearchCriteriaDTO {
+
+    private MedicalSpecialty specialty;
+    private Long healthCenterId;
+    private Long doctorId;
+
+    // Par défaut : à partir d'aujourd'hui (créneaux futurs uniquement)
+    private LocalDate fromDate;
+    private LocalDate toDate;
+
+    private SlotStatus status;
+
+    // Curseur renvoyé par la page précédente (nextCursor)
+    private String cursor;
+
+    private Integer size;
+}
@@ -0,0 +1,20 @@
+package com.example.rml.back_office_rml.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Page de résultats de GET /api/slots/search
+@Data
+public class SlotSearchPageDTO {
+
+    private List<SlotDTO> items = new ArrayList<>();
+
+    private int size;
+
+    private boolean hasNext;
+
+    // À renvoyer dans le paramètre cursor pour obtenir la page suivante (null sur la dernière page)
+    private String nextCursor;
+}
@@ -8,7 +8,12 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "appointments")
+@Table(name = "appointments", indexes = {
+        // Rendez-vous d'un patient par statut (findByPatient_PatientIdAndStatus)
+        @Index(name = "idx_appointments_patient_status", columnList = "patient_id, status"),
+        // Rendez-vous d'un médecin par statut : filtre sur le statut puis jointure vers slots
+        @Index(name = "idx_appointments_status_slot", columnList = "status, slot_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -19,7 +24,7 @@ public class Appointment {
     private Long appointmentId;
 
     // Relation avec le patient (Many appointments can belong to one patient)
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "patient_id", nullable = false)
     private Patient patient;
 
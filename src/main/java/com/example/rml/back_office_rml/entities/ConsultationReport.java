@@ -12,6 +12,7 @@ import java.time.LocalDateTime;
 
 //Compte rendu de consultation (texte, audio, vidéo).
 @Entity
+@EntityListeners(MedicalRecordTombstoneListener.class)
 @Data
 @AllArgsConstructor
  @NoArgsConstructor
@@ -21,15 +22,15 @@ public class ConsultationReport {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long reportId; // Identifiant unique du compte rendu
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "record_id")
     private MedicalRecord medicalRecord; // Lien vers le dossier médical principal du patient
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "doctor_id")
     private Doctor doctor; // Médecin qui a rédigé le compte rendu
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "appointment_id")
     private Appointment appointment; // Rendez-vous associé à ce compte rendu
 
@@ -16,7 +16,7 @@ public class Doctor {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long doctorId; // ID du médecin
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY) // Compte chargé seulement si on le lit (e-mail, statut)
     @JoinColumn(name = "id_utilisateur", nullable = false , referencedColumnName = "id_utilisateur")
     private Users user; // lien avec l'utilisateur
 
@@ -33,11 +33,5 @@ public class Doctor {
     @Column(nullable = false)
     private String phone; // téléphone
 
-    @Lob
-    @Column(name = "photo", columnDefinition = "LONGBLOB")
-    private byte[] photo; // photo du médecin
-
-    @Lob
-    @Column(name = "justificatifs", columnDefinition = "LONGBLOB")
-    private byte[] documents; // documents justificatifs
+    // Photo et justificatifs : table doctor_media (DoctorMedia), chargée uniquement à la demande
 }
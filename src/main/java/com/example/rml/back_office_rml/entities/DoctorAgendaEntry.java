@@ -0,0 +1,88 @@
+package com.example.rml.back_office_rml.entities;
+
+import com.example.rml.back_office_rml.enums.AppointmentStatus;
+import com.example.rml.back_office_rml.enums.SlotStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+// Ligne de l'agenda journalier d'un médecin : un créneau daté avec son rendez-vous, son patient et sa salle,
+// recopiés par DoctorAgendaProjector à chaque écriture (lecture seule côté API : GET /api/appointments/doctor/{doctorId}/agenda)
+@Entity
+@Table(name = "doctor_agenda", indexes = {
+        // Agenda d'un médecin pour une date, déjà trié par heure de début
+        @Index(name = "idx_doctor_agenda_doctor_date_start", columnList = "doctor_id, agenda_date, start_time"),
+        // Expiration nocturne (SlotScheduler) et changement de nom d'une salle
+        @Index(name = "idx_doctor_agenda_status_date_end", columnList = "slot_status, agenda_date, end_time"),
+        @Index(name = "idx_doctor_agenda_room", columnList = "room_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoctorAgendaEntry {
+
+    // Même identifiant que le créneau (pas de clé étrangère : la ligne est supprimée avec le créneau)
+    @Id
+    @Column(name = "slot_id")
+    private Long slotId;
+
+    @Column(name = "doctor_id", nullable = false)
+    private Long doctorId;
+
+    @Column(name = "agenda_date", nullable = false)
+    private LocalDate agendaDate;
+
+    @Column(name = "start_time", nullable = false)
+    private LocalTime startTime;
+
+    @Column(name = "end_time", nullable = false)
+    private LocalTime endTime;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "slot_status", nullable = false)
+    private SlotStatus slotStatus;
+
+    // Modèle récurrent dont le créneau est une occurrence réservée (null pour un créneau ponctuel)
+    @Column(name = "recurring_template_id")
+    private Long recurringTemplateId;
+
+    @Column(name = "room_id", nullable = false)
+    private Long roomId;
+
+    @Column(name = "room_name", nullable = false)
+    private String roomName;
+
+    @Column(name = "health_center_name", nullable = false)
+    private String healthCenterName;
+
+    // Rendez-vous du créneau (colonnes nulles tant que le créneau n'a jamais été réservé)
+    @Column(name = "appointment_id")
+    private Long appointmentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "appointment_status")
+    private AppointmentStatus appointmentStatus;
+
+    @Column(name = "consultation_reason")
+    private String consultationReason;
+
+    @Column(name = "patient_id")
+    private Long patientId;
+
+    @Column(name = "patient_first_name")
+    private String patientFirstName;
+
+    @Column(name = "patient_last_name")
+    private String patientLastName;
+
+    @Column(name = "patient_phone")
+    private String patientPhone;
+
+    @Column(name = "refreshed_at", nullable = false)
+    private LocalDateTime refreshedAt;
+}
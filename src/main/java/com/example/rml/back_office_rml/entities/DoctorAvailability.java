@@ -10,7 +10,12 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 @Entity
-@Table(name = "doctor_availabilities")
+@Table(name = "doctor_availabilities", indexes = {
+        // Recherche des disponibilités couvrant un créneau (findConflictingAvailabilities)
+        @Index(name = "idx_availabilities_doctor_center_day", columnList = "doctor_id, health_center_id, day_of_week, active"),
+        // Disponibilités actives d'un médecin (findByDoctorDoctorIdAndActiveTrue)
+        @Index(name = "idx_availabilities_doctor_active", columnList = "doctor_id, active")
+})
 @AllArgsConstructor
 @NoArgsConstructor
 @Data
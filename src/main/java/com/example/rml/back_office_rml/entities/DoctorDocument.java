@@ -16,7 +16,7 @@ public class DoctorDocument {
     private Long id;
 
     // Le lien avec le médecin
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "doctor_id", nullable = false)
     private Doctor doctor;
 
@@ -0,0 +1,53 @@
+package com.example.rml.back_office_rml.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Photo et justificatifs d'un médecin, sortis de la table doctor : les lectures courantes
+ * du médecin (créneaux, rendez-vous, ordonnances, examens…) ne transportent plus ces octets.
+ * Même clé que le médecin ; lu seulement via DoctorMediaRepository.
+ */
+@Entity
+@Table(name = "doctor_media")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoctorMedia {
+
+    @Id
+    @Column(name = "doctor_id")
+    private Long doctorId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "doctor_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Doctor doctor;
+
+    @Lob
+    @Column(name = "photo", columnDefinition = "LONGBLOB")
+    @ToString.Exclude
+    private byte[] photo; // photo du médecin
+
+    @Lob
+    @Column(name = "justificatifs", columnDefinition = "LONGBLOB")
+    @ToString.Exclude
+    private byte[] documents; // documents justificatifs
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -12,6 +12,7 @@ import java.util.List;
 
 //Examens, analyses, résultats.
 @Entity
+@EntityListeners(MedicalRecordTombstoneListener.class)
 @Table(name = "examinations")
 @Data
 @NoArgsConstructor
@@ -21,11 +22,11 @@ public class Examination {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "record_id")
     private MedicalRecord medicalRecord;//plusieurs examens peuvent appartenir au même dossier médical
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "doctor_id")
     private Doctor doctor; //Le médecin qui a prescrit/analysé l'examen
 
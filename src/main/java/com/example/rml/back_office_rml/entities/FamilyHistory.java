@@ -13,6 +13,7 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@EntityListeners(MedicalRecordTombstoneListener.class)
 @Table(name = "family_histories")
 public class FamilyHistory {
 
@@ -20,7 +21,7 @@ public class FamilyHistory {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "record_id")
     private MedicalRecord medicalRecord; //plusieurs antécédents familiaux peuvent appartenir au même dossier médical
 
@@ -0,0 +1,77 @@
+package com.example.rml.back_office_rml.entities;
+
+import com.example.rml.back_office_rml.enums.FileTransferStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Suivi du transfert d'un fichier uploadé (examens, comptes rendus audio/vidéo) vers le stockage distant
+@Entity
+@Table(name = "file_transfers", indexes = {
+        // Reprise des transferts échus (FileTransferRepository.findDueIds)
+        @Index(name = "idx_file_transfers_status_next", columnList = "status, next_attempt_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileTransfer {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "file_name", nullable = false, unique = true)
+    private String fileName; // Nom unique enregistré dans l'examen / le compte rendu
+
+    @Column(name = "original_name")
+    private String originalName; // Nom du fichier envoyé par le client
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Column(name = "size_bytes")
+    private Long sizeBytes;
+
+    @Column(name = "spool_path", length = 500)
+    private String spoolPath; // Copie locale en attente de transfert (null une fois STORED)
+
+    @Column(name = "remote_path", nullable = false, length = 500)
+    private String remotePath;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private FileTransferStatus status = FileTransferStatus.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    // Prochaine tentative possible ; sert aussi de bail pendant un transfert en cours
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "stored_at")
+    private LocalDateTime storedAt;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
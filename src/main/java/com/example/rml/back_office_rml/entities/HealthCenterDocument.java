@@ -16,7 +16,7 @@ public class HealthCenterDocument {
     private Long id;
 
     // Lien vers le centre de santé
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "center_id", nullable = false)
     private HealthCenter healthCenter;
 
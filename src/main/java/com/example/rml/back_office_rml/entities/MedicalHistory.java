@@ -12,6 +12,7 @@ import java.time.LocalDateTime;
 
 //Historique des maladies et interventions du patient
 @Entity
+@EntityListeners(MedicalRecordTombstoneListener.class)
 @NoArgsConstructor
 @AllArgsConstructor
 @Data
@@ -22,7 +23,7 @@ public class MedicalHistory {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "record_id")
     private MedicalRecord medicalRecord; // relation avec le dossier Médical
 
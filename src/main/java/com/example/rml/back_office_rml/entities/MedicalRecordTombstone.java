@@ -0,0 +1,38 @@
+package com.example.rml.back_office_rml.entities;
+
+import com.example.rml.back_office_rml.enums.MedicalRecordSection;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Trace d'une entrée supprimée du dossier médical, renvoyée par GET /api/medical-records/{recordId}/changes
+// (écrite par MedicalRecordTombstoneListener, purgée après medical-records.sync.tombstone-retention-days)
+@Entity
+@Table(name = "medical_record_tombstones", indexes = {
+        @Index(name = "idx_tombstones_record_deleted", columnList = "record_id, deleted_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MedicalRecordTombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "record_id", nullable = false)
+    private Long recordId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "section", nullable = false, length = 32)
+    private MedicalRecordSection section;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId; // ID de l'antécédent, examen, compte rendu ou ordonnance supprimé
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+}
@@ -0,0 +1,48 @@
+package com.example.rml.back_office_rml.entities;
+
+import com.example.rml.back_office_rml.enums.MedicalRecordSection;
+import jakarta.persistence.PostRemove;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Écrit une trace (medical_record_tombstones) à chaque suppression d'une entrée du dossier médical,
+ * quel que soit le chemin (repository, cascade) : les clients mobiles synchronisés via
+ * /api/medical-records/{recordId}/changes apprennent ainsi qu'ils doivent l'effacer.
+ *
+ * Insertion JDBC dans la transaction de la suppression (pas de persist pendant un flush Hibernate).
+ * Instancié par Spring (conteneur de beans Hibernate), d'où l'injection par constructeur.
+ */
+public class MedicalRecordTombstoneListener {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MedicalRecordTombstoneListener(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        if (entity instanceof MedicalHistory history) {
+            record(history.getMedicalRecord(), MedicalRecordSection.MEDICAL_HISTORIES, history.getId());
+        } else if (entity instanceof FamilyHistory history) {
+            record(history.getMedicalRecord(), MedicalRecordSection.FAMILY_HISTORIES, history.getId());
+        } else if (entity instanceof Examination examination) {
+            record(examination.getMedicalRecord(), MedicalRecordSection.EXAMINATIONS, examination.getId());
+        } else if (entity instanceof ConsultationReport report) {
+            record(report.getMedicalRecord(), MedicalRecordSection.CONSULTATION_REPORTS, report.getReportId());
+        } else if (entity instanceof Prescription prescription) {
+            record(prescription.getMedicalRecord(), MedicalRecordSection.PRESCRIPTIONS, prescription.getId());
+        }
+    }
+
+    private void record(MedicalRecord medicalRecord, MedicalRecordSection section, Long entityId) {
+        if (medicalRecord == null || entityId == null) {
+            return;
+        }
+        jdbcTemplate.update("INSERT INTO medical_record_tombstones (record_id, section, entity_id, deleted_at) VALUES (?, ?, ?, ?)",
+                medicalRecord.getId(), section.name(), entityId, Timestamp.valueOf(LocalDateTime.now()));
+    }
+}
@@ -2,6 +2,7 @@ package com.example.rml.back_office_rml.entities;
 
 import com.example.rml.back_office_rml.enums.PrescriptionStatus;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -14,21 +15,28 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "prescriptions")
+@EntityListeners(MedicalRecordTombstoneListener.class)
+@Table(name = "prescriptions", indexes = {
+        // Expiration nocturne : plage sur valid_until puis filtre sur le statut (expirePrescriptionsChunk)
+        @Index(name = "idx_prescriptions_valid_until_status", columnList = "valid_until, status"),
+        // Ordonnances d'un dossier / d'un médecin
+        @Index(name = "idx_prescriptions_record", columnList = "record_id"),
+        @Index(name = "idx_prescriptions_doctor", columnList = "doctor_id")
+})
 public class Prescription {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id; // Identifiant unique de l'ordonnance
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "record_id")
     private MedicalRecord medicalRecord; // Lien vers le dossier médical du patient
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "doctor_id")
     private Doctor doctor; // Médecin prescripteur
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "appointment_id")
     private Appointment appointment; // Rendez-vous ayant généré cette ordonnance
 
@@ -39,6 +47,7 @@ public class Prescription {
     private String prescriptionNumber; // Numéro unique d'ordonnance
 
     @OneToMany(mappedBy = "prescription", cascade = CascadeType.ALL)
+    @BatchSize(size = 100) // Médicaments de 100 ordonnances chargés en une requête (listes, dossier complet)
     private List<PrescriptionItem> items; // Liste des médicaments/soins prescrits
 
     @Column(name = "instructions", columnDefinition = "TEXT")
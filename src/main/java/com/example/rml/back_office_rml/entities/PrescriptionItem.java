@@ -15,7 +15,7 @@ public class PrescriptionItem {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id; // Identifiant unique de l'élément de prescription
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "prescription_id")
     private Prescription prescription;// Plusieurs PrescriptionItem peuvent appartenir à une Prescription unique.
 
@@ -14,17 +14,17 @@ public class SharedFile {
     private Long id;  // ID unique de chaque partage
 
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "record_id")  // Plusieurs SharedFile peuvent appartenir à un MedicalRecord
     private MedicalRecord medicalRecord;  // Le dossier médical partagé
 
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "shared_by_doctor_id")
     private Doctor sharedByDoctor;  // Le médecin qui partage le dossier
 
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "shared_with_doctor_id")
     private Doctor sharedWithDoctor;  // Le médecin avec qui le dossier est partagé
 
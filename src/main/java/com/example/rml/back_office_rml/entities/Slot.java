@@ -3,6 +3,8 @@ package com.example.rml.back_office_rml.entities;
 import com.example.rml.back_office_rml.enums.DayOfWeek;
 import com.example.rml.back_office_rml.enums.SlotStatus;
 import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -11,7 +13,21 @@ import java.time.LocalTime;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "slots")
+@Table(name = "slots", indexes = {
+        // Chevauchements à date précise (SlotRepository.existsOverlappingSlotFor*OnDate) et listes triées
+        @Index(name = "idx_slots_doctor_date_start", columnList = "doctor_id, slot_date, start_time"),
+        @Index(name = "idx_slots_room_date_start", columnList = "room_id, slot_date, start_time"),
+        // Chevauchements des créneaux récurrents (SlotRepository.existsOverlappingRecurringSlotFor*)
+        @Index(name = "idx_slots_doctor_recurring_day", columnList = "doctor_id, is_recurring, day_of_week, start_time"),
+        @Index(name = "idx_slots_room_recurring_day", columnList = "room_id, is_recurring, day_of_week, start_time"),
+        // Listes par statut et expiration nocturne (SlotScheduler)
+        @Index(name = "idx_slots_status_date_end", columnList = "status, slot_date, end_time"),
+        // Recherche paginée par curseur (slot_date, start_time, slot_id) : InnoDB ajoute la clé primaire à l'index
+        @Index(name = "idx_slots_date_start", columnList = "slot_date, start_time")
+}, uniqueConstraints = {
+        // Une seule occurrence matérialisée par modèle récurrent et par date
+        @UniqueConstraint(name = "uk_slots_template_date", columnNames = {"recurring_template_id", "slot_date"})
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -59,6 +75,12 @@ public class Slot {
     @JoinColumn(name = "room_id", nullable = false)
     private Room room;
 
+    // Modèle récurrent dont ce créneau est une occurrence réservable (null pour un créneau ponctuel ou un modèle)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "recurring_template_id")
+    @OnDelete(action = OnDeleteAction.SET_NULL) // supprimer le modèle conserve ses occurrences comme créneaux ponctuels
+    private Slot recurringTemplate;
+
     // Avant insertion en base
     @PrePersist
     protected void onCreate() {
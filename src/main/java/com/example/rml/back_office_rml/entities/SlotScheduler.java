@@ -1,41 +1,98 @@
 package com.example.rml.back_office_rml.entities;
 
-import com.example.rml.back_office_rml.enums.SlotStatus;
+import com.example.rml.back_office_rml.dto.ExpiryRunReportDTO;
 import com.example.rml.back_office_rml.repositories.SlotRepository;
-import lombok.RequiredArgsConstructor;
+import com.example.rml.back_office_rml.services.DoctorAgendaProjector;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class SlotScheduler {
 
     private final SlotRepository slotRepository;
+    private final DoctorAgendaProjector agendaProjector;
+
+    // Nombre maximal de créneaux expirés par UPDATE (une transaction par lot)
+    private final int chunkSize;
+
+    // Empêche deux exécutions simultanées (cron + déclenchement manuel)
+    private final ReentrantLock runLock = new ReentrantLock();
+
+    public SlotScheduler(SlotRepository slotRepository,
+                         DoctorAgendaProjector agendaProjector,
+                         @Value("${slots.expiry.chunk-size:1000}") int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("slots.expiry.chunk-size doit être strictement positif");
+        }
+        this.slotRepository = slotRepository;
+        this.agendaProjector = agendaProjector;
+        this.chunkSize = chunkSize;
+    }
 
     /**
-     * Tâche planifiée : exécute tous les jours à minuit
+     * Tâche planifiée : exécute tous les jours à minuit (configurable via slots.expiry.cron)
      * Vérifie les slots passés et les marque comme "EXPIRED"
      */
-    @Scheduled(cron = "0 0 0 * * *") // Tous les jours à 00:00
+    @Scheduled(cron = "${slots.expiry.cron:0 0 0 * * *}") // Par défaut tous les jours à 00:00
     public void markExpiredSlots() {
-        LocalDate today = LocalDate.now();
-        LocalTime now = LocalTime.now();
+        expireSlots("CRON");
+    }
+
+    /**
+     * Expire les créneaux passés par lots successifs d'UPDATE ensemblistes.
+     *
+     * La date et l'heure de référence sont figées au début de l'exécution : un créneau qui se
+     * termine pendant le traitement sera pris en compte au prochain passage.
+     * On boucle tant qu'un lot est plein ; un lot incomplet signifie qu'il ne reste plus rien.
+     *
+     * @param trigger origine du déclenchement ("CRON" ou "MANUAL")
+     * @return le compte rendu de l'exécution (lignes modifiées par lot, total, durée)
+     */
+    public ExpiryRunReportDTO expireSlots(String trigger) {
+        if (!runLock.tryLock()) {
+            throw new IllegalStateException("Une expiration des créneaux est déjà en cours");
+        }
+        try {
+            LocalDate today = LocalDate.now();
+            LocalTime now = LocalTime.now();
+
+            ExpiryRunReportDTO report = new ExpiryRunReportDTO();
+            report.setJob("slots");
+            report.setTrigger(trigger);
+            report.setChunkSize(chunkSize);
+            report.setStartedAt(LocalDateTime.now());
+
+            int updated;
+            do {
+                updated = slotRepository.expirePastSlotsChunk(today, now, LocalDateTime.now(), chunkSize);
+                if (updated > 0) {
+                    report.getRowsPerChunk().add(updated);
+                    report.setTotalExpired(report.getTotalExpired() + updated);
+                    log.debug("Lot {} : {} slots expirés", report.getRowsPerChunk().size(), updated);
+                }
+            } while (updated == chunkSize);
 
-        List<Slot> expiredSlots = slotRepository.findAll().stream()
-                .filter(slot -> slot.getSlotDate().isBefore(today)
-                        || (slot.getSlotDate().isEqual(today) && slot.getEndTime().isBefore(now)))
-                .filter(slot -> slot.getStatus() == SlotStatus.AVAILABLE || slot.getStatus() == SlotStatus.RESERVED)
-                .toList();
+            // Même prédicat sur l'agenda des médecins (lignes recopiées des créneaux datés)
+            long agendaExpired = agendaProjector.expirePast(today, now, chunkSize);
+            log.debug("{} lignes de l'agenda des médecins expirées", agendaExpired);
 
-        expiredSlots.forEach(slot -> slot.setStatus(SlotStatus.EXPIRED));
+            report.setFinishedAt(LocalDateTime.now());
+            report.setDurationMs(Duration.between(report.getStartedAt(), report.getFinishedAt()).toMillis());
 
-        slotRepository.saveAll(expiredSlots);
-        log.info(" {} slots expirés ont été mis à jour automatiquement.", expiredSlots.size());
+            log.info(" {} slots expirés ont été mis à jour automatiquement ({} lots, {} ms, déclenchement {}).",
+                    report.getTotalExpired(), report.getRowsPerChunk().size(), report.getDurationMs(), trigger);
+            return report;
+        } finally {
+            runLock.unlock();
+        }
     }
 }
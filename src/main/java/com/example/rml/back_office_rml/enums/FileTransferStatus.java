@@ -0,0 +1,7 @@
+package com.example.rml.back_office_rml.enums;
+
+public enum FileTransferStatus {
+    PENDING,    // Fichier stocké dans le spool local, transfert distant en attente (ou en cours de nouvelle tentative)
+    STORED,     // Fichier déposé sur le stockage distant, copie locale supprimée
+    FAILED      // Nombre maximal de tentatives atteint : relance manuelle nécessaire
+}
@@ -0,0 +1,24 @@
+package com.example.rml.back_office_rml.enums;
+
+import java.util.Locale;
+
+/**
+ * Sections du dossier médical renvoyables par GET /api/medical-records/{recordId}/snapshot
+ * (paramètre sections, mêmes noms que les endpoints dédiés : medical-histories, examinations…).
+ */
+public enum MedicalRecordSection {
+
+    MEDICAL_HISTORIES, FAMILY_HISTORIES, EXAMINATIONS, CONSULTATION_REPORTS, PRESCRIPTIONS;
+
+    // Accepte "family-histories", "family_histories" ou "FAMILY_HISTORIES"
+    public static MedicalRecordSection fromParam(String value) {
+        String normalized = value.trim().replace('-', '_').toUpperCase(Locale.ROOT);
+        for (MedicalRecordSection section : values()) {
+            if (section.name().equals(normalized)) {
+                return section;
+            }
+        }
+        throw new IllegalArgumentException("Section inconnue : " + value
+                + " (attendu : medical-histories, family-histories, examinations, consultation-reports, prescriptions)");
+    }
+}
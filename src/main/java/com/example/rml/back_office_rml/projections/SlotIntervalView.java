@@ -0,0 +1,29 @@
+package com.example.rml.back_office_rml.projections;
+
+import com.example.rml.back_office_rml.enums.DayOfWeek;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Projection légère d'un créneau : uniquement ce qu'il faut pour détecter les chevauchements.
+ * Utilisée pour (re)construire le SlotConflictIndex sans charger les entités Doctor/Room.
+ */
+public interface SlotIntervalView {
+
+    Long getSlotId();
+
+    Long getDoctorId();
+
+    Long getRoomId();
+
+    LocalDate getSlotDate();
+
+    DayOfWeek getDayOfWeek();
+
+    LocalTime getStartTime();
+
+    LocalTime getEndTime();
+
+    Boolean getIsRecurring();
+}
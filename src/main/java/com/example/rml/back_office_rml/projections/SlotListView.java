@@ -0,0 +1,53 @@
+package com.example.rml.back_office_rml.projections;
+
+import com.example.rml.back_office_rml.enums.DayOfWeek;
+import com.example.rml.back_office_rml.enums.MedicalSpecialty;
+import com.example.rml.back_office_rml.enums.SlotStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Projection d'un créneau pour les listes (SlotDTO) : les colonnes du médecin, de la salle
+ * et du centre sont lues par jointure dans la même requête, sans charger les entités liées.
+ */
+public interface SlotListView {
+
+    Long getSlotId();
+
+    LocalDate getSlotDate();
+
+    DayOfWeek getDayOfWeek();
+
+    LocalTime getStartTime();
+
+    LocalTime getEndTime();
+
+    SlotStatus getStatus();
+
+    Boolean getIsRecurring();
+
+    Long getDoctorId();
+
+    String getDoctorFirstName();
+
+    String getDoctorLastName();
+
+    MedicalSpecialty getDoctorSpecialty();
+
+    Long getRoomId();
+
+    String getRoomName();
+
+    Long getHealthCenterId();
+
+    String getHealthCenterName();
+
+    // Modèle récurrent dont le créneau est une occurrence (null sinon)
+    Long getRecurringTemplateId();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+}
@@ -2,6 +2,7 @@ package com.example.rml.back_office_rml.repositories;
 
 import com.example.rml.back_office_rml.entities.Appointment;
 import com.example.rml.back_office_rml.enums.AppointmentStatus;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -15,10 +16,17 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
         // Vérifie si un patient a déjà un rendez-vous pour un slot donné
         boolean existsByPatient_PatientIdAndSlot_SlotId(Long patientId, Long slotId);
 
+        // Graphe des listes de rendez-vous : patient, créneau, médecin, salle et centre lus par le DTO
+        @Override
+        @EntityGraph(attributePaths = {"patient", "slot", "slot.doctor", "slot.room", "slot.room.healthCenter"})
+        List<Appointment> findAll();
+
         // Récupère tous les rendez-vous d'un patient selon un statut donné
+        @EntityGraph(attributePaths = {"patient", "slot", "slot.doctor", "slot.room", "slot.room.healthCenter"})
         List<Appointment> findByPatient_PatientIdAndStatus(Long patientId, AppointmentStatus status);
 
         // Récupère tous les rendez-vous d'un médecin selon un statut donné
+        @EntityGraph(attributePaths = {"patient", "slot", "slot.doctor", "slot.room", "slot.room.healthCenter"})
         List<Appointment> findBySlot_Doctor_DoctorIdAndStatus(Long doctorId, AppointmentStatus status);
 
         // Récupère un rendez-vous par slot
@@ -2,19 +2,32 @@ package com.example.rml.back_office_rml.repositories;
 
 import com.example.rml.back_office_rml.entities.ConsultationReport;
 import com.example.rml.back_office_rml.enums.ReportType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ConsultationReportRepository extends JpaRepository<ConsultationReport, Long> {
 
-    // Récupérer tous les comptes rendus d'un dossier médical
+    // Tous les comptes rendus : médecin et patient du dossier joints (seuls champs lus par le DTO)
+    @Override
+    @EntityGraph(attributePaths = {"doctor", "medicalRecord", "medicalRecord.patient"})
+    List<ConsultationReport> findAll();
+
+    // Récupérer tous les comptes rendus d'un dossier médical (médecin et patient joints ; le rendez-vous
+    // n'est lu que par son identifiant, porté par la clé étrangère)
+    @EntityGraph(attributePaths = {"doctor", "medicalRecord", "medicalRecord.patient"})
     List<ConsultationReport> findByMedicalRecord_Id(Long recordId);
 
+    // Comptes rendus d'un dossier créés ou modifiés depuis une date (synchronisation mobile)
+    @EntityGraph(attributePaths = {"doctor", "medicalRecord", "medicalRecord.patient"})
+    List<ConsultationReport> findByMedicalRecord_IdAndUpdatedAtGreaterThanEqual(Long recordId, LocalDateTime since);
+
 
     // Récupérer les comptes rendus rédigés par un médecin
     List<ConsultationReport> findByDoctor_DoctorId(Long doctorId);
@@ -0,0 +1,118 @@
+package com.example.rml.back_office_rml.repositories;
+
+import com.example.rml.back_office_rml.entities.DoctorAgendaEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DoctorAgendaRepository extends JpaRepository<DoctorAgendaEntry, Long> {
+
+    // ========================================================================
+    // LECTURE
+    // ========================================================================
+
+    // Agenda d'un médecin pour une date : un seul parcours de idx_doctor_agenda_doctor_date_start
+    List<DoctorAgendaEntry> findByDoctorIdAndAgendaDateOrderByStartTimeAsc(Long doctorId, LocalDate agendaDate);
+
+    // ========================================================================
+    // RECOPIE DEPUIS LES TABLES SOURCES (DoctorAgendaProjector)
+    // ========================================================================
+
+    /**
+     * Lignes de l'agenda recalculées depuis slots, rooms, health_center, appointments et patients.
+     *
+     * - Seuls les créneaux datés sont recopiés : les modèles récurrents restent calculés à la volée
+     *   (SlotOccurrenceService), leurs occurrences réservées ont leur propre ligne slots.
+     * - appointments.slot_id est unique : au plus un rendez-vous par créneau, quel que soit son statut.
+     * - Chaque requête complète ce SELECT par son propre filtre (AND ...).
+     *
+     * Les requêtes d'écriture vident d'abord le contexte de persistance (flushAutomatically) :
+     * la recopie voit les modifications de la transaction courante.
+     */
+    String AGENDA_INSERT = "INSERT INTO doctor_agenda (slot_id, doctor_id, agenda_date, start_time, end_time, slot_status, " +
+            "recurring_template_id, room_id, room_name, health_center_name, appointment_id, appointment_status, " +
+            "consultation_reason, patient_id, patient_first_name, patient_last_name, patient_phone, refreshed_at) " +
+            "SELECT s.slot_id, s.doctor_id, s.slot_date, s.start_time, s.end_time, s.status, " +
+            "s.recurring_template_id, r.room_id, r.name, hc.name, a.appointment_id, a.status, " +
+            "a.consultation_reason, p.patient_id, p.first_name, p.last_name, p.phone_number, :refreshedAt " +
+            "FROM slots s " +
+            "JOIN rooms r ON r.room_id = s.room_id " +
+            "JOIN health_center hc ON hc.center_id = r.health_center_id " +
+            "LEFT JOIN appointments a ON a.slot_id = s.slot_id " +
+            "LEFT JOIN patients p ON p.patient_id = a.patient_id " +
+            "WHERE s.slot_date IS NOT NULL AND (s.is_recurring IS NULL OR s.is_recurring = FALSE) ";
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM doctor_agenda WHERE slot_id IN (:slotIds)", nativeQuery = true)
+    int deleteBySlotIds(@Param("slotIds") Collection<Long> slotIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = AGENDA_INSERT + "AND s.slot_id IN (:slotIds)", nativeQuery = true)
+    int insertForSlots(@Param("slotIds") Collection<Long> slotIds,
+                       @Param("refreshedAt") LocalDateTime refreshedAt);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM doctor_agenda WHERE doctor_id = :doctorId " +
+            "AND agenda_date BETWEEN :fromDate AND :toDate", nativeQuery = true)
+    int deleteForDoctorBetween(@Param("doctorId") Long doctorId,
+                               @Param("fromDate") LocalDate fromDate,
+                               @Param("toDate") LocalDate toDate);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = AGENDA_INSERT + "AND s.doctor_id = :doctorId AND s.slot_date BETWEEN :fromDate AND :toDate",
+            nativeQuery = true)
+    int insertForDoctorBetween(@Param("doctorId") Long doctorId,
+                               @Param("fromDate") LocalDate fromDate,
+                               @Param("toDate") LocalDate toDate,
+                               @Param("refreshedAt") LocalDateTime refreshedAt);
+
+    // Reconstruction complète, médecin par médecin : ceux qui ont des créneaux et ceux qui n'ont plus que des lignes
+    @Query(value = "SELECT doctor_id FROM slots WHERE doctor_id IS NOT NULL " +
+            "UNION SELECT doctor_id FROM doctor_agenda ORDER BY doctor_id", nativeQuery = true)
+    List<Long> findDoctorIdsToRebuild();
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM doctor_agenda WHERE doctor_id = :doctorId", nativeQuery = true)
+    int deleteForDoctor(@Param("doctorId") Long doctorId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = AGENDA_INSERT + "AND s.doctor_id = :doctorId", nativeQuery = true)
+    int insertForDoctor(@Param("doctorId") Long doctorId,
+                        @Param("refreshedAt") LocalDateTime refreshedAt);
+
+    // Nom de la salle et de son centre recopiés sur toutes les lignes de la salle (passées comprises)
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE doctor_agenda SET " +
+            "room_name = (SELECT r.name FROM rooms r WHERE r.room_id = :roomId), " +
+            "health_center_name = (SELECT hc.name FROM rooms r JOIN health_center hc ON hc.center_id = r.health_center_id " +
+            "WHERE r.room_id = :roomId), " +
+            "refreshed_at = :refreshedAt " +
+            "WHERE room_id = :roomId", nativeQuery = true)
+    int refreshRoomNames(@Param("roomId") Long roomId,
+                         @Param("refreshedAt") LocalDateTime refreshedAt);
+
+    /**
+     * Même lot que SlotRepository.expirePastSlotsChunk, appliqué à l'agenda : le prédicat
+     * (statut, date, heure de fin figées au début de l'exécution) est identique, les deux tables
+     * finissent donc avec les mêmes créneaux expirés.
+     */
+    @Modifying
+    @Query(value = "UPDATE doctor_agenda SET slot_status = 'EXPIRED', refreshed_at = :refreshedAt " +
+            "WHERE slot_status IN ('AVAILABLE', 'RESERVED') " +
+            "AND (agenda_date < :today OR (agenda_date = :today AND end_time < :now)) " +
+            "ORDER BY agenda_date ASC, end_time ASC " +
+            "LIMIT :limit", nativeQuery = true)
+    int expirePastEntriesChunk(@Param("today") LocalDate today,
+                               @Param("now") LocalTime now,
+                               @Param("refreshedAt") LocalDateTime refreshedAt,
+                               @Param("limit") int limit);
+}
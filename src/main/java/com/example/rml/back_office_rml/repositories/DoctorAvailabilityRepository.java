@@ -36,4 +36,14 @@ public interface DoctorAvailabilityRepository extends JpaRepository<DoctorAvaila
 
     // Récupérer uniquement les disponibilités actives d’un médecin
     List<DoctorAvailability> findByDoctorDoctorIdAndActiveTrue(Long doctorId);
+
+    // Disponibilités actives d'un médecin dans un centre, avec leur durée de consultation (génération de calendrier)
+    @Query("SELECT da FROM DoctorAvailability da JOIN FETCH da.consultationDuration " +
+            "WHERE da.doctor.doctorId = :doctorId " +
+            "AND da.healthCenter.centerId = :healthCenterId " +
+            "AND da.active = true " +
+            "ORDER BY da.dayOfWeek, da.startTime")
+    List<DoctorAvailability> findActiveWithDurationByDoctorAndHealthCenter(
+            @Param("doctorId") Long doctorId,
+            @Param("healthCenterId") Long healthCenterId);
 }
@@ -0,0 +1,9 @@
+package com.example.rml.back_office_rml.repositories;
+
+import com.example.rml.back_office_rml.entities.DoctorMedia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DoctorMediaRepository extends JpaRepository<DoctorMedia, Long> {
+}
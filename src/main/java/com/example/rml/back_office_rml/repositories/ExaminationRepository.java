@@ -2,9 +2,11 @@ package com.example.rml.back_office_rml.repositories;
 
 
 import com.example.rml.back_office_rml.entities.Examination;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 // ========================================
@@ -13,9 +15,19 @@ import java.util.List;
 @Repository
 public interface ExaminationRepository extends JpaRepository<Examination, Long> {
 
-    // Récupérer tous les examens d'un dossier
+    // Tous les examens, médecin joint
+    @Override
+    @EntityGraph(attributePaths = "doctor")
+    List<Examination> findAll();
+
+    // Récupérer tous les examens d'un dossier (médecin joint : pas de requête par examen)
+    @EntityGraph(attributePaths = "doctor")
     List<Examination> findByMedicalRecord_Id(Long recordId);
 
+    // Examens d'un dossier créés ou modifiés depuis une date (synchronisation mobile)
+    @EntityGraph(attributePaths = "doctor")
+    List<Examination> findByMedicalRecord_IdAndUpdatedAtGreaterThanEqual(Long recordId, LocalDateTime since);
+
     // Récupérer tous les examens prescrits par un médecin
     List<Examination> findByDoctor_DoctorId(Long doctorId);
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import com.example.rml.back_office_rml.entities.FamilyHistory;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 // ========================================
@@ -14,4 +15,7 @@ public interface FamilyHistoryRepository extends JpaRepository<FamilyHistory, Lo
 
     // Récupérer tous les antécédents familiaux d'un dossier
     List<FamilyHistory> findByMedicalRecord_Id(Long recordId);
+
+    // Antécédents familiaux d'un dossier créés ou modifiés depuis une date (synchronisation mobile)
+    List<FamilyHistory> findByMedicalRecord_IdAndUpdatedAtGreaterThanEqual(Long recordId, LocalDateTime since);
 }
\ No newline at end of file
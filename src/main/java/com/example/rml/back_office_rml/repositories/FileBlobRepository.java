@@ -0,0 +1,33 @@
+package com.example.rml.back_office_rml.repositories;
+
+import com.example.rml.back_office_rml.entities.FileBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface FileBlobRepository extends JpaRepository<FileBlob, Long> {
+
+    Optional<FileBlob> findByFileName(String fileName);
+
+    // Ajoute une référence à un contenu déjà connu ; 0 si le contenu n'existe pas encore
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE FileBlob b SET b.refCount = b.refCount + 1, b.updatedAt = :now WHERE b.fileName = :fileName")
+    int addReference(@Param("fileName") String fileName, @Param("now") LocalDateTime now);
+
+    // Retire une référence sans jamais passer sous zéro ; 0 si le contenu est inconnu
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE FileBlob b SET b.refCount = b.refCount - 1, b.updatedAt = :now " +
+            "WHERE b.fileName = :fileName AND b.refCount > 0")
+    int removeReference(@Param("fileName") String fileName, @Param("now") LocalDateTime now);
+
+    // Supprime le contenu s'il n'est plus référencé ; 0 si une référence a été ajoutée entre-temps
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM FileBlob b WHERE b.fileName = :fileName AND b.refCount = 0")
+    int deleteIfUnreferenced(@Param("fileName") String fileName);
+}
@@ -0,0 +1,66 @@
+package com.example.rml.back_office_rml.repositories;
+
+import com.example.rml.back_office_rml.entities.FileTransfer;
+import com.example.rml.back_office_rml.enums.FileTransferStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface FileTransferRepository extends JpaRepository<FileTransfer, Long> {
+
+    Optional<FileTransfer> findByFileName(String fileName);
+
+    List<FileTransfer> findByStatusOrderByCreatedAtAsc(FileTransferStatus status);
+
+    // Transferts en attente dont la prochaine tentative est échue (les plus anciens d'abord)
+    @Query("SELECT f.id FROM FileTransfer f " +
+            "WHERE f.status = :status AND f.nextAttemptAt <= :now " +
+            "ORDER BY f.nextAttemptAt ASC")
+    List<Long> findDueIds(@Param("status") FileTransferStatus status,
+                          @Param("now") LocalDateTime now,
+                          Pageable pageable);
+
+    /**
+     * Réserve un transfert pour un seul worker : repousse la prochaine tentative jusqu'à la fin
+     * du bail et compte la tentative. Retourne 0 si un autre worker l'a déjà pris.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE FileTransfer f SET f.nextAttemptAt = :leaseUntil, f.attempts = f.attempts + 1, f.updatedAt = :now " +
+            "WHERE f.id = :id AND f.status = :status AND f.nextAttemptAt <= :now")
+    int claim(@Param("id") Long id,
+              @Param("status") FileTransferStatus status,
+              @Param("now") LocalDateTime now,
+              @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * Transfert en échec repris par un nouvel upload du même contenu : nouvelle copie dans le spool,
+     * tentatives remises à zéro. Retourne 0 si le transfert n'est plus FAILED (repris entre-temps).
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE FileTransfer f SET f.status = :pending, f.spoolPath = :spoolPath, f.attempts = 0, " +
+            "f.nextAttemptAt = :now, f.lastError = NULL, f.updatedAt = :now " +
+            "WHERE f.fileName = :fileName AND f.status = :failed")
+    int resumeFailed(@Param("fileName") String fileName,
+                     @Param("spoolPath") String spoolPath,
+                     @Param("failed") FileTransferStatus failed,
+                     @Param("pending") FileTransferStatus pending,
+                     @Param("now") LocalDateTime now);
+
+    // Transfert en échec dont les octets ont été envoyés directement au stockage (FileTransferUtil)
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE FileTransfer f SET f.status = :stored, f.storedAt = :now, f.spoolPath = NULL, " +
+            "f.nextAttemptAt = NULL, f.lastError = NULL, f.updatedAt = :now " +
+            "WHERE f.fileName = :fileName AND f.status = :failed")
+    int markFailedStored(@Param("fileName") String fileName,
+                         @Param("failed") FileTransferStatus failed,
+                         @Param("stored") FileTransferStatus stored,
+                         @Param("now") LocalDateTime now);
+}
@@ -4,6 +4,7 @@ import com.example.rml.back_office_rml.entities.MedicalHistory;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 // ========================================
@@ -14,4 +15,7 @@ public interface MedicalHistoryRepository extends JpaRepository<MedicalHistory,
 
     // Récupérer tous les antécédents médicaux d'un dossier
     List<MedicalHistory> findByMedicalRecord_Id(Long recordId);
+
+    // Antécédents médicaux d'un dossier créés ou modifiés depuis une date (synchronisation mobile)
+    List<MedicalHistory> findByMedicalRecord_IdAndUpdatedAtGreaterThanEqual(Long recordId, LocalDateTime since);
 }
\ No newline at end of file
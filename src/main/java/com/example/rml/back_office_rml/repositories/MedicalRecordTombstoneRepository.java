@@ -0,0 +1,23 @@
+package com.example.rml.back_office_rml.repositories;
+
+import com.example.rml.back_office_rml.entities.MedicalRecordTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface MedicalRecordTombstoneRepository extends JpaRepository<MedicalRecordTombstone, Long> {
+
+    // Suppressions d'un dossier depuis le curseur du client
+    List<MedicalRecordTombstone> findByRecordIdAndDeletedAtGreaterThanEqualOrderByDeletedAt(Long recordId, LocalDateTime since);
+
+    // Purge des traces plus anciennes que la durée de conservation
+    @Modifying
+    @Query("DELETE FROM MedicalRecordTombstone t WHERE t.deletedAt < :before")
+    int deleteOlderThan(@Param("before") LocalDateTime before);
+}
@@ -1,31 +1,64 @@
 package com.example.rml.back_office_rml.repositories;
 
 import com.example.rml.back_office_rml.entities.Prescription;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PrescriptionRepository extends JpaRepository<Prescription, Long> {
 
-    // Récupérer toutes les ordonnances d'un dossier médical
+    // Toutes les ordonnances : médecin et patient du dossier joints, médicaments par lots (@BatchSize)
+    @Override
+    @EntityGraph(attributePaths = {"doctor", "medicalRecord", "medicalRecord.patient"})
+    List<Prescription> findAll();
+
+    // Récupérer toutes les ordonnances d'un dossier médical (médecin et patient joints ; le rendez-vous
+    // n'est lu que par son identifiant, porté par la clé étrangère)
+    @EntityGraph(attributePaths = {"doctor", "medicalRecord", "medicalRecord.patient"})
     List<Prescription> findByMedicalRecord_Id(Long recordId);
 
+    // Ordonnances d'un dossier créés ou modifiés depuis une date (synchronisation mobile)
+    @EntityGraph(attributePaths = {"doctor", "medicalRecord", "medicalRecord.patient"})
+    List<Prescription> findByMedicalRecord_IdAndUpdatedAtGreaterThanEqual(Long recordId, LocalDateTime since);
+
     // Récupérer les ordonnances prescrites par un médecin
     List<Prescription> findByDoctor_DoctorId(Long doctorId);
 
     // Récupérer les ordonnances d'un rendez-vous
     Optional<Prescription> findByAppointment_AppointmentId(Long appointmentId);
 
-    // Récupérer les ordonnances d'un rendez-vous
+    // Récupérer une ordonnance par son numéro (médecin et patient joints)
+    @EntityGraph(attributePaths = {"doctor", "medicalRecord", "medicalRecord.patient"})
     Optional<Prescription> findByPrescriptionNumber(String prescriptionNumber);
 
-    //Cette requête ne renverra que les ordonnances non expirées dont validUntil est dépassé utiliser pour automatiser l'expiration des dates d'ordonnance (PrescriptionStatusScheduler)
-    @Query("SELECT p FROM Prescription p WHERE p.status <> com.example.rml.back_office_rml.enums.PrescriptionStatus.EXPIRED AND p.validUntil < :today")
-    List<Prescription> findExpiredPrescriptions(@Param("today") LocalDate today);
-}
\ No newline at end of file
+    /**
+     * Passe à EXPIRED un lot d'au plus :limit ordonnances non expirées dont validUntil est dépassé
+     * (PrescriptionStatusScheduler).
+     *
+     * - UPDATE ensembliste : ni les ordonnances ni leurs médicaments, médecins ou rendez-vous ne sont chargés.
+     * - updated_at est renseigné pour que la synchronisation des dossiers voie le changement de statut.
+     * - Une transaction par appel : verrous et journal d'annulation bornés par la taille du lot.
+     *
+     * Retourne le nombre de lignes modifiées (0 lorsqu'il ne reste plus rien à expirer).
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE prescriptions SET status = 'EXPIRED', updated_at = :updatedAt " +
+            "WHERE valid_until < :today AND status <> 'EXPIRED' " +
+            "ORDER BY valid_until ASC " +
+            "LIMIT :limit", nativeQuery = true)
+    int expirePrescriptionsChunk(
+            @Param("today") LocalDate today,
+            @Param("updatedAt") LocalDateTime updatedAt,
+            @Param("limit") int limit);
+}
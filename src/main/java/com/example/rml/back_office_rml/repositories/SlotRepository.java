@@ -4,14 +4,22 @@ import com.example.rml.back_office_rml.entities.Slot;
 import com.example.rml.back_office_rml.enums.DayOfWeek;
 import com.example.rml.back_office_rml.enums.MedicalSpecialty;
 import com.example.rml.back_office_rml.enums.SlotStatus;
+import com.example.rml.back_office_rml.projections.SlotIntervalView;
+import com.example.rml.back_office_rml.projections.SlotListView;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface SlotRepository extends JpaRepository<Slot, Long> {
@@ -106,27 +114,180 @@ public interface SlotRepository extends JpaRepository<Slot, Long> {
     // ========================================================================
     // RÉCUPÉRATION DES SLOTS
     // ========================================================================
+    // Colonnes de SlotListView : une seule requête avec jointures vers le médecin, la salle et le centre
+    String SLOT_LIST_SELECT = "SELECT s.slotId AS slotId, s.slotDate AS slotDate, s.dayOfWeek AS dayOfWeek, " +
+            "s.startTime AS startTime, s.endTime AS endTime, s.status AS status, s.isRecurring AS isRecurring, " +
+            "d.doctorId AS doctorId, d.firstName AS doctorFirstName, d.lastName AS doctorLastName, " +
+            "d.specialty AS doctorSpecialty, r.roomId AS roomId, r.name AS roomName, " +
+            "hc.centerId AS healthCenterId, hc.name AS healthCenterName, t.slotId AS recurringTemplateId, " +
+            "s.createdAt AS createdAt, s.updatedAt AS updatedAt " +
+            "FROM Slot s JOIN s.doctor d JOIN s.room r JOIN r.healthCenter hc LEFT JOIN s.recurringTemplate t ";
+
+    String SLOT_LIST_ORDER = " ORDER BY s.slotDate ASC, s.startTime ASC";
+
+    // Récupère tous les créneaux triés par date puis heure de début
+    @Query(SLOT_LIST_SELECT + SLOT_LIST_ORDER)
+    List<SlotListView> findAllSlotViews();
+
+    // Récupère un créneau avec les informations du médecin, de la salle et du centre
+    @Query(SLOT_LIST_SELECT + "WHERE s.slotId = :slotId")
+    Optional<SlotListView> findSlotViewById(@Param("slotId") Long slotId);
+
     // Récupère tous les créneaux d’un médecin triés par date puis heure de début
-    List<Slot> findByDoctor_DoctorIdOrderBySlotDateAscStartTimeAsc(Long doctorId);
+    @Query(SLOT_LIST_SELECT + "WHERE d.doctorId = :doctorId" + SLOT_LIST_ORDER)
+    List<SlotListView> findSlotViewsByDoctor(@Param("doctorId") Long doctorId);
 
     // Récupère tous les créneaux d’une salle triés par date puis heure de début
-    List<Slot> findByRoom_RoomIdOrderBySlotDateAscStartTimeAsc(Long roomId);
+    @Query(SLOT_LIST_SELECT + "WHERE r.roomId = :roomId" + SLOT_LIST_ORDER)
+    List<SlotListView> findSlotViewsByRoom(@Param("roomId") Long roomId);
 
     // Récupère tous les créneaux de toutes les salles d’un centre de santé triés par date puis heure de début
-    List<Slot> findByRoom_HealthCenter_CenterIdOrderBySlotDateAscStartTimeAsc(Long healthCenterId);
+    @Query(SLOT_LIST_SELECT + "WHERE hc.centerId = :healthCenterId" + SLOT_LIST_ORDER)
+    List<SlotListView> findSlotViewsByHealthCenter(@Param("healthCenterId") Long healthCenterId);
 
     // Récupère tous les créneaux avec un statut spécifique (ex: AVAILABLE, OCCUPIED) triés par date puis heure de début
-    List<Slot> findByStatusOrderBySlotDateAscStartTimeAsc(SlotStatus status);
+    @Query(SLOT_LIST_SELECT + "WHERE s.status = :status" + SLOT_LIST_ORDER)
+    List<SlotListView> findSlotViewsByStatus(@Param("status") SlotStatus status);
 
     /**
      * Récupère tous les slots disponibles (status = AVAILABLE) pour une spécialité médicale donnée,
      * triés par date puis heure de début.
      */
-    @Query("SELECT s FROM Slot s " +
+    @Query(SLOT_LIST_SELECT +
             "WHERE s.status = 'AVAILABLE' " +
-            "AND s.doctor.specialty = :specialty " +
-            "ORDER BY s.slotDate ASC, s.startTime ASC")
-    List<Slot> findAvailableSlotsBySpecialty(@Param("specialty") MedicalSpecialty specialty);
-}
+            "AND d.specialty = :specialty" + SLOT_LIST_ORDER)
+    List<SlotListView> findAvailableSlotViewsBySpecialty(@Param("specialty") MedicalSpecialty specialty);
+
+
+    // ========================================================================
+    // CRÉNEAUX RÉCURRENTS : MODÈLES ET OCCURRENCES (SlotOccurrenceService)
+    // ========================================================================
+
+    // Modèles récurrents (la date du modèle est sa première occurrence)
+    @Query(SLOT_LIST_SELECT + "WHERE s.isRecurring = true")
+    List<SlotListView> findRecurringTemplateViews();
 
+    // Occurrences déjà matérialisées (réservées au moins une fois) sur une période
+    @Query(SLOT_LIST_SELECT + "WHERE t.slotId IS NOT NULL AND s.slotDate BETWEEN :fromDate AND :toDate")
+    List<SlotListView> findOccurrenceViewsBetween(
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate);
 
+    // Occurrence matérialisée d'un modèle à une date
+    Optional<Slot> findByRecurringTemplate_SlotIdAndSlotDate(Long templateId, LocalDate slotDate);
+
+    /**
+     * Recherche filtrée et paginée par curseur (keyset) sur (slot_date, start_time, slot_id).
+     *
+     * - Chaque filtre est optionnel : un paramètre null ne restreint rien.
+     * - La page suivante reprend strictement après le dernier créneau renvoyé (afterDate, afterTime, afterId),
+     *   sans OFFSET : le coût d'une page ne dépend pas de sa position dans le résultat.
+     * - La taille de page est donnée par le Pageable (toujours page 0).
+     */
+    @Query(SLOT_LIST_SELECT +
+            "WHERE s.slotDate >= :fromDate " +
+            "AND (:toDate IS NULL OR s.slotDate <= :toDate) " +
+            "AND (:status IS NULL OR s.status = :status) " +
+            "AND (:specialty IS NULL OR d.specialty = :specialty) " +
+            "AND (:doctorId IS NULL OR d.doctorId = :doctorId) " +
+            "AND (:healthCenterId IS NULL OR hc.centerId = :healthCenterId) " +
+            "AND (:afterId IS NULL OR s.slotDate > :afterDate " +
+            "OR (s.slotDate = :afterDate AND (s.startTime > :afterTime " +
+            "OR (s.startTime = :afterTime AND s.slotId > :afterId)))) " +
+            "ORDER BY s.slotDate ASC, s.startTime ASC, s.slotId ASC")
+    List<SlotListView> searchSlotViews(
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate,
+            @Param("status") SlotStatus status,
+            @Param("specialty") MedicalSpecialty specialty,
+            @Param("doctorId") Long doctorId,
+            @Param("healthCenterId") Long healthCenterId,
+            @Param("afterDate") LocalDate afterDate,
+            @Param("afterTime") LocalTime afterTime,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    /**
+     * Flux des intervalles utilisés par le SlotConflictIndex :
+     * créneaux datés à partir de :fromDate et tous les créneaux récurrents.
+     * À consommer dans une transaction (le flux garde le curseur JDBC ouvert).
+     */
+    @Query("SELECT s.slotId AS slotId, s.doctor.doctorId AS doctorId, s.room.roomId AS roomId, " +
+            "s.slotDate AS slotDate, s.dayOfWeek AS dayOfWeek, s.startTime AS startTime, " +
+            "s.endTime AS endTime, s.isRecurring AS isRecurring " +
+            "FROM Slot s WHERE s.slotDate >= :fromDate OR s.isRecurring = true")
+    Stream<SlotIntervalView> streamIntervalsForConflictIndex(@Param("fromDate") LocalDate fromDate);
+
+    // Intervalles d'un médecin sur une période (+ ses créneaux récurrents), pour la génération de calendrier
+    @Query("SELECT s.slotId AS slotId, s.doctor.doctorId AS doctorId, s.room.roomId AS roomId, " +
+            "s.slotDate AS slotDate, s.dayOfWeek AS dayOfWeek, s.startTime AS startTime, " +
+            "s.endTime AS endTime, s.isRecurring AS isRecurring " +
+            "FROM Slot s WHERE s.doctor.doctorId = :doctorId " +
+            "AND ((s.slotDate BETWEEN :fromDate AND :toDate) OR s.isRecurring = true)")
+    List<SlotIntervalView> findIntervalsForDoctorBetween(
+            @Param("doctorId") Long doctorId,
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate);
+
+    // Intervalles d'une salle sur une période (+ ses créneaux récurrents), pour la génération de calendrier
+    @Query("SELECT s.slotId AS slotId, s.doctor.doctorId AS doctorId, s.room.roomId AS roomId, " +
+            "s.slotDate AS slotDate, s.dayOfWeek AS dayOfWeek, s.startTime AS startTime, " +
+            "s.endTime AS endTime, s.isRecurring AS isRecurring " +
+            "FROM Slot s WHERE s.room.roomId = :roomId " +
+            "AND ((s.slotDate BETWEEN :fromDate AND :toDate) OR s.isRecurring = true)")
+    List<SlotIntervalView> findIntervalsForRoomBetween(
+            @Param("roomId") Long roomId,
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate);
+
+    // ========================================================================
+    // RÉSERVATION ATOMIQUE (AppointmentServiceImpl)
+    // ========================================================================
+
+    /**
+     * Réserve le créneau seulement s'il est encore AVAILABLE.
+     *
+     * - La condition sur le statut est évaluée par la base sous verrou de ligne :
+     *   de deux réservations concurrentes, une seule modifie la ligne, l'autre obtient 0.
+     * - Les modèles récurrents ne sont jamais réservés : on réserve leurs occurrences (SlotOccurrenceService).
+     *
+     * Retourne 1 si la réservation a réussi, 0 si le créneau n'était plus disponible.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Slot s SET s.status = :reserved, s.updatedAt = :updatedAt " +
+            "WHERE s.slotId = :slotId AND s.status = :available")
+    int reserveIfAvailable(
+            @Param("slotId") Long slotId,
+            @Param("available") SlotStatus available,
+            @Param("reserved") SlotStatus reserved,
+            @Param("updatedAt") LocalDateTime updatedAt);
+
+    // ========================================================================
+    // EXPIRATION EN MASSE (SlotScheduler)
+    // ========================================================================
+
+    /**
+     * Passe à EXPIRED un lot d'au plus :limit créneaux AVAILABLE ou RESERVED déjà terminés.
+     * Les modèles récurrents n'expirent pas : leur date n'est que celle de la première occurrence.
+     *
+     * - Un seul UPDATE ensembliste : aucune entité n'est chargée dans le contexte de persistance.
+     * - Le lot est parcouru dans l'ordre (slot_date, end_time) : on expire d'abord les plus anciens.
+     * - Chaque appel s'exécute dans sa propre transaction, ce qui borne la taille des verrous
+     *   et du journal d'annulation quelle que soit la volumétrie de la table.
+     *
+     * Retourne le nombre de lignes modifiées (0 lorsqu'il ne reste plus rien à expirer).
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE slots SET status = 'EXPIRED', updated_at = :updatedAt " +
+            "WHERE status IN ('AVAILABLE', 'RESERVED') " +
+            "AND (is_recurring IS NULL OR is_recurring = FALSE) " +
+            "AND (slot_date < :today OR (slot_date = :today AND end_time < :now)) " +
+            "ORDER BY slot_date ASC, end_time ASC " +
+            "LIMIT :limit", nativeQuery = true)
+    int expirePastSlotsChunk(
+            @Param("today") LocalDate today,
+            @Param("now") LocalTime now,
+            @Param("updatedAt") LocalDateTime updatedAt,
+            @Param("limit") int limit);
+}
@@ -10,9 +10,17 @@ import com.example.rml.back_office_rml.enums.SlotStatus;
 import com.example.rml.back_office_rml.repositories.AppointmentRepository;
 import com.example.rml.back_office_rml.repositories.PatientRepository;
 import com.example.rml.back_office_rml.repositories.SlotRepository;
+import com.example.rml.back_office_rml.util.StageMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.TransientDataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
 
@@ -22,81 +30,117 @@ public class AppointmentServiceImpl implements AppointmentService {
     private final SlotRepository slotRepository;
     private final PatientRepository patientRepository;
     private final AppointmentRepository appointmentRepository;
+    private final SlotOccurrenceService occurrenceService;
+    private final DoctorAgendaProjector agendaProjector;
+    private final TransactionTemplate bookingTransaction;
+    private final int bookingMaxAttempts;
+    private final long bookingRetryBackoffMs;
 
+    // Durée des étapes et refus par motif (appointments_booking_stage_seconds, appointments_booking_rejections_total)
+    private final StageMetrics bookingMetrics;
+
+    // Tentatives rejouées après un échec transitoire (deadlock, délai de verrou)
+    private final Counter bookingRetries;
 
     public AppointmentServiceImpl(SlotRepository slotRepository,
                                   PatientRepository patientRepository,
-                                  AppointmentRepository appointmentRepository) {
+                                  AppointmentRepository appointmentRepository,
+                                  SlotOccurrenceService occurrenceService,
+                                  DoctorAgendaProjector agendaProjector,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${appointments.booking.max-attempts:3}") int bookingMaxAttempts,
+                                  @Value("${appointments.booking.retry-backoff-ms:50}") long bookingRetryBackoffMs) {
         this.slotRepository = slotRepository;
         this.patientRepository = patientRepository;
         this.appointmentRepository = appointmentRepository;
+        this.occurrenceService = occurrenceService;
+        this.agendaProjector = agendaProjector;
+        this.bookingTransaction = new TransactionTemplate(transactionManager);
+        this.bookingMaxAttempts = Math.max(1, bookingMaxAttempts);
+        this.bookingRetryBackoffMs = bookingRetryBackoffMs;
+        this.bookingMetrics = new StageMetrics(meterRegistry, "appointments.booking");
+        this.bookingRetries = Counter.builder("appointments.booking.retries")
+                .description("Tentatives de réservation rejouées après un échec transitoire")
+                .register(meterRegistry);
     }
+
+    /**
+     * Réservation d'un créneau.
+     *
+     * Pour un créneau récurrent, on réserve la ligne de l'occurrence demandée (occurrenceDate,
+     * prochaine occurrence par défaut), créée au besoin par SlotOccurrenceService : le modèle
+     * récurrent n'est jamais modifié.
+     *
+     * Chaque tentative s'exécute dans sa propre transaction : un échec transitoire de la base
+     * (deadlock, délai de verrou dépassé) annule la tentative, qui est rejouée au plus
+     * appointments.booking.max-attempts fois. Perdre la course contre un autre patient n'est pas
+     * transitoire : l'erreur est remontée immédiatement.
+     */
     @Override
-    @Transactional
     public AppointmentResponseDTO bookAppointment(AppointmentRequestDTO request) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Long slotId = bookingMetrics.time("occurrence_resolve",
+                        () -> occurrenceService.resolveBookableSlotId(request.getSlotId(), request.getOccurrenceDate()));
+                return bookingTransaction.execute(status -> reserve(request, slotId));
+            } catch (TransientDataAccessException e) {
+                if (attempt >= bookingMaxAttempts) {
+                    bookingMetrics.countRejection("retries_exhausted");
+                    throw new IllegalStateException(
+                            "Le créneau est très demandé, réservation impossible pour le moment. Veuillez réessayer.", e);
+                }
+                bookingRetries.increment();
+                pauseBeforeRetry(attempt);
+            }
+        }
+    }
+
+    private AppointmentResponseDTO reserve(AppointmentRequestDTO request, Long slotId) {
 
         //Vérification 1: Le patient existe
-        Patient patient = patientRepository.findById(request.getPatientId())
-                .orElseThrow(() -> new IllegalArgumentException(
+        Patient patient = bookingMetrics.time("patient_lookup", () -> patientRepository.findById(request.getPatientId()))
+                .orElseThrow(() -> bookingMetrics.reject("patient_not_found",
                         "Patient non trouvé avec l'ID: " + request.getPatientId()));
 
         //Vérification 2: Le slot existe
-        Slot slot = slotRepository.findById(request.getSlotId())
-                .orElseThrow(() -> new IllegalArgumentException(
-                        "Créneau non trouvé avec l'ID: " + request.getSlotId()));
+        Slot slot = bookingMetrics.time("slot_lookup", () -> slotRepository.findById(slotId))
+                .orElseThrow(() -> bookingMetrics.reject("slot_not_found",
+                        "Créneau non trouvé avec l'ID: " + slotId));
 
         //Vérification 3: Le slot est disponible
         if (slot.getStatus() != SlotStatus.AVAILABLE) {
-            throw new IllegalArgumentException("Ce créneau n'est plus disponible");
+            throw bookingMetrics.reject("slot_unavailable", "Ce créneau n'est plus disponible");
         }
 
-        /**
-         *  Vérification 4 : Gestion des slots récurrents
-         *
-         * Cette section gère la logique des créneaux (slots) pour les rendez-vous :
-         *
-         * 1. Si le créneau est **récurrent** (isRecurring = true) :
-         *    - On avance la date du slot jusqu'à obtenir une date **future** par rapport à aujourd'hui.
-         *    - Exemple : si le slot était prévu le mercredi 01/10/2025 et qu'on est le 06/10/2025,
-         *      le créneau sera automatiquement déplacé au mercredi suivant (08/10/2025).
-         *    - La récurrence est ici considérée sur une base hebdomadaire.
-         *
-         * 2. Si le créneau **n'est pas récurrent** :
-         *    - On vérifie simplement que la date du slot n'est pas **dans le passé**.
-         *    - On prend en compte la date et l'heure pour le même jour :
-         *      - Si le slot est aujourd'hui mais que l'heure de fin est déjà passée,
-         *        la réservation est refusée.
-         *
-         * Cette logique permet de :
-         *    - Assurer que les patients ne réservent pas de créneaux déjà passés.
-         *    - Gérer automatiquement les slots récurrents pour qu'ils restent toujours disponibles
-         *      dans le futur sans intervention manuelle.
-         */
-        if (Boolean.TRUE.equals(slot.getIsRecurring())) {
-            // Recupérer la date actuelle
-            LocalDate nextDate = slot.getSlotDate();
-
-            //Tant que la date enregistré est passé on va avancer le date du créneau d'une semaine
-            while (nextDate.isBefore(LocalDate.now())) {
-                nextDate = nextDate.plusWeeks(1); // avancer d'une semaine
-            }
-            slot.setSlotDate(nextDate);
-        } else {
-            // Vérification : le slot n'est pas dans le passé pour les slots non récurrents
-            if (slot.getSlotDate().isBefore(LocalDate.now()) ||
-                    (slot.getSlotDate().isEqual(LocalDate.now()) && slot.getEndTime().isBefore(LocalTime.now()))) {
-                throw new IllegalArgumentException("Impossible de réserver un créneau dans le passé");
-            }
+        // Vérification 4 : le slot n'est pas dans le passé
+        // (les créneaux récurrents ont été remplacés par la ligne de leur occurrence, voir bookAppointment)
+        if (slot.getSlotDate().isBefore(LocalDate.now()) ||
+                (slot.getSlotDate().isEqual(LocalDate.now()) && slot.getEndTime().isBefore(LocalTime.now()))) {
+            throw bookingMetrics.reject("past_date", "Impossible de réserver un créneau dans le passé");
         }
         // Vérification 5: Le patient n'a pas déjà réservé ce créneau exact
         // (utile seulement pour empêcher double réservation sur le même slot)
-        boolean alreadyBooked = appointmentRepository
-                .existsByPatient_PatientIdAndSlot_SlotId(patient.getPatientId(), slot.getSlotId());
+        Long patientId = patient.getPatientId();
+        boolean alreadyBooked = bookingMetrics.time("duplicate_check",
+                () -> appointmentRepository.existsByPatient_PatientIdAndSlot_SlotId(patientId, slotId));
 
         if (alreadyBooked) {
-            throw new IllegalArgumentException("Vous avez déjà réservé ce créneau.");
+            throw bookingMetrics.reject("already_booked", "Vous avez déjà réservé ce créneau.");
         }
 
+        //  Réserver le slot : UPDATE conditionnel (status = AVAILABLE), seul un patient peut gagner
+        int reserved = bookingMetrics.time("reserve_update", () -> slotRepository.reserveIfAvailable(slotId,
+                SlotStatus.AVAILABLE, SlotStatus.RESERVED, LocalDateTime.now()));
+        if (reserved == 0) {
+            bookingMetrics.countRejection("lost_race");
+            throw new IllegalStateException("Ce créneau vient d'être réservé par un autre patient");
+        }
+
+        // Le contexte de persistance a été vidé par l'UPDATE : relire le slot réservé
+        slot = bookingMetrics.time("slot_reload", () -> slotRepository.findById(slotId))
+                .orElseThrow(() -> new IllegalStateException("Créneau supprimé pendant la réservation"));
+
         //  Créer le rendez-vous
         Appointment appointment = new Appointment();
         appointment.setPatient(patient);
@@ -104,15 +148,22 @@ public class AppointmentServiceImpl implements AppointmentService {
         appointment.setConsultationReason(request.getConsultationReason());
         appointment.setStatus(AppointmentStatus.PENDING);
 
-        //  Mettre à jour le slot : il devient réservé
-        slot.setStatus(SlotStatus.RESERVED);
-        slotRepository.save(slot); // sauvegarder le slot mis à jour
-
         //  Sauvegarder le rendez-vous
-        appointmentRepository.save(appointment);
+        bookingMetrics.time("save", () -> appointmentRepository.save(appointment));
+        bookingMetrics.time("agenda_refresh", () -> agendaProjector.refreshSlots(slotId));
 
         //Retourner le DTO de réponse
-        return convertToAppointmentResponse(appointment);
+        return bookingMetrics.time("dto_conversion", () -> convertToAppointmentResponse(appointment));
+    }
+
+    // Attente croissante entre deux tentatives de réservation
+    private void pauseBeforeRetry(int attempt) {
+        try {
+            Thread.sleep(bookingRetryBackoffMs * attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Réservation interrompue", e);
+        }
     }
 
 
@@ -188,6 +239,7 @@ public class AppointmentServiceImpl implements AppointmentService {
 
         appointmentRepository.save(appointment);
         slotRepository.save(appointment.getSlot());
+        agendaProjector.refreshSlots(appointment.getSlot().getSlotId());
 
         return convertToAppointmentResponse(appointment);
     }
@@ -223,6 +275,7 @@ public class AppointmentServiceImpl implements AppointmentService {
 
         appointmentRepository.save(appointment);
         slotRepository.save(appointment.getSlot());
+        agendaProjector.refreshSlots(appointment.getSlot().getSlotId());
     }
 
     @Transactional
@@ -256,6 +309,7 @@ public class AppointmentServiceImpl implements AppointmentService {
         //  Sauvegarde les changements
         appointmentRepository.save(appointment);
         slotRepository.save(appointment.getSlot());
+        agendaProjector.refreshSlots(appointment.getSlot().getSlotId());
 
         return convertToAppointmentResponse(appointment);
     }
@@ -290,8 +344,13 @@ public class AppointmentServiceImpl implements AppointmentService {
         }
 
         // Si le slot à modifier est différent du slot actuel
-        if (request.getSlotId() != null && !request.getSlotId().equals(appointment.getSlot().getSlotId())) {
-            Slot newSlot = slotRepository.findById(request.getSlotId())
+        // (un créneau récurrent est remplacé par la ligne de l'occurrence demandée)
+        Long previousSlotId = appointment.getSlot().getSlotId();
+        Long newSlotId = request.getSlotId() != null
+                ? occurrenceService.resolveBookableSlotId(request.getSlotId(), request.getOccurrenceDate())
+                : null;
+        if (newSlotId != null && !newSlotId.equals(appointment.getSlot().getSlotId())) {
+            Slot newSlot = slotRepository.findById(newSlotId)
                     .orElseThrow(() -> new IllegalArgumentException("Nouveau créneau introuvable."));
 
             // Vérifie que le nouveau créneau n'est pas passé
@@ -301,19 +360,25 @@ public class AppointmentServiceImpl implements AppointmentService {
                 throw new IllegalStateException("Impossible de déplacer le rendez-vous vers un créneau déjà expiré.");
             }
 
-            // Vérifie que le nouveau créneau est disponible
-            if (newSlot.getStatus() != SlotStatus.AVAILABLE) {
+            // Réserve le nouveau créneau : UPDATE conditionnel (status = AVAILABLE), comme bookAppointment
+            int reserved = slotRepository.reserveIfAvailable(newSlotId,
+                    SlotStatus.AVAILABLE, SlotStatus.RESERVED, LocalDateTime.now());
+            if (reserved == 0) {
                 throw new IllegalStateException("Le créneau choisi n'est pas disponible.");
             }
 
-            // Libère l'ancien créneau
+            // Le contexte de persistance a été vidé par l'UPDATE : relire le rendez-vous et le nouveau créneau
+            appointment = appointmentRepository.findById(appointmentId)
+                    .orElseThrow(() -> new IllegalStateException("Rendez-vous supprimé pendant la modification"));
+            newSlot = slotRepository.findById(newSlotId)
+                    .orElseThrow(() -> new IllegalStateException("Créneau supprimé pendant la réservation"));
+
+            // Libère l'ancien créneau, une fois le nouveau obtenu
             appointment.getSlot().setStatus(SlotStatus.AVAILABLE);
             slotRepository.save(appointment.getSlot());
 
-            // Associe le nouveau créneau et le réserve
+            // Associe le nouveau créneau
             appointment.setSlot(newSlot);
-            newSlot.setStatus(SlotStatus.RESERVED);
-            slotRepository.save(newSlot);
         }
 
         // Met à jour le motif si fourni
@@ -323,6 +388,8 @@ public class AppointmentServiceImpl implements AppointmentService {
 
         // Sauvegarde les modifications
         Appointment updatedAppointment = appointmentRepository.save(appointment);
+        // Ancien et nouveau créneau (le même si seul le motif a changé)
+        agendaProjector.refreshSlots(previousSlotId, updatedAppointment.getSlot().getSlotId());
 
         return convertToAppointmentResponse(updatedAppointment);
     }
@@ -357,6 +424,7 @@ public class AppointmentServiceImpl implements AppointmentService {
 
         // Supprime le rendez-vous
         appointmentRepository.delete(appointment);
+        agendaProjector.refreshSlots(appointment.getSlot().getSlotId());
     }
 
 
@@ -365,6 +433,7 @@ public class AppointmentServiceImpl implements AppointmentService {
      */
     private AppointmentResponseDTO convertToAppointmentResponse( Appointment appointment) {
         AppointmentResponseDTO dto = new AppointmentResponseDTO();
+        dto.setAppointmentId(appointment.getAppointmentId());
 
         // Informations du slot
         dto.setSlotId(appointment.getSlot().getSlotId());
@@ -15,9 +15,12 @@ import java.util.stream.Collectors;
 public class ConsultationDurationServiceImpl implements ConsultationDurationService {
 
     private final ConsultationDurationRepository durationRepository;
+    private final ReferenceDataCache referenceDataCache;
 
-    public ConsultationDurationServiceImpl(ConsultationDurationRepository durationRepository) {
+    public ConsultationDurationServiceImpl(ConsultationDurationRepository durationRepository,
+                                           ReferenceDataCache referenceDataCache) {
         this.durationRepository = durationRepository;
+        this.referenceDataCache = referenceDataCache;
     }
 
     // ====================================================================
@@ -55,6 +58,7 @@ public class ConsultationDurationServiceImpl implements ConsultationDurationServ
         existing.setMinutes(durationDTO.getMinutes());
         existing.setDisplayName(durationDTO.getDisplayName());
 
+        referenceDataCache.evictDurationAfterCommit(id);
         return convertToDTO(durationRepository.save(existing));
     }
 
@@ -67,6 +71,7 @@ public class ConsultationDurationServiceImpl implements ConsultationDurationServ
             throw new IllegalArgumentException("Durée non trouvée avec l'ID: " + id);
         }
         durationRepository.deleteById(id);
+        referenceDataCache.evictDurationAfterCommit(id);
     }
 
     // ====================================================================
@@ -78,6 +83,7 @@ public class ConsultationDurationServiceImpl implements ConsultationDurationServ
                 .orElseThrow(() -> new IllegalArgumentException("Durée non trouvée avec l'ID: " + id));
 
         duration.setActive(!duration.getActive());
+        referenceDataCache.evictDurationAfterCommit(id);
         return convertToDTO(durationRepository.save(duration));
     }
 
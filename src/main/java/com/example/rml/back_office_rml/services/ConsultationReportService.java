@@ -1,6 +1,7 @@
 package com.example.rml.back_office_rml.services;
 
 import com.example.rml.back_office_rml.dto.ConsultationReportDTO;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ConsultationReportService {
@@ -13,5 +14,8 @@ public interface ConsultationReportService {
 
     List<ConsultationReportDTO> getReportsByRecordId(Long recordId);
 
+    // Récupérer les comptes rendus d'un dossier créés ou modifiés depuis une date (synchronisation mobile)
+    List<ConsultationReportDTO> getReportsChangedSince(Long recordId, LocalDateTime since);
+
 
 }
\ No newline at end of file
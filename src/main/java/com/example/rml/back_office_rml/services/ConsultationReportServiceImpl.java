@@ -6,6 +6,7 @@ import com.example.rml.back_office_rml.repositories.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -99,6 +100,7 @@ public class ConsultationReportServiceImpl implements ConsultationReportService
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ConsultationReportDTO> getAllReports() {
         return reportRepository.findAll()
                 .stream()
@@ -107,6 +109,7 @@ public class ConsultationReportServiceImpl implements ConsultationReportService
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ConsultationReportDTO> getReportsByRecordId(Long recordId) {
         if (!medicalRecordRepository.existsById(recordId)) {
             throw new IllegalArgumentException(
@@ -119,11 +122,21 @@ public class ConsultationReportServiceImpl implements ConsultationReportService
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<ConsultationReportDTO> getReportsChangedSince(Long recordId, LocalDateTime since) {
+        return reportRepository.findByMedicalRecord_IdAndUpdatedAtGreaterThanEqual(recordId, since)
+                .stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
 
 
     // Conversion entité → DTO
     private ConsultationReportDTO convertToDTO(ConsultationReport report) {
         ConsultationReportDTO dto = new ConsultationReportDTO();
+        dto.setId(report.getReportId());
         dto.setRecordId(report.getMedicalRecord().getId());
         dto.setDoctorId(report.getDoctor().getDoctorId());
 
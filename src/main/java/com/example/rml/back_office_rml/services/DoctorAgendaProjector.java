@@ -0,0 +1,162 @@
+package com.example.rml.back_office_rml.services;
+
+import com.example.rml.back_office_rml.dto.AgendaRebuildReportDTO;
+import com.example.rml.back_office_rml.repositories.DoctorAgendaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tient à jour la table doctor_agenda (agenda journalier des médecins, DoctorAgendaService).
+ *
+ * Chaque écriture sur un créneau, un rendez-vous ou une salle recopie les lignes concernées dans la
+ * même transaction : un agenda ne montre jamais une réservation annulée par un rollback. La recopie
+ * est un DELETE + INSERT ... SELECT par créneau, sans charger d'entité.
+ *
+ * Les appelants le préviennent explicitement, comme pour SlotConflictIndex :
+ * - SlotServiceImpl (création, modification, statut, suppression)
+ * - SlotOccurrenceServiceImpl (occurrence d'un créneau récurrent matérialisée)
+ * - SlotGenerationServiceImpl (génération d'un calendrier, par médecin et période)
+ * - AppointmentServiceImpl (réservation, confirmation, annulation, fin, modification, suppression)
+ * - RoomServiceImpl (nom de la salle ou centre modifié)
+ * - SlotScheduler (expiration en masse)
+ *
+ * Une écriture faite hors de ces services (script SQL, import) se rattrape avec rebuild(), déclenché
+ * par un administrateur (POST /api/appointments/agenda/rebuild) ou au démarrage si
+ * doctor-agenda.rebuild-at-startup=true (false par défaut). La reconstruction avance médecin par
+ * médecin, une transaction chacun : elle ne verrouille jamais toute la table et l'agenda reste lisible.
+ */
+@Slf4j
+@Component
+public class DoctorAgendaProjector {
+
+    private final DoctorAgendaRepository agendaRepository;
+    private final TransactionTemplate transaction;
+    private final boolean rebuildAtStartup;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    public DoctorAgendaProjector(DoctorAgendaRepository agendaRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${doctor-agenda.rebuild-at-startup:false}") boolean rebuildAtStartup) {
+        this.agendaRepository = agendaRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.rebuildAtStartup = rebuildAtStartup;
+    }
+
+    // ====================================================================
+    // 🔄 RECOPIE DANS LA TRANSACTION DE L'APPELANT
+    // ====================================================================
+
+    // Recopie les créneaux (ligne supprimée si le créneau n'existe plus ou est devenu un modèle récurrent)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void refreshSlots(Long... slotIds) {
+        List<Long> ids = Arrays.stream(slotIds).filter(Objects::nonNull).distinct().toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        agendaRepository.deleteBySlotIds(ids);
+        agendaRepository.insertForSlots(ids, LocalDateTime.now());
+    }
+
+    // Recopie tous les créneaux datés d'un médecin sur une période (bornes incluses)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void refreshDoctorRange(Long doctorId, LocalDate fromDate, LocalDate toDate) {
+        agendaRepository.deleteForDoctorBetween(doctorId, fromDate, toDate);
+        agendaRepository.insertForDoctorBetween(doctorId, fromDate, toDate, LocalDateTime.now());
+    }
+
+    // Nom de la salle ou de son centre modifié
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void refreshRoom(Long roomId) {
+        agendaRepository.refreshRoomNames(roomId, LocalDateTime.now());
+    }
+
+    // ====================================================================
+    // ⏰ EXPIRATION (SlotScheduler)
+    // ====================================================================
+
+    /**
+     * Expire les lignes de l'agenda avec la même date et la même heure de référence que
+     * l'expiration des créneaux, par lots de chunkSize (une transaction par lot).
+     *
+     * @return le nombre de lignes passées à EXPIRED
+     */
+    public long expirePast(LocalDate today, LocalTime now, int chunkSize) {
+        long total = 0;
+        int updated;
+        do {
+            Integer chunk = transaction.execute(status ->
+                    agendaRepository.expirePastEntriesChunk(today, now, LocalDateTime.now(), chunkSize));
+            updated = chunk != null ? chunk : 0;
+            total += updated;
+        } while (updated == chunkSize);
+        return total;
+    }
+
+    // ====================================================================
+    // 🏗️ RECONSTRUCTION
+    // ====================================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildAtStartup() {
+        if (!rebuildAtStartup) {
+            return;
+        }
+        try {
+            rebuild("STARTUP");
+        } catch (Exception e) {
+            log.warn("[AGENDA] Reconstruction de l'agenda des médecins impossible : {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recalcule toute la table depuis les tables sources, un médecin par transaction
+     * (DELETE + INSERT ... SELECT de ses lignes). Une écriture concurrente sur un médecin déjà
+     * traité est recopiée par son propre service, comme en temps normal.
+     *
+     * @param trigger origine du déclenchement ("STARTUP" ou "MANUAL")
+     * @return le compte rendu de la reconstruction (médecins, lignes, durée)
+     */
+    public AgendaRebuildReportDTO rebuild(String trigger) {
+        if (!rebuildLock.tryLock()) {
+            throw new IllegalStateException("Une reconstruction de l'agenda des médecins est déjà en cours");
+        }
+        try {
+            AgendaRebuildReportDTO report = new AgendaRebuildReportDTO();
+            report.setTrigger(trigger);
+            report.setStartedAt(LocalDateTime.now());
+
+            for (Long doctorId : agendaRepository.findDoctorIdsToRebuild()) {
+                Integer rows = transaction.execute(status -> {
+                    agendaRepository.deleteForDoctor(doctorId);
+                    return agendaRepository.insertForDoctor(doctorId, LocalDateTime.now());
+                });
+                report.setDoctors(report.getDoctors() + 1);
+                report.setTotalRows(report.getTotalRows() + (rows != null ? rows : 0));
+            }
+
+            report.setFinishedAt(LocalDateTime.now());
+            report.setDurationMs(Duration.between(report.getStartedAt(), report.getFinishedAt()).toMillis());
+            log.info("[AGENDA] Agenda des médecins reconstruit : {} créneaux pour {} médecins en {} ms (déclenchement {})",
+                    report.getTotalRows(), report.getDoctors(), report.getDurationMs(), trigger);
+            return report;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+}
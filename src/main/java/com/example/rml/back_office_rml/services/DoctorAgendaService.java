@@ -0,0 +1,16 @@
+package com.example.rml.back_office_rml.services;
+
+import com.example.rml.back_office_rml.dto.DoctorAgendaEntryDTO;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DoctorAgendaService {
+
+    /**
+     * Agenda d'un médecin pour une date, trié par heure de début : créneaux datés avec leur rendez-vous,
+     * patient et salle (table doctor_agenda), complétés par les occurrences jamais réservées de ses
+     * créneaux récurrents.
+     */
+    List<DoctorAgendaEntryDTO> getDayAgenda(Long doctorId, LocalDate date);
+}
@@ -0,0 +1,102 @@
+package com.example.rml.back_office_rml.services;
+
+import com.example.rml.back_office_rml.dto.DoctorAgendaEntryDTO;
+import com.example.rml.back_office_rml.dto.SlotDTO;
+import com.example.rml.back_office_rml.entities.DoctorAgendaEntry;
+import com.example.rml.back_office_rml.repositories.DoctorAgendaRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+public class DoctorAgendaServiceImpl implements DoctorAgendaService {
+
+    private final DoctorAgendaRepository agendaRepository;
+    private final SlotOccurrenceService occurrenceService;
+
+    public DoctorAgendaServiceImpl(DoctorAgendaRepository agendaRepository,
+                                   SlotOccurrenceService occurrenceService) {
+        this.agendaRepository = agendaRepository;
+        this.occurrenceService = occurrenceService;
+    }
+
+    // ====================================================================
+    // 📅 AGENDA JOURNALIER
+    // ====================================================================
+    @Override
+    @Transactional(readOnly = true)
+    public List<DoctorAgendaEntryDTO> getDayAgenda(Long doctorId, LocalDate date) {
+        if (doctorId == null || date == null) {
+            throw new IllegalArgumentException("Le médecin et la date sont obligatoires");
+        }
+
+        // Une seule lecture indexée (doctor_id, agenda_date, start_time), indépendante de l'historique du médecin
+        List<DoctorAgendaEntry> entries = agendaRepository.findByDoctorIdAndAgendaDateOrderByStartTimeAsc(doctorId, date);
+
+        List<DoctorAgendaEntryDTO> agenda = new ArrayList<>(entries.size());
+        Set<Long> materializedTemplates = new HashSet<>();
+        for (DoctorAgendaEntry entry : entries) {
+            agenda.add(convertToDTO(entry));
+            if (entry.getRecurringTemplateId() != null) {
+                materializedTemplates.add(entry.getRecurringTemplateId());
+            }
+        }
+
+        // Occurrences récurrentes jamais réservées : calculées depuis le cache des modèles, sans requête
+        boolean merged = false;
+        for (SlotDTO occurrence : occurrenceService.getTemplateOccurrences(doctorId, date)) {
+            if (!materializedTemplates.contains(occurrence.getRecurringTemplateId())) {
+                agenda.add(convertToDTO(occurrence));
+                merged = true;
+            }
+        }
+        if (merged) {
+            agenda.sort(Comparator.comparing(DoctorAgendaEntryDTO::getStartTime));
+        }
+        return agenda;
+    }
+
+    // ====================================================================
+    // 🔧 MÉTHODES UTILITAIRES PRIVÉES
+    // ====================================================================
+    private DoctorAgendaEntryDTO convertToDTO(DoctorAgendaEntry entry) {
+        DoctorAgendaEntryDTO dto = new DoctorAgendaEntryDTO();
+        dto.setSlotId(entry.getSlotId());
+        dto.setRecurringTemplateId(entry.getRecurringTemplateId());
+        dto.setDate(entry.getAgendaDate());
+        dto.setStartTime(entry.getStartTime());
+        dto.setEndTime(entry.getEndTime());
+        dto.setSlotStatus(entry.getSlotStatus());
+        dto.setRoomId(entry.getRoomId());
+        dto.setRoomName(entry.getRoomName());
+        dto.setHealthCenterName(entry.getHealthCenterName());
+        dto.setAppointmentId(entry.getAppointmentId());
+        dto.setAppointmentStatus(entry.getAppointmentStatus());
+        dto.setConsultationReason(entry.getConsultationReason());
+        dto.setPatientId(entry.getPatientId());
+        dto.setPatientFirstName(entry.getPatientFirstName());
+        dto.setPatientLastName(entry.getPatientLastName());
+        dto.setPatientPhone(entry.getPatientPhone());
+        return dto;
+    }
+
+    private DoctorAgendaEntryDTO convertToDTO(SlotDTO occurrence) {
+        DoctorAgendaEntryDTO dto = new DoctorAgendaEntryDTO();
+        dto.setSlotId(occurrence.getSlotId());
+        dto.setRecurringTemplateId(occurrence.getRecurringTemplateId());
+        dto.setDate(occurrence.getSlotDate());
+        dto.setStartTime(occurrence.getStartTime());
+        dto.setEndTime(occurrence.getEndTime());
+        dto.setSlotStatus(occurrence.getStatus());
+        dto.setRoomId(occurrence.getRoomId());
+        dto.setRoomName(occurrence.getRoomName());
+        dto.setHealthCenterName(occurrence.getHealthCenterName());
+        return dto;
+    }
+}
@@ -22,15 +22,18 @@ public class DoctorAvailabilityServiceImpl implements DoctorAvailabilityService
     private final HealthCenterRepository healthCenterRepository;
     private final DoctorAvailabilityRepository doctorAvailabilityRepository;
     private final ConsultationDurationRepository consultationDurationRepository;
+    private final ReferenceDataCache referenceDataCache;
 
     public DoctorAvailabilityServiceImpl(DoctorRepository doctorRepository,
                                          HealthCenterRepository healthCenterRepository,
                                          DoctorAvailabilityRepository doctorAvailabilityRepository,
-                                         ConsultationDurationRepository consultationDurationRepository) {
+                                         ConsultationDurationRepository consultationDurationRepository,
+                                         ReferenceDataCache referenceDataCache) {
         this.doctorRepository = doctorRepository;
         this.healthCenterRepository = healthCenterRepository;
         this.doctorAvailabilityRepository = doctorAvailabilityRepository;
         this.consultationDurationRepository = consultationDurationRepository;
+        this.referenceDataCache = referenceDataCache;
     }
 
     // ====================================================================
@@ -48,12 +51,12 @@ public class DoctorAvailabilityServiceImpl implements DoctorAvailabilityService
         Doctor doctor = doctorRepository.findById(dto.getDoctorId())
                 .orElseThrow(() -> new IllegalArgumentException("Médecin non trouvé"));
 
-        // Vérifier que le centre de santé existe
-        HealthCenter healthCenter = healthCenterRepository.findById(dto.getHealthCenterId())
+        // Vérifier que le centre de santé existe (cache des données de référence)
+        ReferenceDataCache.HealthCenterInfo healthCenterInfo = referenceDataCache.findHealthCenter(dto.getHealthCenterId())
                 .orElseThrow(() -> new IllegalArgumentException("Centre de santé non trouvé"));
 
-        // Vérifier que la durée de consultation existe
-        ConsultationDuration consultationDuration = consultationDurationRepository.findById(dto.getConsultationDuration_Id())
+        // Vérifier que la durée de consultation existe (cache des données de référence)
+        ReferenceDataCache.DurationInfo durationInfo = referenceDataCache.findDuration(dto.getConsultationDuration_Id())
                 .orElseThrow(() -> new IllegalArgumentException("Durée de consultation non trouvée"));
 
         // Vérifier les conflits de disponibilités pour le même médecin et centre
@@ -71,15 +74,16 @@ public class DoctorAvailabilityServiceImpl implements DoctorAvailabilityService
         // Création de l'entité disponibilité
         DoctorAvailability availability = new DoctorAvailability();
         availability.setDoctor(doctor);
-        availability.setHealthCenter(healthCenter);
+        // Existence déjà vérifiée : une simple référence suffit pour la clé étrangère
+        availability.setHealthCenter(healthCenterRepository.getReferenceById(healthCenterInfo.centerId()));
         availability.setDayOfWeek(dto.getDayOfWeek());
         availability.setStartTime(dto.getStartTime());
         availability.setEndTime(dto.getEndTime());
-        availability.setConsultationDuration(consultationDuration);
+        availability.setConsultationDuration(consultationDurationRepository.getReferenceById(durationInfo.id()));
         availability.setActive(true);
 
         DoctorAvailability savedAvailability = doctorAvailabilityRepository.save(availability);
-        return convertToDTO(savedAvailability);
+        return convertToDTO(savedAvailability, durationInfo.displayName(), healthCenterInfo.name());
     }
 
     // ====================================================================
@@ -97,16 +101,18 @@ public class DoctorAvailabilityServiceImpl implements DoctorAvailabilityService
 
         // Vérifier si le centre de santé a changé
         HealthCenter newHealthCenter = existing.getHealthCenter();
+        ReferenceDataCache.HealthCenterInfo healthCenterInfo = referenceDataCache.findHealthCenter(dto.getHealthCenterId())
+                .orElseThrow(() -> new IllegalArgumentException("Nouveau centre de santé non trouvé"));
         if (!existing.getHealthCenter().getCenterId().equals(dto.getHealthCenterId())) {
-            newHealthCenter = healthCenterRepository.findById(dto.getHealthCenterId())
-                    .orElseThrow(() -> new IllegalArgumentException("Nouveau centre de santé non trouvé"));
+            newHealthCenter = healthCenterRepository.getReferenceById(healthCenterInfo.centerId());
         }
 
         // Vérifier si la durée de consultation a changé
         ConsultationDuration newConsultationDuration = existing.getConsultationDuration();
+        ReferenceDataCache.DurationInfo durationInfo = referenceDataCache.findDuration(dto.getConsultationDuration_Id())
+                .orElseThrow(() -> new IllegalArgumentException("Nouvelle durée non trouvée"));
         if (!existing.getConsultationDuration().getId().equals(dto.getConsultationDuration_Id())) {
-            newConsultationDuration = consultationDurationRepository.findById(dto.getConsultationDuration_Id())
-                    .orElseThrow(() -> new IllegalArgumentException("Nouvelle durée non trouvée"));
+            newConsultationDuration = consultationDurationRepository.getReferenceById(durationInfo.id());
         }
 
         // Vérifier les conflits de disponibilités (exclure la disponibilité actuelle)
@@ -129,7 +135,7 @@ public class DoctorAvailabilityServiceImpl implements DoctorAvailabilityService
         existing.setConsultationDuration(newConsultationDuration);
 
         DoctorAvailability updated = doctorAvailabilityRepository.save(existing);
-        return convertToDTO(updated);
+        return convertToDTO(updated, durationInfo.displayName(), healthCenterInfo.name());
     }
 
     // ====================================================================
@@ -203,6 +209,14 @@ public class DoctorAvailabilityServiceImpl implements DoctorAvailabilityService
     // 🔧 CONVERSION ENTITY → DTO
     // ====================================================================
     private DoctorAvailabilityDTO convertToDTO(DoctorAvailability availability) {
+        return convertToDTO(availability,
+                availability.getConsultationDuration().getDisplayName(),
+                availability.getHealthCenter().getName());
+    }
+
+    // Variante utilisée après une écriture : libellés repris du cache pour ne pas initialiser les références
+    private DoctorAvailabilityDTO convertToDTO(DoctorAvailability availability,
+                                               String consultationDurationName, String healthCenterName) {
         DoctorAvailabilityDTO dto = new DoctorAvailabilityDTO();
         dto.setId(availability.getId());
         dto.setDoctorId(availability.getDoctor().getDoctorId());
@@ -210,10 +224,10 @@ public class DoctorAvailabilityServiceImpl implements DoctorAvailabilityService
         dto.setDayOfWeek(availability.getDayOfWeek());
         dto.setStartTime(availability.getStartTime());
         dto.setEndTime(availability.getEndTime());
-        dto.setConsultationDurationMin(availability.getConsultationDuration().getDisplayName());
+        dto.setConsultationDurationMin(consultationDurationName);
         dto.setActive(availability.getActive());
         dto.setDoctorName(availability.getDoctor().getFirstName() + " " + availability.getDoctor().getLastName());
-        dto.setHealthCenterName(availability.getHealthCenter().getName());
+        dto.setHealthCenterName(healthCenterName);
         dto.setCreatedAt(availability.getCreatedAt());
         dto.setUpdatedAt(availability.getUpdatedAt());
         return dto;
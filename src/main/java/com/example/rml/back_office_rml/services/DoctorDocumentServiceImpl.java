@@ -37,6 +37,7 @@ public class DoctorDocumentServiceImpl implements DoctorDocumentService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<DoctorDocumentDTO> getDocumentsByDoctor(Long doctorId) {
         return documentRepository.findByDoctor_DoctorId(doctorId)
                 .stream()
@@ -0,0 +1,143 @@
+package com.example.rml.back_office_rml.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Migration des anciennes colonnes doctor.photo / doctor.justificatifs (LONGBLOB) vers doctor_media.
+ *
+ * Avec ddl-auto=update, Hibernate crée doctor_media mais laisse les anciennes colonnes en place :
+ * - les octets sont copiés par tranches d'identifiants (doctor-media.migration.batch-size),
+ *   une transaction par tranche, puis effacés de la ligne doctor ;
+ * - une ligne doctor_media déjà présente n'est pas écrasée (données plus récentes) ;
+ * - les colonnes vides sont supprimées si doctor-media.migration.drop-legacy-columns=true
+ *   (ALTER TABLE : à planifier hors heures d'activité sur une grosse table).
+ *
+ * Idempotente : sans anciennes colonnes (base neuve ou migration terminée) elle ne fait rien.
+ */
+@Slf4j
+@Component
+public class DoctorMediaMigration {
+
+    private static final String[] LEGACY_COLUMNS = {"photo", "justificatifs"};
+
+    // Résultat d'une exécution
+    public record Result(int migratedDoctors, boolean legacyColumnsFound, boolean legacyColumnsDropped) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean runAtStartup;
+    private final int batchSize;
+    private final boolean dropLegacyColumns;
+
+    public DoctorMediaMigration(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${doctor-media.migration.run-at-startup:true}") boolean runAtStartup,
+                                @Value("${doctor-media.migration.batch-size:100}") int batchSize,
+                                @Value("${doctor-media.migration.drop-legacy-columns:false}") boolean dropLegacyColumns) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.runAtStartup = runAtStartup;
+        this.batchSize = Math.max(1, batchSize);
+        this.dropLegacyColumns = dropLegacyColumns;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateAtStartup() {
+        if (!runAtStartup) {
+            return;
+        }
+        try {
+            Result result = migrate();
+            if (result.legacyColumnsFound()) {
+                log.info("[DOCTOR-MEDIA] {} médecin(s) migré(s) vers doctor_media, anciennes colonnes {}",
+                        result.migratedDoctors(), result.legacyColumnsDropped() ? "supprimées" : "conservées (vides)");
+            }
+        } catch (Exception e) {
+            log.error("[DOCTOR-MEDIA] Migration interrompue : {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Copie les octets restants dans doctor_media puis vide (ou supprime) les anciennes colonnes.
+     */
+    public Result migrate() {
+        Set<String> legacy = legacyColumns();
+        if (legacy.isEmpty()) {
+            return new Result(0, false, false);
+        }
+
+        // Colonne absente (suppression partielle) : lue comme NULL
+        String photo = legacy.contains("photo") ? "d.photo" : "NULL";
+        String documents = legacy.contains("justificatifs") ? "d.justificatifs" : "NULL";
+        String notEmpty = legacy.stream().map(column -> "d." + column + " IS NOT NULL")
+                .reduce((a, b) -> a + " OR " + b).orElseThrow();
+        String clear = legacy.stream().map(column -> column + " = NULL")
+                .reduce((a, b) -> a + ", " + b).orElseThrow();
+
+        String copySql = "INSERT INTO doctor_media (doctor_id, photo, justificatifs, updated_at) " +
+                "SELECT d.doctor_id, " + photo + ", " + documents + ", ? FROM doctor d " +
+                "WHERE d.doctor_id > ? AND d.doctor_id <= ? AND (" + notEmpty + ") " +
+                "AND NOT EXISTS (SELECT 1 FROM doctor_media m WHERE m.doctor_id = d.doctor_id)";
+        String clearSql = "UPDATE doctor d SET " + clear + " WHERE d.doctor_id > ? AND d.doctor_id <= ? AND (" + notEmpty + ")";
+
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(doctor_id) FROM doctor", Long.class);
+        int migrated = 0;
+        for (long from = 0; maxId != null && from < maxId; from += batchSize) {
+            long lower = from;
+            long upper = from + batchSize;
+            Integer copied = transactionTemplate.execute(status -> {
+                int rows = jdbcTemplate.update(copySql, Timestamp.valueOf(LocalDateTime.now()), lower, upper);
+                jdbcTemplate.update(clearSql, lower, upper);
+                return rows;
+            });
+            migrated += copied != null ? copied : 0;
+        }
+
+        boolean dropped = false;
+        if (dropLegacyColumns) {
+            for (String column : legacy) {
+                jdbcTemplate.execute("ALTER TABLE doctor DROP COLUMN " + column);
+            }
+            dropped = true;
+        }
+        return new Result(migrated, true, dropped);
+    }
+
+    // Anciennes colonnes encore présentes sur la table doctor
+    private Set<String> legacyColumns() {
+        return jdbcTemplate.execute((Connection connection) -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            Set<String> found = new HashSet<>();
+            for (String table : new String[]{"doctor", "DOCTOR"}) {
+                try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null, table, null)) {
+                    while (columns.next()) {
+                        String name = columns.getString("COLUMN_NAME").toLowerCase(Locale.ROOT);
+                        for (String legacyColumn : LEGACY_COLUMNS) {
+                            if (legacyColumn.equals(name)) {
+                                found.add(legacyColumn);
+                            }
+                        }
+                    }
+                }
+            }
+            return found;
+        });
+    }
+}
@@ -2,6 +2,7 @@ package com.example.rml.back_office_rml.services;
 
 import com.example.rml.back_office_rml.dto.ExaminationDTO;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 // ========================================
@@ -20,4 +21,7 @@ public interface ExaminationService {
 
     // Récupérer les examens d'un dossier médical
     List<ExaminationDTO> getExaminationsByRecordId(Long recordId);
+
+    // Récupérer les examens d'un dossier créés ou modifiés depuis une date (synchronisation mobile)
+    List<ExaminationDTO> getExaminationsChangedSince(Long recordId, LocalDateTime since);
 }
\ No newline at end of file
@@ -9,6 +9,7 @@ import com.example.rml.back_office_rml.repositories.ExaminationRepository;
 import com.example.rml.back_office_rml.repositories.MedicalRecordRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -18,13 +19,16 @@ public class ExaminationServiceImpl implements ExaminationService {
     private final ExaminationRepository examinationRepository;
     private final MedicalRecordRepository medicalRecordRepository;
     private final DoctorRepository doctorRepository;
+    private final FileReferenceService fileReferenceService;
 
     public ExaminationServiceImpl(ExaminationRepository examinationRepository,
                                   MedicalRecordRepository medicalRecordRepository,
-                                  DoctorRepository doctorRepository) {
+                                  DoctorRepository doctorRepository,
+                                  FileReferenceService fileReferenceService) {
         this.examinationRepository = examinationRepository;
         this.medicalRecordRepository = medicalRecordRepository;
         this.doctorRepository = doctorRepository;
+        this.fileReferenceService = fileReferenceService;
     }
 
     @Override
@@ -86,7 +90,12 @@ public class ExaminationServiceImpl implements ExaminationService {
             existing.setNotes(dto.getNotes());
         }
         if (dto.getResultFiles() != null && !dto.getResultFiles().isEmpty()) {
+            // Les nouveaux uploads portent leurs propres références : celles des fichiers remplacés
+            // sont retirées (octets supprimés s'ils ne servent plus ailleurs)
+            List<String> replaced = existing.getResultFiles() == null ? List.of()
+                    : List.copyOf(existing.getResultFiles());
             existing.setResultFiles(dto.getResultFiles());
+            fileReferenceService.release(replaced);
         }
 
         Examination updated = examinationRepository.save(existing);
@@ -94,6 +103,7 @@ public class ExaminationServiceImpl implements ExaminationService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ExaminationDTO> getAllExaminations() {
         return examinationRepository.findAll()
                 .stream()
@@ -102,6 +112,7 @@ public class ExaminationServiceImpl implements ExaminationService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ExaminationDTO> getExaminationsByRecordId(Long recordId) {
         return examinationRepository.findByMedicalRecord_Id(recordId)
                 .stream()
@@ -109,6 +120,15 @@ public class ExaminationServiceImpl implements ExaminationService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<ExaminationDTO> getExaminationsChangedSince(Long recordId, LocalDateTime since) {
+        return examinationRepository.findByMedicalRecord_IdAndUpdatedAtGreaterThanEqual(recordId, since)
+                .stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
     // Conversion entité → DTO
     private ExaminationDTO convertToDTO(Examination examination) {
         ExaminationDTO dto = new ExaminationDTO();
@@ -2,6 +2,7 @@ package com.example.rml.back_office_rml.services;
 
 import com.example.rml.back_office_rml.dto.FamilyHistoryDTO;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 // ========================================
@@ -20,4 +21,7 @@ public interface FamilyHistoryService {
 
     // Récupérer les antécédents familiaux d'un dossier médical
     List<FamilyHistoryDTO> getFamilyHistoriesByRecordId(Long recordId);
+
+    // Récupérer les antécédents familiaux d'un dossier créés ou modifiés depuis une date (synchronisation mobile)
+    List<FamilyHistoryDTO> getFamilyHistoriesChangedSince(Long recordId, LocalDateTime since);
 }
\ No newline at end of file
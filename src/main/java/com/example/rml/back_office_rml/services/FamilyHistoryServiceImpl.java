@@ -7,6 +7,7 @@ import com.example.rml.back_office_rml.repositories.FamilyHistoryRepository;
 import com.example.rml.back_office_rml.repositories.MedicalRecordRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -71,6 +72,7 @@ public class FamilyHistoryServiceImpl implements FamilyHistoryService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<FamilyHistoryDTO> getAllFamilyHistories() {
         return familyHistoryRepository.findAll()
                 .stream()
@@ -79,6 +81,7 @@ public class FamilyHistoryServiceImpl implements FamilyHistoryService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<FamilyHistoryDTO> getFamilyHistoriesByRecordId(Long recordId) {
         return familyHistoryRepository.findByMedicalRecord_Id(recordId)
                 .stream()
@@ -86,6 +89,15 @@ public class FamilyHistoryServiceImpl implements FamilyHistoryService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<FamilyHistoryDTO> getFamilyHistoriesChangedSince(Long recordId, LocalDateTime since) {
+        return familyHistoryRepository.findByMedicalRecord_IdAndUpdatedAtGreaterThanEqual(recordId, since)
+                .stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
     // Conversion entité → DTO
     private FamilyHistoryDTO convertToDTO(FamilyHistory familyHistory) {
         FamilyHistoryDTO dto = new FamilyHistoryDTO();
@@ -0,0 +1,28 @@
+package com.example.rml.back_office_rml.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.Instant;
+
+public interface FileDownloadService {
+
+    /**
+     * Fichier prêt à être servi : dans le stockage, ou encore dans le spool local
+     * tant que son transfert n'est pas terminé (localPath renseigné dans ce cas).
+     */
+    record StoredFile(String fileName, long size, Instant lastModified, String contentType, Path localPath) {
+
+        // Validateur fort : le nom est unique et le contenu n'est jamais réécrit sous le même nom
+        public String etag() {
+            return "\"" + fileName + "-" + Long.toHexString(size) + "-"
+                    + Long.toHexString(lastModified.toEpochMilli()) + "\"";
+        }
+    }
+
+    // Métadonnées du fichier ; IllegalArgumentException si le nom est inconnu ou invalide
+    StoredFile locate(String fileName) throws IOException;
+
+    // Écrit length octets à partir de start (plage déjà validée par l'appelant)
+    void copyRange(StoredFile file, long start, long length, OutputStream out) throws IOException;
+}
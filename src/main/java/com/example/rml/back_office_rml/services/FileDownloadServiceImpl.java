@@ -0,0 +1,135 @@
+package com.example.rml.back_office_rml.services;
+
+import com.example.rml.back_office_rml.entities.FileTransfer;
+import com.example.rml.back_office_rml.enums.FileTransferStatus;
+import com.example.rml.back_office_rml.repositories.FileTransferRepository;
+import com.example.rml.back_office_rml.util.FileStorage;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Optional;
+
+/**
+ * Lecture des fichiers uploadés pour le téléchargement.
+ *
+ * - Fichier encore dans le spool (transfert PENDING ou FAILED) : servi depuis la copie locale,
+ *   sans attendre le stockage distant.
+ * - Fichier lisible sur le disque local (backend local) : envoyé par FileChannel.transferTo,
+ *   sans passer par un tampon applicatif.
+ * - Sinon : flux du stockage ouvert directement à l'offset demandé.
+ */
+@Service
+public class FileDownloadServiceImpl implements FileDownloadService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileStorage fileStorage;
+    private final FileTransferRepository transferRepository;
+
+    public FileDownloadServiceImpl(FileStorage fileStorage, FileTransferRepository transferRepository) {
+        this.fileStorage = fileStorage;
+        this.transferRepository = transferRepository;
+    }
+
+    // ====================================================================
+    // 🔍 LOCALISATION DU FICHIER
+    // ====================================================================
+    @Override
+    public StoredFile locate(String fileName) throws IOException {
+        FileStorage.checkKey(fileName);
+        Optional<FileTransfer> transfer = transferRepository.findByFileName(fileName);
+        String contentType = transfer.map(FileTransfer::getContentType)
+                .orElseGet(() -> MediaTypeFactory.getMediaType(fileName)
+                        .map(MediaType::toString)
+                        .orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE));
+
+        // Transfert pas encore terminé : la copie du spool fait foi
+        Optional<Path> spooled = transfer
+                .filter(t -> t.getStatus() != FileTransferStatus.STORED && t.getSpoolPath() != null)
+                .map(t -> Paths.get(t.getSpoolPath()));
+        if (spooled.isPresent()) {
+            try {
+                BasicFileAttributes attrs = Files.readAttributes(spooled.get(), BasicFileAttributes.class);
+                return new StoredFile(fileName, attrs.size(), attrs.lastModifiedTime().toInstant(),
+                        contentType, spooled.get());
+            } catch (NoSuchFileException e) {
+                // Transféré entre-temps : lecture depuis le stockage
+            }
+        }
+
+        FileStorage.FileInfo info = fileStorage.stat(fileName)
+                .orElseThrow(() -> new IllegalArgumentException("Fichier introuvable : " + fileName));
+        return new StoredFile(fileName, info.size(), info.lastModified(), contentType,
+                fileStorage.localPath(fileName).orElse(null));
+    }
+
+    // ====================================================================
+    // 📤 ENVOI D'UNE PLAGE D'OCTETS
+    // ====================================================================
+    @Override
+    public void copyRange(StoredFile file, long start, long length, OutputStream out) throws IOException {
+        if (file.localPath() != null) {
+            FileChannel channel = openLocal(file.localPath());
+            if (channel != null) {
+                try (channel) {
+                    transferRange(channel, start, length, Channels.newChannel(out));
+                }
+                return;
+            }
+            // Copie du spool supprimée depuis locate() : le fichier est maintenant dans le stockage
+        }
+
+        try (InputStream content = fileStorage.get(file.fileName(), start)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long remaining = length;
+            while (remaining > 0) {
+                int read = content.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read < 0) {
+                    throw new EOFException("Fichier " + file.fileName() + " plus court que prévu");
+                }
+                out.write(buffer, 0, read);
+                remaining -= read;
+            }
+        }
+    }
+
+    // ====================================================================
+    // 🔧 MÉTHODES UTILITAIRES PRIVÉES
+    // ====================================================================
+
+    private static FileChannel openLocal(Path path) throws IOException {
+        try {
+            return FileChannel.open(path, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private static void transferRange(FileChannel channel, long start, long length,
+                                      WritableByteChannel target) throws IOException {
+        long position = start;
+        long remaining = length;
+        while (remaining > 0) {
+            long sent = channel.transferTo(position, remaining, target);
+            if (sent <= 0) {
+                throw new EOFException("Fichier local plus court que prévu : " + remaining + " octets manquants");
+            }
+            position += sent;
+            remaining -= sent;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.rml.back_office_rml.services;
+
+import java.util.Collection;
+
+public interface FileReferenceService {
+
+    // Ajoute une référence si le contenu est déjà connu (doublon : ni stockage ni transfert)
+    boolean addReference(String fileName);
+
+    /**
+     * Enregistre un contenu dont les octets viennent d'être écrits (stockage ou spool) avec une référence.
+     * Retourne false si un upload concurrent du même contenu l'a enregistré entre-temps
+     * (la référence lui est alors ajoutée).
+     */
+    boolean register(String fileName, String sha256, long sizeBytes, String contentType);
+
+    /**
+     * Retire une référence par nom (un nom présent deux fois retire deux références) ;
+     * à la dernière, le contenu est supprimé du stockage (et du spool) après la validation
+     * de la transaction en cours.
+     * Les noms d'avant la déduplication (UUID, sans entrée file_blobs) sont ignorés.
+     */
+    void release(Collection<String> fileNames);
+}
@@ -0,0 +1,148 @@
+package com.example.rml.back_office_rml.services;
+
+import com.example.rml.back_office_rml.entities.FileBlob;
+import com.example.rml.back_office_rml.repositories.FileBlobRepository;
+import com.example.rml.back_office_rml.repositories.FileTransferRepository;
+import com.example.rml.back_office_rml.util.FileStorage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Compteur de références des contenus uploadés (table file_blobs).
+ *
+ * Chaque upload rattaché à un examen, un compte rendu ou un document compte pour une référence :
+ * un contenu déjà connu ne coûte qu'un calcul d'empreinte, et ses octets ne sont supprimés
+ * qu'au retrait de la dernière référence.
+ * Les compteurs sont modifiés par des UPDATE conditionnels (pas de lecture puis écriture) :
+ * deux uploads ou suppressions simultanés du même contenu ne se marchent pas dessus.
+ */
+@Slf4j
+@Service
+public class FileReferenceServiceImpl implements FileReferenceService {
+
+    private final FileBlobRepository blobRepository;
+    private final FileTransferRepository transferRepository;
+    private final FileStorage fileStorage;
+    private final TransactionTemplate newTransaction;
+
+    public FileReferenceServiceImpl(FileBlobRepository blobRepository,
+                                    FileTransferRepository transferRepository,
+                                    FileStorage fileStorage,
+                                    PlatformTransactionManager transactionManager) {
+        this.blobRepository = blobRepository;
+        this.transferRepository = transferRepository;
+        this.fileStorage = fileStorage;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // ====================================================================
+    // ➕ AJOUT DE RÉFÉRENCES
+    // ====================================================================
+    @Override
+    @Transactional
+    public boolean addReference(String fileName) {
+        return blobRepository.addReference(fileName, LocalDateTime.now()) > 0;
+    }
+
+    @Override
+    public boolean register(String fileName, String sha256, long sizeBytes, String contentType) {
+        try {
+            // Transaction propre : l'entrée doit être visible des autres uploads dès maintenant
+            return Boolean.TRUE.equals(newTransaction.execute(status -> {
+                FileBlob blob = new FileBlob();
+                blob.setFileName(fileName);
+                blob.setSha256(sha256);
+                blob.setSizeBytes(sizeBytes);
+                blob.setContentType(contentType);
+                blob.setRefCount(1);
+                blobRepository.saveAndFlush(blob);
+                return true;
+            }));
+        } catch (DataIntegrityViolationException e) {
+            // Même contenu enregistré par un upload concurrent
+            newTransaction.executeWithoutResult(status ->
+                    blobRepository.addReference(fileName, LocalDateTime.now()));
+            return false;
+        }
+    }
+
+    // ====================================================================
+    // ➖ RETRAIT DE RÉFÉRENCES
+    // ====================================================================
+    @Override
+    @Transactional
+    public void release(Collection<String> fileNames) {
+        if (fileNames == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (String fileName : fileNames) {
+            if (fileName == null || fileName.isBlank()) {
+                continue;
+            }
+            if (blobRepository.removeReference(fileName, now) > 0
+                    && blobRepository.deleteIfUnreferenced(fileName) > 0) {
+                afterCommit(() -> discard(fileName));
+            }
+        }
+    }
+
+    // ====================================================================
+    // 🔧 MÉTHODES UTILITAIRES PRIVÉES
+    // ====================================================================
+
+    // Dernière référence retirée : transfert en cours, copie du spool et octets stockés.
+    // Appelé après commit : les accès base passent par une nouvelle transaction.
+    private void discard(String fileName) {
+        try {
+            boolean reuploaded = Boolean.TRUE.equals(newTransaction.execute(status -> {
+                if (blobRepository.findByFileName(fileName).isPresent()) {
+                    return true; // Même contenu ré-uploadé entre-temps : les octets servent de nouveau
+                }
+                transferRepository.findByFileName(fileName).ifPresent(transfer -> {
+                    if (transfer.getSpoolPath() != null) {
+                        try {
+                            Files.deleteIfExists(Paths.get(transfer.getSpoolPath()));
+                        } catch (IOException e) {
+                            log.warn("[FILES] Copie locale {} non supprimée : {}", transfer.getSpoolPath(), e.getMessage());
+                        }
+                    }
+                    transferRepository.delete(transfer);
+                });
+                return false;
+            }));
+            if (!reuploaded && fileStorage.delete(fileName)) {
+                log.info("[FILES] Fichier {} supprimé (plus aucune référence)", fileName);
+            }
+        } catch (Exception e) {
+            log.error("[FILES] Suppression de {} échouée : {}", fileName, e.getMessage(), e);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.rml.back_office_rml.services;
+
+import com.example.rml.back_office_rml.dto.FileTransferDTO;
+import com.example.rml.back_office_rml.dto.FileUploadReportDTO;
+import com.example.rml.back_office_rml.enums.FileTransferStatus;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.List;
+
+public interface FileTransferService {
+
+    /**
+     * Écrit le fichier dans le spool local (synchronisé sur disque), enregistre son transfert
+     * en PENDING puis le confie aux workers. Retourne le nom unique à enregistrer sur l'entité.
+     */
+    String spool(MultipartFile file) throws IOException;
+
+    // Même chose pour plusieurs fichiers, en parallèle (fichiers vides ignorés, échecs rapportés un par un)
+    FileUploadReportDTO spoolAll(List<MultipartFile> files);
+
+    FileTransferDTO getTransfer(String fileName);
+
+    List<FileTransferDTO> getTransfersByStatus(FileTransferStatus status);
+
+    // Remet un transfert FAILED en attente (compteur de tentatives remis à zéro)
+    FileTransferDTO retryTransfer(String fileName);
+
+    // Confie aux workers les transferts PENDING dont la prochaine tentative est échue
+    int dispatchDueTransfers();
+
+    // Contenu connu dont le transfert a échoué : ses octets ne sont ni stockés ni en attente
+    boolean hasFailedTransfer(String fileName);
+
+    // Octets d'un transfert en échec envoyés directement au stockage (FileTransferUtil) : le transfert passe en STORED
+    void markFailedTransferStored(String fileName);
+}
@@ -0,0 +1,382 @@
+package com.example.rml.back_office_rml.services;
+
+import com.example.rml.back_office_rml.dto.FileTransferDTO;
+import com.example.rml.back_office_rml.dto.FileUploadReportDTO;
+import com.example.rml.back_office_rml.entities.FileTransfer;
+import com.example.rml.back_office_rml.enums.FileTransferStatus;
+import com.example.rml.back_office_rml.repositories.FileTransferRepository;
+import com.example.rml.back_office_rml.util.FileStorage;
+import com.example.rml.back_office_rml.util.ContentHash;
+import com.example.rml.back_office_rml.util.ParallelFileUploader;
+import com.example.rml.back_office_rml.util.WorkerThreads;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pipeline d'upload des fichiers d'examens et de comptes rendus.
+ *
+ * 1. Requête HTTP : le fichier est écrit dans le spool local (files.spool-dir) puis synchronisé
+ *    sur disque, et son transfert est enregistré en PENDING. La réponse part à ce moment-là.
+ *    L'empreinte SHA-256 est calculée pendant l'écriture et sert de nom : un contenu déjà connu
+ *    (FileReferenceService) gagne seulement une référence, sans spool ni transfert, sauf si son
+ *    transfert est FAILED : la nouvelle copie du spool le remet alors en attente.
+ * 2. Workers (files.transfer.workers) : chaque transfert est réservé par un UPDATE conditionnel
+ *    (FileTransferRepository.claim), envoyé au stockage (FileStorage), puis passé en STORED et retiré du spool.
+ * 3. En cas d'échec, nouvelle tentative après un délai croissant ; au-delà de
+ *    files.transfer.max-attempts le transfert passe en FAILED (relance via l'API).
+ *
+ * Les transferts PENDING échus (échecs, file des workers pleine, redémarrage de l'application)
+ * sont repris par la tâche planifiée files.transfer.retry-cron.
+ * Le spool est local : une seule instance applicative doit traiter un même répertoire.
+ */
+@Slf4j
+@Service
+public class FileTransferServiceImpl implements FileTransferService {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final FileTransferRepository transferRepository;
+    private final FileStorage fileStorage;
+    private final FileReferenceService fileReferenceService;
+    private final ParallelFileUploader parallelFileUploader;
+    private final TransactionTemplate transactionTemplate;
+    private final Path spoolDirectory;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final long leaseMs;
+    private final int batchSize;
+    private final ThreadPoolExecutor workers;
+
+    public FileTransferServiceImpl(FileTransferRepository transferRepository,
+                                   FileStorage fileStorage,
+                                   FileReferenceService fileReferenceService,
+                                   ParallelFileUploader parallelFileUploader,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${files.spool-dir:./files/spool}") String spoolDirectory,
+                                   @Value("${files.transfer.workers:4}") int workerCount,
+                                   @Value("${files.transfer.queue-capacity:100}") int queueCapacity,
+                                   @Value("${files.transfer.max-attempts:5}") int maxAttempts,
+                                   @Value("${files.transfer.retry-backoff-ms:30000}") long retryBackoffMs,
+                                   @Value("${files.transfer.lease-ms:600000}") long leaseMs,
+                                   @Value("${files.transfer.batch-size:50}") int batchSize,
+                                   @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.transferRepository = transferRepository;
+        this.fileStorage = fileStorage;
+        this.fileReferenceService = fileReferenceService;
+        this.parallelFileUploader = parallelFileUploader;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.spoolDirectory = Paths.get(spoolDirectory);
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+        this.leaseMs = leaseMs;
+        this.batchSize = batchSize;
+
+        // Threads virtuels si spring.threads.virtual.enabled=true (Java 21+) : le nombre de workers reste borné
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                WorkerThreads.factory("file-transfer-", WorkerThreads.virtual(virtualThreads)));
+        this.workers.allowCoreThreadTimeOut(true);
+    }
+
+    // ====================================================================
+    // 📥 SPOOL DES FICHIERS REÇUS
+    // ====================================================================
+    @Override
+    public String spool(MultipartFile file) throws IOException {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("Le fichier est vide");
+        }
+
+        Files.createDirectories(spoolDirectory);
+        Path partial = spoolDirectory.resolve(UUID.randomUUID() + ".part");
+
+        // Copie en flux vers le spool, empreinte SHA-256 calculée au passage
+        String sha256;
+        try {
+            try (InputStream inputStream = file.getInputStream();
+                 FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                sha256 = ContentHash.copyAndHash(inputStream, Channels.newOutputStream(channel));
+                channel.force(true);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+
+        // Contenu déjà connu : une référence de plus, ni spool ni transfert (sauf transfert en échec)
+        String fileName = ContentHash.fileName(sha256, file.getOriginalFilename());
+        if (fileReferenceService.addReference(fileName)) {
+            try {
+                if (!resumeFailedTransfer(fileName, partial)) {
+                    Files.deleteIfExists(partial);
+                    log.debug("[FILES] {} déjà stocké sous {} : transfert évité", file.getOriginalFilename(), fileName);
+                }
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(partial);
+                fileReferenceService.release(List.of(fileName));
+                throw e;
+            }
+            return fileName;
+        }
+
+        Path spooled = spoolDirectory.resolve(fileName);
+        try {
+            Files.move(partial, spooled, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+        if (!fileReferenceService.register(fileName, sha256, file.getSize(), file.getContentType())) {
+            // Upload concurrent du même contenu : son transfert s'en charge
+            return fileName;
+        }
+
+        FileTransfer transfer = new FileTransfer();
+        transfer.setFileName(fileName);
+        transfer.setOriginalName(file.getOriginalFilename());
+        transfer.setContentType(file.getContentType());
+        transfer.setSizeBytes(file.getSize());
+        transfer.setSpoolPath(spooled.toString());
+        transfer.setRemotePath(fileStorage.locationOf(fileName));
+        transfer.setStatus(FileTransferStatus.PENDING);
+        transfer.setAttempts(0);
+        transfer.setNextAttemptAt(LocalDateTime.now());
+        FileTransfer saved = transferRepository.save(transfer);
+
+        dispatchAfterCommit(saved.getId());
+        return fileName;
+    }
+
+    @Override
+    public FileUploadReportDTO spoolAll(List<MultipartFile> files) {
+        return parallelFileUploader.uploadAll(files, this::spool);
+    }
+
+    // ====================================================================
+    // 🔍 CONSULTATION ET RELANCE
+    // ====================================================================
+    @Override
+    public FileTransferDTO getTransfer(String fileName) {
+        return transferRepository.findByFileName(fileName)
+                .map(this::convertToDTO)
+                .orElseThrow(() -> new IllegalArgumentException("Aucun transfert pour le fichier: " + fileName));
+    }
+
+    @Override
+    public List<FileTransferDTO> getTransfersByStatus(FileTransferStatus status) {
+        return transferRepository.findByStatusOrderByCreatedAtAsc(status).stream()
+                .map(this::convertToDTO)
+                .toList();
+    }
+
+    @Override
+    public FileTransferDTO retryTransfer(String fileName) {
+        FileTransfer transfer = transferRepository.findByFileName(fileName)
+                .orElseThrow(() -> new IllegalArgumentException("Aucun transfert pour le fichier: " + fileName));
+        if (transfer.getStatus() != FileTransferStatus.FAILED) {
+            throw new IllegalStateException("Seul un transfert en échec peut être relancé (statut actuel : "
+                    + transfer.getStatus() + ")");
+        }
+
+        transfer.setStatus(FileTransferStatus.PENDING);
+        transfer.setAttempts(0);
+        transfer.setNextAttemptAt(LocalDateTime.now());
+        FileTransfer saved = transferRepository.save(transfer);
+        dispatchAfterCommit(saved.getId());
+        return convertToDTO(saved);
+    }
+
+    @Override
+    public boolean hasFailedTransfer(String fileName) {
+        return transferRepository.findByFileName(fileName)
+                .map(transfer -> transfer.getStatus() == FileTransferStatus.FAILED)
+                .orElse(false);
+    }
+
+    @Override
+    public void markFailedTransferStored(String fileName) {
+        transactionTemplate.executeWithoutResult(status -> transferRepository.markFailedStored(fileName,
+                FileTransferStatus.FAILED, FileTransferStatus.STORED, LocalDateTime.now()));
+    }
+
+    // ====================================================================
+    // 🔁 REPRISE DES TRANSFERTS EN ATTENTE
+    // ====================================================================
+    @Scheduled(cron = "${files.transfer.retry-cron:0 * * * * *}") // Par défaut toutes les minutes
+    public void dispatchDueTransfersOnSchedule() {
+        int dispatched = dispatchDueTransfers();
+        if (dispatched > 0) {
+            log.info("[FILES] {} transferts en attente relancés", dispatched);
+        }
+    }
+
+    @Override
+    public int dispatchDueTransfers() {
+        List<Long> dueIds = transferRepository.findDueIds(FileTransferStatus.PENDING, LocalDateTime.now(),
+                PageRequest.of(0, batchSize));
+        int dispatched = 0;
+        for (Long id : dueIds) {
+            if (!dispatch(id)) {
+                break; // File des workers pleine : le reste attendra le prochain passage
+            }
+            dispatched++;
+        }
+        return dispatched;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Les transferts interrompus restent PENDING et seront repris au redémarrage (fin du bail)
+        workers.shutdownNow();
+    }
+
+    // ====================================================================
+    // 🔧 MÉTHODES UTILITAIRES PRIVÉES
+    // ====================================================================
+
+    /**
+     * Contenu déjà connu dont le transfert a échoué : la copie du spool qui vient d'être écrite
+     * remplace celle qui manquait, et le transfert repart en PENDING.
+     * Retourne false si le contenu est STORED ou PENDING (vrai doublon, la copie peut être supprimée).
+     */
+    private boolean resumeFailedTransfer(String fileName, Path partial) throws IOException {
+        FileTransfer transfer = transferRepository.findByFileName(fileName).orElse(null);
+        if (transfer == null || transfer.getStatus() != FileTransferStatus.FAILED) {
+            return false;
+        }
+
+        // Même nom = même contenu : remplacer une copie existante ne change pas les octets
+        Path spooled = spoolDirectory.resolve(fileName);
+        Files.move(partial, spooled, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        Integer resumed = transactionTemplate.execute(status -> transferRepository.resumeFailed(fileName,
+                spooled.toString(), FileTransferStatus.FAILED, FileTransferStatus.PENDING, LocalDateTime.now()));
+        if (resumed != null && resumed > 0) {
+            log.info("[FILES] Transfert en échec de {} repris avec le nouvel upload", fileName);
+            dispatchAfterCommit(transfer.getId());
+        }
+        // Sinon un upload concurrent l'a déjà repris : sa copie est à ce même emplacement
+        return true;
+    }
+
+    private void dispatchAfterCommit(Long transferId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(transferId);
+                }
+            });
+        } else {
+            dispatch(transferId);
+        }
+    }
+
+    private boolean dispatch(Long transferId) {
+        try {
+            workers.execute(() -> transfer(transferId));
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.debug("[FILES] File des transferts pleine, {} sera repris par la tâche planifiée", transferId);
+            return false;
+        }
+    }
+
+    // Une tentative de transfert, exécutée par un worker
+    private void transfer(Long transferId) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer claimed = transactionTemplate.execute(status -> transferRepository.claim(
+                transferId, FileTransferStatus.PENDING, now, now.plus(Duration.ofMillis(leaseMs))));
+        if (claimed == null || claimed == 0) {
+            return; // Déjà pris par un autre worker, ou plus en attente
+        }
+
+        FileTransfer transfer = transferRepository.findById(transferId).orElse(null);
+        if (transfer == null) {
+            return;
+        }
+
+        Path spooled = transfer.getSpoolPath() != null ? Paths.get(transfer.getSpoolPath()) : null;
+        if (spooled == null || !Files.exists(spooled)) {
+            // Sans copie locale, aucune nouvelle tentative ne peut réussir
+            fail(transfer, "Fichier absent du spool local", true);
+            return;
+        }
+
+        try (InputStream inputStream = Files.newInputStream(spooled)) {
+            fileStorage.put(transfer.getFileName(), inputStream, Files.size(spooled));
+        } catch (Exception e) {
+            fail(transfer, e.getMessage(), false);
+            return;
+        }
+
+        transfer.setStatus(FileTransferStatus.STORED);
+        transfer.setStoredAt(LocalDateTime.now());
+        transfer.setSpoolPath(null);
+        transfer.setNextAttemptAt(null);
+        transfer.setLastError(null);
+        transferRepository.save(transfer);
+
+        try {
+            Files.deleteIfExists(spooled);
+        } catch (IOException e) {
+            log.warn("[FILES] Copie locale {} non supprimée : {}", spooled, e.getMessage());
+        }
+    }
+
+    private void fail(FileTransfer transfer, String error, boolean permanent) {
+        String message = error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        transfer.setLastError(message);
+
+        if (permanent || transfer.getAttempts() >= maxAttempts) {
+            transfer.setStatus(FileTransferStatus.FAILED);
+            transfer.setNextAttemptAt(null);
+            log.error("[FILES] Transfert de {} abandonné après {} tentatives : {}",
+                    transfer.getFileName(), transfer.getAttempts(), message);
+        } else {
+            // Délai doublé à chaque tentative : backoff, 2 x backoff, 4 x backoff...
+            long delayMs = retryBackoffMs << Math.min(transfer.getAttempts() - 1, 16);
+            transfer.setNextAttemptAt(LocalDateTime.now().plus(Duration.ofMillis(delayMs)));
+            log.warn("[FILES] Transfert de {} échoué (tentative {}/{}) : {}",
+                    transfer.getFileName(), transfer.getAttempts(), maxAttempts, message);
+        }
+        transferRepository.save(transfer);
+    }
+
+    private FileTransferDTO convertToDTO(FileTransfer transfer) {
+        FileTransferDTO dto = new FileTransferDTO();
+        dto.setFileName(transfer.getFileName());
+        dto.setOriginalName(transfer.getOriginalName());
+        dto.setContentType(transfer.getContentType());
+        dto.setSizeBytes(transfer.getSizeBytes());
+        dto.setStatus(transfer.getStatus());
+        dto.setAttempts(transfer.getAttempts());
+        dto.setLastError(transfer.getLastError());
+        dto.setNextAttemptAt(transfer.getNextAttemptAt());
+        dto.setStoredAt(transfer.getStoredAt());
+        dto.setCreatedAt(transfer.getCreatedAt());
+        return dto;
+    }
+}
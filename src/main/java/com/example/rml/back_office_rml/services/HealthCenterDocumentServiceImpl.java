@@ -36,6 +36,7 @@ public class HealthCenterDocumentServiceImpl implements HealthCenterDocumentServ
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<HealthCenterDocumentDTO> getDocumentsByHealthCenter(Long centerId) {
         return documentRepository.findByHealthCenter_CenterId(centerId)
                 .stream()
@@ -0,0 +1,249 @@
+package com.example.rml.back_office_rml.services;
+
+import com.example.rml.back_office_rml.dto.IndexAdvisorReportDTO;
+import com.example.rml.back_office_rml.dto.QueryPlanDTO;
+import com.example.rml.back_office_rml.util.SqlCaptureInspector;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Service;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Conseiller d'index : lance un EXPLAIN sur chaque requête @Query des repositories
+ * et signale celles qui parcourent une table entière.
+ *
+ * - Les requêtes JPQL sont traduites en SQL par Hibernate, dans une session portant le SqlCaptureInspector,
+ *   sans être exécutées.
+ * - Les paramètres sont remplacés par des valeurs représentatives selon leur type Java.
+ * - Seul MySQL/MariaDB est analysé : le format de l'EXPLAIN dépend de la base.
+ *
+ * Le rapport est disponible via l'endpoint actuator /actuator/indexadvisor
+ * et peut être journalisé au démarrage (index-advisor.run-at-startup=true).
+ */
+@Slf4j
+@Service
+public class IndexAdvisorService {
+
+    // Paramètres nommés JPQL/SQL natif (":doctorId"), en ignorant les "::" de cast
+    private static final Pattern NAMED_PARAMETER = Pattern.compile("(?<!:):(\\w+)");
+
+    private final ApplicationContext applicationContext;
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean runAtStartup;
+
+    public IndexAdvisorService(ApplicationContext applicationContext,
+                               EntityManagerFactory entityManagerFactory,
+                               JdbcTemplate jdbcTemplate,
+                               @Value("${index-advisor.run-at-startup:false}") boolean runAtStartup) {
+        this.applicationContext = applicationContext;
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = jdbcTemplate;
+        this.runAtStartup = runAtStartup;
+    }
+
+    // Rapport au démarrage : une ligne de log par requête en scan complet
+    @EventListener(ApplicationReadyEvent.class)
+    public void logReportAtStartup() {
+        if (!runAtStartup) {
+            return;
+        }
+        try {
+            IndexAdvisorReportDTO report = analyze();
+            for (QueryPlanDTO plan : report.getQueries()) {
+                if ("FULL_SCAN".equals(plan.getStatus())) {
+                    log.warn("[INDEX] Scan complet de {} pour {}.{}",
+                            plan.getFullScanTables(), plan.getRepository(), plan.getMethod());
+                } else if ("ERROR".equals(plan.getStatus())) {
+                    log.warn("[INDEX] EXPLAIN impossible pour {}.{} : {}",
+                            plan.getRepository(), plan.getMethod(), plan.getMessage());
+                }
+            }
+            log.info("[INDEX] {} requêtes analysées, {} scans complets", report.getAnalyzedQueries(), report.getFullScans());
+        } catch (Exception e) {
+            log.warn("[INDEX] Analyse des index impossible : {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Analyse toutes les méthodes @Query des repositories Spring Data.
+     */
+    public IndexAdvisorReportDTO analyze() {
+        IndexAdvisorReportDTO report = new IndexAdvisorReportDTO();
+        report.setGeneratedAt(LocalDateTime.now());
+
+        String database = jdbcTemplate.execute((java.sql.Connection connection) -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            return metaData.getDatabaseProductName() + " " + metaData.getDatabaseProductVersion();
+        });
+        report.setDatabase(database);
+        boolean explainSupported = database != null
+                && (database.toLowerCase().contains("mysql") || database.toLowerCase().contains("mariadb"));
+
+        Repositories repositories = new Repositories(applicationContext);
+        for (Class<?> domainType : repositories) {
+            Class<?> repositoryInterface = repositories.getRequiredRepositoryInformation(domainType).getRepositoryInterface();
+
+            Method[] methods = repositoryInterface.getDeclaredMethods();
+            Arrays.sort(methods, Comparator.comparing(Method::getName));
+            for (Method method : methods) {
+                Query query = method.getAnnotation(Query.class);
+                if (query == null) {
+                    continue;
+                }
+                QueryPlanDTO plan = new QueryPlanDTO();
+                plan.setRepository(repositoryInterface.getSimpleName());
+                plan.setMethod(method.getName());
+
+                if (!explainSupported) {
+                    plan.setStatus("SKIPPED");
+                    plan.setMessage("EXPLAIN analysé uniquement sur MySQL/MariaDB");
+                } else {
+                    explain(method, query, plan);
+                }
+                report.getQueries().add(plan);
+            }
+        }
+
+        report.setAnalyzedQueries(report.getQueries().size());
+        report.setFullScans((int) report.getQueries().stream()
+                .filter(plan -> "FULL_SCAN".equals(plan.getStatus()))
+                .count());
+        return report;
+    }
+
+    // ====================================================================
+    // 🔧 MÉTHODES UTILITAIRES PRIVÉES
+    // ====================================================================
+
+    private void explain(Method method, Query query, QueryPlanDTO plan) {
+        try {
+            Map<String, Object> samples = sampleArguments(method);
+            String sql;
+            List<Object> bindings = new ArrayList<>();
+
+            if (query.nativeQuery()) {
+                // SQL natif : les paramètres nommés deviennent des "?" dans leur ordre d'apparition
+                Matcher matcher = NAMED_PARAMETER.matcher(query.value());
+                while (matcher.find()) {
+                    bindings.add(samples.get(matcher.group(1)));
+                }
+                sql = matcher.replaceAll("?");
+            } else if (method.isAnnotationPresent(Modifying.class)) {
+                plan.setStatus("SKIPPED");
+                plan.setMessage("Requête JPQL de modification non analysée");
+                return;
+            } else {
+                sql = translateJpql(query.value(), samples);
+                // Hibernate conserve l'ordre d'apparition des paramètres JPQL dans le SQL généré
+                Matcher matcher = NAMED_PARAMETER.matcher(query.value());
+                while (matcher.find()) {
+                    bindings.add(samples.get(matcher.group(1)));
+                }
+            }
+            plan.setSql(sql);
+
+            long placeholders = sql.chars().filter(c -> c == '?').count();
+            if (placeholders != bindings.size()) {
+                plan.setStatus("ERROR");
+                plan.setMessage("Impossible d'associer les paramètres (" + bindings.size()
+                        + " valeurs pour " + placeholders + " paramètres JDBC)");
+                return;
+            }
+
+            List<Map<String, Object>> rows = jdbcTemplate.execute("EXPLAIN " + sql, (PreparedStatement ps) -> {
+                for (int i = 0; i < bindings.size(); i++) {
+                    Object value = bindings.get(i);
+                    // Les enums sont stockés en texte (EnumType.STRING)
+                    ps.setObject(i + 1, value instanceof Enum<?> e ? e.name() : value);
+                }
+                List<Map<String, Object>> result = new ArrayList<>();
+                try (ResultSet rs = ps.executeQuery()) {
+                    ResultSetMetaData metaData = rs.getMetaData();
+                    while (rs.next()) {
+                        Map<String, Object> row = new LinkedHashMap<>();
+                        for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                            row.put(JdbcUtils.lookupColumnName(metaData, column), rs.getObject(column));
+                        }
+                        result.add(row);
+                    }
+                }
+                return result;
+            });
+            plan.setPlan(rows);
+
+            for (Map<String, Object> row : rows) {
+                Object type = row.get("type");
+                if ("ALL".equals(type) || "index".equals(type)) {
+                    plan.getFullScanTables().add(String.valueOf(row.get("table")));
+                }
+            }
+            plan.setStatus(plan.getFullScanTables().isEmpty() ? "OK" : "FULL_SCAN");
+        } catch (Exception e) {
+            plan.setStatus("ERROR");
+            plan.setMessage(e.getMessage());
+        }
+    }
+
+    // Traduit une requête JPQL en SQL en interceptant l'instruction préparée par Hibernate
+    private String translateJpql(String jpql, Map<String, Object> samples) {
+        String sql = SqlCaptureInspector.capture(entityManagerFactory, session -> {
+            EntityManager entityManager = session;
+            jakarta.persistence.Query jpaQuery = entityManager.createQuery(jpql);
+            for (jakarta.persistence.Parameter<?> parameter : jpaQuery.getParameters()) {
+                jpaQuery.setParameter(parameter.getName(), samples.get(parameter.getName()));
+            }
+            return jpaQuery.getResultList();
+        });
+        if (sql == null) {
+            throw new IllegalStateException("Aucune requête SQL générée");
+        }
+        return sql;
+    }
+
+    // Valeurs représentatives pour chaque paramètre @Param de la méthode
+    private Map<String, Object> sampleArguments(Method method) {
+        Map<String, Object> samples = new HashMap<>();
+        for (Parameter parameter : method.getParameters()) {
+            Param param = parameter.getAnnotation(Param.class);
+            String name = param != null ? param.value() : parameter.getName();
+            samples.put(name, sampleValue(parameter.getType()));
+        }
+        return samples;
+    }
+
+    private Object sampleValue(Class<?> type) {
+        if (type == Long.class || type == long.class) return 1L;
+        if (type == Integer.class || type == int.class) return 1;
+        if (type == Boolean.class || type == boolean.class) return true;
+        if (type == LocalDate.class) return LocalDate.now();
+        if (type == LocalTime.class) return LocalTime.of(9, 0);
+        if (type == LocalDateTime.class) return LocalDateTime.now();
+        if (type == String.class) return "x";
+        if (type.isEnum()) return type.getEnumConstants()[0];
+        return null;
+    }
+}
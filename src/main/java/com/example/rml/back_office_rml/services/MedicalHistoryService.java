@@ -2,6 +2,7 @@ package com.example.rml.back_office_rml.services;
 
 import com.example.rml.back_office_rml.dto.MedicalHistoryDTO;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 // ========================================
@@ -20,4 +21,7 @@ public interface MedicalHistoryService {
 
     // Récupérer les antécédents d'un dossier médical
     List<MedicalHistoryDTO> getMedicalHistoriesByRecordId(Long recordId);
+
+    // Récupérer les antécédents d'un dossier créés ou modifiés depuis une date (synchronisation mobile)
+    List<MedicalHistoryDTO> getMedicalHistoriesChangedSince(Long recordId, LocalDateTime since);
 }
\ No newline at end of file
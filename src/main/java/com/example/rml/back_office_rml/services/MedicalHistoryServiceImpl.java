@@ -7,6 +7,7 @@ import com.example.rml.back_office_rml.repositories.MedicalHistoryRepository;
 import com.example.rml.back_office_rml.repositories.MedicalRecordRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -66,6 +67,7 @@ public class MedicalHistoryServiceImpl implements MedicalHistoryService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<MedicalHistoryDTO> getAllMedicalHistories() {
         return medicalHistoryRepository.findAll()
                 .stream()
@@ -74,6 +76,7 @@ public class MedicalHistoryServiceImpl implements MedicalHistoryService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<MedicalHistoryDTO> getMedicalHistoriesByRecordId(Long recordId) {
         return medicalHistoryRepository.findByMedicalRecord_Id(recordId)
                 .stream()
@@ -81,6 +84,15 @@ public class MedicalHistoryServiceImpl implements MedicalHistoryService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<MedicalHistoryDTO> getMedicalHistoriesChangedSince(Long recordId, LocalDateTime since) {
+        return medicalHistoryRepository.findByMedicalRecord_IdAndUpdatedAtGreaterThanEqual(recordId, since)
+                .stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
     // Conversion entité → DTO
     private MedicalHistoryDTO convertToDTO(MedicalHistory history) {
         MedicalHistoryDTO dto = new MedicalHistoryDTO();
@@ -1,7 +1,10 @@
 package com.example.rml.back_office_rml.services;
 
 import com.example.rml.back_office_rml.dto.*;
+import com.example.rml.back_office_rml.enums.MedicalRecordSection;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 // ========================================
 // SERVICE POUR DOSSIER MÉDICAL
@@ -22,4 +25,10 @@ public interface MedicalRecordService {
 
     // Récupérer un dossier médical par son Numéro
     MedicalRecordDTO getMedicalRecordByRecordNumber(String recordNumber);
+
+    // Récupérer le dossier et les sections demandées en une seule lecture (toutes si sections est vide)
+    MedicalRecordSnapshotDTO getMedicalRecordSnapshot(Long recordId, Set<MedicalRecordSection> sections);
+
+    // Récupérer ce qui a été créé, modifié ou supprimé depuis since (tout le dossier si since est null)
+    MedicalRecordChangesDTO getMedicalRecordChanges(Long recordId, LocalDateTime since, Set<MedicalRecordSection> sections);
 }
\ No newline at end of file
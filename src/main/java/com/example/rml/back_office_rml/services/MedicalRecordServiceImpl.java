@@ -1,13 +1,24 @@
 package com.example.rml.back_office_rml.services;
 
+import com.example.rml.back_office_rml.dto.MedicalRecordChangesDTO;
 import com.example.rml.back_office_rml.dto.MedicalRecordDTO;
+import com.example.rml.back_office_rml.dto.MedicalRecordSnapshotDTO;
+import com.example.rml.back_office_rml.dto.MedicalRecordTombstoneDTO;
 import com.example.rml.back_office_rml.entities.MedicalRecord;
 import com.example.rml.back_office_rml.entities.Patient;
+import com.example.rml.back_office_rml.enums.MedicalRecordSection;
 import com.example.rml.back_office_rml.repositories.MedicalRecordRepository;
+import com.example.rml.back_office_rml.repositories.MedicalRecordTombstoneRepository;
 import com.example.rml.back_office_rml.repositories.PatientRepository;
+import com.example.rml.back_office_rml.util.SyncCursor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -16,11 +27,35 @@ public class MedicalRecordServiceImpl implements MedicalRecordService {
 
     private final MedicalRecordRepository medicalRecordRepository;
     private final PatientRepository patientRepository;
+    private final MedicalHistoryService medicalHistoryService;
+    private final FamilyHistoryService familyHistoryService;
+    private final ExaminationService examinationService;
+    private final ConsultationReportService consultationReportService;
+    private final PrescriptionService prescriptionService;
+    private final MedicalRecordTombstoneRepository tombstoneRepository;
+    private final long commitLagSeconds;
+    private final int tombstoneRetentionDays;
 
     public MedicalRecordServiceImpl(MedicalRecordRepository medicalRecordRepository,
-                                    PatientRepository patientRepository) {
+                                    PatientRepository patientRepository,
+                                    MedicalHistoryService medicalHistoryService,
+                                    FamilyHistoryService familyHistoryService,
+                                    ExaminationService examinationService,
+                                    ConsultationReportService consultationReportService,
+                                    PrescriptionService prescriptionService,
+                                    MedicalRecordTombstoneRepository tombstoneRepository,
+                                    @Value("${medical-records.sync.commit-lag-seconds:5}") long commitLagSeconds,
+                                    @Value("${medical-records.sync.tombstone-retention-days:90}") int tombstoneRetentionDays) {
         this.medicalRecordRepository = medicalRecordRepository;
         this.patientRepository = patientRepository;
+        this.medicalHistoryService = medicalHistoryService;
+        this.familyHistoryService = familyHistoryService;
+        this.examinationService = examinationService;
+        this.consultationReportService = consultationReportService;
+        this.prescriptionService = prescriptionService;
+        this.tombstoneRepository = tombstoneRepository;
+        this.commitLagSeconds = commitLagSeconds;
+        this.tombstoneRetentionDays = tombstoneRetentionDays;
     }
 
     @Override
@@ -111,6 +146,108 @@ public class MedicalRecordServiceImpl implements MedicalRecordService {
         return convertToDTO(record);
     }
 
+    /**
+     * Dossier et sections dans une seule transaction en lecture seule :
+     * - une requête par section (avec le médecin, le rendez-vous et les médicaments déjà joints),
+     *   jamais de jointure de plusieurs collections à la fois (pas de produit cartésien) ;
+     * - le dossier, le patient et les médecins communs à plusieurs sections ne sont lus qu'une fois
+     *   (contexte de persistance partagé) ;
+     * - la photo et les justificatifs des médecins ne sont pas lus (table doctor_media).
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public MedicalRecordSnapshotDTO getMedicalRecordSnapshot(Long recordId, Set<MedicalRecordSection> sections) {
+        MedicalRecord record = medicalRecordRepository.findById(recordId)
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Dossier médical non trouvé avec l'ID: " + recordId));
+        Set<MedicalRecordSection> selected = sections == null || sections.isEmpty()
+                ? EnumSet.allOf(MedicalRecordSection.class)
+                : sections;
+
+        MedicalRecordSnapshotDTO snapshot = new MedicalRecordSnapshotDTO();
+        snapshot.setRecord(convertToDTO(record));
+        if (selected.contains(MedicalRecordSection.MEDICAL_HISTORIES)) {
+            snapshot.setMedicalHistories(medicalHistoryService.getMedicalHistoriesByRecordId(recordId));
+        }
+        if (selected.contains(MedicalRecordSection.FAMILY_HISTORIES)) {
+            snapshot.setFamilyHistories(familyHistoryService.getFamilyHistoriesByRecordId(recordId));
+        }
+        if (selected.contains(MedicalRecordSection.EXAMINATIONS)) {
+            snapshot.setExaminations(examinationService.getExaminationsByRecordId(recordId));
+        }
+        if (selected.contains(MedicalRecordSection.CONSULTATION_REPORTS)) {
+            snapshot.setConsultationReports(consultationReportService.getReportsByRecordId(recordId));
+        }
+        if (selected.contains(MedicalRecordSection.PRESCRIPTIONS)) {
+            snapshot.setPrescriptions(prescriptionService.getPrescriptionsByRecordId(recordId));
+        }
+        return snapshot;
+    }
+
+    /**
+     * Changements depuis since (curseur décodé) : entrées dont updatedAt est postérieur ou égal à since,
+     * et traces des suppressions.
+     *
+     * Le curseur suivant est l'heure de la requête moins medical-records.sync.commit-lag-seconds :
+     * une modification horodatée juste avant la lecture mais validée juste après sera renvoyée
+     * à la synchronisation suivante au lieu d'être perdue (au prix de quelques doublons).
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public MedicalRecordChangesDTO getMedicalRecordChanges(Long recordId, LocalDateTime since, Set<MedicalRecordSection> sections) {
+        LocalDateTime now = LocalDateTime.now();
+        MedicalRecord record = medicalRecordRepository.findById(recordId)
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Dossier médical non trouvé avec l'ID: " + recordId));
+        Set<MedicalRecordSection> selected = sections == null || sections.isEmpty()
+                ? EnumSet.allOf(MedicalRecordSection.class)
+                : sections;
+
+        // Curseur antérieur à la conservation des traces : des suppressions ont pu être purgées
+        boolean fullSync = since == null || since.isBefore(now.minusDays(tombstoneRetentionDays));
+
+        MedicalRecordChangesDTO changes = new MedicalRecordChangesDTO();
+        changes.setFullSync(fullSync);
+        if (fullSync || record.getUpdatedAt() == null || !record.getUpdatedAt().isBefore(since)) {
+            changes.setRecord(convertToDTO(record));
+        }
+        if (selected.contains(MedicalRecordSection.MEDICAL_HISTORIES)) {
+            changes.setMedicalHistories(fullSync
+                    ? medicalHistoryService.getMedicalHistoriesByRecordId(recordId)
+                    : medicalHistoryService.getMedicalHistoriesChangedSince(recordId, since));
+        }
+        if (selected.contains(MedicalRecordSection.FAMILY_HISTORIES)) {
+            changes.setFamilyHistories(fullSync
+                    ? familyHistoryService.getFamilyHistoriesByRecordId(recordId)
+                    : familyHistoryService.getFamilyHistoriesChangedSince(recordId, since));
+        }
+        if (selected.contains(MedicalRecordSection.EXAMINATIONS)) {
+            changes.setExaminations(fullSync
+                    ? examinationService.getExaminationsByRecordId(recordId)
+                    : examinationService.getExaminationsChangedSince(recordId, since));
+        }
+        if (selected.contains(MedicalRecordSection.CONSULTATION_REPORTS)) {
+            changes.setConsultationReports(fullSync
+                    ? consultationReportService.getReportsByRecordId(recordId)
+                    : consultationReportService.getReportsChangedSince(recordId, since));
+        }
+        if (selected.contains(MedicalRecordSection.PRESCRIPTIONS)) {
+            changes.setPrescriptions(fullSync
+                    ? prescriptionService.getPrescriptionsByRecordId(recordId)
+                    : prescriptionService.getPrescriptionsChangedSince(recordId, since));
+        }
+        if (!fullSync) {
+            tombstoneRepository.findByRecordIdAndDeletedAtGreaterThanEqualOrderByDeletedAt(recordId, since)
+                    .stream()
+                    .filter(tombstone -> selected.contains(tombstone.getSection()))
+                    .map(tombstone -> new MedicalRecordTombstoneDTO(
+                            tombstone.getSection(), tombstone.getEntityId(), tombstone.getDeletedAt()))
+                    .forEach(changes.getDeleted()::add);
+        }
+        changes.setNextCursor(SyncCursor.encode(now.minusSeconds(commitLagSeconds)));
+        return changes;
+    }
+
     // Conversion entité → DTO
     private MedicalRecordDTO convertToDTO(MedicalRecord record) {
         MedicalRecordDTO dto = new MedicalRecordDTO();
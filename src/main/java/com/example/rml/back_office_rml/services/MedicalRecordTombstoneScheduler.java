@@ -0,0 +1,37 @@
+package com.example.rml.back_office_rml.services;
+
+import com.example.rml.back_office_rml.repositories.MedicalRecordTombstoneRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Purge des traces de suppression plus anciennes que medical-records.sync.tombstone-retention-days.
+ * Un client dont le curseur est plus ancien reçoit une synchronisation complète (fullSync).
+ */
+@Slf4j
+@Service
+public class MedicalRecordTombstoneScheduler {
+
+    private final MedicalRecordTombstoneRepository tombstoneRepository;
+    private final int retentionDays;
+
+    public MedicalRecordTombstoneScheduler(MedicalRecordTombstoneRepository tombstoneRepository,
+                                           @Value("${medical-records.sync.tombstone-retention-days:90}") int retentionDays) {
+        this.tombstoneRepository = tombstoneRepository;
+        this.retentionDays = retentionDays;
+    }
+
+    @Scheduled(cron = "${medical-records.sync.tombstone-purge-cron:0 30 0 * * *}")
+    @Transactional
+    public void purgeExpiredTombstones() {
+        int purged = tombstoneRepository.deleteOlderThan(LocalDateTime.now().minusDays(retentionDays));
+        if (purged > 0) {
+            log.info("[SYNC] {} trace(s) de suppression purgée(s)", purged);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.rml.back_office_rml.services;
 
 import com.example.rml.back_office_rml.dto.PrescriptionDTO;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface PrescriptionService {
@@ -25,6 +26,9 @@ public interface PrescriptionService {
      */
     List<PrescriptionDTO> getPrescriptionsByRecordId(Long recordId);
 
+    // Récupérer les ordonnances d'un dossier créés ou modifiés depuis une date (synchronisation mobile)
+    List<PrescriptionDTO> getPrescriptionsChangedSince(Long recordId, LocalDateTime since);
+
     /**
      * Récupérer une ordonnance par son Numéro
      */
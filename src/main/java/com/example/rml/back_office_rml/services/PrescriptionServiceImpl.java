@@ -9,6 +9,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -152,7 +153,8 @@ public class PrescriptionServiceImpl implements PrescriptionService {
                     .collect(Collectors.toList());
 
             existing.setItems(items);
-
+            // Seule la liste a changé : l'ordonnance doit quand même apparaître comme modifiée (synchronisation mobile)
+            existing.setUpdatedAt(LocalDateTime.now());
         }
 
         // SAUVEGARDE
@@ -161,6 +163,7 @@ public class PrescriptionServiceImpl implements PrescriptionService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<PrescriptionDTO> getAllPrescriptions() {
         return prescriptionRepository.findAll()
                 .stream()
@@ -169,6 +172,7 @@ public class PrescriptionServiceImpl implements PrescriptionService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<PrescriptionDTO> getPrescriptionsByRecordId(Long recordId) {
         // Vérifier que le dossier existe
         if (!medicalRecordRepository.existsById(recordId)) {
@@ -183,6 +187,16 @@ public class PrescriptionServiceImpl implements PrescriptionService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<PrescriptionDTO> getPrescriptionsChangedSince(Long recordId, LocalDateTime since) {
+        return prescriptionRepository.findByMedicalRecord_IdAndUpdatedAtGreaterThanEqual(recordId, since)
+                .stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public PrescriptionDTO getPrescriptionByNumber(String prescriptionNumber) {
         Prescription prescription = prescriptionRepository.findByPrescriptionNumber(prescriptionNumber)
                 .orElseThrow(() -> new IllegalArgumentException(
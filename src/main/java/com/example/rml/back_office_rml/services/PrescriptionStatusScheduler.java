@@ -1,29 +1,103 @@
 package com.example.rml.back_office_rml.services;
 
-import com.example.rml.back_office_rml.entities.Prescription;
-import com.example.rml.back_office_rml.enums.PrescriptionStatus;
+import com.example.rml.back_office_rml.dto.ExpiryRunReportDTO;
 import com.example.rml.back_office_rml.repositories.PrescriptionRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDate;
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.concurrent.locks.ReentrantLock;
 
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class PrescriptionStatusScheduler {
 
     private final PrescriptionRepository prescriptionRepository;
+    private final MeterRegistry meterRegistry;
 
-    // Vérifie chaque jour à minuit les ordonnances expirées et met leur statut à EXPIRED
-    @Scheduled(cron = "0 0 0 * * ?")
-    @Transactional
+    // Nombre maximal d'ordonnances expirées par UPDATE (une transaction par lot)
+    private final int chunkSize;
+
+    // Total des ordonnances passées à EXPIRED depuis le démarrage (GET /actuator/metrics/prescriptions.expired)
+    private final Counter expiredCounter;
+
+    // Empêche deux exécutions simultanées (cron + déclenchement manuel)
+    private final ReentrantLock runLock = new ReentrantLock();
+
+    public PrescriptionStatusScheduler(PrescriptionRepository prescriptionRepository,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${prescriptions.expiry.chunk-size:1000}") int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("prescriptions.expiry.chunk-size doit être strictement positif");
+        }
+        this.prescriptionRepository = prescriptionRepository;
+        this.meterRegistry = meterRegistry;
+        this.chunkSize = chunkSize;
+        this.expiredCounter = Counter.builder("prescriptions.expired")
+                .description("Ordonnances passées à EXPIRED par la tâche d'expiration")
+                .register(meterRegistry);
+    }
+
+    // Vérifie chaque jour à minuit les ordonnances expirées et met leur statut à EXPIRED (configurable via prescriptions.expiry.cron)
+    @Scheduled(cron = "${prescriptions.expiry.cron:0 0 0 * * *}")
     public void updateExpiredPrescriptions() {
-        List<Prescription> expiredPrescriptions = prescriptionRepository.findExpiredPrescriptions(LocalDate.now());
-        for (Prescription prescription : expiredPrescriptions) {
-            prescription.setStatus(PrescriptionStatus.EXPIRED);
+        expirePrescriptions("CRON");
+    }
+
+    /**
+     * Expire les ordonnances dont la date de validité est dépassée, par lots successifs d'UPDATE.
+     *
+     * Aucune entité n'est chargée : la mémoire utilisée ne dépend pas du nombre d'ordonnances
+     * à expirer. La date de référence est figée au début de l'exécution ; on boucle tant qu'un lot est plein.
+     * Chaque exécution alimente le timer prescriptions.expiry.run (tag trigger).
+     *
+     * @param trigger origine du déclenchement ("CRON" ou "MANUAL")
+     * @return le compte rendu de l'exécution (lignes modifiées par lot, total, durée)
+     */
+    public ExpiryRunReportDTO expirePrescriptions(String trigger) {
+        if (!runLock.tryLock()) {
+            throw new IllegalStateException("Une expiration des ordonnances est déjà en cours");
+        }
+        try {
+            LocalDate today = LocalDate.now();
+
+            ExpiryRunReportDTO report = new ExpiryRunReportDTO();
+            report.setJob("prescriptions");
+            report.setTrigger(trigger);
+            report.setChunkSize(chunkSize);
+            report.setStartedAt(LocalDateTime.now());
+
+            int updated;
+            do {
+                updated = prescriptionRepository.expirePrescriptionsChunk(today, LocalDateTime.now(), chunkSize);
+                if (updated > 0) {
+                    report.getRowsPerChunk().add(updated);
+                    report.setTotalExpired(report.getTotalExpired() + updated);
+                    expiredCounter.increment(updated);
+                    log.debug("Lot {} : {} ordonnances expirées", report.getRowsPerChunk().size(), updated);
+                }
+            } while (updated == chunkSize);
+
+            report.setFinishedAt(LocalDateTime.now());
+            report.setDurationMs(Duration.between(report.getStartedAt(), report.getFinishedAt()).toMillis());
+            Timer.builder("prescriptions.expiry.run")
+                    .description("Durée d'une exécution de l'expiration des ordonnances")
+                    .tag("trigger", trigger)
+                    .register(meterRegistry)
+                    .record(Duration.ofMillis(report.getDurationMs()));
+
+            log.info(" {} ordonnances expirées ont été mises à jour ({} lots, {} ms, déclenchement {}).",
+                    report.getTotalExpired(), report.getRowsPerChunk().size(), report.getDurationMs(), trigger);
+            return report;
+        } finally {
+            runLock.unlock();
         }
     }
 }
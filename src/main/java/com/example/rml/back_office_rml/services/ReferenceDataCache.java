@@ -0,0 +1,202 @@
+package com.example.rml.back_office_rml.services;
+
+import com.example.rml.back_office_rml.entities.ConsultationDuration;
+import com.example.rml.back_office_rml.entities.DefaultTimeSlot;
+import com.example.rml.back_office_rml.entities.HealthCenter;
+import com.example.rml.back_office_rml.entities.Room;
+import com.example.rml.back_office_rml.enums.DayOfWeek;
+import com.example.rml.back_office_rml.enums.RoomStatus;
+import com.example.rml.back_office_rml.repositories.ConsultationDurationRepository;
+import com.example.rml.back_office_rml.repositories.HealthCenterRepository;
+import com.example.rml.back_office_rml.repositories.RoomRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Cache mémoire (Caffeine) des données de référence lues à chaque écriture de planning :
+ * - durées de consultation     → DoctorAvailabilityServiceImpl
+ * - horaires d'ouverture d'une salle (statut, jours, plages horaires, centre) → SlotServiceImpl, SlotGenerationServiceImpl
+ * - informations d'un centre de santé → DoctorAvailabilityServiceImpl
+ *
+ * Les valeurs sont des copies immuables (records) : aucune entité JPA détachée n'est partagée
+ * entre les transactions. Les services qui modifient ces données (RoomServiceImpl,
+ * ConsultationDurationServiceImpl) invalident l'entrée après le commit ; la durée de vie
+ * (reference-cache.ttl-minutes) couvre les modifications faites hors de ces services, dont les
+ * centres de santé que l'application ne modifie jamais.
+ *
+ * Les compteurs hit/miss sont publiés via Micrometer (métrique cache.gets, tag cache=reference.*).
+ */
+@Component
+public class ReferenceDataCache {
+
+    // Durée de consultation (sans association : une référence suffit pour les entités liées)
+    public record DurationInfo(Long id, Integer minutes, String displayName, boolean active) {
+    }
+
+    // Plage horaire d'ouverture d'une salle [début, fin]
+    public record OpeningWindow(LocalTime startTime, LocalTime endTime) {
+    }
+
+    // Horaires d'ouverture d'une salle : tout ce que vérifie la création d'un créneau
+    public record RoomSchedule(Long roomId, RoomStatus status, Long healthCenterId,
+                               Set<DayOfWeek> availableDays, List<OpeningWindow> openingWindows) {
+
+        public boolean isAvailable() {
+            return status == RoomStatus.AVAILABLE;
+        }
+
+        public boolean isOpenOn(DayOfWeek dayOfWeek) {
+            return availableDays.contains(dayOfWeek);
+        }
+
+        // Aucune restriction si la salle n'a pas d'horaires définis
+        public boolean covers(LocalTime start, LocalTime end) {
+            return openingWindows.isEmpty() || openingWindows.stream().anyMatch(window ->
+                    !start.isBefore(window.startTime()) && !end.isAfter(window.endTime()));
+        }
+    }
+
+    // Informations descriptives d'un centre de santé
+    public record HealthCenterInfo(Long centerId, String name, String address, String openingHours) {
+    }
+
+    private final ConsultationDurationRepository durationRepository;
+    private final RoomRepository roomRepository;
+    private final HealthCenterRepository healthCenterRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Cache<Long, DurationInfo> durations;
+    private final Cache<Long, RoomSchedule> roomSchedules;
+    private final Cache<Long, HealthCenterInfo> healthCenters;
+
+    public ReferenceDataCache(ConsultationDurationRepository durationRepository,
+                              RoomRepository roomRepository,
+                              HealthCenterRepository healthCenterRepository,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${reference-cache.max-size:10000}") long maxSize,
+                              @Value("${reference-cache.ttl-minutes:30}") long ttlMinutes) {
+        this.durationRepository = durationRepository;
+        this.roomRepository = roomRepository;
+        this.healthCenterRepository = healthCenterRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        this.durations = CaffeineCacheMetrics.monitor(meterRegistry,
+                newCache(maxSize, ttlMinutes), "reference.consultation-durations");
+        this.roomSchedules = CaffeineCacheMetrics.monitor(meterRegistry,
+                newCache(maxSize, ttlMinutes), "reference.room-schedules");
+        this.healthCenters = CaffeineCacheMetrics.monitor(meterRegistry,
+                newCache(maxSize, ttlMinutes), "reference.health-centers");
+    }
+
+    // ====================================================================
+    // 🔍 LECTURE (chargement depuis la base en cas d'absence)
+    // ====================================================================
+
+    public Optional<DurationInfo> findDuration(Long durationId) {
+        return lookup(durations, durationId, id -> durationRepository.findById(id)
+                .map(ReferenceDataCache::toDurationInfo)
+                .orElse(null));
+    }
+
+    public Optional<RoomSchedule> findRoomSchedule(Long roomId) {
+        return lookup(roomSchedules, roomId, id -> roomRepository.findById(id)
+                .map(ReferenceDataCache::toRoomSchedule)
+                .orElse(null));
+    }
+
+    public Optional<HealthCenterInfo> findHealthCenter(Long centerId) {
+        return lookup(healthCenters, centerId, id -> healthCenterRepository.findById(id)
+                .map(ReferenceDataCache::toHealthCenterInfo)
+                .orElse(null));
+    }
+
+    // ====================================================================
+    // 🗑️ INVALIDATION (appliquée après le commit de la transaction courante)
+    // ====================================================================
+
+    public void evictDurationAfterCommit(Long durationId) {
+        afterCommit(() -> durations.invalidate(durationId));
+    }
+
+    public void evictRoomAfterCommit(Long roomId) {
+        afterCommit(() -> roomSchedules.invalidate(roomId));
+    }
+
+    // Vide tous les caches (tests, rechargement manuel)
+    public void evictAll() {
+        durations.invalidateAll();
+        roomSchedules.invalidateAll();
+        healthCenters.invalidateAll();
+    }
+
+    // ====================================================================
+    // 🔧 MÉTHODES UTILITAIRES PRIVÉES
+    // ====================================================================
+
+    private static <V> Cache<Long, V> newCache(long maxSize, long ttlMinutes) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+    }
+
+    // Les identifiants inconnus ne sont pas mis en cache (Caffeine ignore un chargement null)
+    private <V> Optional<V> lookup(Cache<Long, V> cache, Long id, Function<Long, V> loader) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.get(id, key -> readOnlyTransaction.execute(status -> loader.apply(key))));
+    }
+
+    // Hors transaction (ou transaction annulée ensuite) l'invalidation ne fait jamais de mal : appliquée tout de suite
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static DurationInfo toDurationInfo(ConsultationDuration duration) {
+        return new DurationInfo(duration.getId(), duration.getMinutes(), duration.getDisplayName(),
+                Boolean.TRUE.equals(duration.getActive()));
+    }
+
+    private static RoomSchedule toRoomSchedule(Room room) {
+        Set<DayOfWeek> availableDays = room.getAvailableDays() != null ? Set.copyOf(room.getAvailableDays()) : Set.of();
+        List<DefaultTimeSlot> timeSlots = room.getDefaultTimeSlots() != null ? room.getDefaultTimeSlots() : List.of();
+        List<OpeningWindow> windows = timeSlots.stream()
+                .map(ts -> new OpeningWindow(ts.getStartTime(), ts.getEndTime()))
+                .toList();
+        return new RoomSchedule(room.getRoomId(), room.getStatus(), room.getHealthCenter().getCenterId(),
+                availableDays, windows);
+    }
+
+    private static HealthCenterInfo toHealthCenterInfo(HealthCenter healthCenter) {
+        return new HealthCenterInfo(healthCenter.getCenterId(), healthCenter.getName(),
+                healthCenter.getAddress(), healthCenter.getOpeningHours());
+    }
+}
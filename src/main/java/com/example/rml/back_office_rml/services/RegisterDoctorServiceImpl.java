@@ -80,6 +80,7 @@ public class RegisterDoctorServiceImpl implements RegisterDoctorService {
     }
 
     @Override
+    @Transactional(readOnly = true) // Compte utilisateur (chargement à la demande) lu par convertToDoctorDTO
     public List<RequestDoctorDTO> getDoctorsBySpecialty(MedicalSpecialty medicalSpecialty) {
 
         List<Doctor> doctorList = doctorRepository.findBySpecialty(medicalSpecialty);
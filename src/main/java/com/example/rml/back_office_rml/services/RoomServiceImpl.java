@@ -19,11 +19,17 @@ public class RoomServiceImpl implements RoomService {
 
     private final RoomRepository roomRepository;
     private final HealthCenterRepository healthCenterRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final DoctorAgendaProjector agendaProjector;
 
     public RoomServiceImpl(RoomRepository roomRepository,
-                           HealthCenterRepository healthCenterRepository) {
+                           HealthCenterRepository healthCenterRepository,
+                           ReferenceDataCache referenceDataCache,
+                           DoctorAgendaProjector agendaProjector) {
         this.roomRepository = roomRepository;
         this.healthCenterRepository = healthCenterRepository;
+        this.referenceDataCache = referenceDataCache;
+        this.agendaProjector = agendaProjector;
     }
 
     // ====================================================================
@@ -90,6 +96,7 @@ public class RoomServiceImpl implements RoomService {
 
         // Sauvegarder la salle
         Room updatedRoom = roomRepository.save(room);
+        referenceDataCache.evictRoomAfterCommit(roomId);
         return convertToDTO(updatedRoom);
     }
 
@@ -152,6 +159,9 @@ public class RoomServiceImpl implements RoomService {
         }
 
         Room updatedRoom = roomRepository.save(existingRoom);
+        referenceDataCache.evictRoomAfterCommit(roomId);
+        // L'agenda des médecins recopie le nom de la salle et de son centre
+        agendaProjector.refreshRoom(roomId);
         return convertToDTO(updatedRoom);
     }
 
@@ -211,6 +221,7 @@ public class RoomServiceImpl implements RoomService {
 
         // Suppression propre avec cascade automatique sur les créneaux horaires
         roomRepository.deleteById(roomId);
+        referenceDataCache.evictRoomAfterCommit(roomId);
     }
 
     // ====================================================================
@@ -229,6 +240,7 @@ public class RoomServiceImpl implements RoomService {
 
             // Sauvegarde qui déclenchera la mise à jour automatique de updatedAt
             Room updatedRoom = roomRepository.save(room);
+            referenceDataCache.evictRoomAfterCommit(roomId);
 
             // Retourner la version DTO pour l'API
             return convertToDTO(updatedRoom);
@@ -0,0 +1,393 @@
+package com.example.rml.back_office_rml.services;
+
+import com.example.rml.back_office_rml.entities.Slot;
+import com.example.rml.back_office_rml.enums.DayOfWeek;
+import com.example.rml.back_office_rml.projections.SlotIntervalView;
+import com.example.rml.back_office_rml.repositories.SlotRepository;
+import com.example.rml.back_office_rml.util.TimeIntervalTree;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Index mémoire des créneaux pour détecter les chevauchements sans interroger la table slots.
+ *
+ * Trois couches, chacune faite d'arbres d'intervalles (TimeIntervalTree) :
+ * - par médecin et par date   → équivalent de existsOverlappingSlotForDoctorOnDate
+ * - par salle et par date     → équivalent de existsOverlappingSlotForRoomOnDate
+ * - par médecin / salle et par jour de la semaine pour les créneaux récurrents
+ *   → équivalent de existsOverlappingRecurringSlotFor*
+ *
+ * L'index est reconstruit depuis SlotRepository au démarrage puis tenu à jour après chaque
+ * commit de création, modification ou suppression. Les dates antérieures au début de
+ * l'index (coveredFrom) ne sont pas couvertes : la réponse est alors UNKNOWN et l'appelant
+ * interroge la base.
+ *
+ * La base reste la source de vérité : hors mode "authoritative", un résultat NONE est
+ * confirmé par les requêtes SQL, seul un conflit détecté évite l'aller-retour.
+ */
+@Slf4j
+@Component
+public class SlotConflictIndex {
+
+    // Résultat d'une vérification, dans l'ordre des validations de SlotServiceImpl
+    public enum Conflict {
+        NONE,
+        DOCTOR_ON_DATE,
+        ROOM_ON_DATE,
+        DOCTOR_RECURRING,
+        ROOM_RECURRING,
+        UNKNOWN
+    }
+
+    // Intervalle indexé pour un créneau (permet de le retirer lors d'une modification)
+    private record Entry(long slotId, Long doctorId, Long roomId, LocalDate slotDate,
+                         DayOfWeek dayOfWeek, LocalTime startTime, LocalTime endTime, boolean recurring) {
+    }
+
+    // Structures de l'index (remplacées d'un bloc lors d'une reconstruction)
+    private static final class Layers {
+        final Map<Long, Entry> entries = new HashMap<>();
+        final Map<Long, Map<LocalDate, TimeIntervalTree>> doctorDates = new HashMap<>();
+        final Map<Long, Map<LocalDate, TimeIntervalTree>> roomDates = new HashMap<>();
+        final Map<Long, Map<DayOfWeek, TimeIntervalTree>> doctorWeekly = new HashMap<>();
+        final Map<Long, Map<DayOfWeek, TimeIntervalTree>> roomWeekly = new HashMap<>();
+        LocalDate coveredFrom;
+    }
+
+    private final SlotRepository slotRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final boolean authoritative;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Layers layers;
+    private boolean ready;
+
+    // Modifications reçues pendant une reconstruction, rejouées ensuite (null hors reconstruction)
+    private List<Mutation> pendingDuringRebuild;
+
+    public SlotConflictIndex(SlotRepository slotRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${slots.conflict-index.enabled:true}") boolean enabled,
+                             @Value("${slots.conflict-index.authoritative:false}") boolean authoritative) {
+        this.slotRepository = slotRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.authoritative = authoritative;
+    }
+
+    // Si true, un résultat NONE dispense des requêtes de chevauchement (une seule instance applicative)
+    public boolean isAuthoritative() {
+        return authoritative;
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return ready;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Nombre de créneaux actuellement indexés
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return layers == null ? 0 : layers.entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ====================================================================
+    // 🔍 VÉRIFICATION DES CHEVAUCHEMENTS
+    // ====================================================================
+
+    /**
+     * Cherche un chevauchement pour un créneau (nouveau ou modifié).
+     *
+     * @param excludedSlotId créneau à ignorer (celui qu'on modifie), null en création
+     * @param recurring      si true, vérifie aussi la couche des créneaux récurrents
+     */
+    public Conflict findConflict(Long doctorId, Long roomId, LocalDate slotDate, DayOfWeek dayOfWeek,
+                                 LocalTime startTime, LocalTime endTime, boolean recurring, Long excludedSlotId) {
+        lock.readLock().lock();
+        try {
+            if (!ready || slotDate == null || slotDate.isBefore(layers.coveredFrom)) {
+                return Conflict.UNKNOWN;
+            }
+            if (overlaps(layers.doctorDates, doctorId, slotDate, startTime, endTime, excludedSlotId)) {
+                return Conflict.DOCTOR_ON_DATE;
+            }
+            if (overlaps(layers.roomDates, roomId, slotDate, startTime, endTime, excludedSlotId)) {
+                return Conflict.ROOM_ON_DATE;
+            }
+            if (recurring) {
+                if (overlaps(layers.doctorWeekly, doctorId, dayOfWeek, startTime, endTime, excludedSlotId)) {
+                    return Conflict.DOCTOR_RECURRING;
+                }
+                if (overlaps(layers.roomWeekly, roomId, dayOfWeek, startTime, endTime, excludedSlotId)) {
+                    return Conflict.ROOM_RECURRING;
+                }
+            }
+            return Conflict.NONE;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ====================================================================
+    // 🔄 SYNCHRONISATION (après commit)
+    // ====================================================================
+
+    // Indexe (ou ré-indexe) un créneau une fois la transaction courante validée
+    public void refreshAfterCommit(Slot slot) {
+        if (!enabled || slot.getSlotId() == null) {
+            return;
+        }
+        Entry entry = new Entry(slot.getSlotId(), slot.getDoctor().getDoctorId(), slot.getRoom().getRoomId(),
+                slot.getSlotDate(), slot.getDayOfWeek(), slot.getStartTime(), slot.getEndTime(),
+                Boolean.TRUE.equals(slot.getIsRecurring()));
+        afterCommit(() -> apply(layers -> put(layers, entry)));
+    }
+
+    /**
+     * Ré-indexe, après commit, tous les créneaux d'un médecin sur une période
+     * (créneaux insérés en JDBC batch par la génération de calendrier, sans entité ni ID connus).
+     */
+    public void refreshDoctorRangeAfterCommit(Long doctorId, LocalDate fromDate, LocalDate toDate) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> {
+            List<SlotIntervalView> intervals = readOnlyTransaction.execute(status ->
+                    slotRepository.findIntervalsForDoctorBetween(doctorId, fromDate, toDate));
+            if (intervals != null) {
+                apply(layers -> intervals.forEach(view -> put(layers, toEntry(view))));
+            }
+        });
+    }
+
+    // Retire un créneau de l'index une fois la transaction courante validée
+    public void removeAfterCommit(Long slotId) {
+        if (!enabled || slotId == null) {
+            return;
+        }
+        afterCommit(() -> apply(layers -> remove(layers, slotId)));
+    }
+
+    // ====================================================================
+    // 🏗️ RECONSTRUCTION
+    // ====================================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildAtStartup() {
+        if (!enabled) {
+            log.info("[SLOT-INDEX] Index des chevauchements désactivé (slots.conflict-index.enabled=false)");
+            return;
+        }
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.warn("[SLOT-INDEX] Reconstruction impossible, vérifications en base uniquement : {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recharge l'index depuis la base (créneaux à partir d'aujourd'hui + tous les récurrents).
+     * Les modifications validées pendant le chargement sont rejouées avant la bascule.
+     */
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Layers fresh = new Layers();
+        fresh.coveredFrom = LocalDate.now();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<SlotIntervalView> intervals =
+                             slotRepository.streamIntervalsForConflictIndex(fresh.coveredFrom)) {
+                    intervals.forEach(view -> put(fresh, toEntry(view)));
+                }
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // Rejouer les modifications validées pendant le chargement (put/remove sont idempotents)
+            pendingDuringRebuild.forEach(mutation -> mutation.applyTo(fresh));
+            pendingDuringRebuild = null;
+            layers = fresh;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("[SLOT-INDEX] {} créneaux indexés en {} ms", fresh.entries.size(), System.currentTimeMillis() - start);
+    }
+
+    // Chaque nuit, on retire les dates passées pour borner la mémoire
+    @Scheduled(cron = "${slots.conflict-index.prune-cron:0 5 0 * * *}")
+    public void prunePastDates() {
+        LocalDate today = LocalDate.now();
+        lock.writeLock().lock();
+        try {
+            if (layers == null) {
+                return;
+            }
+            layers.entries.values().removeIf(entry -> {
+                if (entry.slotDate() == null || !entry.slotDate().isBefore(today)) {
+                    return false;
+                }
+                removeFromDate(layers.doctorDates, entry.doctorId(), entry);
+                removeFromDate(layers.roomDates, entry.roomId(), entry);
+                // Un créneau récurrent reste indexé dans sa couche hebdomadaire
+                return !entry.recurring();
+            });
+            layers.coveredFrom = today;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ====================================================================
+    // 🔧 MÉTHODES UTILITAIRES PRIVÉES
+    // ====================================================================
+
+    private interface Mutation {
+        void applyTo(Layers layers);
+    }
+
+    private void apply(Mutation mutation) {
+        lock.writeLock().lock();
+        try {
+            if (layers != null) {
+                mutation.applyTo(layers);
+            }
+            if (pendingDuringRebuild != null) {
+                // Reconstruction en cours : la modification sera aussi rejouée sur le nouvel index
+                pendingDuringRebuild.add(mutation);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static Entry toEntry(SlotIntervalView view) {
+        return new Entry(view.getSlotId(), view.getDoctorId(), view.getRoomId(), view.getSlotDate(),
+                view.getDayOfWeek(), view.getStartTime(), view.getEndTime(), Boolean.TRUE.equals(view.getIsRecurring()));
+    }
+
+    private static void put(Layers layers, Entry entry) {
+        remove(layers, entry.slotId());
+        boolean dated = entry.slotDate() != null && !entry.slotDate().isBefore(layers.coveredFrom);
+        if (dated) {
+            treeFor(layers.doctorDates, entry.doctorId(), entry.slotDate())
+                    .insert(entry.startTime(), entry.endTime(), entry.slotId());
+            treeFor(layers.roomDates, entry.roomId(), entry.slotDate())
+                    .insert(entry.startTime(), entry.endTime(), entry.slotId());
+        }
+        if (entry.recurring() && entry.dayOfWeek() != null) {
+            treeFor(layers.doctorWeekly, entry.doctorId(), entry.dayOfWeek())
+                    .insert(entry.startTime(), entry.endTime(), entry.slotId());
+            treeFor(layers.roomWeekly, entry.roomId(), entry.dayOfWeek())
+                    .insert(entry.startTime(), entry.endTime(), entry.slotId());
+        }
+        if (dated || entry.recurring()) {
+            layers.entries.put(entry.slotId(), entry);
+        }
+    }
+
+    private static void remove(Layers layers, long slotId) {
+        Entry previous = layers.entries.remove(slotId);
+        if (previous == null) {
+            return;
+        }
+        removeFromDate(layers.doctorDates, previous.doctorId(), previous);
+        removeFromDate(layers.roomDates, previous.roomId(), previous);
+        if (previous.recurring() && previous.dayOfWeek() != null) {
+            removeFrom(layers.doctorWeekly, previous.doctorId(), previous.dayOfWeek(), previous);
+            removeFrom(layers.roomWeekly, previous.roomId(), previous.dayOfWeek(), previous);
+        }
+    }
+
+    private static void removeFromDate(Map<Long, Map<LocalDate, TimeIntervalTree>> layer, Long ownerId, Entry entry) {
+        if (entry.slotDate() != null) {
+            removeFrom(layer, ownerId, entry.slotDate(), entry);
+        }
+    }
+
+    private static <K> void removeFrom(Map<Long, Map<K, TimeIntervalTree>> layer, Long ownerId, K key, Entry entry) {
+        Map<K, TimeIntervalTree> byKey = layer.get(ownerId);
+        if (byKey == null) {
+            return;
+        }
+        TimeIntervalTree tree = byKey.get(key);
+        if (tree != null) {
+            tree.remove(entry.startTime(), entry.slotId());
+            if (tree.isEmpty()) {
+                byKey.remove(key);
+                if (byKey.isEmpty()) {
+                    layer.remove(ownerId);
+                }
+            }
+        }
+    }
+
+    private static <K> TimeIntervalTree treeFor(Map<Long, Map<K, TimeIntervalTree>> layer, Long ownerId, K key) {
+        return layer.computeIfAbsent(ownerId, id -> new HashMap<>())
+                .computeIfAbsent(key, k -> new TimeIntervalTree());
+    }
+
+    private static <K> boolean overlaps(Map<Long, Map<K, TimeIntervalTree>> layer, Long ownerId, K key,
+                                        LocalTime startTime, LocalTime endTime, Long excludedSlotId) {
+        Map<K, TimeIntervalTree> byKey = layer.get(ownerId);
+        if (byKey == null) {
+            return false;
+        }
+        TimeIntervalTree tree = byKey.get(key);
+        return tree != null && tree.overlaps(startTime, endTime, excludedSlotId);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.rml.back_office_rml.services;
+
+import com.example.rml.back_office_rml.dto.SlotGenerationReportDTO;
+
+import java.time.LocalDate;
+
+public interface SlotGenerationService {
+
+    // Génère en une transaction les créneaux d'un médecin dans une salle sur une période (bornes incluses)
+    SlotGenerationReportDTO generateSlots(Long doctorId, Long roomId, LocalDate startDate, LocalDate endDate);
+}
@@ -0,0 +1,249 @@
+package com.example.rml.back_office_rml.services;
+
+import com.example.rml.back_office_rml.dto.SlotGenerationReportDTO;
+import com.example.rml.back_office_rml.entities.DoctorAvailability;
+import com.example.rml.back_office_rml.enums.DayOfWeek;
+import com.example.rml.back_office_rml.enums.SlotStatus;
+import com.example.rml.back_office_rml.projections.SlotIntervalView;
+import com.example.rml.back_office_rml.repositories.DoctorAvailabilityRepository;
+import com.example.rml.back_office_rml.repositories.DoctorRepository;
+import com.example.rml.back_office_rml.repositories.SlotRepository;
+import com.example.rml.back_office_rml.util.TimeIntervalTree;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Génération de calendrier en masse.
+ *
+ * Les disponibilités actives du médecin dans le centre de la salle sont découpées en créneaux
+ * de ConsultationDuration.minutes, puis filtrées par :
+ * - les jours d'ouverture de la salle (availableDays) ;
+ * - ses horaires d'ouverture (DefaultTimeSlot), comme la VALIDATION 7 de SlotServiceImpl ;
+ * - les créneaux existants du médecin et de la salle (dates de la période + créneaux récurrents).
+ *
+ * Les créneaux retenus sont insérés en JDBC batch dans une seule transaction :
+ * les vérifications de SlotServiceImpl sont faites une fois pour toute la période, pas par créneau.
+ */
+@Slf4j
+@Service
+public class SlotGenerationServiceImpl implements SlotGenerationService {
+
+    // Période maximale générée en un appel
+    private static final int MAX_DAYS = 366;
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_SLOT_SQL =
+            "INSERT INTO slots (slot_date, day_of_week, start_time, end_time, status, is_recurring, " +
+            "created_at, updated_at, doctor_id, room_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final DoctorRepository doctorRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final DoctorAvailabilityRepository availabilityRepository;
+    private final SlotRepository slotRepository;
+    private final SlotConflictIndex conflictIndex;
+    private final DoctorAgendaProjector agendaProjector;
+    private final JdbcTemplate jdbcTemplate;
+
+    public SlotGenerationServiceImpl(DoctorRepository doctorRepository,
+                                     ReferenceDataCache referenceDataCache,
+                                     DoctorAvailabilityRepository availabilityRepository,
+                                     SlotRepository slotRepository,
+                                     SlotConflictIndex conflictIndex,
+                                     DoctorAgendaProjector agendaProjector,
+                                     JdbcTemplate jdbcTemplate) {
+        this.doctorRepository = doctorRepository;
+        this.referenceDataCache = referenceDataCache;
+        this.availabilityRepository = availabilityRepository;
+        this.slotRepository = slotRepository;
+        this.conflictIndex = conflictIndex;
+        this.agendaProjector = agendaProjector;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Créneau découpé, en attente d'insertion
+    private record Candidate(LocalDate date, DayOfWeek dayOfWeek, LocalTime startTime, LocalTime endTime) {
+    }
+
+    @Override
+    @Transactional
+    public SlotGenerationReportDTO generateSlots(Long doctorId, Long roomId, LocalDate startDate, LocalDate endDate) {
+        long started = System.nanoTime();
+
+        // VALIDATION 1: Période cohérente
+        if (startDate == null || endDate == null) {
+            throw new IllegalArgumentException("Les dates de début et de fin sont obligatoires");
+        }
+        if (startDate.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("Impossible de générer des créneaux dans le passé");
+        }
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("La date de fin doit être postérieure ou égale à la date de début");
+        }
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= MAX_DAYS) {
+            throw new IllegalArgumentException("La période ne peut pas dépasser " + MAX_DAYS + " jours");
+        }
+
+        // VALIDATION 2: Le médecin existe
+        if (!doctorRepository.existsById(doctorId)) {
+            throw new IllegalArgumentException("Médecin non trouvé avec l'ID: " + doctorId);
+        }
+
+        // VALIDATION 3: La salle existe et est disponible
+        ReferenceDataCache.RoomSchedule room = referenceDataCache.findRoomSchedule(roomId)
+                .orElseThrow(() -> new IllegalArgumentException("Salle non trouvée avec l'ID: " + roomId));
+        if (!room.isAvailable()) {
+            throw new IllegalArgumentException("La salle est indisponible");
+        }
+
+        SlotGenerationReportDTO report = new SlotGenerationReportDTO();
+        report.setDoctorId(doctorId);
+        report.setRoomId(roomId);
+        report.setStartDate(startDate);
+        report.setEndDate(endDate);
+
+        // Disponibilités du médecin dans le centre de la salle, regroupées par jour
+        Map<DayOfWeek, List<DoctorAvailability>> availabilitiesByDay = new EnumMap<>(DayOfWeek.class);
+        for (DoctorAvailability availability : availabilityRepository.findActiveWithDurationByDoctorAndHealthCenter(
+                doctorId, room.healthCenterId())) {
+            availabilitiesByDay.computeIfAbsent(availability.getDayOfWeek(), day -> new ArrayList<>()).add(availability);
+        }
+        if (availabilitiesByDay.isEmpty()) {
+            throw new IllegalArgumentException(
+                    "Le médecin n'a déclaré aucune disponibilité active dans le centre de cette salle");
+        }
+
+        // Occupation actuelle du médecin et de la salle, chargée une seule fois pour la période
+        Occupancy doctorOccupancy = new Occupancy(slotRepository.findIntervalsForDoctorBetween(doctorId, startDate, endDate));
+        Occupancy roomOccupancy = new Occupancy(slotRepository.findIntervalsForRoomBetween(roomId, startDate, endDate));
+
+        List<Candidate> accepted = new ArrayList<>();
+        long syntheticId = -1;
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            DayOfWeek dayOfWeek = DayOfWeek.valueOf(date.getDayOfWeek().name());
+            if (!room.isOpenOn(dayOfWeek)) {
+                report.setClosedDays(report.getClosedDays() + 1);
+                continue;
+            }
+
+            for (DoctorAvailability availability : availabilitiesByDay.getOrDefault(dayOfWeek, List.of())) {
+                for (LocalTime[] piece : cut(availability)) {
+                    report.setCandidates(report.getCandidates() + 1);
+
+                    if (!room.covers(piece[0], piece[1])) {
+                        report.setSkippedOutsideRoomSchedule(report.getSkippedOutsideRoomSchedule() + 1);
+                        continue;
+                    }
+                    if (doctorOccupancy.overlaps(date, dayOfWeek, piece[0], piece[1])
+                            || roomOccupancy.overlaps(date, dayOfWeek, piece[0], piece[1])) {
+                        report.setSkippedConflicts(report.getSkippedConflicts() + 1);
+                        continue;
+                    }
+
+                    // Les créneaux retenus occupent le médecin et la salle pour les candidats suivants
+                    doctorOccupancy.add(date, piece[0], piece[1], syntheticId);
+                    roomOccupancy.add(date, piece[0], piece[1], syntheticId);
+                    syntheticId--;
+                    accepted.add(new Candidate(date, dayOfWeek, piece[0], piece[1]));
+                }
+            }
+        }
+
+        insert(accepted, doctorId, roomId);
+        report.setCreated(accepted.size());
+        conflictIndex.refreshDoctorRangeAfterCommit(doctorId, startDate, endDate);
+        agendaProjector.refreshDoctorRange(doctorId, startDate, endDate);
+
+        report.setDurationMs((System.nanoTime() - started) / 1_000_000);
+        log.info("[SLOTS] Génération médecin {} / salle {} du {} au {} : {} créés sur {} candidats",
+                doctorId, roomId, startDate, endDate, report.getCreated(), report.getCandidates());
+        return report;
+    }
+
+    // ====================================================================
+    // 🔧 MÉTHODES UTILITAIRES PRIVÉES
+    // ====================================================================
+
+    // Découpe une disponibilité en créneaux consécutifs de la durée de consultation (le reste est ignoré)
+    private List<LocalTime[]> cut(DoctorAvailability availability) {
+        Integer minutes = availability.getConsultationDuration() != null
+                ? availability.getConsultationDuration().getMinutes() : null;
+        if (minutes == null || minutes <= 0
+                || availability.getStartTime() == null || availability.getEndTime() == null) {
+            return List.of();
+        }
+        // Calcul en minutes depuis minuit : LocalTime.plusMinutes reviendrait à 00:00 après 23:59
+        int from = availability.getStartTime().toSecondOfDay() / 60;
+        int to = availability.getEndTime().toSecondOfDay() / 60;
+
+        List<LocalTime[]> pieces = new ArrayList<>();
+        for (int start = from; start + minutes <= to; start += minutes) {
+            pieces.add(new LocalTime[]{LocalTime.ofSecondOfDay(start * 60L), LocalTime.ofSecondOfDay((start + minutes) * 60L)});
+        }
+        return pieces;
+    }
+
+    private void insert(List<Candidate> accepted, Long doctorId, Long roomId) {
+        if (accepted.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SLOT_SQL, accepted, BATCH_SIZE, (ps, candidate) -> {
+            ps.setDate(1, Date.valueOf(candidate.date()));
+            ps.setString(2, candidate.dayOfWeek().name());
+            ps.setTime(3, Time.valueOf(candidate.startTime()));
+            ps.setTime(4, Time.valueOf(candidate.endTime()));
+            ps.setString(5, SlotStatus.AVAILABLE.name());
+            ps.setBoolean(6, false);
+            ps.setTimestamp(7, now);
+            ps.setTimestamp(8, now);
+            ps.setLong(9, doctorId);
+            ps.setLong(10, roomId);
+        });
+    }
+
+    /**
+     * Occupation d'un médecin ou d'une salle : un arbre d'intervalles par date
+     * et un par jour de la semaine pour les créneaux récurrents.
+     */
+    private static final class Occupancy {
+        private final Map<LocalDate, TimeIntervalTree> byDate = new HashMap<>();
+        private final Map<DayOfWeek, TimeIntervalTree> weekly = new EnumMap<>(DayOfWeek.class);
+
+        Occupancy(List<SlotIntervalView> intervals) {
+            for (SlotIntervalView view : intervals) {
+                if (Boolean.TRUE.equals(view.getIsRecurring()) && view.getDayOfWeek() != null) {
+                    weekly.computeIfAbsent(view.getDayOfWeek(), day -> new TimeIntervalTree())
+                            .insert(view.getStartTime(), view.getEndTime(), view.getSlotId());
+                }
+                if (view.getSlotDate() != null) {
+                    add(view.getSlotDate(), view.getStartTime(), view.getEndTime(), view.getSlotId());
+                }
+            }
+        }
+
+        void add(LocalDate date, LocalTime start, LocalTime end, long id) {
+            byDate.computeIfAbsent(date, d -> new TimeIntervalTree()).insert(start, end, id);
+        }
+
+        boolean overlaps(LocalDate date, DayOfWeek dayOfWeek, LocalTime start, LocalTime end) {
+            TimeIntervalTree dated = byDate.get(date);
+            if (dated != null && dated.overlaps(start, end, null)) {
+                return true;
+            }
+            TimeIntervalTree recurring = weekly.get(dayOfWeek);
+            return recurring != null && recurring.overlaps(start, end, null);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.rml.back_office_rml.services;
+
+import com.example.rml.back_office_rml.dto.SlotDTO;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface SlotOccurrenceService {
+
+    // Occurrences des créneaux récurrents sur une période (bornes incluses), triées par date puis heure
+    List<SlotDTO> getOccurrences(Long doctorId, Long roomId, Long healthCenterId, LocalDate fromDate, LocalDate toDate);
+
+    // Même résultat, produit jour par jour à la consommation du flux
+    Stream<SlotDTO> streamOccurrences(Long doctorId, Long roomId, Long healthCenterId, LocalDate fromDate, LocalDate toDate);
+
+    /**
+     * Occurrences d'un médecin à une date calculées depuis le cache des modèles seul, sans lire les
+     * occurrences matérialisées : l'appelant les connaît déjà (agenda du médecin) et les écarte par recurringTemplateId.
+     */
+    List<SlotDTO> getTemplateOccurrences(Long doctorId, LocalDate date);
+
+    /**
+     * ID du créneau à réserver : le créneau lui-même s'il est ponctuel, sinon la ligne de l'occurrence
+     * du modèle récurrent à occurrenceDate (prochaine occurrence si null), créée au besoin.
+     */
+    Long resolveBookableSlotId(Long slotId, LocalDate occurrenceDate);
+
+    // Invalide le cache des modèles récurrents une fois la transaction courante validée
+    void evictTemplatesAfterCommit();
+}
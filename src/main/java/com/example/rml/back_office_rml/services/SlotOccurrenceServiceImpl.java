@@ -0,0 +1,309 @@
+package com.example.rml.back_office_rml.services;
+
+import com.example.rml.back_office_rml.dto.SlotDTO;
+import com.example.rml.back_office_rml.entities.Slot;
+import com.example.rml.back_office_rml.enums.DayOfWeek;
+import com.example.rml.back_office_rml.enums.SlotStatus;
+import com.example.rml.back_office_rml.projections.SlotListView;
+import com.example.rml.back_office_rml.repositories.SlotRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Moteur de récurrence des créneaux.
+ *
+ * Un créneau récurrent (isRecurring = true) est un modèle : sa date est celle de la première
+ * occurrence et il n'est jamais modifié par une réservation.
+ * - Les occurrences d'une période sont calculées à la volée à partir des modèles (aucune ligne créée).
+ * - Réserver une occurrence crée sa propre ligne Slot (recurringTemplate = modèle, isRecurring = false),
+ *   réservée ensuite comme n'importe quel créneau ponctuel. La contrainte uk_slots_template_date
+ *   garantit une seule ligne par modèle et par date.
+ * - Les modèles sont gardés en cache (regroupés par jour de la semaine) et rechargés après toute
+ *   création, modification ou suppression d'un créneau récurrent.
+ */
+@Service
+public class SlotOccurrenceServiceImpl implements SlotOccurrenceService {
+
+    // Période maximale développée en un appel
+    private static final int MAX_WINDOW_DAYS = 92;
+
+    private final SlotRepository slotRepository;
+    private final SlotConflictIndex conflictIndex;
+    private final DoctorAgendaProjector agendaProjector;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate readOnlyTransaction;
+
+    // Cache des modèles actifs par jour de la semaine, triés par heure de début (null = à recharger)
+    private volatile Map<DayOfWeek, List<SlotListView>> templatesByDay;
+    // Incrémenté à chaque invalidation : un chargement concurrent plus ancien n'écrase pas le cache
+    private final AtomicLong templatesGeneration = new AtomicLong();
+
+    public SlotOccurrenceServiceImpl(SlotRepository slotRepository,
+                                     SlotConflictIndex conflictIndex,
+                                     DoctorAgendaProjector agendaProjector,
+                                     PlatformTransactionManager transactionManager) {
+        this.slotRepository = slotRepository;
+        this.conflictIndex = conflictIndex;
+        this.agendaProjector = agendaProjector;
+        // Transaction propre : l'occurrence est créée même si l'appelant est déjà dans une transaction
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // Clé d'une occurrence matérialisée
+    private record OccurrenceKey(Long templateId, LocalDate date) {
+    }
+
+    // ====================================================================
+    // 🔁 DÉVELOPPEMENT DES OCCURRENCES
+    // ====================================================================
+    @Override
+    public List<SlotDTO> getOccurrences(Long doctorId, Long roomId, Long healthCenterId,
+                                        LocalDate fromDate, LocalDate toDate) {
+        try (Stream<SlotDTO> occurrences = streamOccurrences(doctorId, roomId, healthCenterId, fromDate, toDate)) {
+            return occurrences.collect(Collectors.toList());
+        }
+    }
+
+    @Override
+    public Stream<SlotDTO> streamOccurrences(Long doctorId, Long roomId, Long healthCenterId,
+                                             LocalDate fromDate, LocalDate toDate) {
+        if (fromDate == null || toDate == null) {
+            throw new IllegalArgumentException("Les dates de début et de fin sont obligatoires");
+        }
+        if (toDate.isBefore(fromDate)) {
+            throw new IllegalArgumentException("La date de fin doit être postérieure ou égale à la date de début");
+        }
+        if (ChronoUnit.DAYS.between(fromDate, toDate) >= MAX_WINDOW_DAYS) {
+            throw new IllegalArgumentException("La période ne peut pas dépasser " + MAX_WINDOW_DAYS + " jours");
+        }
+
+        Map<DayOfWeek, List<SlotListView>> templates = templatesByDay();
+
+        // Occurrences déjà réservées au moins une fois sur la période : leur ligne fait foi
+        List<SlotListView> rows = readOnlyTransaction.execute(status ->
+                slotRepository.findOccurrenceViewsBetween(fromDate, toDate));
+        Map<OccurrenceKey, SlotListView> materialized = new HashMap<>();
+        for (SlotListView row : rows != null ? rows : List.<SlotListView>of()) {
+            materialized.put(new OccurrenceKey(row.getRecurringTemplateId(), row.getSlotDate()), row);
+        }
+
+        return Stream.iterate(fromDate, date -> !date.isAfter(toDate), date -> date.plusDays(1))
+                .flatMap(date -> templates.getOrDefault(DayOfWeek.valueOf(date.getDayOfWeek().name()), List.of())
+                        .stream()
+                        .filter(template -> doctorId == null || doctorId.equals(template.getDoctorId()))
+                        .filter(template -> roomId == null || roomId.equals(template.getRoomId()))
+                        .filter(template -> healthCenterId == null || healthCenterId.equals(template.getHealthCenterId()))
+                        .filter(template -> template.getSlotDate() == null || !date.isBefore(template.getSlotDate()))
+                        .map(template -> toOccurrence(template, date,
+                                materialized.get(new OccurrenceKey(template.getSlotId(), date)))));
+    }
+
+    @Override
+    public List<SlotDTO> getTemplateOccurrences(Long doctorId, LocalDate date) {
+        return templatesByDay().getOrDefault(DayOfWeek.valueOf(date.getDayOfWeek().name()), List.of()).stream()
+                .filter(template -> doctorId.equals(template.getDoctorId()))
+                .filter(template -> template.getSlotDate() == null || !date.isBefore(template.getSlotDate()))
+                .map(template -> toOccurrence(template, date, null))
+                .collect(Collectors.toList());
+    }
+
+    // ====================================================================
+    // 📌 OCCURRENCE RÉSERVABLE
+    // ====================================================================
+    @Override
+    public Long resolveBookableSlotId(Long slotId, LocalDate occurrenceDate) {
+        Slot slot = readOnlyTransaction.execute(status -> slotRepository.findById(slotId).orElse(null));
+        if (slot == null) {
+            throw new IllegalArgumentException("Créneau non trouvé avec l'ID: " + slotId);
+        }
+
+        if (!Boolean.TRUE.equals(slot.getIsRecurring())) {
+            if (occurrenceDate != null && !occurrenceDate.equals(slot.getSlotDate())) {
+                throw new IllegalArgumentException("Ce créneau n'a lieu que le " + slot.getSlotDate());
+            }
+            return slotId;
+        }
+
+        if (slot.getStatus() != SlotStatus.AVAILABLE && slot.getStatus() != SlotStatus.RESERVED) {
+            throw new IllegalArgumentException("Ce créneau récurrent n'est plus disponible");
+        }
+        LocalDate date = occurrenceDate != null ? occurrenceDate : nextOccurrence(slot);
+        if (DayOfWeek.valueOf(date.getDayOfWeek().name()) != slot.getDayOfWeek()) {
+            throw new IllegalArgumentException("Ce créneau récurrent a lieu le " + slot.getDayOfWeek()
+                    + ", pas le " + date.getDayOfWeek());
+        }
+        if (slot.getSlotDate() != null && date.isBefore(slot.getSlotDate())) {
+            throw new IllegalArgumentException("Ce créneau récurrent commence le " + slot.getSlotDate());
+        }
+        if (date.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("Impossible de réserver un créneau dans le passé");
+        }
+
+        try {
+            return transaction.execute(status -> materialize(slot.getSlotId(), date));
+        } catch (DataIntegrityViolationException e) {
+            // Une réservation concurrente a créé la même occurrence (uk_slots_template_date) : on la réutilise
+            Slot existing = readOnlyTransaction.execute(status ->
+                    slotRepository.findByRecurringTemplate_SlotIdAndSlotDate(slot.getSlotId(), date).orElse(null));
+            if (existing == null) {
+                throw e;
+            }
+            return existing.getSlotId();
+        }
+    }
+
+    @Override
+    public void evictTemplatesAfterCommit() {
+        Runnable evict = () -> {
+            templatesGeneration.incrementAndGet();
+            templatesByDay = null;
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        } else {
+            evict.run();
+        }
+    }
+
+    // ====================================================================
+    // 🔧 MÉTHODES UTILITAIRES PRIVÉES
+    // ====================================================================
+
+    // Ligne de l'occurrence (existante ou créée), à appeler dans une transaction
+    private Long materialize(Long templateId, LocalDate date) {
+        Optional<Slot> existing = slotRepository.findByRecurringTemplate_SlotIdAndSlotDate(templateId, date);
+        if (existing.isPresent()) {
+            return existing.get().getSlotId();
+        }
+
+        Slot template = slotRepository.findById(templateId)
+                .orElseThrow(() -> new IllegalArgumentException("Créneau non trouvé avec l'ID: " + templateId));
+
+        // Réservation antérieure au moteur : le modèle lui-même était réservé pour cette date
+        if (template.getStatus() == SlotStatus.RESERVED && date.equals(template.getSlotDate())) {
+            throw new IllegalArgumentException("Ce créneau n'est plus disponible");
+        }
+
+        // Un créneau ponctuel du médecin ou de la salle occupe déjà cet horaire
+        // (le modèle lui-même est ignoré : sa date est celle de sa première occurrence)
+        Long doctorId = template.getDoctor().getDoctorId();
+        Long roomId = template.getRoom().getRoomId();
+        if (slotRepository.existsOverlappingSlotForDoctorOnDate(doctorId, date,
+                template.getStartTime(), template.getEndTime(), templateId)
+                || slotRepository.existsOverlappingSlotForRoomOnDate(roomId, date,
+                template.getStartTime(), template.getEndTime(), templateId)) {
+            throw new IllegalArgumentException("Ce créneau n'est pas disponible le " + date
+                    + " : un autre créneau occupe déjà cet horaire");
+        }
+
+        Slot occurrence = new Slot();
+        occurrence.setSlotDate(date);
+        occurrence.setDayOfWeek(template.getDayOfWeek());
+        occurrence.setStartTime(template.getStartTime());
+        occurrence.setEndTime(template.getEndTime());
+        occurrence.setStatus(SlotStatus.AVAILABLE);
+        occurrence.setIsRecurring(false);
+        occurrence.setDoctor(template.getDoctor());
+        occurrence.setRoom(template.getRoom());
+        occurrence.setRecurringTemplate(template);
+
+        Slot saved = slotRepository.save(occurrence);
+        conflictIndex.refreshAfterCommit(saved);
+        agendaProjector.refreshSlots(saved.getSlotId());
+        return saved.getSlotId();
+    }
+
+    // Prochaine occurrence non terminée à partir d'aujourd'hui (et pas avant la première occurrence)
+    private LocalDate nextOccurrence(Slot template) {
+        LocalDate today = LocalDate.now();
+        LocalDate start = template.getSlotDate() != null && template.getSlotDate().isAfter(today)
+                ? template.getSlotDate() : today;
+        int shift = (template.getDayOfWeek().ordinal() - DayOfWeek.valueOf(start.getDayOfWeek().name()).ordinal() + 7) % 7;
+        LocalDate next = start.plusDays(shift);
+        if (next.equals(today) && template.getEndTime().isBefore(LocalTime.now())) {
+            next = next.plusWeeks(1);
+        }
+        return next;
+    }
+
+    private Map<DayOfWeek, List<SlotListView>> templatesByDay() {
+        Map<DayOfWeek, List<SlotListView>> cached = templatesByDay;
+        if (cached != null) {
+            return cached;
+        }
+        long generation = templatesGeneration.get();
+        List<SlotListView> templates = readOnlyTransaction.execute(status -> slotRepository.findRecurringTemplateViews());
+
+        Map<DayOfWeek, List<SlotListView>> loaded = new EnumMap<>(DayOfWeek.class);
+        for (SlotListView template : templates != null ? templates : List.<SlotListView>of()) {
+            // Un modèle annulé ou indisponible n'a plus d'occurrence
+            if (template.getDayOfWeek() == null
+                    || (template.getStatus() != SlotStatus.AVAILABLE && template.getStatus() != SlotStatus.RESERVED)) {
+                continue;
+            }
+            loaded.computeIfAbsent(template.getDayOfWeek(), day -> new ArrayList<>()).add(template);
+        }
+        loaded.values().forEach(list -> list.sort(Comparator.comparing(SlotListView::getStartTime)
+                .thenComparing(SlotListView::getSlotId)));
+
+        if (templatesGeneration.get() == generation) {
+            templatesByDay = loaded;
+        }
+        return loaded;
+    }
+
+    private SlotDTO toOccurrence(SlotListView template, LocalDate date, SlotListView materialized) {
+        SlotDTO dto = new SlotDTO();
+        dto.setRecurringTemplateId(template.getSlotId());
+        dto.setSlotDate(date);
+        dto.setDayOfWeek(template.getDayOfWeek());
+        dto.setIsRecurring(false);
+        dto.setDoctorId(template.getDoctorId());
+        dto.setDoctorFirstName(template.getDoctorFirstName());
+        dto.setDoctorLastName(template.getDoctorLastName());
+        dto.setDoctorSpecialty(template.getDoctorSpecialty().toString());
+        dto.setRoomId(template.getRoomId());
+        dto.setRoomName(template.getRoomName());
+        dto.setHealthCenterName(template.getHealthCenterName());
+
+        if (materialized != null) {
+            // Occurrence déjà réservée au moins une fois : statut et horaires de sa propre ligne
+            dto.setSlotId(materialized.getSlotId());
+            dto.setStartTime(materialized.getStartTime());
+            dto.setEndTime(materialized.getEndTime());
+            dto.setStatus(materialized.getStatus());
+            dto.setCreatedAt(materialized.getCreatedAt());
+            dto.setUpdatedAt(materialized.getUpdatedAt());
+        } else {
+            dto.setStartTime(template.getStartTime());
+            dto.setEndTime(template.getEndTime());
+            boolean legacyReservation = template.getStatus() == SlotStatus.RESERVED && date.equals(template.getSlotDate());
+            dto.setStatus(legacyReservation ? SlotStatus.RESERVED : SlotStatus.AVAILABLE);
+            if (legacyReservation) {
+                dto.setSlotId(template.getSlotId());
+            }
+        }
+        return dto;
+    }
+}
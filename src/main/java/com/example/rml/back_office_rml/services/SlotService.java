@@ -1,6 +1,8 @@
 package com.example.rml.back_office_rml.services;
 
 import com.example.rml.back_office_rml.dto.SlotDTO;
+import com.example.rml.back_office_rml.dto.SlotSearchCriteriaDTO;
+import com.example.rml.back_office_rml.dto.SlotSearchPageDTO;
 import com.example.rml.back_office_rml.enums.MedicalSpecialty;
 import com.example.rml.back_office_rml.enums.SlotStatus;
 import org.springframework.transaction.annotation.Transactional;
@@ -37,6 +39,9 @@ public interface SlotService {
     //Par spécialité
     List<SlotDTO> getAvailableSlotsBySpecialty(MedicalSpecialty specialty);
 
+    // Recherche filtrée, paginée par curseur
+    SlotSearchPageDTO searchSlots(SlotSearchCriteriaDTO criteria);
+
 
     // Mise à jour uniquement du statut d'un slot
     SlotDTO updateSlotStatus(Long slotId, SlotStatus status);
@@ -1,23 +1,30 @@
 package com.example.rml.back_office_rml.services;
 
 import com.example.rml.back_office_rml.dto.SlotDTO;
+import com.example.rml.back_office_rml.dto.SlotSearchCriteriaDTO;
+import com.example.rml.back_office_rml.dto.SlotSearchPageDTO;
 import com.example.rml.back_office_rml.entities.Doctor;
-import com.example.rml.back_office_rml.entities.Room;
 import com.example.rml.back_office_rml.entities.Slot;
 import com.example.rml.back_office_rml.enums.DayOfWeek;
 import com.example.rml.back_office_rml.enums.MedicalSpecialty;
-import com.example.rml.back_office_rml.enums.RoomStatus;
 import com.example.rml.back_office_rml.enums.SlotStatus;
+import com.example.rml.back_office_rml.projections.SlotListView;
 import com.example.rml.back_office_rml.repositories.DoctorAvailabilityRepository;
 import com.example.rml.back_office_rml.repositories.DoctorRepository;
 import com.example.rml.back_office_rml.repositories.RoomRepository;
 import com.example.rml.back_office_rml.repositories.SlotRepository;
+import com.example.rml.back_office_rml.util.StageMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Base64;
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,15 +34,38 @@ public class SlotServiceImpl implements SlotService {
     private final DoctorRepository doctorRepository;
     private final RoomRepository roomRepository;
     private final DoctorAvailabilityRepository availabilityRepository;
+    private final SlotConflictIndex conflictIndex;
+    private final DoctorAgendaProjector agendaProjector;
+    private final SlotOccurrenceService occurrenceService;
+    private final ReferenceDataCache referenceDataCache;
+
+    // Durée des étapes et refus par motif (GET /actuator/prometheus : slots_create_stage_seconds, slots_create_rejections_total)
+    private final StageMetrics createMetrics;
+    private final StageMetrics updateMetrics;
+
+    // Taille de page de la recherche (GET /api/slots/search)
+    private static final int DEFAULT_SEARCH_PAGE_SIZE = 50;
+    private static final int MAX_SEARCH_PAGE_SIZE = 200;
 
     public SlotServiceImpl(SlotRepository slotRepository,
                            DoctorRepository doctorRepository,
                            RoomRepository roomRepository,
-                           DoctorAvailabilityRepository availabilityRepository) {
+                           DoctorAvailabilityRepository availabilityRepository,
+                           SlotConflictIndex conflictIndex,
+                           DoctorAgendaProjector agendaProjector,
+                           SlotOccurrenceService occurrenceService,
+                           ReferenceDataCache referenceDataCache,
+                           MeterRegistry meterRegistry) {
         this.slotRepository = slotRepository;
         this.doctorRepository = doctorRepository;
         this.roomRepository = roomRepository;
         this.availabilityRepository = availabilityRepository;
+        this.conflictIndex = conflictIndex;
+        this.agendaProjector = agendaProjector;
+        this.occurrenceService = occurrenceService;
+        this.referenceDataCache = referenceDataCache;
+        this.createMetrics = new StageMetrics(meterRegistry, "slots.create");
+        this.updateMetrics = new StageMetrics(meterRegistry, "slots.update");
     }
 
 
@@ -47,90 +77,74 @@ public class SlotServiceImpl implements SlotService {
 
         // VALIDATION 1: Date obligatoire
         if (dto.getSlotDate() == null) {
-            throw new IllegalArgumentException("La date du créneau est obligatoire");
+            throw createMetrics.reject("missing_date", "La date du créneau est obligatoire");
         }
 
         // VALIDATION 2: Date pas dans le passé
         if (dto.getSlotDate().isBefore(LocalDate.now())) {
-            throw new IllegalArgumentException("Impossible de créer un créneau dans le passé");
+            throw createMetrics.reject("past_date", "Impossible de créer un créneau dans le passé");
         }
 
         // VALIDATION 3: Heures cohérentes
-        validateTimeRange(dto.getStartTime(), dto.getEndTime());
+        try {
+            validateTimeRange(dto.getStartTime(), dto.getEndTime());
+        } catch (IllegalArgumentException e) {
+            createMetrics.countRejection("invalid_time_range");
+            throw e;
+        }
 
         // VALIDATION 4: Le médecin existe
-        Doctor doctor = doctorRepository.findById(dto.getDoctorId())
-                .orElseThrow(() -> new IllegalArgumentException(
+        Doctor doctor = createMetrics.time("doctor_lookup", () -> doctorRepository.findById(dto.getDoctorId()))
+                .orElseThrow(() -> createMetrics.reject("doctor_not_found",
                         "Médecin non trouvé avec l'ID: " + dto.getDoctorId()));
 
-        // VALIDATION 5: La salle existe
-        Room room = roomRepository.findById(dto.getRoomId())
-                .orElseThrow(() -> new IllegalArgumentException(
+        // VALIDATION 5: La salle existe (horaires lus depuis le cache des données de référence)
+        ReferenceDataCache.RoomSchedule room = createMetrics.time("room_lookup",
+                        () -> referenceDataCache.findRoomSchedule(dto.getRoomId()))
+                .orElseThrow(() -> createMetrics.reject("room_not_found",
                         "Salle non trouvée avec l'ID: " + dto.getRoomId()));
 
         // Calculer le jour de la semaine depuis la date
         DayOfWeek dayOfWeek = convertToDayOfWeek(dto.getSlotDate().getDayOfWeek());
 
         // Vérification si la salle est disponible
-        if (room.getStatus() != RoomStatus.AVAILABLE) {
-            throw new IllegalArgumentException(
+        if (!room.isAvailable()) {
+            throw createMetrics.reject("room_unavailable",
                     "La salle est indisponible");
         }
 
         // VALIDATION 6: La salle est disponible ce jour-là
-        if (!room.getAvailableDays().contains(dayOfWeek)) {
-            throw new IllegalArgumentException(
+        if (!room.isOpenOn(dayOfWeek)) {
+            throw createMetrics.reject("room_closed",
                     "La salle n'est pas disponible le " + dayOfWeek + " (" + dto.getSlotDate() + ")");
         }
 
         // VALIDATION 7: Le créneau respecte les horaires de la salle
-        validateSlotWithinRoomSchedule(room, dto.getStartTime(), dto.getEndTime());
+        try {
+            validateSlotWithinRoomSchedule(room, dto.getStartTime(), dto.getEndTime());
+        } catch (IllegalArgumentException e) {
+            createMetrics.countRejection("outside_room_hours");
+            throw e;
+        }
 
         //  VALIDATION 8: Le médecin a déclaré une disponibilité qui couvre ce créneau
-        boolean doctorIsAvailable = !availabilityRepository.findConflictingAvailabilities(
-                dto.getDoctorId(),
-                room.getHealthCenter().getCenterId(),
-                dayOfWeek,
-                dto.getStartTime(),
-                dto.getEndTime()
-        ).isEmpty();
+        boolean doctorIsAvailable = createMetrics.time("availability_lookup",
+                () -> !availabilityRepository.findConflictingAvailabilities(
+                        dto.getDoctorId(),
+                        room.healthCenterId(),
+                        dayOfWeek,
+                        dto.getStartTime(),
+                        dto.getEndTime()
+                ).isEmpty());
         if (!doctorIsAvailable) {
-            throw new IllegalArgumentException(
+            throw createMetrics.reject("doctor_unavailable",
                     "Le médecin n'a pas déclaré de disponibilité couvrant ce créneau le " + dayOfWeek);
         }
 
-        //VALIDATION 9: Pas de conflit avec les slots existants du médecin (DATE SPÉCIFIQUE)
-        if (slotRepository.existsOverlappingSlotForDoctorOnDate(
-                dto.getDoctorId(), dto.getSlotDate(),
-                dto.getStartTime(), dto.getEndTime(), null)) {
-            throw new IllegalArgumentException(
-                    "Le médecin a déjà un créneau qui chevauche cet horaire le " + dto.getSlotDate());
-        }
-
-        // VALIDATION 10: Pas de conflit avec les slots existants de la salle (DATE SPÉCIFIQUE)
-        if (slotRepository.existsOverlappingSlotForRoomOnDate(
-                dto.getRoomId(), dto.getSlotDate(),
-                dto.getStartTime(), dto.getEndTime(), null)) {
-            throw new IllegalArgumentException(
-                    "La salle est déjà réservée sur cet horaire le " + dto.getSlotDate());
-        }
-
-        // VALIDATION 11 (si récurrent): Pas de conflit avec les créneaux récurrents
-        if (dto.getIsRecurring() != null && dto.getIsRecurring()) {
-            if (slotRepository.existsOverlappingRecurringSlotForDoctor(
-                    dto.getDoctorId(), dayOfWeek,
-                    dto.getStartTime(), dto.getEndTime(), null)) {
-                throw new IllegalArgumentException(
-                        "Le médecin a déjà un créneau récurrent qui chevauche cet horaire tous les " + dayOfWeek);
-            }
-
-            if (slotRepository.existsOverlappingRecurringSlotForRoom(
-                    dto.getRoomId(), dayOfWeek,
-                    dto.getStartTime(), dto.getEndTime(), null)) {
-                throw new IllegalArgumentException(
-                        "La salle a déjà un créneau récurrent qui chevauche cet horaire tous les " + dayOfWeek);
-            }
-        }
+        // VALIDATIONS 9 à 11: Pas de conflit avec les slots existants du médecin et de la salle
+        // (date spécifique, puis créneaux récurrents si le nouveau créneau est récurrent)
+        ensureNoOverlap(createMetrics, dto.getDoctorId(), dto.getRoomId(), dto.getSlotDate(), dayOfWeek,
+                dto.getStartTime(), dto.getEndTime(), Boolean.TRUE.equals(dto.getIsRecurring()), null);
 
         // CRÉATION du slot
         Slot slot = new Slot();
@@ -141,10 +155,15 @@ public class SlotServiceImpl implements SlotService {
         slot.setStatus(dto.getStatus() != null ? dto.getStatus() : SlotStatus.AVAILABLE);
         slot.setIsRecurring(dto.getIsRecurring() != null ? dto.getIsRecurring() : false);
         slot.setDoctor(doctor);
-        slot.setRoom(room);
+        slot.setRoom(roomRepository.getReferenceById(room.roomId()));
 
-        Slot savedSlot = slotRepository.save(slot);
-        return convertToDTO(savedSlot);
+        Slot savedSlot = createMetrics.time("save", () -> slotRepository.save(slot));
+        conflictIndex.refreshAfterCommit(savedSlot);
+        agendaProjector.refreshSlots(savedSlot.getSlotId());
+        if (Boolean.TRUE.equals(savedSlot.getIsRecurring())) {
+            occurrenceService.evictTemplatesAfterCommit();
+        }
+        return createMetrics.time("dto_conversion", () -> convertToDTO(savedSlot));
     }
     // ====================================================================
     // ✏️ MISE À JOUR D'UN CRÉNEAU
@@ -155,6 +174,7 @@ public class SlotServiceImpl implements SlotService {
         Slot existing = slotRepository.findById(slotId)
                 .orElseThrow(() -> new IllegalArgumentException(
                         "Créneau non trouvé avec l'ID: " + slotId));
+        boolean wasRecurring = Boolean.TRUE.equals(existing.getIsRecurring());
 
         // Validation des heures si modifiées
         if (dto.getStartTime() != null && dto.getEndTime() != null) {
@@ -189,45 +209,18 @@ public class SlotServiceImpl implements SlotService {
                     "Le médecin n'a pas de disponibilité couvrant ce créneau");
         }
 
-        // Vérifier les conflits (en excluant le slot actuel)
-        if (slotRepository.existsOverlappingSlotForDoctorOnDate(
-                existing.getDoctor().getDoctorId(), existing.getSlotDate(),
-                existing.getStartTime(), existing.getEndTime(), slotId)) {
-            throw new IllegalArgumentException("Conflit avec un autre créneau du médecin");
-        }
-
-        if (slotRepository.existsOverlappingSlotForRoomOnDate(
-                existing.getRoom().getRoomId(), existing.getSlotDate(),
-                existing.getStartTime(), existing.getEndTime(), slotId)) {
-            throw new IllegalArgumentException("Conflit avec un autre créneau de la salle");
-        }
-
-        // VALIDATION : Pas de conflit si le créneau est récurrent
-        if (existing.getIsRecurring() != null && existing.getIsRecurring()) {
-           // si true : on exécute ce code
-            if (slotRepository.existsOverlappingRecurringSlotForDoctor(
-                    existing.getDoctor().getDoctorId(),
-                    existing.getDayOfWeek(),
-                    existing.getStartTime(),
-                    existing.getEndTime(),
-                    slotId)) {
-                throw new IllegalArgumentException(
-                        "Le médecin a déjà un créneau récurrent qui chevauche cet horaire tous les " + existing.getDayOfWeek());
-            }
-
-            if (slotRepository.existsOverlappingRecurringSlotForRoom(
-                    existing.getRoom().getRoomId(),
-                    existing.getDayOfWeek(),
-                    existing.getStartTime(),
-                    existing.getEndTime(),
-                    slotId)) {
-                throw new IllegalArgumentException(
-                        "La salle a déjà un créneau récurrent qui chevauche cet horaire tous les " + existing.getDayOfWeek());
-            }
-        }
-
+        // Vérifier les conflits (en excluant le slot actuel), y compris récurrents si le créneau l'est
+        ensureNoOverlap(updateMetrics, existing.getDoctor().getDoctorId(), existing.getRoom().getRoomId(),
+                existing.getSlotDate(), existing.getDayOfWeek(),
+                existing.getStartTime(), existing.getEndTime(),
+                Boolean.TRUE.equals(existing.getIsRecurring()), slotId);
 
         Slot updated = slotRepository.save(existing);
+        conflictIndex.refreshAfterCommit(updated);
+        agendaProjector.refreshSlots(slotId);
+        if (wasRecurring || Boolean.TRUE.equals(updated.getIsRecurring())) {
+            occurrenceService.evictTemplatesAfterCommit();
+        }
         return convertToDTO(updated);
     }
 
@@ -240,6 +233,11 @@ public class SlotServiceImpl implements SlotService {
 
         existing.setStatus(status);
         Slot updated = slotRepository.save(existing);
+        agendaProjector.refreshSlots(slotId);
+        // Le statut d'un modèle récurrent active ou désactive toutes ses occurrences
+        if (Boolean.TRUE.equals(updated.getIsRecurring())) {
+            occurrenceService.evictTemplatesAfterCommit();
+        }
         return convertToDTO(updated);
     }
 
@@ -248,53 +246,100 @@ public class SlotServiceImpl implements SlotService {
     // ====================================================================
     @Override
     public SlotDTO getSlotById(Long slotId) {
-        Slot slot = slotRepository.findById(slotId)
+        SlotListView slot = slotRepository.findSlotViewById(slotId)
                 .orElseThrow(() -> new IllegalArgumentException(
                         "Créneau non trouvé avec l'ID: " + slotId));
         return convertToDTO(slot);
     }
 
+    // Les listes passent par la projection SlotListView : une requête SQL quel que soit le nombre de créneaux
     @Override
     public List<SlotDTO> getSlotsByDoctor(Long doctorId) {
-        return slotRepository.findByDoctor_DoctorIdOrderBySlotDateAscStartTimeAsc(doctorId)
-                .stream().map(this::convertToDTO).collect(Collectors.toList());
+        return slotRepository.findSlotViewsByDoctor(doctorId)
+                .stream().map(SlotServiceImpl::convertToDTO).collect(Collectors.toList());
     }
 
     @Override
     public List<SlotDTO> getSlotsByRoom(Long roomId) {
-        return slotRepository.findByRoom_RoomIdOrderBySlotDateAscStartTimeAsc(roomId)
-                .stream().map(this::convertToDTO).collect(Collectors.toList());
+        return slotRepository.findSlotViewsByRoom(roomId)
+                .stream().map(SlotServiceImpl::convertToDTO).collect(Collectors.toList());
     }
 
     @Override
     public List<SlotDTO> getSlotsByStatus(SlotStatus status) {
-        return slotRepository.findByStatusOrderBySlotDateAscStartTimeAsc(status)
-                .stream().map(this::convertToDTO).collect(Collectors.toList());
+        return slotRepository.findSlotViewsByStatus(status)
+                .stream().map(SlotServiceImpl::convertToDTO).collect(Collectors.toList());
     }
 
     @Override
     public List<SlotDTO> getAllSlots() {
-        return slotRepository.findAll()
+        return slotRepository.findAllSlotViews()
                 .stream()
-                .map(this::convertToDTO)
+                .map(SlotServiceImpl::convertToDTO)
                 .collect(Collectors.toList());
     }
 
     @Override
     public List<SlotDTO> getSlotsByHealthCenter(Long healthCenterId) {
-        return slotRepository.findByRoom_HealthCenter_CenterIdOrderBySlotDateAscStartTimeAsc(healthCenterId)
-                .stream().map(this::convertToDTO).collect(Collectors.toList());
+        return slotRepository.findSlotViewsByHealthCenter(healthCenterId)
+                .stream().map(SlotServiceImpl::convertToDTO).collect(Collectors.toList());
     }
 
     @Override
     public List<SlotDTO> getAvailableSlotsBySpecialty(MedicalSpecialty specialty) {
-        return slotRepository.findAvailableSlotsBySpecialty(specialty)
+        return slotRepository.findAvailableSlotViewsBySpecialty(specialty)
                 .stream()
-                .map(this::convertToDTO) // conversion Slot → SlotDTO
+                .map(SlotServiceImpl::convertToDTO) // conversion SlotListView → SlotDTO
                 .collect(Collectors.toList());
     }
 
 
+    // ====================================================================
+    // 🔎 RECHERCHE PAGINÉE (CURSEUR)
+    // ====================================================================
+    @Override
+    public SlotSearchPageDTO searchSlots(SlotSearchCriteriaDTO criteria) {
+        int size = criteria.getSize() != null ? criteria.getSize() : DEFAULT_SEARCH_PAGE_SIZE;
+        if (size < 1 || size > MAX_SEARCH_PAGE_SIZE) {
+            throw new IllegalArgumentException(
+                    "La taille de page doit être comprise entre 1 et " + MAX_SEARCH_PAGE_SIZE);
+        }
+
+        // Par défaut, uniquement les créneaux à venir
+        LocalDate fromDate = criteria.getFromDate() != null ? criteria.getFromDate() : LocalDate.now();
+        if (criteria.getToDate() != null && criteria.getToDate().isBefore(fromDate)) {
+            throw new IllegalArgumentException("La date de fin doit être postérieure ou égale à la date de début");
+        }
+
+        LocalDate afterDate = null;
+        LocalTime afterTime = null;
+        Long afterId = null;
+        if (criteria.getCursor() != null && !criteria.getCursor().isBlank()) {
+            String[] position = decodeCursor(criteria.getCursor());
+            afterDate = LocalDate.parse(position[0]);
+            afterTime = LocalTime.parse(position[1]);
+            afterId = Long.valueOf(position[2]);
+        }
+
+        // Une ligne de plus que la page pour savoir s'il existe une page suivante, sans COUNT
+        List<SlotListView> rows = slotRepository.searchSlotViews(fromDate, criteria.getToDate(), criteria.getStatus(),
+                criteria.getSpecialty(), criteria.getDoctorId(), criteria.getHealthCenterId(),
+                afterDate, afterTime, afterId, PageRequest.of(0, size + 1));
+
+        SlotSearchPageDTO page = new SlotSearchPageDTO();
+        boolean hasNext = rows.size() > size;
+        List<SlotListView> items = hasNext ? rows.subList(0, size) : rows;
+        items.forEach(row -> page.getItems().add(convertToDTO(row)));
+        page.setSize(items.size());
+        page.setHasNext(hasNext);
+        if (hasNext) {
+            SlotListView last = items.get(items.size() - 1);
+            page.setNextCursor(encodeCursor(last.getSlotDate(), last.getStartTime(), last.getSlotId()));
+        }
+        return page;
+    }
+
+
     // ====================================================================
     // 🗑️ SUPPRESSION D'UN CRÉNEAU
     // ====================================================================
@@ -305,6 +350,9 @@ public class SlotServiceImpl implements SlotService {
             throw new IllegalArgumentException("Créneau non trouvé avec l'ID: " + slotId);
         }
         slotRepository.deleteById(slotId);
+        conflictIndex.removeAfterCommit(slotId);
+        agendaProjector.refreshSlots(slotId);
+        occurrenceService.evictTemplatesAfterCommit();
     }
 
     // ====================================================================
@@ -312,8 +360,78 @@ public class SlotServiceImpl implements SlotService {
     // ====================================================================
 
 
+    /**
+     * Vérifications 9 à 11 : chevauchements avec les créneaux du médecin et de la salle.
+     *
+     * L'index mémoire (SlotConflictIndex) est consulté d'abord : un conflit détecté est rejeté
+     * sans requête SQL. Si l'index ne couvre pas la date (UNKNOWN) ou ne voit aucun conflit,
+     * les requêtes SlotRepository restent la source de vérité (sauf en mode "authoritative").
+     *
+     * Chaque vérification est chronométrée (étapes overlap_*) et chaque conflit compté par motif.
+     *
+     * @param slotId créneau à ignorer (mise à jour), null en création : détermine aussi les messages
+     */
+    private void ensureNoOverlap(StageMetrics metrics, Long doctorId, Long roomId, LocalDate slotDate, DayOfWeek dayOfWeek,
+                                 LocalTime start, LocalTime end, boolean recurring, Long slotId) {
+        SlotConflictIndex.Conflict indexed = metrics.time("overlap_index", () -> conflictIndex.findConflict(
+                doctorId, roomId, slotDate, dayOfWeek, start, end, recurring, slotId));
+
+        if (indexed != SlotConflictIndex.Conflict.UNKNOWN) {
+            if (indexed != SlotConflictIndex.Conflict.NONE) {
+                throw rejectOverlap(metrics, indexed, slotDate, dayOfWeek, slotId);
+            }
+            if (conflictIndex.isAuthoritative()) {
+                return;
+            }
+        }
+
+        if (metrics.time("overlap_doctor_on_date",
+                () -> slotRepository.existsOverlappingSlotForDoctorOnDate(doctorId, slotDate, start, end, slotId))) {
+            throw rejectOverlap(metrics, SlotConflictIndex.Conflict.DOCTOR_ON_DATE, slotDate, dayOfWeek, slotId);
+        }
+        if (metrics.time("overlap_room_on_date",
+                () -> slotRepository.existsOverlappingSlotForRoomOnDate(roomId, slotDate, start, end, slotId))) {
+            throw rejectOverlap(metrics, SlotConflictIndex.Conflict.ROOM_ON_DATE, slotDate, dayOfWeek, slotId);
+        }
+        if (recurring) {
+            if (metrics.time("overlap_doctor_recurring",
+                    () -> slotRepository.existsOverlappingRecurringSlotForDoctor(doctorId, dayOfWeek, start, end, slotId))) {
+                throw rejectOverlap(metrics, SlotConflictIndex.Conflict.DOCTOR_RECURRING, slotDate, dayOfWeek, slotId);
+            }
+            if (metrics.time("overlap_room_recurring",
+                    () -> slotRepository.existsOverlappingRecurringSlotForRoom(roomId, dayOfWeek, start, end, slotId))) {
+                throw rejectOverlap(metrics, SlotConflictIndex.Conflict.ROOM_RECURRING, slotDate, dayOfWeek, slotId);
+            }
+        }
+    }
+
+    // Conflit compté sous le motif overlap_<type> (ex : overlap_room_on_date)
+    private IllegalArgumentException rejectOverlap(StageMetrics metrics, SlotConflictIndex.Conflict conflict,
+                                                   LocalDate slotDate, DayOfWeek dayOfWeek, Long slotId) {
+        return metrics.reject("overlap_" + conflict.name().toLowerCase(Locale.ROOT),
+                overlapMessage(conflict, slotDate, dayOfWeek, slotId));
+    }
+
+    private String overlapMessage(SlotConflictIndex.Conflict conflict, LocalDate slotDate,
+                                  DayOfWeek dayOfWeek, Long slotId) {
+        boolean creation = slotId == null;
+        return switch (conflict) {
+            case DOCTOR_ON_DATE -> creation
+                    ? "Le médecin a déjà un créneau qui chevauche cet horaire le " + slotDate
+                    : "Conflit avec un autre créneau du médecin";
+            case ROOM_ON_DATE -> creation
+                    ? "La salle est déjà réservée sur cet horaire le " + slotDate
+                    : "Conflit avec un autre créneau de la salle";
+            case DOCTOR_RECURRING ->
+                    "Le médecin a déjà un créneau récurrent qui chevauche cet horaire tous les " + dayOfWeek;
+            case ROOM_RECURRING ->
+                    "La salle a déjà un créneau récurrent qui chevauche cet horaire tous les " + dayOfWeek;
+            default -> "Conflit avec un autre créneau";
+        };
+    }
+
      // verification: 3 Valider la plage horaire
-    private void validateTimeRange(LocalTime start, LocalTime end) {
+    static void validateTimeRange(LocalTime start, LocalTime end) {
         if (start.isAfter(end) || start.equals(end)) {
             throw new IllegalArgumentException(
                     "L'heure de début doit être antérieure à l'heure de fin");
@@ -322,28 +440,39 @@ public class SlotServiceImpl implements SlotService {
 
 
      // Vérification 7:  que le créneau demandé (start-end) est bien compris dans , les horaires d'ouverture (time slots) définis pour la salle
-     private void validateSlotWithinRoomSchedule(Room room, LocalTime start, LocalTime end) {
+     static void validateSlotWithinRoomSchedule(ReferenceDataCache.RoomSchedule room, LocalTime start, LocalTime end) {
 
-         // Si la salle n'a pas d'horaires définis, on ne fait aucune vérification
-         if (room.getDefaultTimeSlots() == null || room.getDefaultTimeSlots().isEmpty()) {
-             return;
-         }
-
-         // Vérifie si le créneau demandé est inclus dans au moins un des créneaux horaires de la salle , .anyMatch(...) → retourne true dès qu’une correspondance est trouvée.
-         boolean isWithinSchedule = room.getDefaultTimeSlots().stream()
-                 .anyMatch(ts ->
-                         !start.isBefore(ts.getStartTime()) &&   // le début du créneau est après (ou égal à) l’ouverture
-                                 !end.isAfter(ts.getEndTime())           // la fin du créneau est avant (ou égale à) la fermeture
-                 );
-
-         // Si le créneau ne correspond à aucun horaire valide, on lève une exception
-         if (!isWithinSchedule) {
+         // Si la salle n'a pas d'horaires définis, aucune restriction (voir RoomSchedule.covers)
+         if (!room.covers(start, end)) {
              throw new IllegalArgumentException(
                      "Le créneau n'est pas dans les horaires d'ouverture de la salle");
          }
      }
 
-    private DayOfWeek convertToDayOfWeek(java.time.DayOfWeek javaDayOfWeek) {
+    // Curseur opaque : "date|heure|id" du dernier créneau de la page, encodé en Base64 URL
+    private String encodeCursor(LocalDate slotDate, LocalTime startTime, Long slotId) {
+        String position = slotDate + "|" + startTime + "|" + slotId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (position.length != 3) {
+                throw new IllegalArgumentException("Curseur de pagination invalide");
+            }
+            // Validation du format avant utilisation
+            LocalDate.parse(position[0]);
+            LocalTime.parse(position[1]);
+            Long.parseLong(position[2]);
+            return position;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide");
+        }
+    }
+
+    // Conversions sans état : visibilité paquet pour SlotServiceHelpersJmh
+    static DayOfWeek convertToDayOfWeek(java.time.DayOfWeek javaDayOfWeek) {
         return switch (javaDayOfWeek) {
             case MONDAY -> DayOfWeek.MONDAY;
             case TUESDAY -> DayOfWeek.TUESDAY;
@@ -355,7 +484,7 @@ public class SlotServiceImpl implements SlotService {
         };
     }
 
-    private SlotDTO convertToDTO(Slot slot) {
+    static SlotDTO convertToDTO(Slot slot) {
         SlotDTO dto = new SlotDTO();
         dto.setSlotId(slot.getSlotId());
         dto.setSlotDate(slot.getSlotDate());
@@ -370,8 +499,30 @@ public class SlotServiceImpl implements SlotService {
         dto.setDoctorSpecialty(slot.getDoctor().getSpecialty().toString());
         dto.setRoomName(slot.getRoom().getName());
         dto.setHealthCenterName(slot.getRoom().getHealthCenter().getName());
+        dto.setRecurringTemplateId(slot.getRecurringTemplate() != null ? slot.getRecurringTemplate().getSlotId() : null);
+        dto.setCreatedAt(slot.getCreatedAt());
+        dto.setUpdatedAt(slot.getUpdatedAt());
+        return dto;
+    }
+
+    static SlotDTO convertToDTO(SlotListView slot) {
+        SlotDTO dto = new SlotDTO();
+        dto.setSlotId(slot.getSlotId());
+        dto.setSlotDate(slot.getSlotDate());
+        dto.setStartTime(slot.getStartTime());
+        dto.setEndTime(slot.getEndTime());
+        dto.setStatus(slot.getStatus());
+        dto.setIsRecurring(slot.getIsRecurring());
+        dto.setDoctorId(slot.getDoctorId());
+        dto.setRoomId(slot.getRoomId());
+        dto.setDoctorFirstName(slot.getDoctorFirstName());
+        dto.setDoctorLastName(slot.getDoctorLastName());
+        dto.setDoctorSpecialty(slot.getDoctorSpecialty().toString());
+        dto.setRoomName(slot.getRoomName());
+        dto.setHealthCenterName(slot.getHealthCenterName());
+        dto.setRecurringTemplateId(slot.getRecurringTemplateId());
         dto.setCreatedAt(slot.getCreatedAt());
         dto.setUpdatedAt(slot.getUpdatedAt());
         return dto;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,56 @@
+package com.example.rml.back_office_rml.util;
+
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+
+/**
+ * Empreinte SHA-256 des fichiers uploadés : un même contenu porte toujours le même nom,
+ * ce qui permet de ne le stocker et de ne le transférer qu'une fois.
+ */
+public final class ContentHash {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private ContentHash() {
+    }
+
+    public static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    // Empreinte du flux lu jusqu'au bout (le flux n'est pas fermé)
+    public static String sha256(InputStream content) throws IOException {
+        return copyAndHash(content, OutputStream.nullOutputStream());
+    }
+
+    // Recopie le flux en calculant son empreinte au passage (une seule lecture)
+    public static String copyAndHash(InputStream content, OutputStream target) throws IOException {
+        DigestInputStream digesting = new DigestInputStream(content, newSha256());
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = digesting.read(buffer)) != -1) {
+            target.write(buffer, 0, read);
+        }
+        return HexFormat.of().formatHex(digesting.getMessageDigest().digest());
+    }
+
+    // Nom de stockage : empreinte + extension d'origine en minuscules (pour le type MIME au téléchargement)
+    public static String fileName(String sha256, String originalFilename) {
+        String extension = StringUtils.getFilenameExtension(originalFilename);
+        return extension != null && extension.matches("[A-Za-z0-9]{1,10}")
+                ? sha256 + "." + extension.toLowerCase(Locale.ROOT)
+                : sha256;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.rml.back_office_rml.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Stockage des fichiers uploadés, indépendant du support.
+ *
+ * Les clés sont des noms de fichiers simples (empreinte SHA-256 + extension, voir ContentHash.fileName) :
+ * pas de séparateur de répertoire ni de "..".
+ *
+ * Implémentation choisie par files.storage.backend :
+ * - sftp   (défaut) : serveur distant via SftpChannelPool
+ * - local  : répertoire local files.storage.local-dir (NIO)
+ * - memory : en mémoire, pour les tests et les mesures sans réseau
+ */
+public interface FileStorage {
+
+    // Métadonnées d'un fichier stocké
+    record FileInfo(String key, long size, Instant lastModified) {
+    }
+
+    /**
+     * Enregistre le contenu sous la clé donnée (remplace un fichier existant).
+     * Le flux est lu jusqu'au bout mais n'est pas fermé ; size vaut -1 si la taille est inconnue.
+     */
+    void put(String key, InputStream content, long size) throws IOException;
+
+    /**
+     * Ouvre le fichier en lecture ; le flux doit être fermé par l'appelant.
+     * Lève FileNotFoundException si la clé est inconnue.
+     */
+    InputStream get(String key) throws IOException;
+
+    /**
+     * Ouvre le fichier en lecture à partir de l'octet offset (requêtes HTTP Range).
+     * Par défaut les octets précédents sont lus puis ignorés ; les backends qui savent
+     * se positionner directement redéfinissent cette méthode.
+     */
+    default InputStream get(String key, long offset) throws IOException {
+        InputStream content = get(key);
+        try {
+            content.skipNBytes(offset);
+            return content;
+        } catch (IOException | RuntimeException e) {
+            content.close();
+            throw e;
+        }
+    }
+
+    // Chemin sur le disque local quand le fichier y est lisible directement (envoi par FileChannel.transferTo)
+    default Optional<Path> localPath(String key) throws IOException {
+        return Optional.empty();
+    }
+
+    // Supprime le fichier ; false s'il n'existait pas
+    boolean delete(String key) throws IOException;
+
+    default boolean exists(String key) throws IOException {
+        return stat(key).isPresent();
+    }
+
+    // Taille et date de modification ; vide si la clé est inconnue
+    Optional<FileInfo> stat(String key) throws IOException;
+
+    // Emplacement lisible du fichier (chemin distant, chemin local…), pour le suivi et les logs
+    String locationOf(String key);
+
+    // Refuse les clés qui sortiraient du répertoire de stockage
+    static String checkKey(String key) {
+        if (key == null || key.isBlank() || key.contains("/") || key.contains("\\") || key.contains("..")) {
+            throw new IllegalArgumentException("Nom de fichier invalide : " + key);
+        }
+        return key;
+    }
+}
@@ -1,128 +1,92 @@
 package com.example.rml.back_office_rml.util;
 
-import com.jcraft.jsch.*;
-import org.springframework.util.StringUtils;
+import com.example.rml.back_office_rml.dto.FileUploadReportDTO;
+import com.example.rml.back_office_rml.services.FileReferenceService;
+import com.example.rml.back_office_rml.services.FileTransferService;
+import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.*;
-import java.nio.file.*;
-import java.util.*;
-
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Upload des fichiers vers le stockage configuré (FileStorage : SFTP, disque local ou mémoire).
+ * Le contenu est lu en flux depuis la requête, sans copie locale intermédiaire, et stocké sous
+ * son empreinte SHA-256 : un contenu déjà connu n'est pas renvoyé (FileReferenceService),
+ * sauf si son transfert en arrière-plan a échoué (FileTransferService).
+ */
+@Component
 public class FileTransferUtil {
 
-    private static final String FILE_UPLOAD_DIRECTORY = "./files/";
-    private static final String REMOTE_DIR = "/coopachat/";
-    private static final String SFTP_HOST = "185.170.213.160";
-    private static final int SFTP_PORT = 22;
-    private static final String SFTP_USER = "root";
-    private static final String SFTP_PASSWORD = "26tXALkVPyGxMEAu#";
-
-    /**
-     * Upload a single file locally and transfer it to remote server.
-     */
-    public static String handleFileUpload(MultipartFile file) throws IOException {
-        if (file == null || file.isEmpty()) return "";
-
-        String fileName = generateUniqueFileName(file.getOriginalFilename());
-        File uploadDir = new File(FILE_UPLOAD_DIRECTORY);
-        if (!uploadDir.exists()) uploadDir.mkdirs();
-
-        Path localFilePath = Paths.get(FILE_UPLOAD_DIRECTORY, fileName);
-        Files.copy(file.getInputStream(), localFilePath, StandardCopyOption.REPLACE_EXISTING);
-
-        transferFileToRemote(localFilePath.toString(), REMOTE_DIR + fileName);
-        return fileName;
+    private final FileStorage fileStorage;
+    private final FileReferenceService fileReferenceService;
+    private final FileTransferService fileTransferService;
+    private final ParallelFileUploader parallelFileUploader;
+
+    public FileTransferUtil(FileStorage fileStorage, FileReferenceService fileReferenceService,
+                            FileTransferService fileTransferService, ParallelFileUploader parallelFileUploader) {
+        this.fileStorage = fileStorage;
+        this.fileReferenceService = fileReferenceService;
+        this.fileTransferService = fileTransferService;
+        this.parallelFileUploader = parallelFileUploader;
     }
 
     /**
-     * Upload multiple pictures.
+     * Upload a single file to the configured storage under its SHA-256 name; a known content
+     * only gains a reference. Storage failures are reported to the caller.
      */
-    public static List<String> uploadPictures(List<MultipartFile> pictures) throws IOException {
-        List<String> pictureUrls = new ArrayList<>();
-        if (pictures == null || pictures.isEmpty()) return pictureUrls;
+    public String handleFileUpload(MultipartFile file) throws IOException {
+        if (file == null || file.isEmpty()) return "";
 
-        for (MultipartFile picture : pictures) {
-            if (picture != null && !picture.isEmpty()) {
-                String fileName = handleFileUpload(picture);
-                if (!fileName.isEmpty()) {
-                    pictureUrls.add(fileName);
-                }
+        // Première lecture : empreinte (le fichier reçu est déjà en mémoire ou sur disque)
+        String sha256;
+        try (InputStream inputStream = file.getInputStream()) {
+            sha256 = ContentHash.sha256(inputStream);
+        }
+        String fileName = ContentHash.fileName(sha256, file.getOriginalFilename());
+        if (fileReferenceService.addReference(fileName)) {
+            if (!fileTransferService.hasFailedTransfer(fileName)) {
+                return fileName;
+            }
+            // Transfert en arrière-plan en échec : cet envoi fournit les octets qui manquaient au stockage
+            try (InputStream inputStream = file.getInputStream()) {
+                fileStorage.put(fileName, inputStream, file.getSize());
+            } catch (IOException | RuntimeException e) {
+                fileReferenceService.release(List.of(fileName));
+                throw e;
             }
+            fileTransferService.markFailedTransferStored(fileName);
+            return fileName;
         }
-        return pictureUrls;
-    }
-
-    /**
-     * Generate unique file name with original extension.
-     */
-    public static String generateUniqueFileName(String originalFilename) {
-        String extension = StringUtils.getFilenameExtension(originalFilename);
-        return UUID.randomUUID().toString() + (extension != null ? "." + extension : "");
-    }
 
-    /**
-     * Transfer file to remote server using SFTP.
-     */
-    public static void transferFileToRemote(String localFilePath, String remoteFilePath) {
-        try (SftpClient sftp = new SftpClient()) {
-            sftp.uploadFile(localFilePath, remoteFilePath);
-        } catch (Exception e) {
-            System.err.println("[ERREUR] Transfert échoué : " + e.getMessage());
-            e.printStackTrace();
+        // Même nom = même contenu : un envoi concurrent du même fichier réécrit des octets identiques
+        try (InputStream inputStream = file.getInputStream()) {
+            fileStorage.put(fileName, inputStream, file.getSize());
         }
+        fileReferenceService.register(fileName, sha256, file.getSize(), file.getContentType());
+        return fileName;
     }
-
     /**
-     * Delete a remote file using SFTP.
+     * Upload multiple pictures in parallel; fails if any picture could not be uploaded.
      */
-    public static void deleteRemoteFile(String remoteFilePath) {
-        try (SftpClient sftp = new SftpClient()) {
-            sftp.deleteFile(remoteFilePath);
-            System.out.println("[INFO] Fichier supprimé : " + remoteFilePath);
-        } catch (Exception e) {
-            System.err.println("[ERREUR] Suppression échouée : " + e.getMessage());
-            e.printStackTrace();
+    public List<String> uploadPictures(List<MultipartFile> pictures) throws IOException {
+        FileUploadReportDTO report = uploadPicturesInParallel(pictures);
+        if (report.hasFailures()) {
+            // Tout ou rien : les fichiers déjà enregistrés ne seront référencés par aucune entité
+            fileReferenceService.release(report.getStoredFiles());
+            FileUploadReportDTO.FailedUpload first = report.getFailures().get(0);
+            throw new IOException(report.getFailures().size() + " fichier(s) non enregistrés, dont "
+                    + first.getOriginalName() + " : " + first.getError());
         }
+        return report.getStoredFiles();
     }
 
     /**
-     * Internal SFTP Client to avoid code repetition.
+     * Upload multiple pictures in parallel (bounded executor, per-file timeout) and report
+     * stored files and failures separately.
      */
-    private static class SftpClient implements AutoCloseable {
-        private final Session session;
-        private final ChannelSftp sftpChannel;
-
-        public SftpClient() throws JSchException {
-            JSch jsch = new JSch();
-            session = jsch.getSession(SFTP_USER, SFTP_HOST, SFTP_PORT);
-            session.setPassword(SFTP_PASSWORD);
-
-            Properties config = new Properties();
-            config.put("StrictHostKeyChecking", "no");
-            session.setConfig(config);
-            session.connect();
-
-            Channel channel = session.openChannel("sftp");
-            channel.connect();
-            sftpChannel = (ChannelSftp) channel;
-        }
-
-        public void uploadFile(String localFilePath, String remoteFilePath) throws SftpException, IOException {
-            try (InputStream inputStream = new FileInputStream(localFilePath)) {
-                sftpChannel.put(inputStream, remoteFilePath);
-            }
-        }
-
-        public void deleteFile(String remoteFilePath) throws SftpException {
-            sftpChannel.rm(remoteFilePath);
-        }
-
-        @Override
-        public void close() {
-            if (sftpChannel != null && sftpChannel.isConnected())
-                sftpChannel.disconnect();
-            if (session != null && session.isConnected())
-                session.disconnect();
-        }
+    public FileUploadReportDTO uploadPicturesInParallel(List<MultipartFile> pictures) {
+        return parallelFileUploader.uploadAll(pictures, this::handleFileUpload);
     }
 }
@@ -0,0 +1,62 @@
+package com.example.rml.back_office_rml.util;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stockage en mémoire (files.storage.backend=memory) : tests et mesures du pipeline d'upload
+ * sans réseau ni disque. Le contenu est perdu à l'arrêt de l'application.
+ */
+@Component
+@ConditionalOnProperty(name = "files.storage.backend", havingValue = "memory")
+public class InMemoryFileStorage implements FileStorage {
+
+    private record StoredFile(byte[] content, Instant lastModified) {
+    }
+
+    private final Map<String, StoredFile> files = new ConcurrentHashMap<>();
+
+    @Override
+    public void put(String key, InputStream content, long size) throws IOException {
+        files.put(FileStorage.checkKey(key), new StoredFile(content.readAllBytes(), Instant.now()));
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        StoredFile file = files.get(FileStorage.checkKey(key));
+        if (file == null) {
+            throw new FileNotFoundException("Fichier introuvable : " + key);
+        }
+        return new ByteArrayInputStream(file.content());
+    }
+
+    @Override
+    public boolean delete(String key) {
+        return files.remove(FileStorage.checkKey(key)) != null;
+    }
+
+    @Override
+    public Optional<FileInfo> stat(String key) {
+        StoredFile file = files.get(FileStorage.checkKey(key));
+        return Optional.ofNullable(file).map(f -> new FileInfo(key, f.content().length, f.lastModified()));
+    }
+
+    @Override
+    public String locationOf(String key) {
+        return "memory:" + FileStorage.checkKey(key);
+    }
+
+    // Nombre de fichiers stockés
+    public int size() {
+        return files.size();
+    }
+}
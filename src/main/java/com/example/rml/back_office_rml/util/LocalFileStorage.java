@@ -0,0 +1,107 @@
+package com.example.rml.back_office_rml.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Optional;
+
+/**
+ * Stockage dans un répertoire local (files.storage.local-dir).
+ * L'écriture passe par un fichier temporaire renommé atomiquement : un lecteur ne voit jamais
+ * un fichier à moitié écrit.
+ */
+@Component
+@ConditionalOnProperty(name = "files.storage.backend", havingValue = "local")
+public class LocalFileStorage implements FileStorage {
+
+    private final Path root;
+
+    public LocalFileStorage(@Value("${files.storage.local-dir:./files/storage}") String rootDirectory) {
+        this.root = Paths.get(rootDirectory).toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(root);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Répertoire de stockage inaccessible : " + root, e);
+        }
+    }
+
+    @Override
+    public void put(String key, InputStream content, long size) throws IOException {
+        Path target = pathOf(key);
+        Path part = Files.createTempFile(root, key, ".part");
+        try {
+            Files.copy(content, part, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(part, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(part);
+        }
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        try {
+            return Files.newInputStream(pathOf(key));
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException("Fichier introuvable : " + key);
+        }
+    }
+
+    @Override
+    public InputStream get(String key, long offset) throws IOException {
+        try {
+            FileChannel channel = FileChannel.open(pathOf(key), StandardOpenOption.READ);
+            try {
+                return Channels.newInputStream(channel.position(offset));
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException("Fichier introuvable : " + key);
+        }
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        Path path = pathOf(key);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        return Files.deleteIfExists(pathOf(key));
+    }
+
+    @Override
+    public Optional<FileInfo> stat(String key) throws IOException {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(pathOf(key), BasicFileAttributes.class);
+            return Optional.of(new FileInfo(key, attrs.size(), attrs.lastModifiedTime().toInstant()));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public String locationOf(String key) {
+        return pathOf(key).toString();
+    }
+
+    private Path pathOf(String key) {
+        return root.resolve(FileStorage.checkKey(key));
+    }
+}
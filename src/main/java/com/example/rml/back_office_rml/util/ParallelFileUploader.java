@@ -0,0 +1,145 @@
+package com.example.rml.back_office_rml.util;
+
+import com.example.rml.back_office_rml.dto.FileUploadReportDTO;
+import com.example.rml.back_office_rml.services.FileReferenceService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Upload parallèle de plusieurs fichiers d'une même requête.
+ *
+ * - Les fichiers sont répartis sur un pool borné (files.upload.parallelism) partagé par toutes
+ *   les requêtes ; pool saturé → le fichier est traité par le thread de la requête.
+ * - Chaque fichier dispose de files.upload.per-file-timeout-ms à partir du début de l'envoi :
+ *   au-delà, sa tâche est interrompue et il est signalé en échec. Une tâche qui ignore
+ *   l'interruption (envoi JSch en cours) et aboutit quand même voit sa référence retirée
+ *   (FileReferenceService) : aucun appelant ne connaît ce fichier pour la libérer.
+ * - Un échec n'interrompt pas les autres fichiers : le rapport liste les fichiers enregistrés
+ *   et les échecs, dans l'ordre d'envoi.
+ *
+ * La durée totale dépend ainsi du fichier le plus long et non de la somme des fichiers.
+ * Les threads du pool sont virtuels si spring.threads.virtual.enabled=true (Java 21+, voir WorkerThreads).
+ */
+@Slf4j
+@Component
+public class ParallelFileUploader {
+
+    // Traitement d'un fichier : retourne le nom unique sous lequel il est enregistré
+    @FunctionalInterface
+    public interface UploadTask {
+        String upload(MultipartFile file) throws IOException;
+    }
+
+    private final FileReferenceService fileReferenceService;
+    private final ThreadPoolExecutor executor;
+    private final long perFileTimeoutMs;
+
+    public ParallelFileUploader(FileReferenceService fileReferenceService,
+                                @Value("${files.upload.parallelism:4}") int parallelism,
+                                @Value("${files.upload.queue-capacity:64}") int queueCapacity,
+                                @Value("${files.upload.per-file-timeout-ms:120000}") long perFileTimeoutMs,
+                                @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.executor = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                WorkerThreads.factory("file-upload-", WorkerThreads.virtual(virtualThreads)),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.fileReferenceService = fileReferenceService;
+        this.perFileTimeoutMs = perFileTimeoutMs;
+    }
+
+    /**
+     * Traite les fichiers non vides en parallèle et attend la fin (ou le délai) de chacun.
+     */
+    public FileUploadReportDTO uploadAll(List<MultipartFile> files, UploadTask task) {
+        long start = System.currentTimeMillis();
+        FileUploadReportDTO report = new FileUploadReportDTO();
+        if (files == null || files.isEmpty()) {
+            return report;
+        }
+
+        List<MultipartFile> accepted = new ArrayList<>();
+        List<Future<String>> futures = new ArrayList<>();
+        // Fin réelle de chaque tâche, y compris après son abandon (délai dépassé)
+        List<CompletableFuture<String>> completions = new ArrayList<>();
+        for (MultipartFile file : files) {
+            if (file != null && !file.isEmpty()) {
+                CompletableFuture<String> completion = new CompletableFuture<>();
+                accepted.add(file);
+                completions.add(completion);
+                futures.add(executor.submit(() -> {
+                    try {
+                        String fileName = task.upload(file);
+                        completion.complete(fileName);
+                        return fileName;
+                    } catch (Throwable e) {
+                        completion.completeExceptionally(e);
+                        throw e;
+                    }
+                }));
+            }
+        }
+
+        // Délai commun calculé depuis le début : les fichiers avancent en parallèle
+        long deadline = start + perFileTimeoutMs;
+        for (int i = 0; i < futures.size(); i++) {
+            Future<String> future = futures.get(i);
+            String originalName = accepted.get(i).getOriginalFilename();
+            try {
+                long remaining = Math.max(0, deadline - System.currentTimeMillis());
+                String fileName = future.get(remaining, TimeUnit.MILLISECONDS);
+                if (fileName != null && !fileName.isEmpty()) {
+                    report.getStoredFiles().add(fileName);
+                }
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                releaseIfCompletedLate(completions.get(i), originalName);
+                report.getFailures().add(new FileUploadReportDTO.FailedUpload(originalName,
+                        "Délai dépassé (" + perFileTimeoutMs + " ms)"));
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                report.getFailures().add(new FileUploadReportDTO.FailedUpload(originalName, cause.getMessage()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                releaseIfCompletedLate(completions.get(i), originalName);
+                report.getFailures().add(new FileUploadReportDTO.FailedUpload(originalName, "Upload interrompu"));
+            }
+        }
+
+        report.setDurationMs(System.currentTimeMillis() - start);
+        if (report.hasFailures()) {
+            log.warn("[FILES] {} fichier(s) sur {} non enregistrés : {}",
+                    report.getFailures().size(), accepted.size(), report.getFailures());
+        }
+        return report;
+    }
+
+    // Fichier signalé en échec mais enregistré quand même : sa référence est retirée dès la fin de la tâche
+    private void releaseIfCompletedLate(CompletableFuture<String> completion, String originalName) {
+        completion.thenAccept(fileName -> {
+            if (fileName == null || fileName.isEmpty()) {
+                return;
+            }
+            try {
+                fileReferenceService.release(List.of(fileName));
+                log.warn("[FILES] {} enregistré après le délai sous {} : référence retirée", originalName, fileName);
+            } catch (Exception e) {
+                log.error("[FILES] Référence de {} non retirée : {}", fileName, e.getMessage(), e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,390 @@
+package com.example.rml.back_office_rml.util;
+
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import com.jcraft.jsch.SftpException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pool de connexions SFTP (une Session JSch + un ChannelSftp par connexion).
+ *
+ * - Taille bornée (sftp.pool.max-size) : au-delà, l'appelant attend sftp.pool.borrow-timeout-ms.
+ * - Les lectures en flux (téléchargements, lease()) gardent leur connexion pendant tout l'envoi au client :
+ *   elles sont limitées à sftp.pool.max-download-leases connexions, le reste étant réservé aux dépôts
+ *   et opérations courtes (execute()).
+ * - Les connexions sont réutilisées (plus de poignée de main SSH par fichier) et maintenues
+ *   ouvertes par un keep-alive SSH (sftp.pool.keep-alive-seconds).
+ * - Contrôle de santé à l'emprunt : connexion fermée → remplacée ; connexion restée inactive
+ *   plus de sftp.pool.validate-after-idle-seconds → vérifiée par un "pwd" avant d'être rendue.
+ * - Les connexions inactives depuis plus de sftp.pool.max-idle-seconds sont fermées périodiquement.
+ *
+ * ChannelSftp n'est pas thread-safe : une connexion empruntée n'est utilisée que par un seul thread
+ * jusqu'à sa restitution.
+ *
+ * N'est créé que lorsque le stockage des fichiers est SFTP (files.storage.backend=sftp, valeur par défaut).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "files.storage.backend", havingValue = "sftp", matchIfMissing = true)
+public class SftpChannelPool {
+
+    // Action exécutée sur une connexion empruntée
+    @FunctionalInterface
+    public interface SftpAction<T> {
+        T execute(ChannelSftp channel) throws SftpException, IOException;
+    }
+
+    // Connexion SFTP ouverte : JSch en production, simulée dans les tests du pool
+    interface Connection {
+        ChannelSftp channel();
+
+        boolean isOpen();
+
+        // Vérifie par un aller-retour que le serveur répond encore
+        boolean validate();
+
+        void close();
+    }
+
+    // Ouverture d'une nouvelle connexion
+    @FunctionalInterface
+    interface Connector {
+        Connection open() throws JSchException;
+    }
+
+    // Connexion du pool et date de sa dernière restitution
+    private static final class PooledChannel {
+        final Connection connection;
+        long lastUsedAt = System.currentTimeMillis();
+
+        PooledChannel(Connection connection) {
+            this.connection = connection;
+        }
+
+        boolean isOpen() {
+            return connection.isOpen();
+        }
+
+        void close() {
+            connection.close();
+        }
+    }
+
+    // Session JSch + ChannelSftp
+    private record JschConnection(Session session, ChannelSftp channel) implements Connection {
+
+        @Override
+        public boolean isOpen() {
+            return session.isConnected() && channel.isConnected() && !channel.isClosed();
+        }
+
+        @Override
+        public boolean validate() {
+            try {
+                channel.pwd();
+                return true;
+            } catch (SftpException e) {
+                log.info("[SFTP] Connexion inactive invalide, remplacée : {}", e.getMessage());
+                return false;
+            }
+        }
+
+        @Override
+        public void close() {
+            if (channel.isConnected()) channel.disconnect();
+            if (session.isConnected()) session.disconnect();
+        }
+    }
+
+    private final Connector connector;
+    private final String description;
+    private final String remoteDirectory;
+    private final long borrowTimeoutMs;
+    private final long validateAfterIdleMs;
+    private final long maxIdleMs;
+
+    // Connexions libres, la plus récemment utilisée en tête
+    private final LinkedBlockingDeque<PooledChannel> idle = new LinkedBlockingDeque<>();
+    // Une autorisation par connexion empruntable (libre ou à ouvrir)
+    private final Semaphore permits;
+    // Part du pool ouverte aux lectures en flux
+    private final Semaphore downloadPermits;
+    private final int maxDownloadLeases;
+    private volatile boolean closed;
+
+    @Autowired
+    public SftpChannelPool(@Value("${sftp.host}") String host,
+                           @Value("${sftp.port:22}") int port,
+                           @Value("${sftp.user}") String user,
+                           @Value("${sftp.password}") String password,
+                           @Value("${sftp.remote.dir:/}") String remoteDirectory,
+                           @Value("${sftp.connect-timeout-ms:10000}") int connectTimeoutMs,
+                           @Value("${sftp.strict-host-key-checking:no}") String strictHostKeyChecking,
+                           @Value("${sftp.known-hosts:}") String knownHosts,
+                           @Value("${sftp.pool.max-size:4}") int maxSize,
+                           @Value("${sftp.pool.max-download-leases:0}") int maxDownloadLeases,
+                           @Value("${sftp.pool.borrow-timeout-ms:10000}") long borrowTimeoutMs,
+                           @Value("${sftp.pool.keep-alive-seconds:30}") int keepAliveSeconds,
+                           @Value("${sftp.pool.validate-after-idle-seconds:30}") long validateAfterIdleSeconds,
+                           @Value("${sftp.pool.max-idle-seconds:300}") long maxIdleSeconds) {
+        this(() -> openJsch(host, port, user, password, connectTimeoutMs, strictHostKeyChecking, knownHosts, keepAliveSeconds),
+                "sftp://" + host + ":" + port, remoteDirectory, maxSize,
+                // 0 : toutes les connexions sauf une (au moins une)
+                maxDownloadLeases > 0 ? maxDownloadLeases : Math.max(1, maxSize - 1), borrowTimeoutMs,
+                TimeUnit.SECONDS.toMillis(validateAfterIdleSeconds), TimeUnit.SECONDS.toMillis(maxIdleSeconds));
+    }
+
+    // Pool sur un Connector quelconque (tests de l'emprunt, de la restitution et de l'éviction)
+    SftpChannelPool(Connector connector, String description, String remoteDirectory, int maxSize,
+                    int maxDownloadLeases, long borrowTimeoutMs, long validateAfterIdleMs, long maxIdleMs) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("sftp.pool.max-size doit être au moins 1");
+        }
+        if (maxDownloadLeases < 1 || maxDownloadLeases > maxSize) {
+            throw new IllegalArgumentException("sftp.pool.max-download-leases doit être compris entre 1 et sftp.pool.max-size");
+        }
+        this.connector = connector;
+        this.description = description;
+        this.remoteDirectory = remoteDirectory.endsWith("/") ? remoteDirectory : remoteDirectory + "/";
+        this.permits = new Semaphore(maxSize, true);
+        this.downloadPermits = new Semaphore(maxDownloadLeases, true);
+        this.maxDownloadLeases = maxDownloadLeases;
+        this.borrowTimeoutMs = borrowTimeoutMs;
+        this.validateAfterIdleMs = validateAfterIdleMs;
+        this.maxIdleMs = maxIdleMs;
+    }
+
+    // Répertoire distant de dépôt des fichiers (toujours terminé par "/")
+    public String getRemoteDirectory() {
+        return remoteDirectory;
+    }
+
+    // Adresse du serveur, pour les messages et les emplacements affichés
+    public String describe() {
+        return description;
+    }
+
+    // Nombre de connexions ouvertes et libres
+    public int idleCount() {
+        return idle.size();
+    }
+
+    // Nombre de connexions encore empruntables sans attendre (libres ou à ouvrir)
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    // ====================================================================
+    // 🔌 EMPRUNT D'UNE CONNEXION
+    // ====================================================================
+
+    /**
+     * Emprunte une connexion, exécute l'action puis la rend au pool.
+     * Si l'action échoue sur une connexion devenue inutilisable, celle-ci est fermée
+     * au lieu d'être remise dans le pool.
+     */
+    public <T> T execute(SftpAction<T> action) throws IOException {
+        PooledChannel pooled = borrow();
+        boolean reusable = false;
+        try {
+            T result = action.execute(pooled.connection.channel());
+            reusable = true;
+            return result;
+        } catch (SftpException e) {
+            // Erreur SFTP "métier" (fichier absent, droits…) : la connexion reste utilisable
+            reusable = pooled.isOpen() && e.id != ChannelSftp.SSH_FX_CONNECTION_LOST
+                    && e.id != ChannelSftp.SSH_FX_NO_CONNECTION;
+            throw new IOException("Opération SFTP échouée : " + e.getMessage(), e);
+        } catch (IOException e) {
+            // Lecture locale interrompue : la connexion n'est gardée que si elle est encore ouverte
+            reusable = pooled.isOpen();
+            throw e;
+        } finally {
+            release(pooled, reusable);
+        }
+    }
+
+    /**
+     * Emprunte une connexion pour une lecture en flux : elle reste réservée à l'appelant
+     * jusqu'à la fermeture du bail (à faire dans un try-with-resources ou un finally).
+     * Au-delà de sftp.pool.max-download-leases baux ouverts, l'appelant attend sftp.pool.borrow-timeout-ms.
+     */
+    public Lease lease() throws IOException {
+        acquire(downloadPermits, "Trop de téléchargements SFTP simultanés (" + maxDownloadLeases + ")");
+        try {
+            return new Lease(borrow());
+        } catch (IOException | RuntimeException e) {
+            downloadPermits.release();
+            throw e;
+        }
+    }
+
+    // Connexion empruntée hors de execute(), rendue au pool par close()
+    public final class Lease implements AutoCloseable {
+        private final PooledChannel pooled;
+        // Sans synchronized : la fermeture d'une connexion ne bloque pas le thread porteur d'un thread virtuel
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Lease(PooledChannel pooled) {
+            this.pooled = pooled;
+        }
+
+        public ChannelSftp channel() {
+            return pooled.connection.channel();
+        }
+
+        // Rend la connexion ; reusable=false la ferme (erreur réseau, lecture abandonnée en cours)
+        public void close(boolean reusable) {
+            if (released.compareAndSet(false, true)) {
+                try {
+                    release(pooled, reusable);
+                } finally {
+                    downloadPermits.release();
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            close(true);
+        }
+    }
+
+    // ====================================================================
+    // 🧹 ENTRETIEN DU POOL
+    // ====================================================================
+
+    // Ferme les connexions libres restées inactives trop longtemps
+    @Scheduled(fixedDelayString = "${sftp.pool.eviction-interval-ms:60000}")
+    public void evictIdleChannels() {
+        long now = System.currentTimeMillis();
+        Iterator<PooledChannel> iterator = idle.descendingIterator();
+        while (iterator.hasNext()) {
+            PooledChannel pooled = iterator.next();
+            if ((now - pooled.lastUsedAt > maxIdleMs || !pooled.isOpen()) && idle.remove(pooled)) {
+                pooled.close();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        closed = true;
+        PooledChannel pooled;
+        while ((pooled = idle.poll()) != null) {
+            pooled.close();
+        }
+    }
+
+    // ====================================================================
+    // 🔧 MÉTHODES UTILITAIRES PRIVÉES
+    // ====================================================================
+
+    private PooledChannel borrow() throws IOException {
+        if (closed) {
+            throw new IOException("Pool SFTP fermé");
+        }
+        acquire(permits, "Aucune connexion SFTP disponible");
+
+        try {
+            PooledChannel pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                if (isHealthy(pooled)) {
+                    return pooled;
+                }
+                pooled.close();
+            }
+            return open();
+        } catch (JSchException e) {
+            permits.release();
+            throw new IOException("Connexion SFTP impossible à " + description + " : " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void acquire(Semaphore semaphore, String timeoutMessage) throws IOException {
+        try {
+            if (!semaphore.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new IOException(timeoutMessage + " après " + borrowTimeoutMs + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Attente d'une connexion SFTP interrompue", e);
+        }
+    }
+
+    private void release(PooledChannel pooled, boolean reusable) {
+        try {
+            if (reusable && !closed && pooled.isOpen()) {
+                pooled.lastUsedAt = System.currentTimeMillis();
+                idle.offerFirst(pooled);
+            } else {
+                pooled.close();
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Une connexion restée longtemps inactive peut avoir été coupée côté serveur sans que JSch le sache
+    private boolean isHealthy(PooledChannel pooled) {
+        if (!pooled.isOpen()) {
+            return false;
+        }
+        if (System.currentTimeMillis() - pooled.lastUsedAt < validateAfterIdleMs) {
+            return true;
+        }
+        return pooled.connection.validate();
+    }
+
+    private PooledChannel open() throws JSchException {
+        PooledChannel pooled = new PooledChannel(connector.open());
+        log.debug("[SFTP] Nouvelle connexion ouverte vers {}", description);
+        return pooled;
+    }
+
+    private static Connection openJsch(String host, int port, String user, String password, int connectTimeoutMs,
+                                       String strictHostKeyChecking, String knownHosts, int keepAliveSeconds)
+            throws JSchException {
+        JSch jsch = new JSch();
+        if (!knownHosts.isBlank()) {
+            jsch.setKnownHosts(knownHosts);
+        }
+        Session session = jsch.getSession(user, host, port);
+        session.setPassword(password);
+
+        Properties config = new Properties();
+        config.put("StrictHostKeyChecking", strictHostKeyChecking);
+        session.setConfig(config);
+        session.setServerAliveInterval((int) TimeUnit.SECONDS.toMillis(keepAliveSeconds));
+        session.setServerAliveCountMax(3);
+        session.connect(connectTimeoutMs);
+
+        try {
+            ChannelSftp channel = (ChannelSftp) session.openChannel("sftp");
+            channel.connect(connectTimeoutMs);
+            return new JschConnection(session, channel);
+        } catch (JSchException e) {
+            session.disconnect();
+            throw e;
+        }
+    }
+}
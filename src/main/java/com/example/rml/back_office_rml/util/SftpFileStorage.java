@@ -0,0 +1,131 @@
+package com.example.rml.back_office_rml.util;
+
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.SftpATTRS;
+import com.jcraft.jsch.SftpException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Stockage sur le serveur SFTP (sftp.remote.dir), connexions empruntées à SftpChannelPool.
+ */
+@Component
+@ConditionalOnProperty(name = "files.storage.backend", havingValue = "sftp", matchIfMissing = true)
+public class SftpFileStorage implements FileStorage {
+
+    private final SftpChannelPool sftpChannelPool;
+
+    public SftpFileStorage(SftpChannelPool sftpChannelPool) {
+        this.sftpChannelPool = sftpChannelPool;
+    }
+
+    @Override
+    public void put(String key, InputStream content, long size) throws IOException {
+        String path = pathOf(key);
+        sftpChannelPool.execute(channel -> {
+            channel.put(content, path, ChannelSftp.OVERWRITE);
+            return null;
+        });
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        return get(key, 0);
+    }
+
+    // Le serveur commence la lecture à l'offset demandé : pas de transfert des octets ignorés
+    @Override
+    public InputStream get(String key, long offset) throws IOException {
+        String path = pathOf(key);
+        SftpChannelPool.Lease lease = sftpChannelPool.lease();
+        try {
+            InputStream remote = lease.channel().get(path, null, offset);
+            // La connexion reste empruntée tant que le flux est ouvert
+            return new FilterInputStream(remote) {
+                private boolean fullyRead;
+
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    fullyRead = b < 0;
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int n = super.read(buffer, offset, length);
+                    fullyRead = n < 0;
+                    return n;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        // Une lecture abandonnée en cours laisse des réponses en attente sur le canal
+                        lease.close(fullyRead);
+                    }
+                }
+            };
+        } catch (SftpException e) {
+            boolean missing = e.id == ChannelSftp.SSH_FX_NO_SUCH_FILE;
+            lease.close(missing);
+            if (missing) {
+                throw new FileNotFoundException("Fichier introuvable : " + key);
+            }
+            throw new IOException("Lecture SFTP échouée : " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            lease.close(false);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        String path = pathOf(key);
+        return sftpChannelPool.execute(channel -> {
+            try {
+                channel.rm(path);
+                return true;
+            } catch (SftpException e) {
+                if (e.id == ChannelSftp.SSH_FX_NO_SUCH_FILE) {
+                    return false;
+                }
+                throw e;
+            }
+        });
+    }
+
+    @Override
+    public Optional<FileInfo> stat(String key) throws IOException {
+        String path = pathOf(key);
+        return sftpChannelPool.execute(channel -> {
+            try {
+                SftpATTRS attrs = channel.stat(path);
+                return Optional.of(new FileInfo(key, attrs.getSize(), Instant.ofEpochSecond(attrs.getMTime())));
+            } catch (SftpException e) {
+                if (e.id == ChannelSftp.SSH_FX_NO_SUCH_FILE) {
+                    return Optional.empty();
+                }
+                throw e;
+            }
+        });
+    }
+
+    @Override
+    public String locationOf(String key) {
+        return pathOf(key);
+    }
+
+    private String pathOf(String key) {
+        return sftpChannelPool.getRemoteDirectory() + FileStorage.checkKey(key);
+    }
+}
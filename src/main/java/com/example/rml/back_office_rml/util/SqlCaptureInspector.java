@@ -0,0 +1,58 @@
+package com.example.rml.back_office_rml.util;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.function.Function;
+
+/**
+ * StatementInspector Hibernate permettant de récupérer le SQL généré pour une requête JPQL
+ * sans l'exécuter (utilisé par l'IndexAdvisorService pour lancer des EXPLAIN).
+ *
+ * L'inspecteur n'est pas enregistré sur la SessionFactory : capture(...) ouvre une session dédiée
+ * qui le porte, les autres sessions de l'application n'y passent jamais.
+ * La première requête préparée dans cette session est mémorisée puis interrompue avant
+ * d'être envoyée à la base.
+ */
+public final class SqlCaptureInspector implements StatementInspector {
+
+    private String captured;
+
+    private SqlCaptureInspector() {
+    }
+
+    @Override
+    public String inspect(String sql) {
+        captured = sql;
+        throw new CapturedException();
+    }
+
+    /**
+     * Exécute l'action dans une session dédiée et retourne le SQL de la première requête préparée,
+     * ou null si aucune requête n'a atteint JDBC.
+     */
+    public static String capture(EntityManagerFactory entityManagerFactory, Function<Session, ?> action) {
+        SqlCaptureInspector inspector = new SqlCaptureInspector();
+        try (Session session = entityManagerFactory.unwrap(SessionFactory.class)
+                .withOptions()
+                .statementInspector(inspector)
+                .openSession()) {
+            action.apply(session);
+        } catch (RuntimeException e) {
+            // Attendu : l'inspecteur interrompt l'exécution (éventuellement enveloppé par Hibernate)
+            if (inspector.captured == null) {
+                throw e;
+            }
+        }
+        return inspector.captured;
+    }
+
+    // Exception interne servant uniquement à interrompre l'exécution après capture
+    private static class CapturedException extends RuntimeException {
+        CapturedException() {
+            super("SQL capturé", null, false, false);
+        }
+    }
+}
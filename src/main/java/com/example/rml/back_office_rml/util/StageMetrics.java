@@ -0,0 +1,70 @@
+package com.example.rml.back_office_rml.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Métriques par étape d'une opération (création de créneau, réservation...).
+ *
+ * - &lt;operation&gt;.stage (timer, tag stage) : durée de chaque étape, histogramme publié pour
+ *   calculer les percentiles côté Prometheus ;
+ * - &lt;operation&gt;.rejections (compteur, tag reason) : demandes refusées par motif.
+ *
+ * Une étape est chronométrée même lorsqu'elle lève une exception (refus, erreur SQL).
+ * Les compteurs et timers sont créés à la première utilisation puis réutilisés.
+ */
+public class StageMetrics {
+
+    private final MeterRegistry registry;
+    private final String operation;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+
+    public StageMetrics(MeterRegistry registry, String operation) {
+        this.registry = registry;
+        this.operation = operation;
+    }
+
+    // Exécute une étape et enregistre sa durée
+    public <T> T time(String stage, Supplier<T> body) {
+        Timer.Sample sample = Timer.start(registry);
+        try {
+            return body.get();
+        } finally {
+            sample.stop(timer(stage));
+        }
+    }
+
+    public void time(String stage, Runnable body) {
+        time(stage, () -> {
+            body.run();
+            return null;
+        });
+    }
+
+    // Compte un refus et retourne l'exception à lever (throw metrics.reject(...))
+    public IllegalArgumentException reject(String reason, String message) {
+        countRejection(reason);
+        return new IllegalArgumentException(message);
+    }
+
+    public void countRejection(String reason) {
+        rejections.computeIfAbsent(reason, r -> Counter.builder(operation + ".rejections")
+                .description("Demandes refusées par motif")
+                .tag("reason", r)
+                .register(registry)).increment();
+    }
+
+    private Timer timer(String stage) {
+        return timers.computeIfAbsent(stage, s -> Timer.builder(operation + ".stage")
+                .description("Durée de chaque étape")
+                .tag("stage", s)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+}
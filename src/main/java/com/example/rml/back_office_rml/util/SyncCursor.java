@@ -0,0 +1,27 @@
+package com.example.rml.back_office_rml.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Curseur opaque de synchronisation (GET /api/medical-records/{recordId}/changes) :
+ * date à partir de laquelle renvoyer les changements, encodée en Base64 URL.
+ */
+public final class SyncCursor {
+
+    private SyncCursor() {
+    }
+
+    public static String encode(LocalDateTime since) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(since.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static LocalDateTime decode(String cursor) {
+        try {
+            return LocalDateTime.parse(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Curseur de synchronisation invalide");
+        }
+    }
+}
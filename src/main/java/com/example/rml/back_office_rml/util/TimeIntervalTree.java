@@ -0,0 +1,221 @@
+package com.example.rml.back_office_rml.util;
+
+import java.time.LocalTime;
+
+/**
+ * Arbre d'intervalles horaires [début, fin[ (AVL augmenté par la fin maximale du sous-arbre).
+ *
+ * - Chaque intervalle est identifié par l'ID du créneau qui l'occupe.
+ * - Insertion, suppression et recherche de chevauchement en O(log n).
+ * - La logique de chevauchement est celle des requêtes SlotRepository :
+ *   (existant.début < fin AND existant.fin > début)
+ *
+ * Non thread-safe : l'appelant (SlotConflictIndex) synchronise les accès.
+ */
+public class TimeIntervalTree {
+
+    private Node root;
+    private int size;
+
+    private static final class Node {
+        final LocalTime start;
+        final LocalTime end;
+        final long id;
+        LocalTime maxEnd;
+        int height = 1;
+        Node left;
+        Node right;
+
+        Node(LocalTime start, LocalTime end, long id) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.maxEnd = end;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Ajoute l'intervalle du créneau id (l'appelant s'assure qu'il n'est pas déjà présent)
+    public void insert(LocalTime start, LocalTime end, long id) {
+        root = insert(root, new Node(start, end, id));
+        size++;
+    }
+
+    // Retire l'intervalle du créneau id ; retourne false s'il n'était pas présent
+    public boolean remove(LocalTime start, long id) {
+        int before = size;
+        root = remove(root, start, id);
+        return size < before;
+    }
+
+    /**
+     * Indique si un intervalle chevauche [start, end[ en ignorant le créneau excludedId
+     * (équivalent de "(:slotId IS NULL OR s.slotId != :slotId)").
+     */
+    public boolean overlaps(LocalTime start, LocalTime end, Long excludedId) {
+        return overlaps(root, start, end, excludedId);
+    }
+
+    /**
+     * Vérifie les invariants de l'arbre (ordre, équilibre AVL, hauteurs, fin maximale, taille)
+     * et lève IllegalStateException au premier écart. Réservé aux tests.
+     */
+    void checkInvariants() {
+        int[] count = {0};
+        check(root, null, null, count);
+        if (count[0] != size) {
+            throw new IllegalStateException("Taille " + size + " pour " + count[0] + " nœuds");
+        }
+    }
+
+    // ====================================================================
+    // 🔧 MÉTHODES UTILITAIRES PRIVÉES
+    // ====================================================================
+
+    private boolean overlaps(Node node, LocalTime start, LocalTime end, Long excludedId) {
+        // Aucun intervalle du sous-arbre ne se termine après le début demandé
+        if (node == null || !node.maxEnd.isAfter(start)) {
+            return false;
+        }
+        if (node.start.isBefore(end) && node.end.isAfter(start)
+                && (excludedId == null || node.id != excludedId)) {
+            return true;
+        }
+        if (overlaps(node.left, start, end, excludedId)) {
+            return true;
+        }
+        // À droite, tous les débuts sont >= node.start : inutile d'y descendre si node.start >= fin
+        return node.start.isBefore(end) && overlaps(node.right, start, end, excludedId);
+    }
+
+    private void check(Node node, Node lowerBound, Node upperBound, int[] count) {
+        if (node == null) {
+            return;
+        }
+        count[0]++;
+        if ((lowerBound != null && compare(node.start, node.id, lowerBound) <= 0)
+                || (upperBound != null && compare(node.start, node.id, upperBound) >= 0)) {
+            throw new IllegalStateException("Ordre rompu au créneau " + node.id);
+        }
+        check(node.left, lowerBound, node, count);
+        check(node.right, node, upperBound, count);
+        if (node.height != 1 + Math.max(height(node.left), height(node.right))) {
+            throw new IllegalStateException("Hauteur fausse au créneau " + node.id);
+        }
+        if (Math.abs(height(node.left) - height(node.right)) > 1) {
+            throw new IllegalStateException("Déséquilibre au créneau " + node.id);
+        }
+        LocalTime expected = node.end;
+        if (node.left != null && node.left.maxEnd.isAfter(expected)) expected = node.left.maxEnd;
+        if (node.right != null && node.right.maxEnd.isAfter(expected)) expected = node.right.maxEnd;
+        if (!node.maxEnd.equals(expected)) {
+            throw new IllegalStateException("Fin maximale " + node.maxEnd + " au lieu de " + expected + " au créneau " + node.id);
+        }
+    }
+
+    private static int compare(LocalTime start, long id, Node node) {
+        int cmp = start.compareTo(node.start);
+        return cmp != 0 ? cmp : Long.compare(id, node.id);
+    }
+
+    private Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.start, added.id, node) < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        return rebalance(node);
+    }
+
+    private Node remove(Node node, LocalTime start, long id) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, id, node);
+        if (cmp < 0) {
+            node.left = remove(node.left, start, id);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, start, id);
+        } else {
+            size--;
+            if (node.left == null) return node.right;
+            if (node.right == null) return node.left;
+            // Remplacer par le plus petit nœud du sous-arbre droit
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            Node replacement = new Node(successor.start, successor.end, successor.id);
+            replacement.left = node.left;
+            replacement.right = removeMin(node.right);
+            return rebalance(replacement);
+        }
+        return rebalance(node);
+    }
+
+    private Node removeMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return rebalance(node);
+    }
+
+    private Node rebalance(Node node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        LocalTime maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd.isAfter(maxEnd)) maxEnd = node.left.maxEnd;
+        if (node.right != null && node.right.maxEnd.isAfter(maxEnd)) maxEnd = node.right.maxEnd;
+        node.maxEnd = maxEnd;
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.rml.back_office_rml.util;
+
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads des pools internes (upload parallèle, transferts vers le stockage).
+ *
+ * Avec spring.threads.virtual.enabled=true sur Java 21 ou plus, les pools créent des threads virtuels,
+ * comme Tomcat et les tâches planifiées : la taille du pool borne toujours le nombre de fichiers
+ * envoyés en même temps, mais un envoi bloqué sur le réseau n'immobilise plus de thread système.
+ * Sur Java 17 la propriété reste sans effet et les pools gardent des threads système (daemon).
+ */
+public final class WorkerThreads {
+
+    private WorkerThreads() {
+    }
+
+    // Threads virtuels demandés et disponibles sur la JVM courante
+    public static boolean virtual(boolean requested) {
+        return requested && JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE);
+    }
+
+    // Fabrique de threads nommés "<prefix>1", "<prefix>2"... (threads virtuels : "<prefix>" + numéro à partir de 0)
+    public static ThreadFactory factory(String prefix, boolean virtual) {
+        if (virtual) {
+            return new VirtualThreadTaskExecutor(prefix).getVirtualThreadFactory();
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
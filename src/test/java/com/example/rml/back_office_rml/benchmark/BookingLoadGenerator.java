@@ -0,0 +1,236 @@
+package com.example.rml.back_office_rml.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Générateur de charge HTTP (client java.net.http, sans dépendance) qui rejoue des parcours patients :
+ *
+ *   recherche par spécialité → réservation d'un des créneaux trouvés → confirmation → annulation
+ *
+ * Chaque utilisateur virtuel enchaîne les parcours jusqu'à la fin de la durée demandée. Le mélange
+ * est réglé par trois probabilités : recherche sans réservation, confirmation après réservation,
+ * annulation (qui rend le créneau de nouveau réservable).
+ *
+ * Les réponses 4xx (créneau pris entre la recherche et la réservation, rendez-vous déjà annulé...)
+ * sont des refus métier attendus sous contention ; seules les 5xx et les erreurs réseau comptent
+ * comme erreurs.
+ *
+ * Contre une instance déjà démarrée (patients 1..load.patients existants) :
+ *   mvn test-compile exec:java -Dexec.classpathScope=test
+ *       -Dexec.mainClass=com.example.rml.back_office_rml.benchmark.BookingLoadGenerator
+ *       -Dexec.args=http://localhost:8080
+ * Avec une base embarquée préremplie : voir BookingLoadTest.
+ */
+public class BookingLoadGenerator {
+
+    public static final String SEARCH = "search";
+    public static final String BOOK = "book";
+    public static final String CONFIRM = "confirm";
+    public static final String CANCEL = "cancel";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // Paramètres d'un tir, lus depuis les propriétés système load.* (-Dload.users=32...)
+    public record Config(URI baseUrl, int users, Duration duration, int patients, String specialty,
+                         double searchOnlyRatio, double confirmRatio, double cancelRatio) {
+
+        public static Config fromSystemProperties(URI baseUrl) {
+            return new Config(baseUrl,
+                    Integer.getInteger("load.users", 16),
+                    Duration.ofSeconds(Integer.getInteger("load.duration-seconds", 30)),
+                    Integer.getInteger("load.patients", 500),
+                    System.getProperty("load.specialty", "GENERAL_MEDICINE"),
+                    Double.parseDouble(System.getProperty("load.search-only-ratio", "0.2")),
+                    Double.parseDouble(System.getProperty("load.confirm-ratio", "0.6")),
+                    Double.parseDouble(System.getProperty("load.cancel-ratio", "0.3")));
+        }
+    }
+
+    // Compteurs et latences d'un type de requête
+    public static final class OperationStats {
+
+        private final List<Long> latencies = new ArrayList<>();
+        private final LongAdder succeeded = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+
+        // status < 0 : pas de réponse (erreur réseau, délai dépassé)
+        void record(long nanos, int status) {
+            synchronized (latencies) {
+                latencies.add(nanos);
+            }
+            if (status >= 200 && status < 300) {
+                succeeded.increment();
+            } else if (status >= 400 && status < 500) {
+                rejected.increment();
+            } else {
+                errors.increment();
+            }
+        }
+
+        public long count() {
+            return succeeded.sum() + rejected.sum() + errors.sum();
+        }
+
+        public long succeeded() {
+            return succeeded.sum();
+        }
+
+        public long rejected() {
+            return rejected.sum();
+        }
+
+        public long errors() {
+            return errors.sum();
+        }
+
+        public double errorRate() {
+            return count() == 0 ? 0 : (double) errors() / count();
+        }
+
+        // Percentile en millisecondes (méthode du rang le plus proche)
+        public double percentileMs(double percentile) {
+            long[] sorted;
+            synchronized (latencies) {
+                sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            }
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+            return sorted[Math.max(0, rank - 1)] / 1e6;
+        }
+    }
+
+    public record Report(Config config, Duration elapsed, long flows, Map<String, OperationStats> operations) {
+
+        public double throughput(String operation) {
+            return operations.get(operation).succeeded() / (elapsed.toNanos() / 1e9);
+        }
+
+        public long totalErrors() {
+            return operations.values().stream().mapToLong(OperationStats::errors).sum();
+        }
+
+        public void print() {
+            System.out.printf("%n[BENCHMARK] Charge : %d utilisateurs, %d s, %d parcours (recherche seule %.0f %%, confirmation %.0f %%, annulation %.0f %%)%n",
+                    config.users(), elapsed.toSeconds(), flows,
+                    config.searchOnlyRatio() * 100, config.confirmRatio() * 100, config.cancelRatio() * 100);
+            operations.forEach((name, stats) -> System.out.printf(
+                    "[BENCHMARK]   %-8s %7d req  %8.1f ok/s  p50 %8.2f ms  p99 %8.2f ms  refus %6d  erreurs %5d (%.2f %%)%n",
+                    name, stats.count(), throughput(name), stats.percentileMs(50), stats.percentileMs(99),
+                    stats.rejected(), stats.errors(), stats.errorRate() * 100));
+        }
+    }
+
+    private final Config config;
+    private final HttpClient client;
+    private final Map<String, OperationStats> operations = new LinkedHashMap<>();
+    private final LongAdder flows = new LongAdder();
+
+    public BookingLoadGenerator(Config config) {
+        this.config = config;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        for (String operation : List.of(SEARCH, BOOK, CONFIRM, CANCEL)) {
+            operations.put(operation, new OperationStats());
+        }
+    }
+
+    public Report run() throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + config.duration().toNanos();
+        ExecutorService users = Executors.newFixedThreadPool(config.users());
+        for (int i = 0; i < config.users(); i++) {
+            users.submit(() -> {
+                while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+                    runFlow();
+                    flows.increment();
+                }
+            });
+        }
+        users.shutdown();
+        if (!users.awaitTermination(config.duration().toSeconds() + 60, TimeUnit.SECONDS)) {
+            users.shutdownNow();
+        }
+        return new Report(config, Duration.ofNanos(System.nanoTime() - start), flows.sum(), operations);
+    }
+
+    private void runFlow() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        JsonNode slots = send(SEARCH, HttpRequest.newBuilder(uri("/api/slots/available/specialty/" + config.specialty())).GET());
+        if (slots == null || slots.isEmpty() || random.nextDouble() < config.searchOnlyRatio()) {
+            return;
+        }
+
+        long slotId = slots.get(random.nextInt(slots.size())).path("slotId").asLong();
+        long patientId = random.nextInt(config.patients()) + 1;
+        JsonNode appointment = send(BOOK, HttpRequest.newBuilder(uri("/api/appointments/book?patientId=" + patientId
+                + "&slotId=" + slotId + "&consultationReason=Consultation")).POST(HttpRequest.BodyPublishers.noBody()));
+        if (appointment == null) {
+            return;
+        }
+
+        long appointmentId = appointment.path("appointmentId").asLong();
+        if (random.nextDouble() < config.confirmRatio()) {
+            send(CONFIRM, HttpRequest.newBuilder(uri("/api/appointments/" + appointmentId + "/confirm"))
+                    .method("PATCH", HttpRequest.BodyPublishers.noBody()));
+        }
+        if (random.nextDouble() < config.cancelRatio()) {
+            send(CANCEL, HttpRequest.newBuilder(uri("/api/appointments/" + appointmentId + "/cancel"))
+                    .method("PATCH", HttpRequest.BodyPublishers.noBody()));
+        }
+    }
+
+    // Envoie la requête, enregistre sa latence et retourne le corps JSON si elle a réussi
+    private JsonNode send(String operation, HttpRequest.Builder request) {
+        long start = System.nanoTime();
+        int status = -1;
+        try {
+            HttpResponse<byte[]> response = client.send(request.timeout(Duration.ofSeconds(30)).build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            status = response.statusCode();
+            if (status >= 200 && status < 300) {
+                return response.body().length == 0 ? MAPPER.nullNode() : MAPPER.readTree(response.body());
+            }
+            return null;
+        } catch (IOException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            operations.get(operation).record(System.nanoTime() - start, status);
+        }
+    }
+
+    private URI uri(String path) {
+        return config.baseUrl().resolve(path);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        URI baseUrl = URI.create(args.length > 0 ? args[0] : "http://localhost:8080");
+        Report report = new BookingLoadGenerator(Config.fromSystemProperties(baseUrl)).run();
+        report.print();
+        System.exit(report.totalErrors() == 0 ? 0 : 1);
+    }
+}
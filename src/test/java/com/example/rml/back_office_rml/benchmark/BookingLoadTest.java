@@ -0,0 +1,92 @@
+package com.example.rml.back_office_rml.benchmark;
+
+import com.example.rml.back_office_rml.services.SlotConflictIndex;
+import com.example.rml.back_office_rml.support.SchedulingFixtures;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tir de charge HTTP sur l'application démarrée (Tomcat, H2 embarquée) : BookingLoadGenerator
+ * rejoue les parcours recherche → réservation → confirmation → annulation, puis on vérifie
+ * en base qu'aucun créneau n'a été réservé deux fois.
+ *
+ * Lancement : mvn test -Pbenchmark -Dtest=BookingLoadTest [-Dload.users=32 -Dload.duration-seconds=60 ...]
+ * Taille du planning : load.doctors (20) × load.days (7) × 20 créneaux, load.patients patients.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingLoadTest {
+
+    private static final int SLOTS_PER_DAY = 20;
+
+    // Rendez-vous qui bloquent leur créneau
+    private static final String ACTIVE = "a.status IN ('PENDING', 'CONFIRMED')";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SlotConflictIndex conflictIndex;
+
+    private SchedulingFixtures fixtures;
+    private SchedulingFixtures.Dataset dataset;
+
+    @BeforeAll
+    void seed() {
+        fixtures = new SchedulingFixtures(jdbcTemplate);
+        fixtures.reset();
+        dataset = fixtures.seed(Integer.getInteger("load.doctors", 20), Integer.getInteger("load.days", 7), SLOTS_PER_DAY);
+        fixtures.seedPatients(Integer.getInteger("load.patients", 500));
+        conflictIndex.rebuild();
+    }
+
+    @AfterAll
+    void cleanUp() {
+        fixtures.reset();
+        conflictIndex.rebuild();
+    }
+
+    @Test
+    void bookingFlowsUnderLoad() throws InterruptedException {
+        BookingLoadGenerator.Config config = BookingLoadGenerator.Config.fromSystemProperties(URI.create("http://localhost:" + port));
+        BookingLoadGenerator.Report report = new BookingLoadGenerator(config).run();
+
+        // Plusieurs rendez-vous actifs sur un même créneau
+        long doubleBooked = count("SELECT COUNT(*) FROM (SELECT a.slot_id FROM appointments a WHERE " + ACTIVE +
+                " GROUP BY a.slot_id HAVING COUNT(*) > 1) t");
+        // Créneau affiché libre alors qu'un rendez-vous actif le bloque : il serait réservé une seconde fois
+        long availableButBooked = count("SELECT COUNT(*) FROM slots s WHERE s.status = 'AVAILABLE' AND EXISTS " +
+                "(SELECT 1 FROM appointments a WHERE a.slot_id = s.slot_id AND " + ACTIVE + ")");
+        long activeAppointments = count("SELECT COUNT(*) FROM appointments a WHERE " + ACTIVE);
+
+        System.out.printf("%n[BENCHMARK] Planning : %d médecins, %d créneaux%n", dataset.doctors(), dataset.slots());
+        report.print();
+        System.out.printf("[BENCHMARK] %d rendez-vous actifs, doubles réservations : %d, créneaux libres déjà réservés : %d%n",
+                activeAppointments, doubleBooked, availableButBooked);
+
+        assertTrue(report.operations().get(BookingLoadGenerator.BOOK).succeeded() > 0, "aucune réservation aboutie");
+        assertEquals(0, doubleBooked, "créneaux réservés deux fois");
+        assertEquals(0, availableButBooked, "créneaux libres portant un rendez-vous actif");
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
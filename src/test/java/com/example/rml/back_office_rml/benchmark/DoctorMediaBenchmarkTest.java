@@ -0,0 +1,192 @@
+package com.example.rml.back_office_rml.benchmark;
+
+import com.example.rml.back_office_rml.entities.Doctor;
+import com.example.rml.back_office_rml.entities.Slot;
+import com.example.rml.back_office_rml.repositories.DoctorMediaRepository;
+import com.example.rml.back_office_rml.services.DoctorMediaMigration;
+import com.example.rml.back_office_rml.support.SchedulingFixtures;
+import com.example.rml.back_office_rml.util.SqlCaptureInspector;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Octets lus par requête sur les chemins qui chargent un médecin (réservation : créneau + médecin ;
+ * fiche médecin), avant et après le déplacement de la photo et des justificatifs dans doctor_media.
+ *
+ * "Avant" : le SQL généré par Hibernate, complété des anciennes colonnes doctor.photo / justificatifs
+ * (ce que sélectionnait l'entité Doctor), sur une table doctor remise dans son ancien état.
+ * "Après" : le même SQL tel que généré aujourd'hui, une fois DoctorMediaMigration passée.
+ *
+ * Lancement : mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class DoctorMediaBenchmarkTest {
+
+    private static final int DOCTORS = 20;
+    private static final int PHOTO_BYTES = 256 * 1024;
+    private static final int DOCUMENTS_BYTES = 1024 * 1024;
+    private static final int QUERIES = 500;
+    private static final Pattern DOCTOR_ALIAS = Pattern.compile("(?i)\\b(?:from|join) doctor (\\w+)");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DoctorMediaRepository doctorMediaRepository;
+
+    @Autowired
+    private DoctorMediaMigration migration;
+
+    private SchedulingFixtures fixtures;
+
+    @BeforeAll
+    void seed() {
+        fixtures = new SchedulingFixtures(jdbcTemplate);
+        fixtures.reset();
+        fixtures.seed(DOCTORS, 1, 1);
+        jdbcTemplate.execute("ALTER TABLE doctor ADD COLUMN photo LONGBLOB");
+        jdbcTemplate.execute("ALTER TABLE doctor ADD COLUMN justificatifs LONGBLOB");
+        Random random = new Random(42);
+        for (int i = 1; i <= DOCTORS; i++) {
+            byte[] photo = new byte[PHOTO_BYTES];
+            byte[] documents = new byte[DOCUMENTS_BYTES];
+            random.nextBytes(photo);
+            random.nextBytes(documents);
+            jdbcTemplate.update("UPDATE doctor SET photo = ?, justificatifs = ? WHERE doctor_id = ?", photo, documents, i);
+        }
+    }
+
+    @AfterAll
+    void cleanUp() {
+        jdbcTemplate.execute("ALTER TABLE doctor DROP COLUMN IF EXISTS photo");
+        jdbcTemplate.execute("ALTER TABLE doctor DROP COLUMN IF EXISTS justificatifs");
+        fixtures.reset();
+    }
+
+    @Test
+    void bytesPerQueryBeforeAndAfterMigration() {
+        // Un créneau par médecin : slot_id = doctor_id. La réservation charge le créneau puis son médecin.
+        String slotSql = SqlCaptureInspector.capture(entityManagerFactory, session -> session.find(Slot.class, 1L));
+        String doctorSql = SqlCaptureInspector.capture(entityManagerFactory, session -> session.find(Doctor.class, 1L));
+        List<Path> paths = List.of(
+                new Path("réservation (créneau + médecin)", List.of(slotSql, doctorSql)),
+                new Path("fiche médecin", List.of(doctorSql)));
+
+        List<Measure> before = new ArrayList<>();
+        for (Path path : paths) {
+            before.add(measure(path.statements().stream().map(DoctorMediaBenchmarkTest::withLegacyColumns).toList()));
+        }
+
+        DoctorMediaMigration.Result result = migration.migrate();
+        assertEquals(DOCTORS, result.migratedDoctors());
+        assertEquals(DOCTORS, doctorMediaRepository.count());
+
+        System.out.printf("%n[BENCHMARK] %d médecins, photo %d Kio + justificatifs %d Kio, %d requêtes par chemin%n",
+                DOCTORS, PHOTO_BYTES / 1024, DOCUMENTS_BYTES / 1024, QUERIES);
+        for (int i = 0; i < paths.size(); i++) {
+            Measure after = measure(paths.get(i).statements());
+            assertTrue(after.bytesPerQuery() * 100 < before.get(i).bytesPerQuery(),
+                    "Le chemin " + paths.get(i).name() + " lit encore les octets des médias");
+            System.out.printf("[BENCHMARK] %-32s avant : %10d octets %8.1f µs | après : %6d octets %8.1f µs%n",
+                    paths.get(i).name(), before.get(i).bytesPerQuery(), before.get(i).micros(),
+                    after.bytesPerQuery(), after.micros());
+        }
+    }
+
+    private record Path(String name, List<String> statements) {
+    }
+
+    private record Measure(long bytesPerQuery, double micros) {
+    }
+
+    // Ancienne forme de la requête : chaque lecture de doctor ramenait aussi les deux LONGBLOB
+    private static String withLegacyColumns(String sql) {
+        StringBuilder columns = new StringBuilder();
+        Matcher matcher = DOCTOR_ALIAS.matcher(sql);
+        while (matcher.find()) {
+            columns.append(matcher.group(1)).append(".photo,")
+                    .append(matcher.group(1)).append(".justificatifs,");
+        }
+        return sql.replaceFirst("(?i)^select ", "select " + columns);
+    }
+
+    // Exécute les requêtes du chemin pour des identifiants tirés au hasard et compte les octets matérialisés
+    private Measure measure(List<String> statements) {
+        Random random = new Random(7);
+        long[] bytes = new long[1];
+        long start = System.nanoTime();
+        jdbcTemplate.execute((Connection connection) -> {
+            List<PreparedStatement> prepared = new ArrayList<>();
+            try {
+                for (String sql : statements) {
+                    prepared.add(connection.prepareStatement(sql));
+                }
+                for (int q = 0; q < QUERIES; q++) {
+                    long id = 1 + random.nextInt(DOCTORS);
+                    for (PreparedStatement statement : prepared) {
+                        int parameters = statement.getParameterMetaData().getParameterCount();
+                        for (int p = 1; p <= parameters; p++) {
+                            statement.setLong(p, id);
+                        }
+                        try (ResultSet rows = statement.executeQuery()) {
+                            bytes[0] += readAll(rows);
+                        }
+                    }
+                }
+            } finally {
+                for (PreparedStatement statement : prepared) {
+                    statement.close();
+                }
+            }
+            return null;
+        });
+        long nanos = System.nanoTime() - start;
+        return new Measure(bytes[0] / QUERIES, nanos / 1000.0 / QUERIES);
+    }
+
+    private static long readAll(ResultSet rows) throws SQLException {
+        ResultSetMetaData metaData = rows.getMetaData();
+        long total = 0;
+        while (rows.next()) {
+            for (int c = 1; c <= metaData.getColumnCount(); c++) {
+                switch (metaData.getColumnType(c)) {
+                    case Types.BLOB, Types.LONGVARBINARY, Types.VARBINARY, Types.BINARY -> {
+                        byte[] value = rows.getBytes(c);
+                        total += value != null ? value.length : 0;
+                    }
+                    default -> {
+                        String value = rows.getString(c);
+                        total += value != null ? value.length() : 0;
+                    }
+                }
+            }
+        }
+        return total;
+    }
+}
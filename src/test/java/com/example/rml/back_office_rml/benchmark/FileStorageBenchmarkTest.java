@@ -0,0 +1,99 @@
+package com.example.rml.back_office_rml.benchmark;
+
+import com.example.rml.back_office_rml.util.FileStorage;
+import com.example.rml.back_office_rml.util.InMemoryFileStorage;
+import com.example.rml.back_office_rml.util.LocalFileStorage;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Débit de la couche de stockage seule (sans HTTP, spool ni base) : put, stat, lecture complète
+ * puis suppression d'un lot de fichiers, pour chaque backend sans réseau.
+ * Sert de référence pour séparer le coût du stockage de celui du pipeline d'upload.
+ *
+ * Lancement : mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class FileStorageBenchmarkTest {
+
+    private static final int FILES = 200;
+    private static final int FILE_SIZE = 256 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"memory", "local"})
+    void putStatGetDelete(String backend) throws IOException {
+        FileStorage storage = "local".equals(backend)
+                ? new LocalFileStorage(tempDir.resolve("storage").toString())
+                : new InMemoryFileStorage();
+        byte[] payload = new byte[FILE_SIZE];
+        new Random(42).nextBytes(payload);
+
+        // Préchauffage
+        run(storage, payload, 20);
+
+        long[] nanos = run(storage, payload, FILES);
+        double megabytes = (double) FILES * FILE_SIZE / (1024 * 1024);
+        System.out.printf("%n[BENCHMARK] Stockage %-6s : %d fichiers de %d Kio%n", backend, FILES, FILE_SIZE / 1024);
+        System.out.printf("[BENCHMARK]   put    : %8.1f ms (%7.1f Mio/s)%n", nanos[0] / 1e6, megabytes / (nanos[0] / 1e9));
+        System.out.printf("[BENCHMARK]   stat   : %8.1f ms%n", nanos[1] / 1e6);
+        System.out.printf("[BENCHMARK]   get    : %8.1f ms (%7.1f Mio/s)%n", nanos[2] / 1e6, megabytes / (nanos[2] / 1e9));
+        System.out.printf("[BENCHMARK]   delete : %8.1f ms%n", nanos[3] / 1e6);
+    }
+
+    // Durées cumulées en nanosecondes : put, stat, get, delete
+    private static long[] run(FileStorage storage, byte[] payload, int count) throws IOException {
+        List<String> keys = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            keys.add("bench-" + i + ".bin");
+        }
+        long[] nanos = new long[4];
+
+        long start = System.nanoTime();
+        for (String key : keys) {
+            storage.put(key, new ByteArrayInputStream(payload), payload.length);
+        }
+        nanos[0] = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (String key : keys) {
+            assertEquals(payload.length, storage.stat(key).orElseThrow().size());
+        }
+        nanos[1] = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        byte[] buffer = new byte[64 * 1024];
+        for (String key : keys) {
+            long read = 0;
+            try (InputStream content = storage.get(key)) {
+                int n;
+                while ((n = content.read(buffer)) > 0) {
+                    read += n;
+                }
+            }
+            assertEquals(payload.length, read);
+        }
+        nanos[2] = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (String key : keys) {
+            storage.delete(key);
+        }
+        nanos[3] = System.nanoTime() - start;
+        return nanos;
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.rml.back_office_rml.benchmark;
+
+import com.example.rml.back_office_rml.BackOfficeRmlApplication;
+import com.example.rml.back_office_rml.dto.AppointmentRequestDTO;
+import com.example.rml.back_office_rml.dto.AppointmentResponseDTO;
+import com.example.rml.back_office_rml.dto.SlotDTO;
+import com.example.rml.back_office_rml.services.AppointmentService;
+import com.example.rml.back_office_rml.services.SlotConflictIndex;
+import com.example.rml.back_office_rml.services.SlotService;
+import com.example.rml.back_office_rml.support.SchedulingFixtures;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Création de créneau et réservation de bout en bout (services Spring, H2 en mode MySQL),
+ * sur un planning à l'échelle de la production : 10 000 médecins × 5 jours × 20 créneaux,
+ * soit 1 000 000 de créneaux. L'échelle se réduit avec -p doctors=... pour un essai rapide.
+ *
+ * - createSlot : créneau accepté, placé après les jours déjà planifiés (aucun conflit) ;
+ * - createSlotRejectedByOverlap : toutes les vérifications jusqu'au refus par SlotConflictIndex ;
+ * - bookAppointment : réservation d'un créneau libre, les réservations sont annulées à chaque itération.
+ *
+ * Lancement : mvn -Pjmh test-compile exec:exec -Djmh.args="SchedulingHotPathJmh"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SchedulingHotPathJmh {
+
+    @State(Scope.Benchmark)
+    public static class Planning {
+
+        @Param("10000")
+        public int doctors;
+
+        @Param("5")
+        public int days;
+
+        // 08:00 → 18:00 par pas de 30 minutes : salles pleines sur les jours planifiés
+        @Param("20")
+        public int slotsPerDay;
+
+        @Param("10000")
+        public int patients;
+
+        ConfigurableApplicationContext context;
+        JdbcTemplate jdbcTemplate;
+        SlotService slotService;
+        AppointmentService appointmentService;
+        SchedulingFixtures fixtures;
+        SchedulingFixtures.Dataset dataset;
+
+        // Position du prochain créneau créé après les jours planifiés (médecin, heure, jour)
+        long nextCreated;
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = new SpringApplicationBuilder(BackOfficeRmlApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .logStartupInfo(false)
+                    .run();
+            jdbcTemplate = context.getBean(JdbcTemplate.class);
+            slotService = context.getBean(SlotService.class);
+            appointmentService = context.getBean(AppointmentService.class);
+
+            fixtures = new SchedulingFixtures(jdbcTemplate);
+            fixtures.reset();
+            dataset = fixtures.seed(doctors, days, slotsPerDay);
+            fixtures.seedAvailabilities(doctors, 30, LocalTime.of(8, 0), LocalTime.of(18, 0));
+            fixtures.seedPatients(patients);
+            context.getBean(SlotConflictIndex.class).rebuild();
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+
+        SlotDTO nextFreeSlot() {
+            long position = nextCreated++;
+            int doctorId = (int) (position % doctors) + 1;
+            long step = position / doctors;
+            return slot(doctorId, dataset.firstDate().plusDays(days + step / 20), LocalTime.of(8, 0).plusMinutes(30 * (step % 20)));
+        }
+
+        SlotDTO randomTakenSlot() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            return slot(random.nextInt(doctors) + 1, dataset.firstDate().plusDays(random.nextInt(days)),
+                    LocalTime.of(8, 0).plusMinutes(30L * random.nextInt(slotsPerDay)));
+        }
+
+        private static SlotDTO slot(int doctorId, LocalDate date, LocalTime start) {
+            SlotDTO dto = new SlotDTO();
+            dto.setDoctorId((long) doctorId);
+            dto.setRoomId((long) doctorId);
+            dto.setSlotDate(date);
+            dto.setStartTime(start);
+            dto.setEndTime(start.plusMinutes(30));
+            return dto;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Bookings {
+
+        long nextSlotId;
+
+        // Chaque itération repart d'un planning entièrement libre
+        @Setup(Level.Iteration)
+        public void release(Planning planning) {
+            planning.jdbcTemplate.update("DELETE FROM appointments");
+            planning.jdbcTemplate.update("UPDATE slots SET status = 'AVAILABLE' WHERE status = 'RESERVED'");
+            nextSlotId = 0;
+        }
+
+        AppointmentRequestDTO next(Planning planning) {
+            long slotId = nextSlotId++ % planning.dataset.slots() + 1;
+            AppointmentRequestDTO request = new AppointmentRequestDTO();
+            request.setSlotId(slotId);
+            request.setPatientId(slotId % planning.patients + 1);
+            request.setConsultationReason("Consultation");
+            return request;
+        }
+    }
+
+    @Benchmark
+    public SlotDTO createSlot(Planning planning) {
+        return planning.slotService.createSlot(planning.nextFreeSlot());
+    }
+
+    @Benchmark
+    public Object createSlotRejectedByOverlap(Planning planning) {
+        try {
+            return planning.slotService.createSlot(planning.randomTakenSlot());
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public AppointmentResponseDTO bookAppointment(Planning planning, Bookings bookings) {
+        return planning.appointmentService.bookAppointment(bookings.next(planning));
+    }
+}
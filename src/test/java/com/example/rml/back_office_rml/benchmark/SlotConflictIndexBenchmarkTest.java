@@ -0,0 +1,132 @@
+package com.example.rml.back_office_rml.benchmark;
+
+import com.example.rml.back_office_rml.enums.DayOfWeek;
+import com.example.rml.back_office_rml.repositories.SlotRepository;
+import com.example.rml.back_office_rml.services.SlotConflictIndex;
+import com.example.rml.back_office_rml.support.SchedulingFixtures;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compare la détection de chevauchement via SlotConflictIndex et via les 4 requêtes COUNT
+ * de SlotRepository (chemin utilisé avant l'index).
+ *
+ * Lancement : mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SlotConflictIndexBenchmarkTest {
+
+    private static final int DOCTORS = 500;
+    private static final int DAYS = 60;
+    private static final int SLOTS_PER_DAY = 12;
+    private static final int PROBES = 5_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SlotRepository slotRepository;
+
+    @Autowired
+    private SlotConflictIndex conflictIndex;
+
+    private SchedulingFixtures fixtures;
+    private SchedulingFixtures.Dataset dataset;
+
+    @BeforeAll
+    void seed() {
+        fixtures = new SchedulingFixtures(jdbcTemplate);
+        fixtures.reset();
+        dataset = fixtures.seed(DOCTORS, DAYS, SLOTS_PER_DAY);
+        conflictIndex.rebuild();
+    }
+
+    @AfterAll
+    void cleanUp() {
+        fixtures.reset();
+        conflictIndex.rebuild();
+    }
+
+    @Test
+    void indexedPathVersusQueryPath() {
+        Probe[] probes = probes();
+
+        // Préchauffage des deux chemins
+        for (int i = 0; i < 500; i++) {
+            queryPath(probes[i]);
+            indexedPath(probes[i]);
+        }
+
+        long queryConflicts = 0;
+        long start = System.nanoTime();
+        for (Probe probe : probes) {
+            if (queryPath(probe)) queryConflicts++;
+        }
+        long queryNanos = System.nanoTime() - start;
+
+        long indexConflicts = 0;
+        start = System.nanoTime();
+        for (Probe probe : probes) {
+            if (indexedPath(probe)) indexConflicts++;
+        }
+        long indexNanos = System.nanoTime() - start;
+
+        // Les deux chemins doivent donner exactement les mêmes réponses
+        for (Probe probe : probes) {
+            assertEquals(queryPath(probe), indexedPath(probe), "Désaccord index/base pour " + probe);
+        }
+        assertEquals(queryConflicts, indexConflicts);
+
+        System.out.printf("[BENCHMARK] %d créneaux, %d vérifications (%d conflits)%n",
+                dataset.slots(), PROBES, indexConflicts);
+        System.out.printf("[BENCHMARK] requêtes SQL : %8.1f µs/vérification%n", queryNanos / 1000.0 / PROBES);
+        System.out.printf("[BENCHMARK] index mémoire: %8.1f µs/vérification (x%.0f)%n",
+                indexNanos / 1000.0 / PROBES, (double) queryNanos / Math.max(1, indexNanos));
+    }
+
+    private record Probe(long doctorId, LocalDate date, DayOfWeek day, LocalTime start, LocalTime end) {
+    }
+
+    // Moitié de demandes en conflit (dans la journée occupée), moitié libres (après 18:00)
+    private Probe[] probes() {
+        Random random = new Random(42);
+        Probe[] probes = new Probe[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            long doctorId = 1 + random.nextInt(DOCTORS);
+            LocalDate date = dataset.firstDate().plusDays(random.nextInt(DAYS));
+            LocalTime start = random.nextBoolean()
+                    ? LocalTime.of(8, 0).plusMinutes(15L * random.nextInt(SLOTS_PER_DAY * 2))
+                    : LocalTime.of(18, 0).plusMinutes(15L * random.nextInt(8));
+            probes[i] = new Probe(doctorId, date, DayOfWeek.valueOf(date.getDayOfWeek().name()),
+                    start, start.plusMinutes(30));
+        }
+        return probes;
+    }
+
+    // Chemin historique : 4 requêtes COUNT (la salle du médecin porte le même ID dans le jeu de données)
+    private boolean queryPath(Probe p) {
+        return slotRepository.existsOverlappingSlotForDoctorOnDate(p.doctorId(), p.date(), p.start(), p.end(), null)
+                || slotRepository.existsOverlappingSlotForRoomOnDate(p.doctorId(), p.date(), p.start(), p.end(), null)
+                || slotRepository.existsOverlappingRecurringSlotForDoctor(p.doctorId(), p.day(), p.start(), p.end(), null)
+                || slotRepository.existsOverlappingRecurringSlotForRoom(p.doctorId(), p.day(), p.start(), p.end(), null);
+    }
+
+    private boolean indexedPath(Probe p) {
+        return conflictIndex.findConflict(p.doctorId(), p.doctorId(), p.date(), p.day(), p.start(), p.end(), true, null)
+                != SlotConflictIndex.Conflict.NONE;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.rml.back_office_rml.benchmark;
+
+import com.example.rml.back_office_rml.dto.SlotGenerationReportDTO;
+import com.example.rml.back_office_rml.services.ReferenceDataCache;
+import com.example.rml.back_office_rml.services.SlotConflictIndex;
+import com.example.rml.back_office_rml.services.SlotGenerationService;
+import com.example.rml.back_office_rml.support.SchedulingFixtures;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Génère un calendrier de 3 mois pour tous les médecins d'un centre (10 médecins)
+ * via SlotGenerationService, en partant d'une semaine déjà planifiée.
+ *
+ * Lancement : mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SlotGenerationBenchmarkTest {
+
+    private static final int DOCTORS = 10;
+    private static final int EXISTING_DAYS = 7;
+    private static final int EXISTING_SLOTS_PER_DAY = 12;   // 08:00 → 14:00 par pas de 30 minutes
+    private static final int GENERATED_DAYS = 92;
+    private static final int MINUTES = 20;                  // disponibilités 08:00 → 18:00
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SlotGenerationService slotGenerationService;
+
+    @Autowired
+    private SlotConflictIndex conflictIndex;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    private SchedulingFixtures fixtures;
+    private SchedulingFixtures.Dataset dataset;
+
+    @BeforeAll
+    void seed() {
+        fixtures = new SchedulingFixtures(jdbcTemplate);
+        fixtures.reset();
+        dataset = fixtures.seed(DOCTORS, EXISTING_DAYS, EXISTING_SLOTS_PER_DAY);
+        fixtures.seedAvailabilities(DOCTORS, MINUTES, LocalTime.of(8, 0), LocalTime.of(18, 0));
+        conflictIndex.rebuild();
+        referenceDataCache.evictAll();
+    }
+
+    @AfterAll
+    void cleanUp() {
+        fixtures.reset();
+        conflictIndex.rebuild();
+    }
+
+    @Test
+    void generateThreeMonthsForACenter() {
+        LocalDate startDate = dataset.firstDate();
+        LocalDate endDate = startDate.plusDays(GENERATED_DAYS - 1);
+
+        int piecesPerDay = 10 * 60 / MINUTES;
+        // Les jours déjà planifiés ne gardent que les créneaux de 14:00 à 18:00
+        int freePiecesOnPlannedDays = 4 * 60 / MINUTES;
+        int expectedPerDoctor = EXISTING_DAYS * freePiecesOnPlannedDays + (GENERATED_DAYS - EXISTING_DAYS) * piecesPerDay;
+
+        long created = 0;
+        long start = System.nanoTime();
+        for (int doctorId = 1; doctorId <= DOCTORS; doctorId++) {
+            SlotGenerationReportDTO report = slotGenerationService.generateSlots(
+                    (long) doctorId, (long) doctorId, startDate, endDate);
+            assertEquals(expectedPerDoctor, report.getCreated(), "créneaux créés pour le médecin " + doctorId);
+            assertEquals(GENERATED_DAYS * piecesPerDay, report.getCandidates());
+            created += report.getCreated();
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Relancer la génération ne crée plus rien : tous les candidats sont en conflit
+        SlotGenerationReportDTO rerun = slotGenerationService.generateSlots(1L, 1L, startDate, endDate);
+        assertEquals(0, rerun.getCreated());
+
+        Long total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM slots", Long.class);
+        assertEquals(dataset.slots() + created, total);
+
+        System.out.printf("%n[BENCHMARK] Génération de %d jours pour %d médecins : %d créneaux en %d ms (%.0f créneaux/s)%n",
+                GENERATED_DAYS, DOCTORS, created, elapsedMs, created * 1000.0 / Math.max(1, elapsedMs));
+    }
+}
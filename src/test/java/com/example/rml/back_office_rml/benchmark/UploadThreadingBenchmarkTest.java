@@ -0,0 +1,226 @@
+package com.example.rml.back_office_rml.benchmark;
+
+import com.example.rml.back_office_rml.support.SchedulingFixtures;
+import com.example.rml.back_office_rml.util.FileStorage;
+import com.example.rml.back_office_rml.util.InMemoryFileStorage;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Débit de POST /api/requests/doctor-documents (photo + 2 justificatifs) sous uploads concurrents,
+ * threads système (référence) contre threads virtuels (spring.threads.virtual.enabled=true, Java 21+).
+ *
+ * Le stockage est en mémoire avec une latence fixe par fichier pour simuler les allers-retours SFTP.
+ * Les clients sont plus nombreux que les 200 threads Tomcat par défaut : en mode système, les requêtes
+ * en trop attendent un thread ; en mode virtuel, chacune a le sien. Les justificatifs passent en plus par
+ * le pool borné de ParallelFileUploader (files.upload.parallelism, surchargeable par -D) dans les deux modes.
+ *
+ * Lancement : mvn test -Pbenchmark -Dtest=UploadThreadingBenchmarkTest
+ *             [-Dupload.bench.clients=400 -Dupload.bench.requests=2000 -Dupload.bench.latency-ms=50]
+ * Le cas threads virtuels n'est exécuté que sur une JVM 21 ou plus (profil Maven java21).
+ */
+@Tag("benchmark")
+class UploadThreadingBenchmarkTest {
+
+    private static final int DOCTORS = 50;
+    private static final int FILE_SIZE = 64 * 1024;
+    private static final int CLIENTS = Integer.getInteger("upload.bench.clients", 400);
+    private static final int REQUESTS = Integer.getInteger("upload.bench.requests", 2000);
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+            properties = "spring.threads.virtual.enabled=false")
+    class PlatformThreads extends UploadRun {
+        PlatformThreads() {
+            super("threads système");
+        }
+    }
+
+    @Nested
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+            properties = "spring.threads.virtual.enabled=true")
+    class VirtualThreads extends UploadRun {
+        VirtualThreads() {
+            super("threads virtuels");
+        }
+    }
+
+    @Import(SlowStorageConfiguration.class)
+    @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+    abstract static class UploadRun {
+
+        private final String mode;
+
+        @LocalServerPort
+        private int port;
+
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
+        private SchedulingFixtures fixtures;
+
+        UploadRun(String mode) {
+            this.mode = mode;
+        }
+
+        @BeforeAll
+        void seed() {
+            fixtures = new SchedulingFixtures(jdbcTemplate);
+            fixtures.reset();
+            fixtures.seed(DOCTORS, 1, 1);
+        }
+
+        @AfterAll
+        void cleanUp() {
+            fixtures.reset();
+        }
+
+        @Test
+        void concurrentDocumentUploads() throws InterruptedException {
+            RestTemplate client = new RestTemplate();
+            String url = "http://localhost:" + port + "/api/requests/doctor-documents";
+
+            // Préchauffage
+            for (int i = 0; i < 20; i++) {
+                upload(client, url, i % DOCTORS + 1);
+            }
+
+            long[] latencies = new long[REQUESTS];
+            AtomicInteger next = new AtomicInteger();
+            AtomicInteger errors = new AtomicInteger();
+            ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+            long start = System.nanoTime();
+            for (int c = 0; c < CLIENTS; c++) {
+                clients.submit(() -> {
+                    int i;
+                    while ((i = next.getAndIncrement()) < REQUESTS) {
+                        long requestStart = System.nanoTime();
+                        if (!upload(client, url, i % DOCTORS + 1)) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[i] = System.nanoTime() - requestStart;
+                    }
+                });
+            }
+            clients.shutdown();
+            clients.awaitTermination(10, TimeUnit.MINUTES);
+            long elapsed = System.nanoTime() - start;
+
+            Arrays.sort(latencies);
+            System.out.printf("%n[BENCHMARK] Uploads concurrents (%s) : %d requêtes, %d clients, 3 fichiers de %d Kio%n",
+                    mode, REQUESTS, CLIENTS, FILE_SIZE / 1024);
+            System.out.printf("[BENCHMARK]   %8.1f requêtes/s  p50 %8.1f ms  p99 %8.1f ms  erreurs %d  pic de threads JVM %d%n",
+                    REQUESTS / (elapsed / 1e9), latencies[REQUESTS / 2] / 1e6, latencies[REQUESTS * 99 / 100] / 1e6,
+                    errors.get(), ManagementFactory.getThreadMXBean().getPeakThreadCount());
+            assertEquals(0, errors.get());
+        }
+
+        // Contenu aléatoire à chaque envoi : aucun fichier n'est dédoublonné par son empreinte
+        private static boolean upload(RestTemplate client, String url, long doctorId) {
+            MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+            body.add("doctorId", doctorId);
+            body.add("photo", file("photo.jpg"));
+            body.add("documents", file("diplome.pdf"));
+            body.add("documents", file("agrement.pdf"));
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+            try {
+                ResponseEntity<String> response = client.postForEntity(url, new HttpEntity<>(body, headers), String.class);
+                return response.getStatusCode().is2xxSuccessful();
+            } catch (RestClientException e) {
+                return false;
+            }
+        }
+
+        private static ByteArrayResource file(String name) {
+            byte[] content = new byte[FILE_SIZE];
+            ThreadLocalRandom.current().nextBytes(content);
+            return new ByteArrayResource(content) {
+                @Override
+                public String getFilename() {
+                    return name;
+                }
+            };
+        }
+    }
+
+    // Stockage mémoire + latence réseau simulée à chaque écriture
+    @TestConfiguration
+    static class SlowStorageConfiguration {
+
+        @Bean
+        @Primary
+        FileStorage slowStorage(InMemoryFileStorage delegate, @Value("${upload.bench.latency-ms:50}") long latencyMs) {
+            return new FileStorage() {
+                @Override
+                public void put(String key, InputStream content, long size) throws IOException {
+                    try {
+                        Thread.sleep(latencyMs);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Envoi interrompu", e);
+                    }
+                    delegate.put(key, content, size);
+                }
+
+                @Override
+                public InputStream get(String key) throws IOException {
+                    return delegate.get(key);
+                }
+
+                @Override
+                public boolean delete(String key) {
+                    return delegate.delete(key);
+                }
+
+                @Override
+                public Optional<FileInfo> stat(String key) {
+                    return delegate.stat(key);
+                }
+
+                @Override
+                public String locationOf(String key) {
+                    return delegate.locationOf(key);
+                }
+            };
+        }
+    }
+}
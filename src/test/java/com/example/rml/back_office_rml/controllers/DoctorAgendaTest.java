@@ -0,0 +1,347 @@
+package com.example.rml.back_office_rml.controllers;
+
+import com.example.rml.back_office_rml.dto.AppointmentRequestDTO;
+import com.example.rml.back_office_rml.dto.AppointmentResponseDTO;
+import com.example.rml.back_office_rml.dto.DoctorAgendaEntryDTO;
+import com.example.rml.back_office_rml.dto.RoomDTO;
+import com.example.rml.back_office_rml.dto.SlotDTO;
+import com.example.rml.back_office_rml.entities.SlotScheduler;
+import com.example.rml.back_office_rml.enums.AppointmentStatus;
+import com.example.rml.back_office_rml.enums.SlotStatus;
+import com.example.rml.back_office_rml.repositories.DoctorAgendaRepository;
+import com.example.rml.back_office_rml.services.AppointmentService;
+import com.example.rml.back_office_rml.services.DoctorAgendaProjector;
+import com.example.rml.back_office_rml.services.DoctorAgendaService;
+import com.example.rml.back_office_rml.services.RoomService;
+import com.example.rml.back_office_rml.services.SlotConflictIndex;
+import com.example.rml.back_office_rml.services.SlotOccurrenceService;
+import com.example.rml.back_office_rml.services.SlotService;
+import com.example.rml.back_office_rml.support.SchedulingFixtures;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Agenda journalier précalculé (table doctor_agenda) : tenu à jour par chaque écriture,
+ * identique à une reconstruction complète, et servi en une seule instruction SQL.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class DoctorAgendaTest {
+
+    // 2 médecins × 2 jours × 4 créneaux (08:00 → 10:00) : créneaux 1..4 et 5..8 pour le médecin 1
+    private static final int DOCTORS = 2;
+    private static final int DAYS = 2;
+    private static final int SLOTS_PER_DAY = 4;
+    private static final long TEMPLATE_ID = 100L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DoctorAgendaService agendaService;
+
+    @Autowired
+    private DoctorAgendaProjector agendaProjector;
+
+    @MockitoSpyBean
+    private DoctorAgendaRepository agendaRepository;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private SlotService slotService;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private SlotScheduler slotScheduler;
+
+    @Autowired
+    private SlotOccurrenceService occurrenceService;
+
+    @Autowired
+    private SlotConflictIndex conflictIndex;
+
+    private SchedulingFixtures fixtures;
+    private LocalDate firstDate;
+
+    @BeforeEach
+    void seed() {
+        fixtures = new SchedulingFixtures(jdbcTemplate);
+        fixtures.reset();
+        firstDate = fixtures.seed(DOCTORS, DAYS, SLOTS_PER_DAY).firstDate();
+        fixtures.seedAvailabilities(DOCTORS, 30, LocalTime.of(8, 0), LocalTime.of(18, 0));
+        fixtures.seedPatients(10);
+        // Créneau récurrent du médecin 1, chaque semaine à partir du premier jour à 14:00
+        fixtures.insertRecurringSlot(TEMPLATE_ID, 1, firstDate, LocalTime.of(14, 0), LocalTime.of(14, 30));
+        occurrenceService.evictTemplatesAfterCommit();
+        conflictIndex.rebuild();
+        agendaProjector.rebuild("MANUAL");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.reset();
+        occurrenceService.evictTemplatesAfterCommit();
+        conflictIndex.rebuild();
+        agendaProjector.rebuild("MANUAL");
+    }
+
+    @Test
+    void dayAgendaIsServedByOneStatement() throws Exception {
+        String url = "/api/appointments/doctor/1/agenda?date=" + firstDate.format(DateTimeFormatter.ofPattern("dd-MM-yyyy"));
+        appointmentService.bookAppointment(request(1L, 1L));
+
+        // Premier appel : chargement du cache des modèles récurrents
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(SLOTS_PER_DAY + 1))
+                .andExpect(jsonPath("$[0].slotId").value(1))
+                .andExpect(jsonPath("$[0].patientLastName").value("Patient1"))
+                .andExpect(jsonPath("$[0].appointmentStatus").value("PENDING"))
+                .andExpect(jsonPath("$[4].recurringTemplateId").value(TEMPLATE_ID))
+                .andExpect(jsonPath("$[4].startTime").value("14:00"));
+
+        assertEquals(1, statistics.getPrepareStatementCount(), "instructions SQL pour l'agenda");
+        // Seules les lignes de l'agenda sont chargées : ni créneau, ni rendez-vous, ni patient
+        assertEquals(SLOTS_PER_DAY, statistics.getEntityLoadCount(), "entités chargées");
+    }
+
+    @Test
+    void appointmentLifecycleIsReflectedInTheAgenda() {
+        AppointmentResponseDTO booked = appointmentService.bookAppointment(request(1L, 1L));
+        DoctorAgendaEntryDTO entry = entry(1L);
+        assertEquals(SlotStatus.RESERVED, entry.getSlotStatus());
+        assertEquals(AppointmentStatus.PENDING, entry.getAppointmentStatus());
+        assertEquals(booked.getAppointmentId(), entry.getAppointmentId());
+        assertEquals("Prenom1", entry.getPatientFirstName());
+        assertEquals("Consultation", entry.getConsultationReason());
+
+        appointmentService.confirmAppointment(booked.getAppointmentId());
+        assertEquals(AppointmentStatus.CONFIRMED, entry(1L).getAppointmentStatus());
+
+        appointmentService.terminateAppointment(booked.getAppointmentId());
+        entry = entry(1L);
+        assertEquals(AppointmentStatus.COMPLETED, entry.getAppointmentStatus());
+        assertEquals(SlotStatus.AVAILABLE, entry.getSlotStatus());
+
+        AppointmentResponseDTO cancelled = appointmentService.bookAppointment(request(2L, 2L));
+        appointmentService.cancelAppointment(cancelled.getAppointmentId());
+        entry = entry(2L);
+        assertEquals(AppointmentStatus.CANCELLED, entry.getAppointmentStatus());
+        assertEquals(SlotStatus.AVAILABLE, entry.getSlotStatus());
+
+        // Déplacement vers un autre créneau : l'ancien est libéré, le nouveau porte le rendez-vous
+        AppointmentResponseDTO moved = appointmentService.bookAppointment(request(3L, 3L));
+        AppointmentRequestDTO move = new AppointmentRequestDTO();
+        move.setSlotId(4L);
+        appointmentService.updateAppointment(moved.getAppointmentId(), move);
+        assertNull(entry(3L).getAppointmentId());
+        assertEquals(SlotStatus.AVAILABLE, entry(3L).getSlotStatus());
+        assertEquals(moved.getAppointmentId(), entry(4L).getAppointmentId());
+
+        appointmentService.deleteAppointment(moved.getAppointmentId());
+        assertNull(entry(4L).getAppointmentId());
+
+        assertMatchesRebuild();
+    }
+
+    @Test
+    void slotRoomAndRecurringEditsAreReflectedInTheAgenda() {
+        // Réservation d'une occurrence récurrente : sa ligne matérialisée remplace l'occurrence calculée
+        AppointmentRequestDTO occurrence = request(TEMPLATE_ID, 5L);
+        occurrence.setOccurrenceDate(firstDate);
+        appointmentService.bookAppointment(occurrence);
+        List<DoctorAgendaEntryDTO> agenda = agendaService.getDayAgenda(1L, firstDate);
+        assertEquals(SLOTS_PER_DAY + 1, agenda.size());
+        DoctorAgendaEntryDTO materialized = agenda.get(SLOTS_PER_DAY);
+        assertNotNull(materialized.getSlotId());
+        assertEquals(TEMPLATE_ID, materialized.getRecurringTemplateId());
+        assertEquals("Patient5", materialized.getPatientLastName());
+
+        // Créneau déplacé, statut modifié, créneau supprimé
+        SlotDTO update = new SlotDTO();
+        update.setStartTime(LocalTime.of(12, 0));
+        update.setEndTime(LocalTime.of(12, 30));
+        slotService.updateSlot(2L, update);
+        slotService.updateSlotStatus(3L, SlotStatus.UNAVAILABLE);
+        slotService.deleteSlot(4L);
+        agenda = agendaService.getDayAgenda(1L, firstDate);
+        assertEquals(List.of(1L, 3L, 2L, materialized.getSlotId()),
+                agenda.stream().map(DoctorAgendaEntryDTO::getSlotId).toList());
+        assertEquals(SlotStatus.UNAVAILABLE, agenda.get(1).getSlotStatus());
+
+        // Nouveau créneau créé par le centre
+        SlotDTO created = new SlotDTO();
+        created.setDoctorId(1L);
+        created.setRoomId(1L);
+        created.setSlotDate(firstDate);
+        created.setStartTime(LocalTime.of(16, 0));
+        created.setEndTime(LocalTime.of(16, 30));
+        Long createdId = slotService.createSlot(created).getSlotId();
+        assertEquals(createdId, agendaService.getDayAgenda(1L, firstDate).get(4).getSlotId());
+
+        // Salle renommée : toutes ses lignes suivent
+        RoomDTO rename = new RoomDTO();
+        rename.setName("Salle renommée");
+        roomService.updateRoom(1L, rename);
+        assertTrue(agendaService.getDayAgenda(1L, firstDate.plusDays(1)).stream()
+                .allMatch(row -> "Salle renommée".equals(row.getRoomName())));
+
+        assertMatchesRebuild();
+    }
+
+    @Test
+    void nightlyExpiryIsAppliedToTheAgenda() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO slots (slot_id, slot_date, day_of_week, start_time, end_time, status, is_recurring, " +
+                        "created_at, updated_at, doctor_id, room_id) VALUES (?, ?, ?, ?, ?, 'AVAILABLE', FALSE, ?, ?, 1, 1)",
+                200L, Date.valueOf(yesterday), yesterday.getDayOfWeek().name(), Time.valueOf(LocalTime.of(8, 0)),
+                Time.valueOf(LocalTime.of(8, 30)), now, now);
+        agendaProjector.rebuild("MANUAL");
+        assertEquals(SlotStatus.AVAILABLE, agendaService.getDayAgenda(1L, yesterday).get(0).getSlotStatus());
+
+        slotScheduler.expireSlots("MANUAL");
+
+        assertEquals(SlotStatus.EXPIRED, agendaService.getDayAgenda(1L, yesterday).get(0).getSlotStatus());
+        assertEquals(SlotStatus.AVAILABLE, agendaService.getDayAgenda(1L, firstDate).get(0).getSlotStatus());
+        assertMatchesRebuild();
+    }
+
+    @Test
+    void adminRebuildCatchesUpOutOfBandChangesDoctorByDoctor() throws Exception {
+        // Modifications faites hors de l'application : aucune recopie dans l'agenda
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO slots (slot_id, slot_date, day_of_week, start_time, end_time, status, is_recurring, " +
+                        "created_at, updated_at, doctor_id, room_id) VALUES (?, ?, ?, ?, ?, 'AVAILABLE', FALSE, ?, ?, 2, 2)",
+                200L, Date.valueOf(firstDate), firstDate.getDayOfWeek().name(), Time.valueOf(LocalTime.of(16, 0)),
+                Time.valueOf(LocalTime.of(16, 30)), now, now);
+        jdbcTemplate.update("UPDATE slots SET status = 'CANCELLED' WHERE slot_id = 1");
+        // Ligne orpheline d'un médecin qui n'a plus aucun créneau
+        jdbcTemplate.update("INSERT INTO doctor_agenda (slot_id, doctor_id, agenda_date, start_time, end_time, slot_status, " +
+                        "room_id, room_name, health_center_name, refreshed_at) VALUES (999, 99, ?, ?, ?, 'AVAILABLE', 1, 'x', 'x', ?)",
+                Date.valueOf(firstDate), Time.valueOf(LocalTime.of(8, 0)), Time.valueOf(LocalTime.of(8, 30)), now);
+
+        mockMvc.perform(post("/api/appointments/agenda/rebuild"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.trigger").value("MANUAL"))
+                .andExpect(jsonPath("$.doctors").value(DOCTORS + 1))
+                .andExpect(jsonPath("$.totalRows").value(DOCTORS * DAYS * SLOTS_PER_DAY + 1));
+
+        assertEquals(SlotStatus.CANCELLED, entry(1L).getSlotStatus());
+        assertEquals(LocalTime.of(16, 0), agendaService.getDayAgenda(2L, firstDate).get(SLOTS_PER_DAY).getStartTime());
+        assertTrue(agendaService.getDayAgenda(99L, firstDate).isEmpty());
+        assertMatchesRebuild();
+    }
+
+    @Test
+    void rejectsOverlappingRebuilds() throws Exception {
+        // La première reconstruction reste bloquée avant son premier médecin
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            started.countDown();
+            assertTrue(release.await(10, TimeUnit.SECONDS));
+            return Mockito.mockingDetails(invocation.getMock()).getMockCreationSettings()
+                    .getDefaultAnswer().answer(invocation);
+        }).doAnswer(invocation -> Mockito.mockingDetails(invocation.getMock()).getMockCreationSettings()
+                .getDefaultAnswer().answer(invocation)).when(agendaRepository).findDoctorIdsToRebuild();
+
+        Throwable[] failure = new Throwable[1];
+        Thread first = new Thread(() -> {
+            try {
+                agendaProjector.rebuild("STARTUP");
+            } catch (Throwable e) {
+                failure[0] = e;
+            }
+        });
+        first.start();
+        try {
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+
+            assertThrows(IllegalStateException.class, () -> agendaProjector.rebuild("MANUAL"));
+            mockMvc.perform(post("/api/appointments/agenda/rebuild"))
+                    .andExpect(status().isConflict())
+                    .andExpect(jsonPath("$.error").value("CONFLICT_ERROR"));
+        } finally {
+            release.countDown();
+            first.join();
+        }
+        assertNull(failure[0]);
+
+        // Le verrou est rendu : une nouvelle reconstruction passe
+        mockMvc.perform(post("/api/appointments/agenda/rebuild")).andExpect(status().isOk());
+    }
+
+    private DoctorAgendaEntryDTO entry(Long slotId) {
+        return agendaService.getDayAgenda(1L, firstDate).stream()
+                .filter(row -> slotId.equals(row.getSlotId()))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Créneau " + slotId + " absent de l'agenda"));
+    }
+
+    private static AppointmentRequestDTO request(Long slotId, Long patientId) {
+        AppointmentRequestDTO request = new AppointmentRequestDTO();
+        request.setSlotId(slotId);
+        request.setPatientId(patientId);
+        request.setConsultationReason("Consultation");
+        return request;
+    }
+
+    // La mise à jour incrémentale aboutit au même contenu qu'une reconstruction complète
+    private void assertMatchesRebuild() {
+        List<Map<String, Object>> incremental = agendaRows();
+        agendaProjector.rebuild("MANUAL");
+        assertEquals(agendaRows(), incremental);
+    }
+
+    private List<Map<String, Object>> agendaRows() {
+        return jdbcTemplate.queryForList("SELECT slot_id, doctor_id, agenda_date, start_time, end_time, slot_status, " +
+                "recurring_template_id, room_id, room_name, health_center_name, appointment_id, appointment_status, " +
+                "consultation_reason, patient_id, patient_first_name, patient_last_name, patient_phone " +
+                "FROM doctor_agenda ORDER BY slot_id");
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.rml.back_office_rml.controllers;
+
+import com.example.rml.back_office_rml.entities.FileTransfer;
+import com.example.rml.back_office_rml.enums.FileTransferStatus;
+import com.example.rml.back_office_rml.repositories.FileTransferRepository;
+import com.example.rml.back_office_rml.util.FileStorage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Téléchargement : fichier complet, plages (206 / 416), revalidation par ETag (304)
+ * et lecture depuis le spool tant que le transfert n'est pas terminé.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class FileDownloadControllerTest {
+
+    private static final String CONTENT = "0123456789abcdefghij";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FileStorage fileStorage;
+
+    @Autowired
+    private FileTransferRepository transferRepository;
+
+    @AfterEach
+    void cleanUp() {
+        transferRepository.deleteAll();
+    }
+
+    @Test
+    void fullDownloadThenConditionalRevalidation() throws Exception {
+        String fileName = store("compte-rendu.mp3");
+
+        MvcResult full = streamed(get("/api/files/{fileName}", fileName))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, CONTENT.length()))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "audio/mpeg"))
+                .andExpect(content().string(CONTENT))
+                .andReturn();
+        String etag = full.getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/files/{fileName}", fileName).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+        mockMvc.perform(get("/api/files/{fileName}", fileName)
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, full.getResponse().getHeader(HttpHeaders.LAST_MODIFIED)))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void rangeRequestsReturnPartialContent() throws Exception {
+        String fileName = store("video.mp4");
+
+        streamed(get("/api/files/{fileName}", fileName).header(HttpHeaders.RANGE, "bytes=5-9"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 5-9/20"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 5))
+                .andExpect(content().string("56789"));
+
+        // Plage ouverte et plage "derniers octets"
+        streamed(get("/api/files/{fileName}", fileName).header(HttpHeaders.RANGE, "bytes=15-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("fghij"));
+        streamed(get("/api/files/{fileName}", fileName).header(HttpHeaders.RANGE, "bytes=-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 17-19/20"))
+                .andExpect(content().string("hij"));
+
+        mockMvc.perform(get("/api/files/{fileName}", fileName).header(HttpHeaders.RANGE, "bytes=40-50"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */20"));
+
+        // If-Range périmé : fichier complet
+        streamed(get("/api/files/{fileName}", fileName)
+                        .header(HttpHeaders.RANGE, "bytes=0-1")
+                        .header(HttpHeaders.IF_RANGE, "\"ancienne-version\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string(CONTENT));
+    }
+
+    @Test
+    void pendingTransfersAreServedFromTheSpool() throws Exception {
+        Path spoolDirectory = Files.createDirectories(Paths.get("target/test-spool"));
+        String fileName = "en-attente.pdf";
+        Path spooled = spoolDirectory.resolve(fileName);
+        Files.writeString(spooled, CONTENT, StandardCharsets.UTF_8);
+
+        FileTransfer transfer = new FileTransfer();
+        transfer.setFileName(fileName);
+        transfer.setContentType("application/pdf");
+        transfer.setSizeBytes((long) CONTENT.length());
+        transfer.setSpoolPath(spooled.toString());
+        transfer.setRemotePath(fileStorage.locationOf(fileName));
+        transfer.setStatus(FileTransferStatus.PENDING);
+        transfer.setNextAttemptAt(LocalDateTime.now().plusDays(1));
+        transferRepository.save(transfer);
+
+        try {
+            streamed(get("/api/files/{fileName}", fileName).header(HttpHeaders.RANGE, "bytes=10-"))
+                    .andExpect(status().isPartialContent())
+                    .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/pdf"))
+                    .andExpect(content().string("abcdefghij"));
+        } finally {
+            Files.deleteIfExists(spooled);
+        }
+
+        streamed(get("/api/files/{fileName}", "inconnu.pdf"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("NOT_FOUND"));
+    }
+
+    private String store(String fileName) throws Exception {
+        fileStorage.put(fileName, new ByteArrayInputStream(CONTENT.getBytes(StandardCharsets.UTF_8)), CONTENT.length());
+        return fileName;
+    }
+
+    // Le corps est écrit de façon asynchrone (StreamingResponseBody)
+    private ResultActions streamed(RequestBuilder request) throws Exception {
+        MvcResult started = mockMvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started));
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.rml.back_office_rml.controllers;
+
+import com.example.rml.back_office_rml.entities.Doctor;
+import com.example.rml.back_office_rml.entities.Examination;
+import com.example.rml.back_office_rml.entities.MedicalHistory;
+import com.example.rml.back_office_rml.entities.MedicalRecord;
+import com.example.rml.back_office_rml.enums.ExaminationType;
+import com.example.rml.back_office_rml.repositories.DoctorRepository;
+import com.example.rml.back_office_rml.repositories.ExaminationRepository;
+import com.example.rml.back_office_rml.repositories.MedicalHistoryRepository;
+import com.example.rml.back_office_rml.repositories.MedicalRecordRepository;
+import com.example.rml.back_office_rml.repositories.PatientRepository;
+import com.example.rml.back_office_rml.services.MedicalRecordTombstoneScheduler;
+import com.example.rml.back_office_rml.support.SchedulingFixtures;
+import com.example.rml.back_office_rml.util.SyncCursor;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET /api/medical-records/{recordId}/changes : synchronisation complète, puis seulement les entrées
+ * modifiées et les suppressions depuis le curseur.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class MedicalRecordChangesTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private MedicalRecordRepository medicalRecordRepository;
+
+    @Autowired
+    private MedicalHistoryRepository medicalHistoryRepository;
+
+    @Autowired
+    private ExaminationRepository examinationRepository;
+
+    @Autowired
+    private MedicalRecordTombstoneScheduler tombstoneScheduler;
+
+    private SchedulingFixtures fixtures;
+    private MedicalRecord record;
+    private Examination kept;
+    private Examination removed;
+
+    @BeforeEach
+    void seed() {
+        fixtures = new SchedulingFixtures(jdbcTemplate);
+        fixtures.reset();
+        fixtures.seed(1, 0, 0);
+        fixtures.seedPatients(1);
+
+        record = new MedicalRecord();
+        record.setPatient(patientRepository.findById(1L).orElseThrow());
+        record.setRecordNumber("DMR-SYNC");
+        record = medicalRecordRepository.save(record);
+
+        MedicalHistory history = new MedicalHistory();
+        history.setMedicalRecord(record);
+        history.setDiagnosis("Grippe");
+        medicalHistoryRepository.save(history);
+
+        Doctor doctor = doctorRepository.findById(1L).orElseThrow();
+        kept = examinationRepository.save(examination(doctor, "Bilan sanguin"));
+        removed = examinationRepository.save(examination(doctor, "Radio"));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.reset();
+    }
+
+    @Test
+    void incrementalSyncReturnsOnlyChangesAndTombstones() throws Exception {
+        JsonNode full = changes(null, null);
+        assertTrue(full.get("fullSync").asBoolean());
+        assertEquals("DMR-SYNC", full.get("record").get("recordNumber").asText());
+        assertEquals(2, full.get("examinations").size());
+        assertEquals(1, full.get("medicalHistories").size());
+        assertEquals(0, full.get("deleted").size());
+        // Curseur suivant : légèrement dans le passé (recouvrement des validations tardives)
+        assertTrue(SyncCursor.decode(full.get("nextCursor").asText()).isBefore(LocalDateTime.now()));
+
+        LocalDateTime lastSync = LocalDateTime.now();
+        kept.setTitle("Bilan sanguin (contrôle)");
+        examinationRepository.save(kept);
+        examinationRepository.delete(removed);
+
+        JsonNode delta = changes(SyncCursor.encode(lastSync), null);
+        assertFalse(delta.get("fullSync").asBoolean());
+        assertNull(delta.get("record"));
+        assertEquals(1, delta.get("examinations").size());
+        assertEquals("Bilan sanguin (contrôle)", delta.get("examinations").get(0).get("title").asText());
+        assertEquals(0, delta.get("medicalHistories").size());
+        assertEquals(1, delta.get("deleted").size());
+        assertEquals("EXAMINATIONS", delta.get("deleted").get(0).get("section").asText());
+        assertEquals(removed.getId(), delta.get("deleted").get(0).get("id").asLong());
+
+        // Sections filtrées : ni examens ni suppressions d'examens
+        JsonNode prescriptionsOnly = changes(SyncCursor.encode(lastSync), "prescriptions");
+        assertNull(prescriptionsOnly.get("examinations"));
+        assertEquals(0, prescriptionsOnly.get("prescriptions").size());
+        assertEquals(0, prescriptionsOnly.get("deleted").size());
+    }
+
+    @Test
+    void cursorOlderThanTombstoneRetentionFallsBackToFullSync() throws Exception {
+        examinationRepository.delete(removed);
+        jdbcTemplate.update("UPDATE medical_record_tombstones SET deleted_at = ?", LocalDateTime.now().minusDays(120));
+        tombstoneScheduler.purgeExpiredTombstones();
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM medical_record_tombstones", Integer.class));
+
+        JsonNode changes = changes(SyncCursor.encode(LocalDateTime.now().minusDays(100)), null);
+        assertTrue(changes.get("fullSync").asBoolean());
+        assertEquals(1, changes.get("examinations").size());
+    }
+
+    @Test
+    void invalidCursorOrUnknownRecord() throws Exception {
+        mockMvc.perform(get("/api/medical-records/{recordId}/changes", record.getId()).param("since", "pas-un-curseur"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("VALIDATION_ERROR"));
+
+        mockMvc.perform(get("/api/medical-records/{recordId}/changes", 999_999L))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("NOT_FOUND"));
+
+        mockMvc.perform(get("/api/medical-records/{recordId}/changes", record.getId()).param("sections", "examinations"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.examinations", hasSize(2)));
+    }
+
+    private JsonNode changes(String since, String sections) throws Exception {
+        var request = get("/api/medical-records/{recordId}/changes", record.getId());
+        if (since != null) {
+            request.param("since", since);
+        }
+        if (sections != null) {
+            request.param("sections", sections);
+        }
+        String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private Examination examination(Doctor doctor, String title) {
+        Examination examination = new Examination();
+        examination.setMedicalRecord(record);
+        examination.setDoctor(doctor);
+        examination.setExaminationDate(LocalDate.now());
+        examination.setType(ExaminationType.XRAY);
+        examination.setTitle(title);
+        return examination;
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.rml.back_office_rml.controllers;
+
+import com.example.rml.back_office_rml.entities.*;
+import com.example.rml.back_office_rml.enums.ExaminationType;
+import com.example.rml.back_office_rml.enums.FamilyRelation;
+import com.example.rml.back_office_rml.enums.PrescriptionStatus;
+import com.example.rml.back_office_rml.enums.ReportType;
+import com.example.rml.back_office_rml.repositories.*;
+import com.example.rml.back_office_rml.support.SchedulingFixtures;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET /api/medical-records/{recordId}/snapshot : contenu des sections et nombre d'instructions SQL
+ * (statistiques Hibernate), qui ne doit pas dépendre du nombre de lignes par section.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class MedicalRecordSnapshotTest {
+
+    // 4 médecins, 12 lignes par section (les médecins reviennent d'une ligne à l'autre)
+    private static final int DOCTORS = 4;
+    private static final int ROWS = 12;
+    // Dossier + une requête par section + médicaments des ordonnances + 2 contrôles d'existence du dossier
+    private static final long MAX_STATEMENTS = 9;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private SlotRepository slotRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private MedicalRecordRepository medicalRecordRepository;
+
+    @Autowired
+    private MedicalHistoryRepository medicalHistoryRepository;
+
+    @Autowired
+    private FamilyHistoryRepository familyHistoryRepository;
+
+    @Autowired
+    private ExaminationRepository examinationRepository;
+
+    @Autowired
+    private ConsultationReportRepository consultationReportRepository;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    private SchedulingFixtures fixtures;
+    private Statistics statistics;
+    private Long recordId;
+
+    @BeforeAll
+    void seed() {
+        fixtures = new SchedulingFixtures(jdbcTemplate);
+        fixtures.reset();
+        fixtures.seed(DOCTORS, 1, ROWS);
+        fixtures.seedPatients(1);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Patient patient = patientRepository.findById(1L).orElseThrow();
+        MedicalRecord record = new MedicalRecord();
+        record.setPatient(patient);
+        record.setRecordNumber("DMR-SNAPSHOT");
+        record.setBloodType("O+");
+        record = medicalRecordRepository.save(record);
+        recordId = record.getId();
+
+        for (int i = 0; i < ROWS; i++) {
+            Doctor doctor = doctorRepository.findById((long) (i % DOCTORS + 1)).orElseThrow();
+
+            MedicalHistory history = new MedicalHistory();
+            history.setMedicalRecord(record);
+            history.setDiagnosis("Diagnostic " + i);
+            medicalHistoryRepository.save(history);
+
+            FamilyHistory familyHistory = new FamilyHistory();
+            familyHistory.setMedicalRecord(record);
+            familyHistory.setRelation(FamilyRelation.MOTHER);
+            familyHistory.setCondition("Hypertension");
+            familyHistoryRepository.save(familyHistory);
+
+            Examination examination = new Examination();
+            examination.setMedicalRecord(record);
+            examination.setDoctor(doctor);
+            examination.setExaminationDate(LocalDate.now());
+            examination.setType(ExaminationType.BLOOD_TEST);
+            examination.setTitle("Bilan " + i);
+            examination.setResultFiles(List.of("bilan-" + i + ".pdf"));
+            examinationRepository.save(examination);
+
+            // Un créneau du médecin par rendez-vous (slot_id = (médecin - 1) * ROWS + rang)
+            Appointment appointment = new Appointment();
+            appointment.setPatient(patient);
+            appointment.setSlot(slotRepository.findById((long) (i % DOCTORS) * ROWS + i / DOCTORS + 1).orElseThrow());
+            appointment = appointmentRepository.save(appointment);
+
+            ConsultationReport report = new ConsultationReport();
+            report.setMedicalRecord(record);
+            report.setDoctor(doctor);
+            report.setAppointment(appointment);
+            report.setReportDate(LocalDate.now());
+            report.setType(ReportType.TEXT);
+            report.setTitle("Compte rendu " + i);
+            consultationReportRepository.save(report);
+
+            Prescription prescription = new Prescription();
+            prescription.setMedicalRecord(record);
+            prescription.setDoctor(doctor);
+            prescription.setAppointment(appointment);
+            prescription.setPrescriptionDate(LocalDate.now());
+            prescription.setPrescriptionNumber("ORD-SNAPSHOT-" + i);
+            prescription.setStatus(PrescriptionStatus.ACTIVE);
+            prescription.setValidUntil(LocalDate.now().plusDays(30));
+            List<PrescriptionItem> items = new ArrayList<>();
+            for (int k = 0; k < 2; k++) {
+                PrescriptionItem item = new PrescriptionItem();
+                item.setPrescription(prescription);
+                item.setMedicationName("Médicament " + k);
+                items.add(item);
+            }
+            prescription.setItems(items);
+            prescriptionRepository.save(prescription);
+        }
+    }
+
+    @AfterAll
+    void cleanUp() {
+        fixtures.reset();
+    }
+
+    @Test
+    void fullSnapshotInABoundedNumberOfStatements() throws Exception {
+        statistics.clear();
+
+        mockMvc.perform(get("/api/medical-records/{recordId}/snapshot", recordId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.record.recordNumber").value("DMR-SNAPSHOT"))
+                .andExpect(jsonPath("$.medicalHistories", hasSize(ROWS)))
+                .andExpect(jsonPath("$.familyHistories", hasSize(ROWS)))
+                .andExpect(jsonPath("$.examinations", hasSize(ROWS)))
+                .andExpect(jsonPath("$.examinations[0].doctorLastName").exists())
+                .andExpect(jsonPath("$.consultationReports", hasSize(ROWS)))
+                .andExpect(jsonPath("$.consultationReports[0].appointmentId").exists())
+                .andExpect(jsonPath("$.prescriptions", hasSize(ROWS)))
+                .andExpect(jsonPath("$.prescriptions[0].items", hasSize(2)));
+
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= MAX_STATEMENTS, statements + " instructions SQL pour le dossier complet");
+    }
+
+    @Test
+    void onlyRequestedSectionsAreReturned() throws Exception {
+        statistics.clear();
+
+        mockMvc.perform(get("/api/medical-records/{recordId}/snapshot", recordId)
+                        .param("sections", "examinations,family-histories"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.examinations", hasSize(ROWS)))
+                .andExpect(jsonPath("$.familyHistories", hasSize(ROWS)))
+                .andExpect(jsonPath("$.medicalHistories").doesNotExist())
+                .andExpect(jsonPath("$.consultationReports").doesNotExist())
+                .andExpect(jsonPath("$.prescriptions").doesNotExist());
+
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= 3, statements + " instructions SQL pour deux sections");
+    }
+
+    @Test
+    void unknownSectionOrRecord() throws Exception {
+        mockMvc.perform(get("/api/medical-records/{recordId}/snapshot", recordId).param("sections", "radios"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("VALIDATION_ERROR"));
+
+        mockMvc.perform(get("/api/medical-records/{recordId}/snapshot", 999_999L))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("NOT_FOUND"));
+    }
+}
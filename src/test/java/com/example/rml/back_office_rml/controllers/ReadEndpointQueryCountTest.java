@@ -0,0 +1,219 @@
+package com.example.rml.back_office_rml.controllers;
+
+import com.example.rml.back_office_rml.entities.*;
+import com.example.rml.back_office_rml.enums.ExaminationType;
+import com.example.rml.back_office_rml.enums.FamilyRelation;
+import com.example.rml.back_office_rml.enums.PrescriptionStatus;
+import com.example.rml.back_office_rml.enums.ReportType;
+import com.example.rml.back_office_rml.repositories.*;
+import com.example.rml.back_office_rml.support.SchedulingFixtures;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Nombre d'instructions SQL par endpoint de lecture (statistiques Hibernate), figé pour détecter
+ * le retour d'un chargement en cascade (relation repassée en EAGER, graphe d'entités incomplet).
+ *
+ * Le jeu de données fait intervenir plusieurs médecins, centres et rendez-vous : un N+1 se verrait
+ * tout de suite dans le compte.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReadEndpointQueryCountTest {
+
+    // 12 médecins répartis sur 2 centres, 24 lignes par section (deux créneaux par médecin)
+    private static final int DOCTORS = 12;
+    private static final int ROWS = 24;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private HealthCenterRepository healthCenterRepository;
+
+    @Autowired
+    private SlotRepository slotRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private MedicalRecordRepository medicalRecordRepository;
+
+    @Autowired
+    private MedicalHistoryRepository medicalHistoryRepository;
+
+    @Autowired
+    private FamilyHistoryRepository familyHistoryRepository;
+
+    @Autowired
+    private ExaminationRepository examinationRepository;
+
+    @Autowired
+    private ConsultationReportRepository consultationReportRepository;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    @Autowired
+    private DoctorDocumentRepository doctorDocumentRepository;
+
+    @Autowired
+    private HealthCenterDocumentRepository healthCenterDocumentRepository;
+
+    private SchedulingFixtures fixtures;
+    private Statistics statistics;
+
+    @BeforeAll
+    void seed() {
+        fixtures = new SchedulingFixtures(jdbcTemplate);
+        fixtures.reset();
+        fixtures.seed(DOCTORS, 1, ROWS / DOCTORS);
+        fixtures.seedPatients(1);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Patient patient = patientRepository.findById(1L).orElseThrow();
+        MedicalRecord record = new MedicalRecord();
+        record.setPatient(patient);
+        record.setRecordNumber("DMR-COUNT");
+        record = medicalRecordRepository.save(record);
+
+        for (int i = 0; i < ROWS; i++) {
+            Doctor doctor = doctorRepository.findById((long) (i % DOCTORS + 1)).orElseThrow();
+
+            MedicalHistory history = new MedicalHistory();
+            history.setMedicalRecord(record);
+            history.setDiagnosis("Diagnostic " + i);
+            medicalHistoryRepository.save(history);
+
+            FamilyHistory familyHistory = new FamilyHistory();
+            familyHistory.setMedicalRecord(record);
+            familyHistory.setRelation(FamilyRelation.FATHER);
+            familyHistory.setCondition("Diabète");
+            familyHistoryRepository.save(familyHistory);
+
+            Examination examination = new Examination();
+            examination.setMedicalRecord(record);
+            examination.setDoctor(doctor);
+            examination.setExaminationDate(LocalDate.now());
+            examination.setType(ExaminationType.BLOOD_TEST);
+            examination.setTitle("Bilan " + i);
+            examinationRepository.save(examination);
+
+            // slot_id = (médecin - 1) * créneaux par médecin + rang
+            Appointment appointment = new Appointment();
+            appointment.setPatient(patient);
+            appointment.setSlot(slotRepository.findById((long) (i % DOCTORS) * (ROWS / DOCTORS) + i / DOCTORS + 1).orElseThrow());
+            appointment = appointmentRepository.save(appointment);
+
+            ConsultationReport report = new ConsultationReport();
+            report.setMedicalRecord(record);
+            report.setDoctor(doctor);
+            report.setAppointment(appointment);
+            report.setReportDate(LocalDate.now());
+            report.setType(ReportType.TEXT);
+            report.setTitle("Compte rendu " + i);
+            consultationReportRepository.save(report);
+
+            Prescription prescription = new Prescription();
+            prescription.setMedicalRecord(record);
+            prescription.setDoctor(doctor);
+            prescription.setAppointment(appointment);
+            prescription.setPrescriptionDate(LocalDate.now());
+            prescription.setPrescriptionNumber("ORD-COUNT-" + i);
+            prescription.setStatus(PrescriptionStatus.ACTIVE);
+            prescription.setValidUntil(LocalDate.now().plusDays(30));
+            List<PrescriptionItem> items = new ArrayList<>();
+            for (int k = 0; k < 2; k++) {
+                PrescriptionItem item = new PrescriptionItem();
+                item.setPrescription(prescription);
+                item.setMedicationName("Médicament " + k);
+                items.add(item);
+            }
+            prescription.setItems(items);
+            prescriptionRepository.save(prescription);
+        }
+
+        DoctorDocument doctorDocument = new DoctorDocument();
+        doctorDocument.setDoctor(doctorRepository.findById(1L).orElseThrow());
+        doctorDocument.setDocumentUrl("diplome.pdf");
+        doctorDocumentRepository.save(doctorDocument);
+
+        HealthCenter center = healthCenterRepository.findById(1L).orElseThrow();
+        for (int i = 0; i < 3; i++) {
+            HealthCenterDocument centerDocument = new HealthCenterDocument();
+            centerDocument.setHealthCenter(center);
+            centerDocument.setDocumentUrl("agrement-" + i + ".pdf");
+            healthCenterDocumentRepository.save(centerDocument);
+        }
+    }
+
+    @AfterAll
+    void cleanUp() {
+        fixtures.reset();
+    }
+
+    // Colonnes : URL, nombre exact d'instructions SQL attendu.
+    // 2 et 3 : contrôle d'existence du dossier, puis médicaments des ordonnances (une requête par lot de 100)
+    @ParameterizedTest
+    @CsvSource({
+            "/api/appointments, 1",
+            "/api/appointments/patient/1/status/PENDING, 1",
+            "/api/appointments/doctor/1/status/PENDING, 1",
+            "/api/medical-histories, 1",
+            "/api/medical-histories/record/1, 1",
+            "/api/family-histories, 1",
+            "/api/family-histories/record/1, 1",
+            "/api/examinations, 1",
+            "/api/examinations/record/1, 1",
+            "/api/consultation-reports, 1",
+            "/api/consultation-reports/record/1, 2",
+            "/api/prescriptions, 2",
+            "/api/prescriptions/record/1, 3",
+            "/api/requests/doctor-documents/1, 1",
+            "/api/requests/health-center-documents/1, 1",
+            "/api/medical-records/1/snapshot, 9"
+    })
+    void readEndpointStatementCount(String url, long expectedStatements) throws Exception {
+        statistics.clear();
+
+        mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isNotEmpty());
+
+        assertEquals(expectedStatements, statistics.getPrepareStatementCount(), "instructions SQL pour " + url);
+    }
+}
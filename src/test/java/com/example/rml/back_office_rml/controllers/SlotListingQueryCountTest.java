@@ -0,0 +1,132 @@
+package com.example.rml.back_office_rml.controllers;
+
+import com.example.rml.back_office_rml.services.SlotConflictIndex;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.rml.back_office_rml.support.SchedulingFixtures;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Nombre d'instructions SQL par endpoint de liste des créneaux (statistiques Hibernate) :
+ * une seule requête, quel que soit le nombre de créneaux, de médecins et de salles.
+ * Vérifie aussi le parcours complet de la recherche paginée par curseur.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SlotListingQueryCountTest {
+
+    // 20 médecins (2 centres) × 3 jours × 4 créneaux
+    private static final int DOCTORS = 20;
+    private static final int DAYS = 3;
+    private static final int SLOTS_PER_DAY = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SlotConflictIndex conflictIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private SchedulingFixtures fixtures;
+    private Statistics statistics;
+
+    @BeforeAll
+    void seed() {
+        fixtures = new SchedulingFixtures(jdbcTemplate);
+        fixtures.reset();
+        fixtures.seed(DOCTORS, DAYS, SLOTS_PER_DAY);
+        conflictIndex.rebuild();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterAll
+    void cleanUp() {
+        fixtures.reset();
+        conflictIndex.rebuild();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/api/slots",
+            "/api/slots/doctor/1",
+            "/api/slots/room/1",
+            "/api/slots/healthcenter/1",
+            "/api/slots/status/AVAILABLE",
+            "/api/slots/available/specialty/GENERAL_MEDICINE",
+            "/api/slots/1",
+            "/api/slots/search?size=10&specialty=GENERAL_MEDICINE&healthCenterId=1&status=AVAILABLE"
+    })
+    void listingRunsOneStatement(String url) throws Exception {
+        statistics.clear();
+
+        mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isNotEmpty());
+
+        assertEquals(1, statistics.getPrepareStatementCount(), "instructions SQL pour " + url);
+        assertEquals(0, statistics.getEntityLoadCount(), "entités chargées pour " + url);
+    }
+
+    @Test
+    void searchWalksEveryFutureSlotOnceInOrder() throws Exception {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            statistics.clear();
+            String url = "/api/slots/search?size=25" + (cursor != null ? "&cursor=" + cursor : "");
+            String body = mockMvc.perform(get(url))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            assertEquals(1, statistics.getPrepareStatementCount(), "instructions SQL pour la page " + pages);
+
+            JsonNode page = objectMapper.readTree(body);
+            page.get("items").forEach(item -> seen.add(item.get("slotId").asLong()));
+            cursor = page.get("hasNext").asBoolean() ? page.get("nextCursor").asText() : null;
+            pages++;
+        } while (cursor != null);
+
+        // Tous les créneaux du jeu de données sont à venir (à partir de demain)
+        List<Long> expected = jdbcTemplate.queryForList(
+                "SELECT slot_id FROM slots ORDER BY slot_date, start_time, slot_id", Long.class);
+        assertEquals(expected, seen);
+        assertEquals((DOCTORS * DAYS * SLOTS_PER_DAY + 24) / 25, pages);
+    }
+
+    @Test
+    void searchRejectsInvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/slots/search?cursor=not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("VALIDATION_ERROR"));
+    }
+}
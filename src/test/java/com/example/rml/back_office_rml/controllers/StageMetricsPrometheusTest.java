@@ -0,0 +1,142 @@
+package com.example.rml.back_office_rml.controllers;
+
+import com.example.rml.back_office_rml.dto.AppointmentRequestDTO;
+import com.example.rml.back_office_rml.dto.SlotDTO;
+import com.example.rml.back_office_rml.services.AppointmentService;
+import com.example.rml.back_office_rml.services.SlotConflictIndex;
+import com.example.rml.back_office_rml.services.SlotService;
+import com.example.rml.back_office_rml.support.SchedulingFixtures;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Timers par étape et compteurs de refus de la création de créneau et de la réservation,
+ * puis leur exposition au format Prometheus.
+ */
+@SpringBootTest(properties = "management.endpoints.web.exposure.include=prometheus")
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class StageMetricsPrometheusTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private SlotService slotService;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private SlotConflictIndex conflictIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private SchedulingFixtures fixtures;
+
+    @BeforeEach
+    void seed() {
+        fixtures = new SchedulingFixtures(jdbcTemplate);
+        fixtures.reset();
+        // Un médecin, un créneau demain à 08:00 (slot_id = 1), disponible de 08:00 à 18:00
+        fixtures.seed(1, 1, 1);
+        fixtures.seedAvailabilities(1, 30, LocalTime.of(8, 0), LocalTime.of(18, 0));
+        fixtures.seedPatients(2);
+        conflictIndex.rebuild();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.reset();
+        conflictIndex.rebuild();
+    }
+
+    @Test
+    void slotCreationStagesAndRejectionsAreRecorded() {
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        long saves = timerCount("slots.create.stage", "save");
+        double overlaps = rejections("slots.create.rejections", "overlap_doctor_on_date");
+        double pastDates = rejections("slots.create.rejections", "past_date");
+
+        slotService.createSlot(slot(tomorrow, LocalTime.of(9, 0)));
+        assertThrows(IllegalArgumentException.class, () -> slotService.createSlot(slot(tomorrow, LocalTime.of(8, 0))));
+        assertThrows(IllegalArgumentException.class, () -> slotService.createSlot(slot(LocalDate.now().minusDays(1), LocalTime.of(9, 0))));
+
+        assertEquals(saves + 1, timerCount("slots.create.stage", "save"));
+        assertTrue(timerCount("slots.create.stage", "doctor_lookup") >= 2);
+        assertTrue(timerCount("slots.create.stage", "availability_lookup") >= 2);
+        assertTrue(timerCount("slots.create.stage", "overlap_index") >= 2);
+        assertEquals(overlaps + 1, rejections("slots.create.rejections", "overlap_doctor_on_date"));
+        assertEquals(pastDates + 1, rejections("slots.create.rejections", "past_date"));
+    }
+
+    @Test
+    void bookingStagesAndRejectionsAreExposedToPrometheus() throws Exception {
+        double unavailable = rejections("appointments.booking.rejections", "slot_unavailable");
+
+        appointmentService.bookAppointment(booking(1L));
+        assertThrows(IllegalArgumentException.class, () -> appointmentService.bookAppointment(booking(2L)));
+
+        assertTrue(timerCount("appointments.booking.stage", "reserve_update") >= 1);
+        assertTrue(timerCount("appointments.booking.stage", "dto_conversion") >= 1);
+        assertEquals(unavailable + 1, rejections("appointments.booking.rejections", "slot_unavailable"));
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("appointments_booking_stage_seconds_bucket")))
+                .andExpect(content().string(containsString("stage=\"reserve_update\"")))
+                .andExpect(content().string(containsString("appointments_booking_rejections_total")))
+                .andExpect(content().string(containsString("reason=\"slot_unavailable\"")));
+    }
+
+    private long timerCount(String name, String stage) {
+        Timer timer = meterRegistry.find(name).tag("stage", stage).timer();
+        return timer != null ? timer.count() : 0;
+    }
+
+    private double rejections(String name, String reason) {
+        Counter counter = meterRegistry.find(name).tag("reason", reason).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private static SlotDTO slot(LocalDate date, LocalTime start) {
+        SlotDTO dto = new SlotDTO();
+        dto.setDoctorId(1L);
+        dto.setRoomId(1L);
+        dto.setSlotDate(date);
+        dto.setStartTime(start);
+        dto.setEndTime(start.plusMinutes(30));
+        return dto;
+    }
+
+    private static AppointmentRequestDTO booking(Long patientId) {
+        AppointmentRequestDTO request = new AppointmentRequestDTO();
+        request.setPatientId(patientId);
+        request.setSlotId(1L);
+        request.setConsultationReason("Consultation");
+        return request;
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.rml.back_office_rml.entities;
+
+import com.example.rml.back_office_rml.dto.ExpiryRunReportDTO;
+import com.example.rml.back_office_rml.repositories.SlotRepository;
+import com.example.rml.back_office_rml.services.DoctorAgendaProjector;
+import com.example.rml.back_office_rml.support.SchedulingFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Expiration des créneaux par lots d'UPDATE : découpage, limite aujourd'hui / end_time,
+ * créneaux non concernés, agenda des médecins et exécutions simultanées refusées.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class SlotSchedulerTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.now().minusMonths(2).truncatedTo(ChronoUnit.SECONDS);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoSpyBean
+    private SlotRepository slotRepository;
+
+    @Autowired
+    private DoctorAgendaProjector agendaProjector;
+
+    @Autowired
+    private SlotScheduler slotScheduler;
+
+    private SchedulingFixtures fixtures;
+
+    @BeforeEach
+    void seed() {
+        fixtures = new SchedulingFixtures(jdbcTemplate);
+        fixtures.reset();
+        // Médecin 1, salle 1 et un créneau disponible demain (ID 1)
+        fixtures.seed(1, 1, 1);
+
+        LocalDate today = LocalDate.now();
+        List<Object[]> rows = new ArrayList<>();
+        long slotId = 1;
+        // 25 créneaux passés (disponibles ou réservés), un par jour
+        for (int i = 0; i < 25; i++) {
+            rows.add(row(++slotId, today.minusDays(1 + i), LocalTime.of(9, 0), LocalTime.of(9, 30),
+                    i % 2 == 0 ? "AVAILABLE" : "RESERVED", false));
+        }
+        // Aujourd'hui : un créneau terminé (00:00 → 00:01), un disponible qui ne se termine qu'à 23:59
+        rows.add(row(++slotId, today, LocalTime.of(0, 0), LocalTime.of(0, 1), "AVAILABLE", false));
+        rows.add(row(++slotId, today, LocalTime.of(23, 0), LocalTime.of(23, 59), "AVAILABLE", false));
+        // Passés mais hors périmètre : modèle récurrent, consultation terminée, créneau annulé
+        rows.add(row(++slotId, today.minusDays(3), LocalTime.of(10, 0), LocalTime.of(10, 30), "AVAILABLE", true));
+        rows.add(row(++slotId, today.minusDays(3), LocalTime.of(11, 0), LocalTime.of(11, 30), "COMPLETED", false));
+        rows.add(row(++slotId, today.minusDays(3), LocalTime.of(12, 0), LocalTime.of(12, 30), "CANCELLED", false));
+        jdbcTemplate.batchUpdate("INSERT INTO slots (slot_id, slot_date, day_of_week, start_time, end_time, status, " +
+                "is_recurring, created_at, updated_at, doctor_id, room_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 1, 1)", rows);
+        agendaProjector.rebuild("MANUAL");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.reset();
+        agendaProjector.rebuild("MANUAL");
+    }
+
+    @Test
+    void expiresInChunksUpToTheCurrentTime() {
+        // Le créneau terminé à 00:01 et celui de 23:00 → 23:59 encadrent l'heure courante
+        LocalTime now = LocalTime.now();
+        assumeTrue(now.isAfter(LocalTime.of(0, 2)) && now.isBefore(LocalTime.of(22, 59)));
+
+        SlotScheduler scheduler = new SlotScheduler(slotRepository, agendaProjector, 10);
+        ExpiryRunReportDTO report = scheduler.expireSlots("MANUAL");
+
+        assertEquals("slots", report.getJob());
+        assertEquals(List.of(10, 10, 6), report.getRowsPerChunk());
+        assertEquals(26, report.getTotalExpired());
+        assertEquals(26, count("status = 'EXPIRED'"));
+        assertEquals(26, count("slot_id > 1 AND updated_at > ?", Timestamp.valueOf(CREATED)));
+
+        // Non touchés : demain, aujourd'hui pas encore terminé, récurrent, terminé, annulé
+        assertEquals("AVAILABLE", statusOf(1));
+        assertEquals("AVAILABLE", statusOf(28));
+        assertEquals("AVAILABLE", statusOf(29));
+        assertEquals("COMPLETED", statusOf(30));
+        assertEquals("CANCELLED", statusOf(31));
+
+        // L'agenda des médecins suit le même prédicat
+        assertEquals(26, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM doctor_agenda WHERE slot_status = 'EXPIRED'", Integer.class));
+
+        ExpiryRunReportDTO second = scheduler.expireSlots("CRON");
+        assertEquals(0, second.getTotalExpired());
+        assertTrue(second.getRowsPerChunk().isEmpty());
+    }
+
+    @Test
+    void rejectsOverlappingRuns() throws Exception {
+        // La première exécution reste bloquée dans son premier lot
+        CountDownLatch inFirstChunk = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            inFirstChunk.countDown();
+            assertTrue(release.await(10, TimeUnit.SECONDS));
+            return Mockito.mockingDetails(invocation.getMock()).getMockCreationSettings()
+                    .getDefaultAnswer().answer(invocation);
+        }).when(slotRepository).expirePastSlotsChunk(any(), any(), any(), anyInt());
+
+        Throwable[] failure = new Throwable[1];
+        Thread cron = new Thread(() -> {
+            try {
+                slotScheduler.expireSlots("CRON");
+            } catch (Throwable e) {
+                failure[0] = e;
+            }
+        });
+        cron.start();
+        try {
+            assertTrue(inFirstChunk.await(10, TimeUnit.SECONDS));
+
+            assertThrows(IllegalStateException.class, () -> slotScheduler.expireSlots("MANUAL"));
+            mockMvc.perform(post("/api/slots/expire"))
+                    .andExpect(status().isConflict())
+                    .andExpect(jsonPath("$.error").value("CONFLICT_ERROR"));
+        } finally {
+            release.countDown();
+            cron.join();
+        }
+        assertNull(failure[0]);
+
+        // Le verrou est rendu : une nouvelle exécution passe
+        mockMvc.perform(post("/api/slots/expire")).andExpect(status().isOk());
+    }
+
+    @Test
+    void rejectsNonPositiveChunkSize() {
+        assertThrows(IllegalArgumentException.class, () -> new SlotScheduler(slotRepository, agendaProjector, 0));
+    }
+
+    private static Object[] row(long slotId, LocalDate date, LocalTime start, LocalTime end, String status, boolean recurring) {
+        return new Object[]{slotId, Date.valueOf(date), date.getDayOfWeek().name(), Time.valueOf(start), Time.valueOf(end),
+                status, recurring, Timestamp.valueOf(CREATED), Timestamp.valueOf(CREATED)};
+    }
+
+    private String statusOf(long slotId) {
+        return jdbcTemplate.queryForObject("SELECT status FROM slots WHERE slot_id = ?", String.class, slotId);
+    }
+
+    private int count(String where, Object... args) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM slots WHERE " + where, Integer.class, args);
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.rml.back_office_rml.services;
+
+import com.example.rml.back_office_rml.dto.AppointmentRequestDTO;
+import com.example.rml.back_office_rml.dto.AppointmentResponseDTO;
+import com.example.rml.back_office_rml.support.SchedulingFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Réservations concurrentes d'un même créneau (y compris par déplacement d'un rendez-vous) :
+ * un seul patient doit l'obtenir.
+ */
+@SpringBootTest
+class AppointmentBookingConcurrencyTest {
+
+    private static final int PATIENTS = 300;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private SlotConflictIndex conflictIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private SchedulingFixtures fixtures;
+
+    @BeforeEach
+    void seed() {
+        fixtures = new SchedulingFixtures(jdbcTemplate);
+        fixtures.reset();
+        // Un médecin, un jour, un créneau (slot_id = 1, demain à 08:00)
+        fixtures.seed(1, 1, 1);
+        fixtures.seedPatients(PATIENTS);
+        conflictIndex.rebuild();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.reset();
+        conflictIndex.rebuild();
+    }
+
+    @Test
+    void parallelBookingsOfOneSlotHaveExactlyOneWinner() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (long patientId = 1; patientId <= PATIENTS; patientId++) {
+                AppointmentRequestDTO request = new AppointmentRequestDTO();
+                request.setPatientId(patientId);
+                request.setSlotId(1L);
+                request.setConsultationReason("Consultation");
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        appointmentService.bookAppointment(request);
+                        return true;
+                    } catch (IllegalArgumentException | IllegalStateException e) {
+                        // Créneau déjà pris : refus attendu pour tous les perdants
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int winners = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(60, TimeUnit.SECONDS)) winners++;
+            }
+            assertEquals(1, winners, "un seul patient obtient le créneau");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM appointments WHERE slot_id = 1", Integer.class));
+        assertEquals("RESERVED", jdbcTemplate.queryForObject("SELECT status FROM slots WHERE slot_id = 1", String.class));
+    }
+
+    @Test
+    void rescheduleRacingBookingsOfTheTargetSlotHasExactlyOneWinner() throws Exception {
+        // Second créneau le même jour (slot_id = 2, 08:30) ; le patient 1 détient déjà le créneau 1
+        fixtures.reset();
+        fixtures.seed(1, 1, 2);
+        fixtures.seedPatients(PATIENTS);
+        conflictIndex.rebuild();
+        AppointmentResponseDTO booked = appointmentService.bookAppointment(request(1L, 1L));
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        Future<Boolean> reschedule;
+        try {
+            reschedule = executor.submit(() -> {
+                start.await();
+                try {
+                    appointmentService.updateAppointment(booked.getAppointmentId(), request(1L, 2L));
+                    return true;
+                } catch (IllegalArgumentException | IllegalStateException e) {
+                    return false;
+                }
+            });
+            results.add(reschedule);
+            for (long patientId = 2; patientId <= PATIENTS; patientId++) {
+                AppointmentRequestDTO request = request(patientId, 2L);
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        appointmentService.bookAppointment(request);
+                        return true;
+                    } catch (IllegalArgumentException | IllegalStateException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int winners = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(60, TimeUnit.SECONDS)) winners++;
+            }
+            assertEquals(1, winners, "un seul rendez-vous obtient le créneau 2");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM appointments WHERE slot_id = 2", Integer.class));
+        assertEquals("RESERVED", jdbcTemplate.queryForObject("SELECT status FROM slots WHERE slot_id = 2", String.class));
+        // L'ancien créneau n'est libéré que si le déplacement a réussi
+        Long heldSlot = jdbcTemplate.queryForObject("SELECT slot_id FROM appointments WHERE appointment_id = ?",
+                Long.class, booked.getAppointmentId());
+        if (reschedule.get()) {
+            assertEquals(2L, heldSlot);
+            assertEquals("AVAILABLE", jdbcTemplate.queryForObject("SELECT status FROM slots WHERE slot_id = 1", String.class));
+        } else {
+            assertEquals(1L, heldSlot);
+            assertEquals("RESERVED", jdbcTemplate.queryForObject("SELECT status FROM slots WHERE slot_id = 1", String.class));
+        }
+    }
+
+    private static AppointmentRequestDTO request(Long patientId, Long slotId) {
+        AppointmentRequestDTO request = new AppointmentRequestDTO();
+        request.setPatientId(patientId);
+        request.setSlotId(slotId);
+        request.setConsultationReason("Consultation");
+        return request;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.rml.back_office_rml.services;
+
+import com.example.rml.back_office_rml.entities.DoctorMedia;
+import com.example.rml.back_office_rml.repositories.DoctorMediaRepository;
+import com.example.rml.back_office_rml.support.SchedulingFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Migration des anciennes colonnes LONGBLOB de doctor vers doctor_media, sur une table doctor
+ * remise dans son ancien état (colonnes photo / justificatifs ajoutées à la main).
+ */
+@SpringBootTest
+class DoctorMediaMigrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DoctorMediaRepository doctorMediaRepository;
+
+    @Autowired
+    private DoctorMediaMigration migration;
+
+    private SchedulingFixtures fixtures;
+
+    @BeforeEach
+    void seed() {
+        fixtures = new SchedulingFixtures(jdbcTemplate);
+        fixtures.reset();
+        fixtures.seed(3, 0, 0);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.execute("ALTER TABLE doctor DROP COLUMN IF EXISTS photo");
+        jdbcTemplate.execute("ALTER TABLE doctor DROP COLUMN IF EXISTS justificatifs");
+        fixtures.reset();
+    }
+
+    @Test
+    void nothingToDoOnTheCurrentSchema() {
+        DoctorMediaMigration.Result result = migration.migrate();
+
+        assertFalse(result.legacyColumnsFound());
+        assertEquals(0, doctorMediaRepository.count());
+    }
+
+    @Test
+    void copiesLegacyBytesInChunksKeepsExistingMediaAndDropsColumns() {
+        addLegacyColumns();
+        jdbcTemplate.update("UPDATE doctor SET photo = ?, justificatifs = ? WHERE doctor_id = 1", bytes("photo-1"), bytes("docs-1"));
+        jdbcTemplate.update("UPDATE doctor SET photo = ? WHERE doctor_id = 2", bytes("ancienne-photo-2"));
+        // Médecin 2 : photo déjà renvoyée dans la nouvelle table, elle ne doit pas être écrasée
+        jdbcTemplate.update("INSERT INTO doctor_media (doctor_id, photo, updated_at) VALUES (2, ?, ?)",
+                bytes("photo-2"), Timestamp.valueOf(LocalDateTime.now()));
+
+        // Tranches d'un médecin pour traverser plusieurs transactions
+        DoctorMediaMigration chunked = new DoctorMediaMigration(jdbcTemplate, transactionManager, false, 1, false);
+        DoctorMediaMigration.Result result = chunked.migrate();
+
+        assertTrue(result.legacyColumnsFound());
+        assertEquals(1, result.migratedDoctors());
+        assertFalse(result.legacyColumnsDropped());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM doctor WHERE photo IS NOT NULL OR justificatifs IS NOT NULL", Integer.class));
+
+        DoctorMedia first = doctorMediaRepository.findById(1L).orElseThrow();
+        assertEquals("photo-1", new String(first.getPhoto(), StandardCharsets.UTF_8));
+        assertEquals("docs-1", new String(first.getDocuments(), StandardCharsets.UTF_8));
+        assertEquals("photo-2", new String(doctorMediaRepository.findById(2L).orElseThrow().getPhoto(), StandardCharsets.UTF_8));
+        assertTrue(doctorMediaRepository.findById(3L).isEmpty());
+
+        // Seconde passe : plus rien à copier, colonnes supprimées sur demande
+        DoctorMediaMigration dropping = new DoctorMediaMigration(jdbcTemplate, transactionManager, false, 100, true);
+        DoctorMediaMigration.Result second = dropping.migrate();
+
+        assertEquals(0, second.migratedDoctors());
+        assertTrue(second.legacyColumnsDropped());
+        assertFalse(migration.migrate().legacyColumnsFound());
+    }
+
+    private void addLegacyColumns() {
+        jdbcTemplate.execute("ALTER TABLE doctor ADD COLUMN photo LONGBLOB");
+        jdbcTemplate.execute("ALTER TABLE doctor ADD COLUMN justificatifs LONGBLOB");
+    }
+
+    private static byte[] bytes(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.rml.back_office_rml.services;
+
+import com.example.rml.back_office_rml.dto.FileTransferDTO;
+import com.example.rml.back_office_rml.enums.FileTransferStatus;
+import com.example.rml.back_office_rml.util.FileStorage;
+import com.example.rml.back_office_rml.util.FileTransferUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pipeline d'upload : la réponse ne dépend que du spool local, le transfert distant
+ * (simulé ici) se fait en arrière-plan avec reprises puis passage en FAILED.
+ * Un contenu déjà connu n'est ni spoolé ni transféré une seconde fois, sauf si son transfert a échoué.
+ */
+@SpringBootTest(properties = {
+        "files.spool-dir=target/test-spool",
+        "files.transfer.max-attempts=2",
+        "files.transfer.retry-backoff-ms=0"
+})
+class FileTransferServiceTest {
+
+    private static final Path SPOOL = Paths.get("target/test-spool");
+
+    @Autowired
+    private FileTransferService fileTransferService;
+
+    @Autowired
+    private FileReferenceService fileReferenceService;
+
+    @Autowired
+    private FileTransferUtil fileTransferUtil;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private FileStorage fileStorage;
+
+    // Contenu reçu par le "serveur distant" à chaque transfert
+    private final List<String> uploadedContents = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        jdbcTemplate.update("DELETE FROM file_transfers");
+        jdbcTemplate.update("DELETE FROM file_blobs");
+        when(fileStorage.locationOf(anyString())).thenAnswer(call -> "/remote/" + call.getArgument(0));
+        acceptUploads();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM file_transfers");
+        jdbcTemplate.update("DELETE FROM file_blobs");
+    }
+
+    @Test
+    void spooledFileIsStoredInTheBackgroundAndRemovedFromTheSpool() throws Exception {
+        String fileName = fileTransferService.spool(pdf("résultats"));
+
+        assertTrue(fileName.endsWith(".pdf"));
+        FileTransferDTO stored = awaitStatus(fileName, FileTransferStatus.STORED);
+        assertEquals(1, stored.getAttempts());
+        assertNotNull(stored.getStoredAt());
+        assertEquals(List.of("résultats"), uploadedContents);
+        assertFalse(Files.exists(SPOOL.resolve(fileName)));
+        verify(fileStorage).put(eq(fileName), any(InputStream.class), eq((long) "résultats".getBytes(StandardCharsets.UTF_8).length));
+    }
+
+    @Test
+    void failedTransfersAreRetriedThenMarkedFailedUntilManualRetry() throws Exception {
+        doThrow(new IOException("Connexion refusée"))
+                .when(fileStorage).put(anyString(), any(InputStream.class), anyLong());
+
+        String fileName = fileTransferService.spool(pdf("radio"));
+
+        // Première tentative en échec : le transfert reste en attente, fichier conservé dans le spool
+        FileTransferDTO pending = awaitAttempts(fileName, 1);
+        assertEquals(FileTransferStatus.PENDING, pending.getStatus());
+        assertEquals("Connexion refusée", pending.getLastError());
+        assertTrue(Files.exists(SPOOL.resolve(fileName)));
+
+        // Reprise planifiée : deuxième et dernière tentative
+        assertEquals(1, fileTransferService.dispatchDueTransfers());
+        FileTransferDTO failed = awaitStatus(fileName, FileTransferStatus.FAILED);
+        assertEquals(2, failed.getAttempts());
+        assertEquals(0, fileTransferService.dispatchDueTransfers());
+
+        // Relance manuelle une fois le serveur revenu
+        acceptUploads();
+        fileTransferService.retryTransfer(fileName);
+
+        assertEquals(1, awaitStatus(fileName, FileTransferStatus.STORED).getAttempts());
+        assertEquals(List.of("radio"), uploadedContents);
+        assertThrows(IllegalStateException.class, () -> fileTransferService.retryTransfer(fileName));
+    }
+
+    @Test
+    void duplicateContentIsStoredOnceAndDeletedWithItsLastReference() throws Exception {
+        String first = fileTransferService.spool(pdf("bilan sanguin"));
+        assertTrue(first.matches("[0-9a-f]{64}\\.pdf"), first);
+        awaitStatus(first, FileTransferStatus.STORED);
+
+        // Même contenu sous un autre nom d'origine : même fichier, aucun nouveau transfert
+        String second = fileTransferService.spool(new MockMultipartFile("files", "copie.PDF", "application/pdf",
+                "bilan sanguin".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(first, second);
+        assertEquals(2, refCount(first));
+        verify(fileStorage, times(1)).put(eq(first), any(InputStream.class), anyLong());
+        try (var spooled = Files.list(SPOOL)) {
+            assertTrue(spooled.noneMatch(path -> path.getFileName().toString().endsWith(".part")));
+        }
+
+        // Les octets ne sont supprimés qu'avec la dernière référence
+        fileReferenceService.release(List.of(first));
+        verify(fileStorage, never()).delete(first);
+        assertEquals(1, refCount(first));
+
+        fileReferenceService.release(List.of(second));
+        verify(fileStorage).delete(first);
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM file_blobs", Integer.class));
+        assertThrows(IllegalArgumentException.class, () -> fileTransferService.getTransfer(first));
+    }
+
+    @Test
+    void reuploadingContentOfAFailedTransferResumesIt() throws Exception {
+        String fileName = failTransferOf("scanner");
+        // Copie locale perdue : la relance seule ne peut plus aboutir
+        Files.deleteIfExists(SPOOL.resolve(fileName));
+
+        acceptUploads();
+        assertEquals(fileName, fileTransferService.spool(pdf("scanner")));
+
+        // Le nouvel upload fournit la copie du spool et remet le transfert en attente
+        FileTransferDTO stored = awaitStatus(fileName, FileTransferStatus.STORED);
+        assertEquals(1, stored.getAttempts());
+        assertNull(stored.getLastError());
+        assertEquals(List.of("scanner"), uploadedContents);
+        assertEquals(2, refCount(fileName));
+        assertFalse(Files.exists(SPOOL.resolve(fileName)));
+
+        // Une fois stocké, le même contenu redevient un simple doublon
+        assertEquals(fileName, fileTransferService.spool(pdf("scanner")));
+        assertEquals(3, refCount(fileName));
+        verify(fileStorage, times(3)).put(eq(fileName), any(InputStream.class), anyLong());
+    }
+
+    @Test
+    void directUploadOfAFailedTransferContentStoresIt() throws Exception {
+        String fileName = failTransferOf("échographie");
+
+        acceptUploads();
+        assertEquals(fileName, fileTransferUtil.handleFileUpload(pdf("échographie")));
+
+        assertEquals(List.of("échographie"), uploadedContents);
+        assertEquals(FileTransferStatus.STORED, fileTransferService.getTransfer(fileName).getStatus());
+        assertEquals(2, refCount(fileName));
+
+        // Stockage toujours indisponible : la référence ajoutée est retirée
+        String other = failTransferOf("doppler");
+        assertThrows(IOException.class, () -> fileTransferUtil.handleFileUpload(pdf("doppler")));
+        assertEquals(1, refCount(other));
+        assertEquals(FileTransferStatus.FAILED, fileTransferService.getTransfer(other).getStatus());
+    }
+
+    // Spool du contenu avec un stockage en échec, jusqu'au passage en FAILED (2 tentatives)
+    private String failTransferOf(String content) throws Exception {
+        doThrow(new IOException("Connexion refusée"))
+                .when(fileStorage).put(anyString(), any(InputStream.class), anyLong());
+        String fileName = fileTransferService.spool(pdf(content));
+        awaitAttempts(fileName, 1);
+        assertEquals(1, fileTransferService.dispatchDueTransfers());
+        awaitStatus(fileName, FileTransferStatus.FAILED);
+        return fileName;
+    }
+
+    private int refCount(String fileName) {
+        return jdbcTemplate.queryForObject("SELECT ref_count FROM file_blobs WHERE file_name = ?", Integer.class, fileName);
+    }
+
+    private void acceptUploads() throws IOException {
+        doAnswer(call -> {
+            InputStream content = call.getArgument(1);
+            uploadedContents.add(new String(content.readAllBytes(), StandardCharsets.UTF_8));
+            return null;
+        }).when(fileStorage).put(anyString(), any(InputStream.class), anyLong());
+    }
+
+    private static MockMultipartFile pdf(String content) {
+        return new MockMultipartFile("files", "examen.pdf", "application/pdf", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private FileTransferDTO awaitStatus(String fileName, FileTransferStatus status) throws InterruptedException {
+        return await(fileName, transfer -> transfer.getStatus() == status, "statut " + status);
+    }
+
+    private FileTransferDTO awaitAttempts(String fileName, int attempts) throws InterruptedException {
+        return await(fileName, transfer -> transfer.getAttempts() == attempts
+                && transfer.getLastError() != null, attempts + " tentative(s)");
+    }
+
+    private FileTransferDTO await(String fileName, java.util.function.Predicate<FileTransferDTO> condition,
+                                  String expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        FileTransferDTO transfer = fileTransferService.getTransfer(fileName);
+        while (!condition.test(transfer)) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Transfert " + fileName + " toujours " + transfer.getStatus() + " (attendu : " + expected + ")");
+            }
+            Thread.sleep(20);
+            transfer = fileTransferService.getTransfer(fileName);
+        }
+        return transfer;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.rml.back_office_rml.services;
+
+import com.example.rml.back_office_rml.dto.IndexAdvisorReportDTO;
+import com.example.rml.back_office_rml.dto.QueryPlanDTO;
+import com.example.rml.back_office_rml.entities.Slot;
+import com.example.rml.back_office_rml.repositories.SlotRepository;
+import com.example.rml.back_office_rml.support.SchedulingFixtures;
+import com.example.rml.back_office_rml.util.SqlCaptureInspector;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Conseiller d'index : rapport complet mais sans EXPLAIN sur H2, et capture du SQL
+ * limitée à la session dédiée (aucun inspecteur global sur la SessionFactory).
+ */
+@SpringBootTest
+class IndexAdvisorServiceTest {
+
+    @Autowired
+    private IndexAdvisorService indexAdvisorService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SlotRepository slotRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private SchedulingFixtures fixtures;
+
+    @BeforeEach
+    void seed() {
+        fixtures = new SchedulingFixtures(jdbcTemplate);
+        fixtures.reset();
+        fixtures.seed(1, 1, 4);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.reset();
+    }
+
+    @Test
+    void skipsEveryQueryOnH2() throws Exception {
+        IndexAdvisorReportDTO report = indexAdvisorService.analyze();
+
+        assertTrue(report.getDatabase().startsWith("H2"), report.getDatabase());
+        assertNotNull(report.getGeneratedAt());
+        assertFalse(report.getQueries().isEmpty());
+        assertEquals(report.getQueries().size(), report.getAnalyzedQueries());
+        assertEquals(0, report.getFullScans());
+        for (QueryPlanDTO plan : report.getQueries()) {
+            assertEquals("SKIPPED", plan.getStatus(), plan.getRepository() + "." + plan.getMethod());
+            assertEquals("EXPLAIN analysé uniquement sur MySQL/MariaDB", plan.getMessage());
+            assertNull(plan.getSql());
+            assertTrue(plan.getPlan().isEmpty());
+            assertTrue(plan.getFullScanTables().isEmpty());
+        }
+
+        // Une entrée par méthode @Query, triées par nom dans chaque repository
+        List<String> slotMethods = report.getQueries().stream()
+                .filter(plan -> "SlotRepository".equals(plan.getRepository()))
+                .map(QueryPlanDTO::getMethod)
+                .toList();
+        assertTrue(slotMethods.containsAll(List.of("existsOverlappingSlotForDoctorOnDate", "expirePastSlotsChunk",
+                "streamIntervalsForConflictIndex")), slotMethods.toString());
+        assertEquals(slotMethods.stream().sorted(Comparator.naturalOrder()).toList(), slotMethods);
+
+        // Forme JSON servie par /actuator/indexadvisor
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(report));
+        assertTrue(json.get("generatedAt").asText().matches("\\d{2}-\\d{2}-\\d{4} \\d{2}:\\d{2}:\\d{2}"));
+        assertEquals(report.getAnalyzedQueries(), json.get("analyzedQueries").asInt());
+        JsonNode first = json.get("queries").get(0);
+        for (String field : List.of("status", "repository", "method", "sql", "fullScanTables", "plan", "message")) {
+            assertTrue(first.has(field), field);
+        }
+    }
+
+    @Test
+    void capturesSqlWithoutExecutingIt() {
+        String select = SqlCaptureInspector.capture(entityManagerFactory, session -> session
+                .createQuery("SELECT s FROM Slot s WHERE s.doctor.doctorId = :doctorId", Slot.class)
+                .setParameter("doctorId", 1L)
+                .getResultList());
+        assertNotNull(select);
+        assertTrue(select.toLowerCase(Locale.ROOT).contains("from slots"), select);
+        assertEquals(1, select.chars().filter(c -> c == '?').count());
+
+        // Une modification capturée n'atteint pas la base
+        String delete = SqlCaptureInspector.capture(entityManagerFactory, session -> {
+            session.beginTransaction();
+            return session.createMutationQuery("DELETE FROM Slot").executeUpdate();
+        });
+        assertTrue(delete.toLowerCase(Locale.ROOT).startsWith("delete from slots"), delete);
+        assertEquals(4, slotRepository.count());
+
+        // Aucune requête préparée : rien à capturer
+        assertNull(SqlCaptureInspector.capture(entityManagerFactory, session -> null));
+    }
+
+    @Test
+    void inspectorIsNotRegisteredOnTheSessionFactory() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        assertFalse(sessionFactory.getSessionFactoryOptions().getStatementInspector() instanceof SqlCaptureInspector);
+
+        // Les autres sessions exécutent normalement leurs requêtes, y compris pendant une capture
+        SqlCaptureInspector.capture(entityManagerFactory, session -> {
+            assertEquals(4, slotRepository.findAll().size());
+            return session.find(Slot.class, 1L);
+        });
+        assertTrue(slotRepository.findById(1L).isPresent());
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.rml.back_office_rml.services;
+
+import com.example.rml.back_office_rml.dto.ExpiryRunReportDTO;
+import com.example.rml.back_office_rml.repositories.PrescriptionRepository;
+import com.example.rml.back_office_rml.support.SchedulingFixtures;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Expiration des ordonnances par lots d'UPDATE : découpage, statut et updated_at, métriques.
+ */
+@SpringBootTest
+class PrescriptionStatusSchedulerTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.now().minusMonths(2).truncatedTo(ChronoUnit.SECONDS);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    private SchedulingFixtures fixtures;
+
+    @BeforeEach
+    void seed() {
+        fixtures = new SchedulingFixtures(jdbcTemplate);
+        fixtures.reset();
+        List<Object[]> rows = new ArrayList<>();
+        LocalDate today = LocalDate.now();
+        // 25 ordonnances dépassées, 5 encore valides (dont une jusqu'à aujourd'hui), 3 déjà expirées
+        for (int i = 0; i < 25; i++) {
+            rows.add(row("ORD-OLD-" + i, "ACTIVE", today.minusDays(1 + i)));
+        }
+        for (int i = 0; i < 5; i++) {
+            rows.add(row("ORD-VALID-" + i, "ACTIVE", today.plusDays(i)));
+        }
+        for (int i = 0; i < 3; i++) {
+            rows.add(row("ORD-DONE-" + i, "EXPIRED", today.minusDays(40)));
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO prescriptions (prescription_number, status, valid_until, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?)", rows);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.reset();
+    }
+
+    @Test
+    void expiresInChunksAndBumpsUpdatedAt() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        PrescriptionStatusScheduler scheduler = new PrescriptionStatusScheduler(prescriptionRepository, registry, 10);
+
+        ExpiryRunReportDTO report = scheduler.expirePrescriptions("MANUAL");
+
+        assertEquals("prescriptions", report.getJob());
+        assertEquals(List.of(10, 10, 5), report.getRowsPerChunk());
+        assertEquals(25, report.getTotalExpired());
+        assertEquals(28, count("status = 'EXPIRED'"));
+        assertEquals(5, count("status = 'ACTIVE' AND valid_until >= CURRENT_DATE"));
+        // Seules les ordonnances expirées par la tâche sont vues comme modifiées (synchronisation)
+        assertEquals(25, count("updated_at > ?", Timestamp.valueOf(CREATED)));
+
+        assertEquals(25, registry.get("prescriptions.expired").counter().count());
+        assertEquals(1, registry.get("prescriptions.expiry.run").tag("trigger", "MANUAL").timer().count());
+
+        ExpiryRunReportDTO second = scheduler.expirePrescriptions("CRON");
+        assertEquals(0, second.getTotalExpired());
+        assertTrue(second.getRowsPerChunk().isEmpty());
+    }
+
+    @Test
+    void rejectsNonPositiveChunkSize() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new PrescriptionStatusScheduler(prescriptionRepository, new SimpleMeterRegistry(), 0));
+    }
+
+    private static Object[] row(String number, String status, LocalDate validUntil) {
+        return new Object[]{number, status, Date.valueOf(validUntil), Timestamp.valueOf(CREATED), Timestamp.valueOf(CREATED)};
+    }
+
+    private int count(String where, Object... args) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM prescriptions WHERE " + where, Integer.class, args);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.rml.back_office_rml.services;
+
+import com.example.rml.back_office_rml.enums.DayOfWeek;
+import com.example.rml.back_office_rml.enums.RoomStatus;
+import com.example.rml.back_office_rml.support.SchedulingFixtures;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cache des données de référence : les lectures répétées ne touchent plus la base,
+ * les modifications passées par RoomServiceImpl / ConsultationDurationServiceImpl sont visibles
+ * dès le commit, et les compteurs hit/miss sont publiés dans le MeterRegistry.
+ */
+@SpringBootTest
+class ReferenceDataCacheTest {
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private ConsultationDurationService durationService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private SchedulingFixtures fixtures;
+
+    @BeforeEach
+    void seed() {
+        fixtures = new SchedulingFixtures(jdbcTemplate);
+        fixtures.reset();
+        fixtures.seed(1, 0, 0);
+        fixtures.seedAvailabilities(1, 30, LocalTime.of(8, 0), LocalTime.of(18, 0));
+        referenceDataCache.evictAll();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.reset();
+        referenceDataCache.evictAll();
+    }
+
+    @Test
+    void repeatedRoomScheduleReadsAreServedFromTheCache() {
+        double hitsBefore = gets("reference.room-schedules", "hit");
+        double missesBefore = gets("reference.room-schedules", "miss");
+
+        ReferenceDataCache.RoomSchedule first = referenceDataCache.findRoomSchedule(1L).orElseThrow();
+        // Modification directe en base (sans passer par RoomServiceImpl) : la copie en cache reste servie
+        jdbcTemplate.update("UPDATE rooms SET status = 'MAINTENANCE' WHERE room_id = 1");
+        ReferenceDataCache.RoomSchedule second = referenceDataCache.findRoomSchedule(1L).orElseThrow();
+
+        assertSame(first, second);
+        assertTrue(second.isAvailable());
+        assertTrue(second.isOpenOn(DayOfWeek.MONDAY));
+        assertTrue(second.covers(LocalTime.of(9, 0), LocalTime.of(9, 30)));
+        assertFalse(second.covers(LocalTime.of(17, 45), LocalTime.of(18, 15)));
+        assertEquals(1.0, gets("reference.room-schedules", "hit") - hitsBefore);
+        assertEquals(1.0, gets("reference.room-schedules", "miss") - missesBefore);
+    }
+
+    @Test
+    void roomMutationsEvictTheSchedule() {
+        assertTrue(referenceDataCache.findRoomSchedule(1L).orElseThrow().isAvailable());
+
+        roomService.updateRoomStatus(1L, RoomStatus.MAINTENANCE);
+
+        assertEquals(RoomStatus.MAINTENANCE, referenceDataCache.findRoomSchedule(1L).orElseThrow().status());
+    }
+
+    @Test
+    void durationMutationsEvictTheDuration() {
+        assertTrue(referenceDataCache.findDuration(1L).orElseThrow().active());
+
+        durationService.toggleDurationStatus(1L);
+        assertFalse(referenceDataCache.findDuration(1L).orElseThrow().active());
+
+        jdbcTemplate.update("DELETE FROM doctor_availabilities");
+        durationService.deleteDuration(1L);
+        assertTrue(referenceDataCache.findDuration(1L).isEmpty());
+    }
+
+    private double gets(String cache, String result) {
+        return meterRegistry.get("cache.gets").tag("cache", cache).tag("result", result).functionCounter().count();
+    }
+}
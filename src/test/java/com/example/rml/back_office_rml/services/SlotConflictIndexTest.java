@@ -0,0 +1,230 @@
+package com.example.rml.back_office_rml.services;
+
+import com.example.rml.back_office_rml.dto.SlotDTO;
+import com.example.rml.back_office_rml.enums.DayOfWeek;
+import com.example.rml.back_office_rml.projections.SlotIntervalView;
+import com.example.rml.back_office_rml.repositories.SlotRepository;
+import com.example.rml.back_office_rml.support.SchedulingFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * L'index mémoire des chevauchements répond comme les quatre requêtes SQL de SlotRepository
+ * (médecin / salle à date précise, médecin / salle récurrents) après chaque création, modification,
+ * suppression, et après une reconstruction pendant laquelle des modifications sont validées.
+ */
+@SpringBootTest
+class SlotConflictIndexTest {
+
+    // 2 médecins × 2 jours × 4 créneaux (08:00 → 10:00) : créneaux 1..8 pour le médecin 1, 9..16 pour le médecin 2
+    private static final int DOCTORS = 2;
+    private static final long TEMPLATE_ID = 100L;
+
+    @Autowired
+    private SlotConflictIndex conflictIndex;
+
+    @Autowired
+    private SlotService slotService;
+
+    @Autowired
+    private SlotOccurrenceService occurrenceService;
+
+    @MockitoSpyBean
+    private SlotRepository slotRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private SchedulingFixtures fixtures;
+    private LocalDate firstDate;
+
+    @BeforeEach
+    void seed() {
+        fixtures = new SchedulingFixtures(jdbcTemplate);
+        fixtures.reset();
+        firstDate = fixtures.seed(DOCTORS, 2, 4).firstDate();
+        fixtures.seedAvailabilities(DOCTORS, 30, LocalTime.of(8, 0), LocalTime.of(18, 0));
+        // Créneau récurrent du médecin 1 dans sa salle, chaque semaine à 14:00
+        fixtures.insertRecurringSlot(TEMPLATE_ID, 1, firstDate, LocalTime.of(14, 0), LocalTime.of(14, 30));
+        occurrenceService.evictTemplatesAfterCommit();
+        conflictIndex.rebuild();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.reset();
+        occurrenceService.evictTemplatesAfterCommit();
+        conflictIndex.rebuild();
+    }
+
+    @Test
+    void rebuiltIndexMatchesSql() {
+        assertTrue(conflictIndex.isReady());
+        assertEquals(2 * 2 * 4 + 1, conflictIndex.size());
+        assertIndexMatchesSql();
+    }
+
+    @Test
+    void createUpdateAndDeleteKeepIndexInSyncWithSql() {
+        Long created = slotService.createSlot(slot(1L, 1L, firstDate, LocalTime.of(11, 0), false)).getSlotId();
+        assertIndexMatchesSql();
+        assertEquals(SlotConflictIndex.Conflict.DOCTOR_ON_DATE, findConflict(1L, 2L, firstDate, LocalTime.of(11, 15), null));
+
+        // Créneau récurrent : visible dans les couches hebdomadaires une semaine plus tard
+        slotService.createSlot(slot(2L, 2L, firstDate.plusDays(1), LocalTime.of(15, 0), true));
+        assertIndexMatchesSql();
+
+        // Déplacement : l'ancien horaire se libère, le nouveau est occupé
+        SlotDTO move = new SlotDTO();
+        move.setStartTime(LocalTime.of(12, 0));
+        move.setEndTime(LocalTime.of(12, 30));
+        slotService.updateSlot(2L, move);
+        assertIndexMatchesSql();
+        assertEquals(SlotConflictIndex.Conflict.NONE, findConflict(1L, 1L, firstDate, LocalTime.of(8, 30), null));
+        assertEquals(SlotConflictIndex.Conflict.DOCTOR_ON_DATE, findConflict(1L, 1L, firstDate, LocalTime.of(12, 0), null));
+        // Le créneau modifié ne se gêne pas lui-même
+        assertEquals(SlotConflictIndex.Conflict.NONE, findConflict(1L, 1L, firstDate, LocalTime.of(12, 0), 2L));
+
+        slotService.deleteSlot(3L);
+        slotService.deleteSlot(created);
+        assertIndexMatchesSql();
+        assertEquals(SlotConflictIndex.Conflict.NONE, findConflict(1L, 1L, firstDate, LocalTime.of(9, 0), null));
+    }
+
+    @Test
+    void rebuildAtStartupReplaysChangesCommittedDuringTheLoad() {
+        // Les intervalles sont lus, puis d'autres requêtes valident des modifications avant la bascule de l'index
+        doAnswer(invocation -> {
+            List<SlotIntervalView> loaded;
+            try (Stream<SlotIntervalView> stream = invokeReal(invocation)) {
+                loaded = new ArrayList<>(stream.toList());
+            }
+            runInOtherThread(() -> {
+                slotService.deleteSlot(4L);
+                SlotDTO move = new SlotDTO();
+                move.setStartTime(LocalTime.of(16, 0));
+                move.setEndTime(LocalTime.of(16, 30));
+                slotService.updateSlot(6L, move);
+            });
+            return loaded.stream();
+        }).doAnswer(SlotConflictIndexTest::invokeReal).when(slotRepository).streamIntervalsForConflictIndex(any());
+
+        conflictIndex.rebuildAtStartup();
+
+        assertTrue(conflictIndex.isReady());
+        assertIndexMatchesSql();
+        assertEquals(SlotConflictIndex.Conflict.NONE, findConflict(1L, 1L, firstDate, LocalTime.of(9, 30), null));
+        assertEquals(SlotConflictIndex.Conflict.NONE, findConflict(1L, 1L, firstDate.plusDays(1), LocalTime.of(8, 30), null));
+        assertEquals(SlotConflictIndex.Conflict.DOCTOR_ON_DATE,
+                findConflict(1L, 2L, firstDate.plusDays(1), LocalTime.of(16, 0), null));
+    }
+
+    // ====================================================================
+    // 🔧 MÉTHODES UTILITAIRES
+    // ====================================================================
+
+    /**
+     * Compare l'index aux requêtes SQL sur une grille de créneaux candidats : chaque couple médecin / salle,
+     * les deux jours planifiés et le jour du récurrent une semaine plus tard, toutes les demi-heures
+     * de 08:00 à 18:00 (durées de 30 et 45 minutes), en création puis en modification du créneau 1.
+     */
+    private void assertIndexMatchesSql() {
+        List<LocalDate> dates = List.of(firstDate, firstDate.plusDays(1), firstDate.plusWeeks(1), firstDate.plusDays(8));
+        for (long doctorId = 1; doctorId <= DOCTORS; doctorId++) {
+            for (long roomId = 1; roomId <= DOCTORS; roomId++) {
+                for (LocalDate date : dates) {
+                    for (LocalTime start = LocalTime.of(8, 0); start.isBefore(LocalTime.of(18, 0)); start = start.plusMinutes(30)) {
+                        for (int minutes : new int[]{30, 45}) {
+                            for (Long excluded : new Long[]{null, 1L}) {
+                                LocalTime end = start.plusMinutes(minutes);
+                                assertEquals(sqlConflict(doctorId, roomId, date, start, end, excluded),
+                                        conflictIndex.findConflict(doctorId, roomId, date, dayOf(date), start, end, true, excluded),
+                                        "médecin " + doctorId + ", salle " + roomId + ", " + date + " " + start + "-" + end
+                                                + ", créneau ignoré " + excluded);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // Même ordre de vérification que SlotServiceImpl.ensureNoOverlap
+    private SlotConflictIndex.Conflict sqlConflict(Long doctorId, Long roomId, LocalDate date,
+                                                   LocalTime start, LocalTime end, Long excluded) {
+        DayOfWeek day = dayOf(date);
+        if (slotRepository.existsOverlappingSlotForDoctorOnDate(doctorId, date, start, end, excluded)) {
+            return SlotConflictIndex.Conflict.DOCTOR_ON_DATE;
+        }
+        if (slotRepository.existsOverlappingSlotForRoomOnDate(roomId, date, start, end, excluded)) {
+            return SlotConflictIndex.Conflict.ROOM_ON_DATE;
+        }
+        if (slotRepository.existsOverlappingRecurringSlotForDoctor(doctorId, day, start, end, excluded)) {
+            return SlotConflictIndex.Conflict.DOCTOR_RECURRING;
+        }
+        if (slotRepository.existsOverlappingRecurringSlotForRoom(roomId, day, start, end, excluded)) {
+            return SlotConflictIndex.Conflict.ROOM_RECURRING;
+        }
+        return SlotConflictIndex.Conflict.NONE;
+    }
+
+    private SlotConflictIndex.Conflict findConflict(Long doctorId, Long roomId, LocalDate date, LocalTime start, Long excluded) {
+        return conflictIndex.findConflict(doctorId, roomId, date, dayOf(date), start, start.plusMinutes(30), false, excluded);
+    }
+
+    private static SlotDTO slot(Long doctorId, Long roomId, LocalDate date, LocalTime start, boolean recurring) {
+        SlotDTO dto = new SlotDTO();
+        dto.setDoctorId(doctorId);
+        dto.setRoomId(roomId);
+        dto.setSlotDate(date);
+        dto.setStartTime(start);
+        dto.setEndTime(start.plusMinutes(30));
+        dto.setIsRecurring(recurring);
+        return dto;
+    }
+
+    private static DayOfWeek dayOf(LocalDate date) {
+        return DayOfWeek.valueOf(date.getDayOfWeek().name());
+    }
+
+    // Le dépôt est un proxy JPA : on délègue à la réponse par défaut de l'espion (le bean réel)
+    @SuppressWarnings("unchecked")
+    private static Stream<SlotIntervalView> invokeReal(InvocationOnMock invocation) throws Throwable {
+        return (Stream<SlotIntervalView>) Mockito.mockingDetails(invocation.getMock())
+                .getMockCreationSettings().getDefaultAnswer().answer(invocation);
+    }
+
+    // Modification validée par une autre requête (autre thread, autre transaction)
+    private static void runInOtherThread(Runnable action) throws InterruptedException {
+        Throwable[] failure = new Throwable[1];
+        Thread thread = new Thread(() -> {
+            try {
+                action.run();
+            } catch (Throwable e) {
+                failure[0] = e;
+            }
+        });
+        thread.start();
+        thread.join();
+        if (failure[0] != null) {
+            throw new AssertionError("Modification concurrente en échec", failure[0]);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.rml.back_office_rml.services;
+
+import com.example.rml.back_office_rml.dto.DoctorAgendaEntryDTO;
+import com.example.rml.back_office_rml.dto.SlotGenerationReportDTO;
+import com.example.rml.back_office_rml.enums.DayOfWeek;
+import com.example.rml.back_office_rml.support.SchedulingFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Génération de calendrier : découpage des disponibilités par durée de consultation,
+ * intersection avec les jours et horaires d'ouverture de la salle, créneaux existants
+ * et récurrents écartés, puis mise à jour de l'index des chevauchements et de l'agenda.
+ */
+@SpringBootTest
+class SlotGenerationServiceTest {
+
+    // 2 médecins, 4 créneaux existants le premier jour (08:00 → 10:00) : 1..4 pour le médecin 1, 5..8 pour le médecin 2
+    private static final int DOCTORS = 2;
+    private static final long TEMPLATE_ID = 100L;
+
+    // Disponibilités 07:00 → 19:00 par pas de 45 minutes : 16 créneaux par jour,
+    // dont 12 dans les horaires de la salle (08:30 → 17:30) et 4 en dehors
+    private static final int MINUTES = 45;
+    private static final int PIECES_PER_DAY = 16;
+    private static final int PIECES_IN_ROOM_HOURS = 12;
+
+    @Autowired
+    private SlotGenerationService slotGenerationService;
+
+    @Autowired
+    private SlotConflictIndex conflictIndex;
+
+    @Autowired
+    private DoctorAgendaProjector agendaProjector;
+
+    @Autowired
+    private DoctorAgendaService agendaService;
+
+    @Autowired
+    private SlotOccurrenceService occurrenceService;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private SchedulingFixtures fixtures;
+    private LocalDate firstDate;
+
+    @BeforeEach
+    void seed() {
+        fixtures = new SchedulingFixtures(jdbcTemplate);
+        fixtures.reset();
+        firstDate = fixtures.seed(DOCTORS, 1, 4).firstDate();
+        fixtures.seedAvailabilities(DOCTORS, MINUTES, LocalTime.of(7, 0), LocalTime.of(19, 0));
+        // Créneau récurrent du médecin 1 dans sa salle, chaque semaine à 14:00
+        fixtures.insertRecurringSlot(TEMPLATE_ID, 1, firstDate, LocalTime.of(14, 0), LocalTime.of(14, 30));
+        referenceDataCache.evictAll();
+        occurrenceService.evictTemplatesAfterCommit();
+        conflictIndex.rebuild();
+        agendaProjector.rebuild("MANUAL");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.reset();
+        referenceDataCache.evictAll();
+        occurrenceService.evictTemplatesAfterCommit();
+        conflictIndex.rebuild();
+        agendaProjector.rebuild("MANUAL");
+    }
+
+    @Test
+    void generatesPiecesInsideRoomHoursAndSkipsConflicts() {
+        // La salle 1 est fermée le troisième jour
+        LocalDate closedDate = firstDate.plusDays(2);
+        jdbcTemplate.update("DELETE FROM room_available_days WHERE room_id = 1 AND day = ?", closedDate.getDayOfWeek().name());
+        referenceDataCache.evictAll();
+        int indexedBefore = conflictIndex.size();
+
+        LocalDate endDate = firstDate.plusDays(7);
+        SlotGenerationReportDTO report = slotGenerationService.generateSlots(1L, 1L, firstDate, endDate);
+
+        int openDays = 7;
+        // Premier jour : 08:30 et 09:15 chevauchent les créneaux existants, 13:45 le récurrent ;
+        // une semaine plus tard, 13:45 chevauche encore le récurrent
+        int conflicts = 3 + 1;
+        assertEquals(1, report.getClosedDays());
+        assertEquals(openDays * PIECES_PER_DAY, report.getCandidates());
+        assertEquals(openDays * (PIECES_PER_DAY - PIECES_IN_ROOM_HOURS), report.getSkippedOutsideRoomSchedule());
+        assertEquals(conflicts, report.getSkippedConflicts());
+        assertEquals(openDays * PIECES_IN_ROOM_HOURS - conflicts, report.getCreated());
+
+        List<Map<String, Object>> created = generatedSlots(1L);
+        assertEquals(report.getCreated(), created.size());
+        for (Map<String, Object> slot : created) {
+            LocalDate date = ((Date) slot.get("slot_date")).toLocalDate();
+            LocalTime start = ((Time) slot.get("start_time")).toLocalTime();
+            LocalTime end = ((Time) slot.get("end_time")).toLocalTime();
+            assertEquals(Duration.ofMinutes(MINUTES), Duration.between(start, end));
+            assertFalse(start.isBefore(LocalTime.of(8, 0)) || end.isAfter(LocalTime.of(18, 0)), date + " " + start);
+            assertNotEquals(closedDate, date);
+            assertEquals(date.getDayOfWeek().name(), slot.get("day_of_week"));
+        }
+        assertFalse(created.stream().anyMatch(slot -> slot.get("start_time").toString().equals("13:45:00")
+                && ((Date) slot.get("slot_date")).toLocalDate().equals(firstDate.plusWeeks(1))));
+
+        // Index des chevauchements : les créneaux insérés en JDBC sont indexés après le commit
+        assertEquals(indexedBefore + report.getCreated(), conflictIndex.size());
+        LocalDate nextDay = firstDate.plusDays(1);
+        assertEquals(SlotConflictIndex.Conflict.DOCTOR_ON_DATE, conflictIndex.findConflict(1L, 2L, nextDay,
+                dayOf(nextDay), LocalTime.of(8, 45), LocalTime.of(9, 0), false, null));
+        assertEquals(SlotConflictIndex.Conflict.ROOM_ON_DATE, conflictIndex.findConflict(2L, 1L, nextDay,
+                dayOf(nextDay), LocalTime.of(17, 0), LocalTime.of(17, 15), false, null));
+        assertEquals(SlotConflictIndex.Conflict.NONE, conflictIndex.findConflict(1L, 1L, closedDate,
+                dayOf(closedDate), LocalTime.of(8, 30), LocalTime.of(9, 15), false, null));
+
+        // Agenda précalculé : la journée générée est lisible sans reconstruction
+        List<DoctorAgendaEntryDTO> agenda = agendaService.getDayAgenda(1L, nextDay);
+        assertEquals(PIECES_IN_ROOM_HOURS, agenda.size());
+        assertEquals(LocalTime.of(8, 30), agenda.get(0).getStartTime());
+        assertEquals("Salle 1", agenda.get(0).getRoomName());
+
+        // Une seconde génération sur la même période ne crée rien
+        SlotGenerationReportDTO again = slotGenerationService.generateSlots(1L, 1L, firstDate, endDate);
+        assertEquals(0, again.getCreated());
+        assertEquals(openDays * PIECES_IN_ROOM_HOURS, again.getSkippedConflicts());
+    }
+
+    @Test
+    void generatesAFullYearAcrossSeveralBatches() {
+        // 366 jours (bornes incluses) : la limite, et bien plus que les 500 lignes d'un lot JDBC
+        LocalDate endDate = firstDate.plusDays(365);
+        SlotGenerationReportDTO report = slotGenerationService.generateSlots(2L, 2L, firstDate, endDate);
+
+        int expected = 366 * PIECES_IN_ROOM_HOURS - 2;
+        assertEquals(0, report.getClosedDays());
+        assertEquals(2, report.getSkippedConflicts());
+        assertEquals(expected, report.getCreated());
+        assertEquals(expected, generatedSlots(2L).size());
+        assertEquals(expected, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM doctor_agenda WHERE doctor_id = 2 AND slot_id > ?", Long.class, TEMPLATE_ID));
+        assertEquals(SlotConflictIndex.Conflict.DOCTOR_ON_DATE, conflictIndex.findConflict(2L, 2L, endDate,
+                dayOf(endDate), LocalTime.of(17, 0), LocalTime.of(17, 30), false, null));
+    }
+
+    @Test
+    void rejectsInvalidPeriods() {
+        assertThrows(IllegalArgumentException.class,
+                () -> slotGenerationService.generateSlots(1L, 1L, firstDate, firstDate.plusDays(366)));
+        assertThrows(IllegalArgumentException.class,
+                () -> slotGenerationService.generateSlots(1L, 1L, LocalDate.now().minusDays(1), firstDate));
+        assertThrows(IllegalArgumentException.class,
+                () -> slotGenerationService.generateSlots(1L, 1L, firstDate.plusDays(1), firstDate));
+        assertThrows(IllegalArgumentException.class,
+                () -> slotGenerationService.generateSlots(1L, 99L, firstDate, firstDate));
+        assertEquals(0, generatedSlots(1L).size());
+    }
+
+    // ====================================================================
+    // 🔧 MÉTHODES UTILITAIRES
+    // ====================================================================
+
+    // Créneaux insérés par la génération (identifiants après le modèle récurrent)
+    private List<Map<String, Object>> generatedSlots(Long doctorId) {
+        return jdbcTemplate.queryForList("SELECT slot_date, day_of_week, start_time, end_time FROM slots " +
+                "WHERE doctor_id = ? AND slot_id > ? ORDER BY slot_date, start_time", doctorId, TEMPLATE_ID);
+    }
+
+    private static DayOfWeek dayOf(LocalDate date) {
+        return DayOfWeek.valueOf(date.getDayOfWeek().name());
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.rml.back_office_rml.services;
+
+import com.example.rml.back_office_rml.dto.AppointmentRequestDTO;
+import com.example.rml.back_office_rml.dto.AppointmentResponseDTO;
+import com.example.rml.back_office_rml.dto.SlotDTO;
+import com.example.rml.back_office_rml.enums.SlotStatus;
+import com.example.rml.back_office_rml.support.SchedulingFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Développement des créneaux récurrents et réservation de leurs occurrences :
+ * le modèle n'est jamais modifié, chaque occurrence réservée a sa propre ligne.
+ */
+@SpringBootTest
+class SlotOccurrenceServiceTest {
+
+    private static final long TEMPLATE_ID = 1L;
+    private static final int PATIENTS = 100;
+
+    @Autowired
+    private SlotOccurrenceService occurrenceService;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private SlotConflictIndex conflictIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private SchedulingFixtures fixtures;
+    private LocalDate firstMonday;
+
+    @BeforeEach
+    void seed() {
+        fixtures = new SchedulingFixtures(jdbcTemplate);
+        fixtures.reset();
+        fixtures.seed(1, 0, 0);
+        fixtures.seedPatients(PATIENTS);
+        firstMonday = LocalDate.now().with(TemporalAdjusters.next(java.time.DayOfWeek.MONDAY));
+        fixtures.insertRecurringSlot(TEMPLATE_ID, 1, firstMonday, LocalTime.of(10, 0), LocalTime.of(10, 30));
+        occurrenceService.evictTemplatesAfterCommit();
+        conflictIndex.rebuild();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.reset();
+        occurrenceService.evictTemplatesAfterCommit();
+        conflictIndex.rebuild();
+    }
+
+    @Test
+    void expandsOneOccurrencePerWeekWithoutCreatingRows() {
+        List<SlotDTO> occurrences = occurrenceService.getOccurrences(1L, null, null,
+                firstMonday.minusDays(3), firstMonday.plusWeeks(4).minusDays(1));
+
+        assertEquals(4, occurrences.size());
+        for (int week = 0; week < 4; week++) {
+            SlotDTO occurrence = occurrences.get(week);
+            assertEquals(firstMonday.plusWeeks(week), occurrence.getSlotDate());
+            assertEquals(TEMPLATE_ID, occurrence.getRecurringTemplateId());
+            assertNull(occurrence.getSlotId());
+            assertEquals(SlotStatus.AVAILABLE, occurrence.getStatus());
+        }
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM slots", Integer.class));
+    }
+
+    @Test
+    void parallelBookingsOfOneOccurrenceCreateOneRowAndOneWinner() throws Exception {
+        LocalDate secondMonday = firstMonday.plusWeeks(1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (long patientId = 1; patientId <= PATIENTS; patientId++) {
+                AppointmentRequestDTO request = new AppointmentRequestDTO();
+                request.setPatientId(patientId);
+                request.setSlotId(TEMPLATE_ID);
+                request.setOccurrenceDate(secondMonday);
+                request.setConsultationReason("Consultation");
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        appointmentService.bookAppointment(request);
+                        return true;
+                    } catch (IllegalArgumentException | IllegalStateException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int winners = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(60, TimeUnit.SECONDS)) winners++;
+            }
+            assertEquals(1, winners, "un seul patient obtient l'occurrence");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Le modèle est intact
+        Map<String, Object> template = jdbcTemplate.queryForMap(
+                "SELECT slot_date, status FROM slots WHERE slot_id = ?", TEMPLATE_ID);
+        assertEquals(firstMonday, ((java.sql.Date) template.get("slot_date")).toLocalDate());
+        assertEquals("AVAILABLE", template.get("status"));
+
+        // Une seule ligne pour l'occurrence, réservée
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM slots WHERE recurring_template_id = ?", Integer.class, TEMPLATE_ID));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM appointments", Integer.class));
+
+        List<SlotDTO> occurrences = occurrenceService.getOccurrences(1L, null, null, firstMonday, secondMonday);
+        assertEquals(2, occurrences.size());
+        assertEquals(SlotStatus.AVAILABLE, occurrences.get(0).getStatus());
+        assertEquals(SlotStatus.RESERVED, occurrences.get(1).getStatus());
+        assertNotNull(occurrences.get(1).getSlotId());
+    }
+
+    @Test
+    void bookingWithoutDateTakesTheNextOccurrence() {
+        AppointmentRequestDTO request = new AppointmentRequestDTO();
+        request.setPatientId(1L);
+        request.setSlotId(TEMPLATE_ID);
+
+        AppointmentResponseDTO appointment = appointmentService.bookAppointment(request);
+
+        assertEquals(firstMonday, appointment.getSlotDate());
+        assertNotEquals(TEMPLATE_ID, appointment.getSlotId());
+    }
+
+    @Test
+    void rejectsAnOccurrenceDateOffTheTemplateDay() {
+        AppointmentRequestDTO request = new AppointmentRequestDTO();
+        request.setPatientId(1L);
+        request.setSlotId(TEMPLATE_ID);
+        request.setOccurrenceDate(firstMonday.plusDays(1));
+
+        assertThrows(IllegalArgumentException.class, () -> appointmentService.bookAppointment(request));
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.rml.back_office_rml.services;
+
+import com.example.rml.back_office_rml.dto.SlotDTO;
+import com.example.rml.back_office_rml.entities.Doctor;
+import com.example.rml.back_office_rml.entities.HealthCenter;
+import com.example.rml.back_office_rml.entities.Room;
+import com.example.rml.back_office_rml.entities.Slot;
+import com.example.rml.back_office_rml.enums.DayOfWeek;
+import com.example.rml.back_office_rml.enums.MedicalSpecialty;
+import com.example.rml.back_office_rml.enums.RoomStatus;
+import com.example.rml.back_office_rml.enums.SlotStatus;
+import com.example.rml.back_office_rml.projections.SlotListView;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Étapes sans base de données de la création d'un créneau : vérifications de la plage horaire
+ * et des horaires de la salle, conversion du jour de la semaine, conversions en SlotDTO
+ * (entité chargée et projection de liste).
+ *
+ * Lancement : mvn -Pjmh test-compile exec:exec -Djmh.args=SlotServiceHelpersJmh
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SlotServiceHelpersJmh {
+
+    private static final java.time.DayOfWeek[] DAYS = java.time.DayOfWeek.values();
+
+    // Salle ouverte le matin et l'après-midi, fermée le week-end
+    private ReferenceDataCache.RoomSchedule room;
+    private Slot slot;
+    private SlotListView listView;
+
+    @Setup
+    public void setUp() {
+        room = new ReferenceDataCache.RoomSchedule(1L, RoomStatus.AVAILABLE, 1L,
+                EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY),
+                List.of(new ReferenceDataCache.OpeningWindow(LocalTime.of(8, 0), LocalTime.of(12, 0)),
+                        new ReferenceDataCache.OpeningWindow(LocalTime.of(14, 0), LocalTime.of(18, 0))));
+
+        HealthCenter center = new HealthCenter();
+        center.setCenterId(1L);
+        center.setName("Centre 1");
+        Doctor doctor = new Doctor();
+        doctor.setDoctorId(1L);
+        doctor.setFirstName("Prenom1");
+        doctor.setLastName("Nom1");
+        doctor.setSpecialty(MedicalSpecialty.GENERAL_MEDICINE);
+        Room roomEntity = new Room();
+        roomEntity.setRoomId(1L);
+        roomEntity.setName("Salle 1");
+        roomEntity.setHealthCenter(center);
+
+        LocalDateTime now = LocalDateTime.now();
+        slot = new Slot();
+        slot.setSlotId(1L);
+        slot.setSlotDate(LocalDate.now().plusDays(1));
+        slot.setDayOfWeek(SlotServiceImpl.convertToDayOfWeek(slot.getSlotDate().getDayOfWeek()));
+        slot.setStartTime(LocalTime.of(9, 0));
+        slot.setEndTime(LocalTime.of(9, 30));
+        slot.setStatus(SlotStatus.AVAILABLE);
+        slot.setDoctor(doctor);
+        slot.setRoom(roomEntity);
+        slot.setCreatedAt(now);
+        slot.setUpdatedAt(now);
+
+        // Même type de proxy que les projections renvoyées par SlotRepository
+        Map<String, Object> row = new HashMap<>();
+        row.put("slotId", 1L);
+        row.put("slotDate", slot.getSlotDate());
+        row.put("dayOfWeek", slot.getDayOfWeek());
+        row.put("startTime", slot.getStartTime());
+        row.put("endTime", slot.getEndTime());
+        row.put("status", SlotStatus.AVAILABLE);
+        row.put("isRecurring", false);
+        row.put("doctorId", 1L);
+        row.put("doctorFirstName", "Prenom1");
+        row.put("doctorLastName", "Nom1");
+        row.put("doctorSpecialty", MedicalSpecialty.GENERAL_MEDICINE);
+        row.put("roomId", 1L);
+        row.put("roomName", "Salle 1");
+        row.put("healthCenterId", 1L);
+        row.put("healthCenterName", "Centre 1");
+        row.put("createdAt", now);
+        row.put("updatedAt", now);
+        listView = new SpelAwareProxyProjectionFactory().createProjection(SlotListView.class, row);
+    }
+
+    // Les 7 jours par appel, comme convertToDayOfWeekByName
+    @Benchmark
+    public void convertToDayOfWeek(Blackhole blackhole) {
+        for (java.time.DayOfWeek javaDay : DAYS) {
+            blackhole.consume(SlotServiceImpl.convertToDayOfWeek(javaDay));
+        }
+    }
+
+    // Créneau accepté : contrôles 3, 6 et 7 de createSlot
+    @Benchmark
+    public boolean validateAcceptedSlot() {
+        LocalTime start = LocalTime.of(15, 0);
+        LocalTime end = LocalTime.of(15, 30);
+        SlotServiceImpl.validateTimeRange(start, end);
+        SlotServiceImpl.validateSlotWithinRoomSchedule(room, start, end);
+        return room.isOpenOn(DayOfWeek.TUESDAY);
+    }
+
+    // Créneau refusé (pause de midi) : coût de la construction de l'exception comprise
+    @Benchmark
+    public Object validateSlotOutsideRoomHours() {
+        try {
+            SlotServiceImpl.validateSlotWithinRoomSchedule(room, LocalTime.of(12, 0), LocalTime.of(12, 30));
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public SlotDTO convertEntityToDTO() {
+        return SlotServiceImpl.convertToDTO(slot);
+    }
+
+    @Benchmark
+    public SlotDTO convertListViewToDTO() {
+        return SlotServiceImpl.convertToDTO(listView);
+    }
+
+    // Référence : la conversion par le nom utilisée par SlotGenerationServiceImpl et SlotOccurrenceServiceImpl
+    @Benchmark
+    public void convertToDayOfWeekByName(Blackhole blackhole) {
+        for (java.time.DayOfWeek javaDay : DAYS) {
+            blackhole.consume(DayOfWeek.valueOf(javaDay.name()));
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.rml.back_office_rml.support;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Jeu de données de planning inséré en JDBC batch (tests d'intégration et benchmarks).
+ *
+ * - un centre de santé pour 10 médecins
+ * - une salle par médecin, ouverte tous les jours de 08:00 à 18:00
+ * - des créneaux de 30 minutes à partir de 08:00, pour chaque médecin et chaque jour
+ *
+ * Les identifiants sont fixés explicitement (1..n) puis les séquences IDENTITY sont recalées
+ * pour que les insertions JPA suivantes ne rentrent pas en collision.
+ */
+public class SchedulingFixtures {
+
+    private static final int BATCH_SIZE = 5_000;
+    private static final String[] DAYS = {"MONDAY", "TUESDAY", "WEDNESDAY", "THURSDAY", "FRIDAY", "SATURDAY", "SUNDAY"};
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SchedulingFixtures(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Résumé du jeu de données inséré
+    public record Dataset(int doctors, int rooms, int centers, long slots, LocalDate firstDate, int days,
+                          int slotsPerDay) {
+    }
+
+    public Dataset seed(int doctors, int days, int slotsPerDay) {
+        int centers = Math.max(1, (doctors + 9) / 10);
+        LocalDate firstDate = LocalDate.now().plusDays(1);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        // Utilisateurs : 1..doctors pour les médecins, puis les centres
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 1; i <= doctors; i++) {
+            users.add(new Object[]{i, "doctor" + i + "@rml.test", "DOCTOR", "APPROVED", now});
+        }
+        for (int c = 1; c <= centers; c++) {
+            users.add(new Object[]{doctors + c, "center" + c + "@rml.test", "HEALTH_CENTER", "APPROVED", now});
+        }
+        batch("INSERT INTO users (id_utilisateur, email, role, status, date_creation) VALUES (?, ?, ?, ?, ?)", users);
+
+        List<Object[]> healthCenters = new ArrayList<>();
+        for (int c = 1; c <= centers; c++) {
+            healthCenters.add(new Object[]{c, doctors + c, "Centre " + c, "08:00-18:00", "Contact " + c, "+22100000" + c});
+        }
+        batch("INSERT INTO health_center (center_id, id_utilisateur, name, opening_hours, contact_person, telephone_contact) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", healthCenters);
+
+        List<Object[]> doctorRows = new ArrayList<>();
+        List<Object[]> rooms = new ArrayList<>();
+        List<Object[]> roomDays = new ArrayList<>();
+        List<Object[]> timeSlots = new ArrayList<>();
+        for (int i = 1; i <= doctors; i++) {
+            doctorRows.add(new Object[]{i, i, "Nom" + i, "Prenom" + i, "GENERAL_MEDICINE", "77000" + i});
+            int center = (i - 1) / 10 + 1;
+            rooms.add(new Object[]{i, "Salle " + i, 1, "AVAILABLE", center, now, now});
+            for (String day : DAYS) {
+                roomDays.add(new Object[]{i, day});
+            }
+            timeSlots.add(new Object[]{i, Time.valueOf(LocalTime.of(8, 0)), Time.valueOf(LocalTime.of(18, 0)), i});
+        }
+        batch("INSERT INTO doctor (doctor_id, id_utilisateur, last_name, first_name, specialty, phone) VALUES (?, ?, ?, ?, ?, ?)", doctorRows);
+        batch("INSERT INTO rooms (room_id, name, capacity, status, health_center_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)", rooms);
+        batch("INSERT INTO room_available_days (room_id, day) VALUES (?, ?)", roomDays);
+        batch("INSERT INTO default_time_slots (default_time_slot_id, start_time, end_time, room_id) VALUES (?, ?, ?, ?)", timeSlots);
+
+        long slotId = 0;
+        List<Object[]> slots = new ArrayList<>(BATCH_SIZE);
+        for (int i = 1; i <= doctors; i++) {
+            for (int d = 0; d < days; d++) {
+                LocalDate date = firstDate.plusDays(d);
+                String day = date.getDayOfWeek().name();
+                for (int k = 0; k < slotsPerDay; k++) {
+                    LocalTime start = LocalTime.of(8, 0).plusMinutes(30L * k);
+                    slots.add(new Object[]{++slotId, Date.valueOf(date), day, Time.valueOf(start),
+                            Time.valueOf(start.plusMinutes(30)), "AVAILABLE", false, now, now, i, i});
+                    if (slots.size() == BATCH_SIZE) {
+                        insertSlots(slots);
+                        slots.clear();
+                    }
+                }
+            }
+        }
+        insertSlots(slots);
+
+        restartIdentity("users", "id_utilisateur", doctors + centers + 1);
+        restartIdentity("health_center", "center_id", centers + 1);
+        restartIdentity("doctor", "doctor_id", doctors + 1);
+        restartIdentity("rooms", "room_id", doctors + 1);
+        restartIdentity("default_time_slots", "default_time_slot_id", doctors + 1);
+        restartIdentity("slots", "slot_id", slotId + 1);
+
+        return new Dataset(doctors, doctors, centers, slotId, firstDate, days, slotsPerDay);
+    }
+
+    /**
+     * Déclare pour chaque médecin du jeu de données une disponibilité active tous les jours
+     * dans le centre de sa salle, avec une durée de consultation unique.
+     */
+    public void seedAvailabilities(int doctors, int minutes, LocalTime start, LocalTime end) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO consultation_durations (id, minutes, display_name, active) VALUES (1, ?, ?, TRUE)",
+                minutes, minutes + " mins");
+
+        long availabilityId = 0;
+        List<Object[]> availabilities = new ArrayList<>();
+        for (int i = 1; i <= doctors; i++) {
+            int center = (i - 1) / 10 + 1;
+            for (String day : DAYS) {
+                availabilities.add(new Object[]{++availabilityId, i, center, day, Time.valueOf(start), Time.valueOf(end),
+                        1, true, now, now});
+            }
+        }
+        batch("INSERT INTO doctor_availabilities (id, doctor_id, health_center_id, day_of_week, start_time, end_time, " +
+                "consultation_duration_id, active, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", availabilities);
+
+        restartIdentity("consultation_durations", "id", 2);
+        restartIdentity("doctor_availabilities", "id", availabilityId + 1);
+    }
+
+    // Insère un créneau récurrent (modèle) du médecin doctorId dans sa salle, première occurrence à firstDate
+    public void insertRecurringSlot(long slotId, long doctorId, LocalDate firstDate, LocalTime start, LocalTime end) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO slots (slot_id, slot_date, day_of_week, start_time, end_time, status, is_recurring, " +
+                        "created_at, updated_at, doctor_id, room_id) VALUES (?, ?, ?, ?, ?, 'AVAILABLE', TRUE, ?, ?, ?, ?)",
+                slotId, Date.valueOf(firstDate), firstDate.getDayOfWeek().name(), Time.valueOf(start), Time.valueOf(end),
+                now, now, doctorId, doctorId);
+        restartIdentity("slots", "slot_id", slotId + 1);
+    }
+
+    // Insère des patients d'ID 1..count
+    public void seedPatients(int count) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> patients = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            patients.add(new Object[]{i, "Prenom" + i, "Patient" + i, "+22170" + String.format("%07d", i),
+                    "patient" + i + "@rml.test", now, now});
+        }
+        batch("INSERT INTO patients (patient_id, first_name, last_name, phone_number, email, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)", patients);
+        restartIdentity("patients", "patient_id", count + 1);
+    }
+
+    // Vide toutes les tables (H2) pour repartir d'une base propre entre deux classes de test
+    public void reset() {
+        List<String> tables = jdbcTemplate.queryForList(
+                "SELECT table_name FROM information_schema.tables WHERE table_schema = 'public' AND table_type = 'BASE TABLE'",
+                String.class);
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        try {
+            for (String table : tables) {
+                jdbcTemplate.execute("TRUNCATE TABLE " + table + " RESTART IDENTITY");
+            }
+        } finally {
+            jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+        }
+    }
+
+    private void insertSlots(List<Object[]> slots) {
+        batch("INSERT INTO slots (slot_id, slot_date, day_of_week, start_time, end_time, status, is_recurring, " +
+                "created_at, updated_at, doctor_id, room_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", slots);
+    }
+
+    private void batch(String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+        }
+    }
+
+    // Syntaxe H2 : les tests tournent sur la base en mémoire
+    private void restartIdentity(String table, String column, long next) {
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN " + column + " RESTART WITH " + next);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.rml.back_office_rml.util;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Contrat commun des stockages sans réseau (local et mémoire) : le backend SFTP suit
+ * le même contrat mais demande un serveur.
+ */
+class FileStorageTest {
+
+    @TempDir
+    Path tempDir;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"local", "memory"})
+    void putGetStatDelete(String backend) throws IOException {
+        FileStorage storage = storage(backend);
+        String key = ContentHash.fileName("0f1e2d", "radio.pdf");
+
+        assertFalse(storage.exists(key));
+        assertTrue(storage.stat(key).isEmpty());
+        assertThrows(FileNotFoundException.class, () -> storage.get(key));
+
+        storage.put(key, stream("première version"), -1);
+        storage.put(key, stream("compte rendu"), 12);
+
+        FileStorage.FileInfo info = storage.stat(key).orElseThrow();
+        assertEquals(key, info.key());
+        assertEquals("compte rendu".getBytes(StandardCharsets.UTF_8).length, info.size());
+        assertNotNull(info.lastModified());
+        try (InputStream content = storage.get(key)) {
+            assertEquals("compte rendu", new String(content.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        assertTrue(storage.delete(key));
+        assertFalse(storage.delete(key));
+        assertFalse(storage.exists(key));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"local", "memory"})
+    void keysCannotLeaveTheStorageDirectory(String backend) {
+        FileStorage storage = storage(backend);
+
+        assertThrows(IllegalArgumentException.class, () -> storage.put("../secret.txt", stream("x"), 1));
+        assertThrows(IllegalArgumentException.class, () -> storage.get("sous/dossier.pdf"));
+        assertThrows(IllegalArgumentException.class, () -> storage.stat(" "));
+    }
+
+    private FileStorage storage(String backend) {
+        return "local".equals(backend)
+                ? new LocalFileStorage(tempDir.resolve("storage").toString())
+                : new InMemoryFileStorage();
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.rml.back_office_rml.util;
+
+import com.example.rml.back_office_rml.dto.FileUploadReportDTO;
+import com.example.rml.back_office_rml.services.FileReferenceService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Upload parallèle : durée proche du fichier le plus long, échecs et délais dépassés
+ * rapportés fichier par fichier sans bloquer les autres, référence retirée pour un fichier
+ * enregistré après son délai.
+ */
+class ParallelFileUploaderTest {
+
+    private static final long UPLOAD_MS = 300;
+
+    private final FileReferenceService fileReferenceService = mock(FileReferenceService.class);
+
+    private ParallelFileUploader uploader;
+
+    @AfterEach
+    void shutdown() {
+        if (uploader != null) {
+            uploader.shutdown();
+        }
+    }
+
+    @Test
+    void filesAreUploadedConcurrently() {
+        uploader = new ParallelFileUploader(fileReferenceService, 4, 16, 5_000, false);
+        List<MultipartFile> files = List.of(image("1.png"), image("2.png"), image("3.png"), image("4.png"));
+
+        FileUploadReportDTO report = uploader.uploadAll(files, file -> {
+            sleep(UPLOAD_MS);
+            return "stored-" + file.getOriginalFilename();
+        });
+
+        assertEquals(List.of("stored-1.png", "stored-2.png", "stored-3.png", "stored-4.png"), report.getStoredFiles());
+        assertFalse(report.hasFailures());
+        // Séquentiel : 4 x 300 ms ; en parallèle : ~300 ms
+        assertTrue(report.getDurationMs() < 2 * UPLOAD_MS, "Durée " + report.getDurationMs() + " ms");
+    }
+
+    @Test
+    void failuresAndTimeoutsAreReportedPerFile() {
+        uploader = new ParallelFileUploader(fileReferenceService, 4, 16, 1_000, false);
+        List<MultipartFile> files = List.of(image("ok.png"), image("broken.png"), image("slow.png"),
+                new MockMultipartFile("files", "empty.png", "image/png", new byte[0]));
+
+        FileUploadReportDTO report = uploader.uploadAll(files, file -> switch (file.getOriginalFilename()) {
+            case "broken.png" -> throw new IOException("Disque plein");
+            case "slow.png" -> {
+                sleep(10_000);
+                yield "stored-slow.png";
+            }
+            default -> "stored-" + file.getOriginalFilename();
+        });
+
+        assertEquals(List.of("stored-ok.png"), report.getStoredFiles());
+        assertEquals(2, report.getFailures().size());
+        assertEquals(new FileUploadReportDTO.FailedUpload("broken.png", "Disque plein"), report.getFailures().get(0));
+        assertEquals("slow.png", report.getFailures().get(1).getOriginalName());
+        assertTrue(report.getFailures().get(1).getError().startsWith("Délai dépassé"));
+        assertTrue(report.getDurationMs() < 5_000, "Durée " + report.getDurationMs() + " ms");
+        // Tâche interrompue sans rien enregistrer : aucune référence à retirer
+        verify(fileReferenceService, after(200).never()).release(any());
+    }
+
+    @Test
+    void fileStoredAfterItsTimeoutHasItsReferenceReleased() throws Exception {
+        uploader = new ParallelFileUploader(fileReferenceService, 4, 16, 200, false);
+        CountDownLatch finish = new CountDownLatch(1);
+
+        FileUploadReportDTO report = uploader.uploadAll(List.of(image("ok.png"), image("stubborn.png")), file -> {
+            if (file.getOriginalFilename().equals("stubborn.png")) {
+                // Envoi qui ignore l'interruption (comme un put JSch), puis référence ajoutée quand même
+                awaitIgnoringInterrupts(finish);
+            }
+            return "stored-" + file.getOriginalFilename();
+        });
+
+        assertEquals(List.of("stored-ok.png"), report.getStoredFiles());
+        assertEquals("stubborn.png", report.getFailures().get(0).getOriginalName());
+        verify(fileReferenceService, never()).release(any());
+
+        finish.countDown();
+        verify(fileReferenceService, timeout(2_000)).release(List.of("stored-stubborn.png"));
+        verifyNoMoreInteractions(fileReferenceService);
+    }
+
+    private static MockMultipartFile image(String name) {
+        return new MockMultipartFile("files", name, "image/png", new byte[]{1, 2, 3});
+    }
+
+    // Attend le signal (10 s au plus) sans s'arrêter aux interruptions
+    private static void awaitIgnoringInterrupts(CountDownLatch latch) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        boolean interrupted = false;
+        while (latch.getCount() > 0 && System.nanoTime() < deadline) {
+            try {
+                latch.await(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Upload interrompu", e);
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.example.rml.back_office_rml.util;
+
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.SftpException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Emprunt, restitution et éviction de SftpChannelPool sur des connexions simulées :
+ * aucune autorisation ne doit être perdue, quelle que soit l'issue de l'opération.
+ */
+class SftpChannelPoolTest {
+
+    private static final int MAX_SIZE = 2;
+
+    @Test
+    void reusesReturnedConnections() throws IOException {
+        FakeConnector connector = new FakeConnector();
+        SftpChannelPool pool = pool(connector, 10_000, 60_000);
+
+        assertEquals("ok", pool.execute(channel -> "ok"));
+        assertEquals("ok", pool.execute(channel -> "ok"));
+
+        assertEquals(1, connector.opened.size());
+        assertEquals(1, pool.idleCount());
+        assertEquals(MAX_SIZE, pool.availablePermits());
+    }
+
+    @Test
+    void releasesPermitWhenActionFails() throws IOException {
+        FakeConnector connector = new FakeConnector();
+        SftpChannelPool pool = pool(connector, 10_000, 60_000);
+
+        // Erreur SFTP "métier" : la connexion reste dans le pool
+        assertThrows(IOException.class, () -> pool.execute(channel -> {
+            throw new SftpException(ChannelSftp.SSH_FX_NO_SUCH_FILE, "absent");
+        }));
+        assertEquals(MAX_SIZE, pool.availablePermits());
+        assertEquals(1, pool.idleCount());
+        assertFalse(connector.opened.get(0).closed);
+
+        // Connexion perdue : fermée au lieu d'être rendue
+        assertThrows(IOException.class, () -> pool.execute(channel -> {
+            throw new SftpException(ChannelSftp.SSH_FX_CONNECTION_LOST, "coupée");
+        }));
+        assertEquals(MAX_SIZE, pool.availablePermits());
+        assertEquals(0, pool.idleCount());
+        assertTrue(connector.opened.get(0).closed);
+
+        // Exception inattendue : la connexion est fermée, l'autorisation rendue
+        assertThrows(IllegalStateException.class, () -> pool.execute(channel -> {
+            throw new IllegalStateException("bug");
+        }));
+        assertEquals(MAX_SIZE, pool.availablePermits());
+        assertEquals(0, pool.idleCount());
+        assertTrue(connector.opened.get(1).closed);
+
+        // Lecture locale interrompue sur une connexion encore ouverte : elle est gardée
+        assertThrows(IOException.class, () -> pool.execute(channel -> {
+            throw new IOException("flux local");
+        }));
+        assertEquals(MAX_SIZE, pool.availablePermits());
+        assertEquals(1, pool.idleCount());
+    }
+
+    @Test
+    void releasesPermitWhenConnectionCannotBeOpened() {
+        FakeConnector connector = new FakeConnector();
+        SftpChannelPool pool = pool(connector, 10_000, 60_000);
+
+        connector.failure = new JSchException("refusée");
+        assertThrows(IOException.class, pool::lease);
+        assertEquals(MAX_SIZE, pool.availablePermits());
+
+        connector.failure = new IllegalStateException("configuration");
+        assertThrows(IllegalStateException.class, pool::lease);
+        assertEquals(MAX_SIZE, pool.availablePermits());
+    }
+
+    @Test
+    void borrowTimesOutWhenAllConnectionsAreLeased() throws IOException {
+        FakeConnector connector = new FakeConnector();
+        SftpChannelPool pool = pool(connector, 100, 60_000);
+
+        SftpChannelPool.Lease first = pool.lease();
+        SftpChannelPool.Lease second = pool.lease();
+        assertEquals(0, pool.availablePermits());
+
+        long start = System.nanoTime();
+        IOException timeout = assertThrows(IOException.class, pool::lease);
+        assertTrue(System.nanoTime() - start >= 90_000_000L);
+        assertTrue(timeout.getMessage().contains("100 ms"));
+
+        // Une restitution débloque l'emprunt suivant, sur la même connexion
+        first.close();
+        try (SftpChannelPool.Lease third = pool.lease()) {
+            assertEquals(2, connector.opened.size());
+        }
+        second.close();
+        assertEquals(MAX_SIZE, pool.availablePermits());
+        assertEquals(2, pool.idleCount());
+    }
+
+    @Test
+    void brokenLeaseIsClosedWithoutLeakingPermit() throws IOException {
+        FakeConnector connector = new FakeConnector();
+        SftpChannelPool pool = pool(connector, 100, 60_000);
+
+        SftpChannelPool.Lease lease = pool.lease();
+        lease.close(false);
+        // Une seconde fermeture (try-with-resources après close(false)) ne rend pas l'autorisation deux fois
+        lease.close();
+
+        assertTrue(connector.opened.get(0).closed);
+        assertEquals(0, pool.idleCount());
+        assertEquals(MAX_SIZE, pool.availablePermits());
+
+        // Le pool ouvre une nouvelle connexion et reste borné à MAX_SIZE
+        SftpChannelPool.Lease first = pool.lease();
+        SftpChannelPool.Lease second = pool.lease();
+        assertThrows(IOException.class, pool::lease);
+        first.close();
+        second.close();
+        assertEquals(3, connector.opened.size());
+    }
+
+    @Test
+    void evictsIdleAndClosedConnections() throws Exception {
+        FakeConnector connector = new FakeConnector();
+        SftpChannelPool pool = pool(connector, 100, 50);
+
+        SftpChannelPool.Lease first = pool.lease();
+        SftpChannelPool.Lease second = pool.lease();
+        first.close();
+        second.close();
+        assertEquals(2, pool.idleCount());
+
+        // Une connexion coupée côté serveur est retirée quel que soit son âge
+        connector.opened.get(1).open = false;
+        pool.evictIdleChannels();
+        assertEquals(1, pool.idleCount());
+        assertTrue(connector.opened.get(1).closed);
+        assertFalse(connector.opened.get(0).closed);
+
+        Thread.sleep(80);
+        pool.evictIdleChannels();
+        assertEquals(0, pool.idleCount());
+        assertTrue(connector.opened.get(0).closed);
+        assertEquals(MAX_SIZE, pool.availablePermits());
+    }
+
+    @Test
+    void replacesStaleConnectionThatFailsValidation() throws IOException {
+        FakeConnector connector = new FakeConnector();
+        // Validation systématique : chaque emprunt d'une connexion libre passe par validate()
+        SftpChannelPool pool = new SftpChannelPool(connector, "sftp://test:22", "/depot", MAX_SIZE, MAX_SIZE, 100, 0, 60_000);
+
+        pool.execute(channel -> null);
+        connector.opened.get(0).valid = false;
+        pool.execute(channel -> null);
+
+        assertEquals(2, connector.opened.size());
+        assertTrue(connector.opened.get(0).closed);
+        assertEquals(1, pool.idleCount());
+        assertEquals(MAX_SIZE, pool.availablePermits());
+    }
+
+    @Test
+    void closedPoolRejectsBorrowAndClosesReturnedConnections() throws IOException {
+        FakeConnector connector = new FakeConnector();
+        SftpChannelPool pool = pool(connector, 100, 60_000);
+
+        SftpChannelPool.Lease lease = pool.lease();
+        pool.close();
+        lease.close();
+
+        assertTrue(connector.opened.get(0).closed);
+        assertEquals(0, pool.idleCount());
+        assertEquals(MAX_SIZE, pool.availablePermits());
+        assertThrows(IOException.class, pool::lease);
+    }
+
+    @Test
+    void downloadsLeaveAReservedShareForShortOperations() throws IOException {
+        FakeConnector connector = new FakeConnector();
+        // Un seul bail de lecture en flux sur deux connexions
+        SftpChannelPool pool = new SftpChannelPool(connector, "sftp://test:22", "/depot", MAX_SIZE, 1, 100, 60_000, 60_000);
+
+        SftpChannelPool.Lease download = pool.lease();
+        IOException timeout = assertThrows(IOException.class, pool::lease);
+        assertTrue(timeout.getMessage().startsWith("Trop de téléchargements SFTP simultanés (1)"));
+        assertEquals(MAX_SIZE - 1, pool.availablePermits());
+
+        // Dépôts et opérations courtes passent par la connexion réservée
+        assertEquals("ok", pool.execute(channel -> "ok"));
+
+        // Un bail fermé deux fois ne rend qu'une place de téléchargement
+        download.close(false);
+        download.close();
+        SftpChannelPool.Lease next = pool.lease();
+        assertThrows(IOException.class, pool::lease);
+        next.close();
+        assertEquals(MAX_SIZE, pool.availablePermits());
+    }
+
+    @Test
+    void failedDownloadLeaseReleasesItsShare() throws IOException {
+        FakeConnector connector = new FakeConnector();
+        SftpChannelPool pool = new SftpChannelPool(connector, "sftp://test:22", "/depot", MAX_SIZE, 1, 100, 60_000, 60_000);
+
+        connector.failure = new JSchException("refusée");
+        assertThrows(IOException.class, pool::lease);
+        assertEquals(MAX_SIZE, pool.availablePermits());
+
+        connector.failure = null;
+        try (SftpChannelPool.Lease lease = pool.lease()) {
+            assertEquals(MAX_SIZE - 1, pool.availablePermits());
+        }
+        assertEquals(MAX_SIZE, pool.availablePermits());
+    }
+
+    @Test
+    void rejectsDownloadShareLargerThanThePool() {
+        FakeConnector connector = new FakeConnector();
+        assertThrows(IllegalArgumentException.class,
+                () -> new SftpChannelPool(connector, "sftp://test:22", "/depot", MAX_SIZE, MAX_SIZE + 1, 100, 60_000, 60_000));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SftpChannelPool(connector, "sftp://test:22", "/depot", MAX_SIZE, 0, 100, 60_000, 60_000));
+    }
+
+    // ====================================================================
+    // 🔧 MÉTHODES UTILITAIRES
+    // ====================================================================
+
+    private static SftpChannelPool pool(FakeConnector connector, long borrowTimeoutMs, long maxIdleMs) {
+        return new SftpChannelPool(connector, "sftp://test:22", "/depot", MAX_SIZE, MAX_SIZE, borrowTimeoutMs, 60_000, maxIdleMs);
+    }
+
+    // Connexion simulée : pas de canal JSch, état ouvert / valide piloté par le test
+    private static final class FakeConnection implements SftpChannelPool.Connection {
+        volatile boolean open = true;
+        volatile boolean valid = true;
+        volatile boolean closed;
+
+        @Override
+        public ChannelSftp channel() {
+            return null;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open && !closed;
+        }
+
+        @Override
+        public boolean validate() {
+            return valid;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private static final class FakeConnector implements SftpChannelPool.Connector {
+        final List<FakeConnection> opened = new ArrayList<>();
+        Exception failure;
+
+        @Override
+        public synchronized SftpChannelPool.Connection open() throws JSchException {
+            if (failure instanceof JSchException jschException) {
+                throw jschException;
+            }
+            if (failure instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            FakeConnection connection = new FakeConnection();
+            opened.add(connection);
+            return connection;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.rml.back_office_rml.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Arbre d'intervalles de SlotConflictIndex : suppressions dans chaque configuration de nœud,
+ * fin maximale maintenue par les rotations, bornes [début, fin[ et exclusion du créneau modifié.
+ */
+class TimeIntervalTreeTest {
+
+    @Test
+    void maxEndFollowsRotations() {
+        TimeIntervalTree tree = new TimeIntervalTree();
+        // Un long intervalle inséré en premier, puis des intervalles courts croissants : il descend à gauche par rotations
+        tree.insert(time(8, 0), time(18, 0), 1);
+        for (int i = 0; i < 15; i++) {
+            tree.insert(time(8, 30).plusMinutes(30L * i), time(8, 45).plusMinutes(30L * i), i + 2);
+            tree.checkInvariants();
+        }
+
+        // 17:40 n'est couvert que par le long intervalle : la recherche doit l'atteindre via maxEnd
+        assertTrue(tree.overlaps(time(17, 40), time(17, 50), null));
+        assertFalse(tree.overlaps(time(17, 40), time(17, 50), 1L));
+        assertFalse(tree.overlaps(time(18, 0), time(19, 0), null));
+    }
+
+    @Test
+    void removesLeafOneChildAndTwoChildNodes() {
+        TimeIntervalTree tree = new TimeIntervalTree();
+        //        10:00 (1)
+        //       /         \
+        //   09:00 (2)   11:00 (3)
+        //     /
+        //  08:00 (4)
+        tree.insert(time(10, 0), time(10, 30), 1);
+        tree.insert(time(9, 0), time(9, 30), 2);
+        tree.insert(time(11, 0), time(11, 30), 3);
+        tree.insert(time(8, 0), time(8, 30), 4);
+        tree.checkInvariants();
+
+        // Feuille
+        assertTrue(tree.remove(time(11, 0), 3));
+        tree.checkInvariants();
+        assertFalse(tree.overlaps(time(11, 0), time(11, 30), null));
+        assertEquals(3, tree.size());
+
+        // Un seul enfant (09:00 n'a plus que 08:00 à gauche après rééquilibrage éventuel)
+        tree.insert(time(11, 0), time(11, 30), 3);
+        assertTrue(tree.remove(time(9, 0), 2));
+        tree.checkInvariants();
+        assertFalse(tree.overlaps(time(9, 0), time(9, 30), null));
+        assertTrue(tree.overlaps(time(8, 0), time(8, 30), null));
+
+        // Deux enfants : la racine est remplacée par son successeur
+        assertTrue(tree.remove(time(10, 0), 1));
+        tree.checkInvariants();
+        assertFalse(tree.overlaps(time(10, 0), time(10, 30), null));
+        assertTrue(tree.overlaps(time(8, 0), time(8, 30), null));
+        assertTrue(tree.overlaps(time(11, 0), time(11, 30), null));
+        assertEquals(2, tree.size());
+
+        // Intervalle absent ou mauvaise clé : rien n'est retiré
+        assertFalse(tree.remove(time(10, 0), 1));
+        assertFalse(tree.remove(time(8, 0), 3));
+        assertEquals(2, tree.size());
+    }
+
+    @Test
+    void touchingIntervalsDoNotOverlap() {
+        TimeIntervalTree tree = new TimeIntervalTree();
+        tree.insert(time(9, 0), time(10, 0), 1);
+
+        assertFalse(tree.overlaps(time(10, 0), time(11, 0), null));
+        assertFalse(tree.overlaps(time(8, 0), time(9, 0), null));
+        assertTrue(tree.overlaps(time(9, 59), time(10, 1), null));
+        assertTrue(tree.overlaps(time(8, 0), time(9, 1), null));
+        assertTrue(tree.overlaps(time(9, 15), time(9, 45), null));
+    }
+
+    @Test
+    void excludedIdHidesOnlyItsOwnInterval() {
+        TimeIntervalTree tree = new TimeIntervalTree();
+        tree.insert(time(9, 0), time(10, 0), 1);
+        tree.insert(time(9, 0), time(10, 0), 2);
+
+        assertTrue(tree.overlaps(time(9, 0), time(10, 0), 1L));
+        assertTrue(tree.overlaps(time(9, 0), time(10, 0), 2L));
+
+        tree.remove(time(9, 0), 2);
+        assertFalse(tree.overlaps(time(9, 0), time(10, 0), 1L));
+        assertTrue(tree.overlaps(time(9, 0), time(10, 0), 3L));
+        assertTrue(tree.overlaps(time(9, 0), time(10, 0), null));
+    }
+
+    @Test
+    void matchesBruteForceOnRandomOperations() {
+        Random random = new Random(42);
+        TimeIntervalTree tree = new TimeIntervalTree();
+        List<long[]> intervals = new ArrayList<>(); // {début en minutes, fin en minutes, id}
+        long nextId = 1;
+
+        for (int step = 0; step < 3000; step++) {
+            if (intervals.isEmpty() || random.nextInt(3) > 0) {
+                int start = random.nextInt(24 * 60 - 1);
+                int end = start + 1 + random.nextInt(Math.min(180, 24 * 60 - 1 - start) + 1);
+                end = Math.min(end, 24 * 60 - 1);
+                tree.insert(minutes(start), minutes(end), nextId);
+                intervals.add(new long[]{start, end, nextId++});
+            } else {
+                long[] removed = intervals.remove(random.nextInt(intervals.size()));
+                assertTrue(tree.remove(minutes((int) removed[0]), removed[2]));
+            }
+            tree.checkInvariants();
+
+            int start = random.nextInt(24 * 60 - 1);
+            int end = Math.min(24 * 60 - 1, start + 1 + random.nextInt(120));
+            Long excluded = intervals.isEmpty() || random.nextBoolean()
+                    ? null : intervals.get(random.nextInt(intervals.size()))[2];
+            boolean expected = intervals.stream().anyMatch(interval -> interval[0] < end && interval[1] > start
+                    && (excluded == null || interval[2] != excluded));
+            assertEquals(expected, tree.overlaps(minutes(start), minutes(end), excluded), "étape " + step);
+        }
+        assertEquals(intervals.size(), tree.size());
+    }
+
+    private static LocalTime time(int hour, int minute) {
+        return LocalTime.of(hour, minute);
+    }
+
+    private static LocalTime minutes(int minutes) {
+        return LocalTime.MIDNIGHT.plusMinutes(minutes);
+    }
+}